@@ -19,6 +19,9 @@ package io.cdap.cdap.api.data.schema;
 import io.cdap.cdap.internal.io.SchemaTypeAdapter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 /**
  * Class that provides a JVM-singleton schema cache. There are two ways to use it:
@@ -35,6 +38,9 @@ import java.io.IOException;
  * </ul>
  */
 public class SchemaCache {
+  // prefix for keys computed from schema JSON, so that they never collide with schema hash keys
+  private static final String JSON_KEY_PREFIX = "json:";
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
   private static final LRUCache<String, Schema> SCHEMA_CACHE = new LRUCache<>(100);
   private static final SchemaTypeAdapter SCHEMA_TYPE_ADAPTER = new SchemaTypeAdapter();
 
@@ -43,12 +49,35 @@ public class SchemaCache {
   }
 
   public static final Schema fromJson(String schemaHashStr, String json) {
-    return SCHEMA_CACHE.computeIfAbsent(schemaHashStr, () -> {
-      try {
-        return SCHEMA_TYPE_ADAPTER.fromJson(json);
-      } catch (IOException e) {
-        throw new IllegalArgumentException("Can't parse schema", e);
-      }
-    });
+    return SCHEMA_CACHE.computeIfAbsent(schemaHashStr, () -> parse(json));
+  }
+
+  public static final Schema parseJson(String json) {
+    return SCHEMA_CACHE.computeIfAbsent(JSON_KEY_PREFIX + md5Hex(json), () -> parse(json));
+  }
+
+  private static Schema parse(String json) {
+    try {
+      return SCHEMA_TYPE_ADAPTER.fromJson(json);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Can't parse schema", e);
+    }
+  }
+
+  private static String md5Hex(String str) {
+    MessageDigest md5;
+    try {
+      md5 = MessageDigest.getInstance("MD5");
+    } catch (NoSuchAlgorithmException e) {
+      // Shouldn't happen
+      throw new RuntimeException(e);
+    }
+    byte[] digest = md5.digest(str.getBytes(StandardCharsets.UTF_8));
+    char[] hex = new char[digest.length * 2];
+    for (int i = 0; i < digest.length; i++) {
+      hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+      hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xf];
+    }
+    return new String(hex);
   }
 }
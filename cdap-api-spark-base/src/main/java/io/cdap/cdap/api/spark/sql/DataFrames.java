@@ -19,6 +19,7 @@ package io.cdap.cdap.api.spark.sql;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.data.schema.SchemaHash;
 import org.apache.spark.sql.Row;
 import org.apache.spark.sql.RowFactory;
 import org.apache.spark.sql.types.ArrayType;
@@ -40,6 +41,8 @@ import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import javax.annotation.Nullable;
 
 /**
@@ -47,6 +50,15 @@ import javax.annotation.Nullable;
  */
 public final class DataFrames {
 
+  // Maximum number of schemas to keep the conversion results for in each of the caches below
+  private static final int MAX_CACHED_SCHEMAS = 1000;
+
+  // Data types converted from schemas with the default union selector, by schema hash
+  private static final Map<SchemaHash, DataType> DATA_TYPES = new ConcurrentHashMap<>();
+
+  // Plans for converting Row to StructuredRecord, by schema hash of the record
+  private static final Map<SchemaHash, RecordPlan> RECORD_PLANS = new ConcurrentHashMap<>();
+
   // A default union selector that will return the non-nullable part of it if the schema is nullable.
   // Otherwise exception will be thrown.
   private static final Function1<Schema, DataType> DEFAULT_UNION_SELECTOR = new AbstractFunction1<Schema, DataType>() {
@@ -65,8 +77,9 @@ public final class DataFrames {
    * @param schema the schema to convert
    * @return The corresponding {@link DataType}
    */
+  @SuppressWarnings("unchecked")
   public static <T extends DataType> T toDataType(Schema schema) {
-    return toDataType(schema, DEFAULT_UNION_SELECTOR);
+    return (T) getCached(DATA_TYPES, schema, s -> schemaToDataType(s, DEFAULT_UNION_SELECTOR));
   }
 
   /**
@@ -344,11 +357,14 @@ public final class DataFrames {
       Object[] fieldValues = new Object[fields.length];
       for (int i = 0; i < fields.length; i++) {
         String fieldName = fields[i].name();
-        String fieldPath = path + "/" + fieldName;
-        Object fieldValue = toRowValue(record.get(fieldName), fields[i].dataType(), fieldPath);
+        DataType fieldType = fields[i].dataType();
+        // The path is only used in error messages. Avoid building it for every field of every record
+        // unless the field is a nested type, which needs it to report errors in its own elements.
+        Object fieldValue = toRowValue(record.get(fieldName), fieldType,
+                                       isNestedType(fieldType) ? path + "/" + fieldName : path);
 
         if (fieldValue == null && !fields[i].nullable()) {
-          throw new IllegalArgumentException("Null value is not allowed for row field at " + fieldPath);
+          throw new IllegalArgumentException("Null value is not allowed for row field at " + path + "/" + fieldName);
         }
         fieldValues[i] = fieldValue;
       }
@@ -429,29 +445,28 @@ public final class DataFrames {
       case RECORD: {
         // Value must be a Row
         Row row = (Row) value;
+        RecordPlan plan = getCached(RECORD_PLANS, schema, RecordPlan::new);
         StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-        int idx = 0;
-        for (Schema.Field field : schema.getFields()) {
-          String fieldPath = path + "/" + field.getName();
-          Schema fieldSchema = field.getSchema();
-
-          if (row.isNullAt(idx) && !fieldSchema.isNullable()) {
-            throw new NullPointerException("Null value is not allowed in record field at " + fieldPath);
-          }
-
-          fieldSchema = getNonNullIfNullable(fieldSchema);
+        for (int idx = 0; idx < plan.fieldNames.length; idx++) {
+          String fieldName = plan.fieldNames[idx];
 
-          // If the value is null for the field, just continue without setting anything to the StructuredRecord
           if (row.isNullAt(idx)) {
-            idx++;
+            if (!plan.nullable[idx]) {
+              throw new NullPointerException("Null value is not allowed in record field at " + path + "/" + fieldName);
+            }
+            // If the value is null for the field, just continue without setting anything to the StructuredRecord
             continue;
           }
 
+          Schema fieldSchema = plan.fieldSchemas[idx];
+          // The path is only used in error messages, hence only build it for nested types
+          String fieldPath = plan.nested[idx] ? path + "/" + fieldName : path;
+
           // Special case handling for ARRAY and MAP in order to get the Java type
           if (fieldSchema.getType() == Schema.Type.ARRAY) {
-            builder.set(field.getName(), fromRowValue(row.getList(idx), fieldSchema, fieldPath));
+            builder.set(fieldName, fromRowValue(row.getList(idx), fieldSchema, fieldPath));
           } else if (fieldSchema.getType() == Schema.Type.MAP) {
-            builder.set(field.getName(), fromRowValue(row.getJavaMap(idx), fieldSchema, fieldPath));
+            builder.set(fieldName, fromRowValue(row.getJavaMap(idx), fieldSchema, fieldPath));
           } else {
             Object fieldValue = row.get(idx);
 
@@ -461,10 +476,8 @@ public final class DataFrames {
             } else if (fieldValue instanceof Timestamp) {
               fieldValue = ((Timestamp) fieldValue).getTime();
             }
-            builder.set(field.getName(), fromRowValue(fieldValue, fieldSchema, fieldPath));
+            builder.set(fieldName, fromRowValue(fieldValue, fieldSchema, fieldPath));
           }
-
-          idx++;
         }
         return builder.build();
       }
@@ -473,6 +486,40 @@ public final class DataFrames {
     throw new IllegalArgumentException("Unsupported schema: " + schema);
   }
 
+  /**
+   * Returns the value cached for the hash of the given {@link Schema}, computing it with the given loader if it
+   * is not in the cache. The cache is cleared when it is full, as it is only expected to be filled with the
+   * few schemas that a program uses.
+   */
+  private static <V> V getCached(Map<SchemaHash, V> cache, Schema schema, Function<Schema, V> loader) {
+    SchemaHash schemaHash = schema.getSchemaHash();
+    V value = cache.get(schemaHash);
+    if (value == null) {
+      value = loader.apply(schema);
+      if (cache.size() >= MAX_CACHED_SCHEMAS) {
+        cache.clear();
+      }
+      cache.put(schemaHash, value);
+    }
+    return value;
+  }
+
+  /**
+   * Returns {@code true} if values of the given {@link DataType} contain other values.
+   */
+  private static boolean isNestedType(DataType dataType) {
+    return dataType instanceof ArrayType || dataType instanceof MapType || dataType instanceof StructType;
+  }
+
+  /**
+   * Returns {@code true} if values of the given non-nullable {@link Schema} contain other values.
+   */
+  private static boolean isNestedType(Schema schema) {
+    Schema.Type type = schema.getType();
+    return type == Schema.Type.ARRAY || type == Schema.Type.MAP || type == Schema.Type.RECORD
+      || type == Schema.Type.UNION;
+  }
+
   /**
    * Returns the non-nullable part of the given {@link Schema} if it is nullable; otherwise return it as is.
    */
@@ -482,4 +529,32 @@ public final class DataFrames {
 
   private DataFrames() {
   }
+
+  /**
+   * Per record schema information for converting {@link Row} to {@link StructuredRecord}, so that it is not
+   * derived from the schema for every row.
+   */
+  private static final class RecordPlan {
+    private final String[] fieldNames;
+    // Non-nullable part of the field schemas
+    private final Schema[] fieldSchemas;
+    private final boolean[] nullable;
+    private final boolean[] nested;
+
+    RecordPlan(Schema schema) {
+      List<Schema.Field> fields = schema.getFields();
+      int size = fields.size();
+      this.fieldNames = new String[size];
+      this.fieldSchemas = new Schema[size];
+      this.nullable = new boolean[size];
+      this.nested = new boolean[size];
+      for (int i = 0; i < size; i++) {
+        Schema.Field field = fields.get(i);
+        fieldNames[i] = field.getName();
+        fieldSchemas[i] = getNonNullIfNullable(field.getSchema());
+        nullable[i] = field.getSchema().isNullable();
+        nested[i] = isNestedType(fieldSchemas[i]);
+      }
+    }
+  }
 }
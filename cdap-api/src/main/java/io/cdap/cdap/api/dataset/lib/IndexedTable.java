@@ -38,8 +38,10 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -94,7 +96,20 @@ import javax.annotation.Nullable;
  * as it would break parsing of the configuration property.
  * </p>
  *
+ * <p>An index can also be defined over multiple columns, by listing the columns joined with the plus sign in the
+ * {@link #INDEX_COMPOSITE_CONF_KEY} property, e.g. "col1+col2,col3+col4+col5". A composite index supports exact
+ * lookups on all of its columns, or on any leading subset of them, through {@link #readByIndex(byte[][], byte[][])}.
+ * A row is only added to a composite index if it has values for all columns of that index.
+ * </p>
+ *
+ * <p>Columns listed in the {@link #INDEX_COVERED_COLUMNS_CONF_KEY} property are stored in every index row, in
+ * addition to the reference to the data row. An index lookup that only asks for indexed and covered columns is served
+ * from the index table alone, without reading the data table.
+ * </p>
+ *
  * @see #INDEX_COLUMNS_CONF_KEY
+ * @see #INDEX_COMPOSITE_CONF_KEY
+ * @see #INDEX_COVERED_COLUMNS_CONF_KEY
  */
 public class IndexedTable extends AbstractDataset implements Table {
 
@@ -111,6 +126,25 @@ public class IndexedTable extends AbstractDataset implements Table {
    */
   public static final String INDEX_COLUMNS_CONF_KEY = "columnsToIndex";
 
+  /**
+   * Configuration key for defining indexes over multiple columns in the DatasetSpecification properties.
+   * The columns of each index are joined with the plus sign, and multiple indexes are listed as a comma-separated
+   * string, e.g. "column1+column2,column1+column3+column4".
+   */
+  public static final String INDEX_COMPOSITE_CONF_KEY = "compositeIndexes";
+
+  /**
+   * Configuration key for defining column names whose values are stored in the index rows, so that index lookups
+   * reading only those columns don't need to read the data table.
+   * Multiple column names should be listed as a comma-separated string, e.g. "column1,column2,etc".
+   */
+  public static final String INDEX_COVERED_COLUMNS_CONF_KEY = "coveredColumns";
+
+  /**
+   * Separator between the column names of a composite index.
+   */
+  public static final String COMPOSITE_COLUMN_SEPARATOR = "+";
+
   /**
    * Configuration that specifies that the index columns will be specified at runtime, rather than at configure time.
    * Using this property, a single index table can shared across multiple logical tables.
@@ -127,6 +161,10 @@ public class IndexedTable extends AbstractDataset implements Table {
    * Column key used to store the existence of a row in the secondary index.
    */
   private static final byte[] IDX_COL = {'r'};
+  /**
+   * Prefix of the column keys used to store the values of covered columns in the secondary index.
+   */
+  private static final byte[] COVERED_COL_PREFIX = {'c'};
   private static final byte DELIMITER_BYTE = 0;
   private static final byte[] KEY_DELIMITER = new byte[] { DELIMITER_BYTE };
 
@@ -136,6 +174,14 @@ public class IndexedTable extends AbstractDataset implements Table {
   // the secondary index column
   private SortedSet<byte[]> indexedColumns;
   private final byte[] keyPrefix;
+  // columns whose values are stored in the index rows
+  private final SortedSet<byte[]> coveredColumns;
+  // indexes over multiple columns
+  private final List<CompositeIndex> compositeIndexes;
+  // all columns whose values affect the index table
+  private final SortedSet<byte[]> indexRelevantColumns;
+  // the columns of an index row
+  private final byte[][] indexRowColumns;
 
   /**
    * Configuration time constructor.
@@ -146,12 +192,7 @@ public class IndexedTable extends AbstractDataset implements Table {
    * @param columnsToIndex the names of the data columns to index
    */
   public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex) {
-    super(name, table, index);
-    this.table = table;
-    this.index = index;
-    this.indexedColumns = columnsToIndex;
-    this.hasColumnWithDelimiter = hasDelimiterByte(columnsToIndex);
-    this.keyPrefix = Bytes.EMPTY_BYTE_ARRAY;
+    this(name, table, index, columnsToIndex, Bytes.EMPTY_BYTE_ARRAY);
   }
 
   /**
@@ -164,12 +205,54 @@ public class IndexedTable extends AbstractDataset implements Table {
    * @param keyPrefix the dynamic indexing prefix. See {@link IndexedTable#DYNAMIC_INDEXING_PREFIX}
    */
   public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex, byte[] keyPrefix) {
+    this(name, table, index, columnsToIndex, keyPrefix,
+         new TreeSet<>(Bytes.BYTES_COMPARATOR), Collections.<byte[][]>emptyList());
+  }
+
+  /**
+   * Configuration time constructor.
+   *
+   * @param name the name of the table
+   * @param table table to use as the table
+   * @param index table to use as the index
+   * @param columnsToIndex the names of the data columns to index
+   * @param keyPrefix the dynamic indexing prefix. See {@link IndexedTable#DYNAMIC_INDEXING_PREFIX}
+   * @param coveredColumns the names of the data columns to store in the index rows.
+   *                       See {@link IndexedTable#INDEX_COVERED_COLUMNS_CONF_KEY}
+   * @param compositeIndexes the names of the data columns of each composite index.
+   *                         See {@link IndexedTable#INDEX_COMPOSITE_CONF_KEY}
+   */
+  public IndexedTable(String name, Table table, Table index, SortedSet<byte[]> columnsToIndex, byte[] keyPrefix,
+                      SortedSet<byte[]> coveredColumns, List<byte[][]> compositeIndexes) {
     super(name, table, index);
     this.table = table;
     this.index = index;
     this.indexedColumns = columnsToIndex;
-    this.hasColumnWithDelimiter = hasDelimiterByte(columnsToIndex);
     this.keyPrefix = keyPrefix;
+    this.coveredColumns = coveredColumns;
+    this.compositeIndexes = new ArrayList<>();
+    this.indexRelevantColumns = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    this.indexRelevantColumns.addAll(columnsToIndex);
+    this.indexRelevantColumns.addAll(coveredColumns);
+
+    Set<byte[]> compositeNames = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    for (byte[][] columns : compositeIndexes) {
+      CompositeIndex compositeIndex = new CompositeIndex(columns);
+      if (indexedColumns.contains(compositeIndex.name) || !compositeNames.add(compositeIndex.name)) {
+        throw new IllegalArgumentException("Composite index " + Bytes.toStringBinary(compositeIndex.name)
+                                             + " conflicts with another index");
+      }
+      this.compositeIndexes.add(compositeIndex);
+      this.indexRelevantColumns.addAll(Arrays.asList(columns));
+    }
+    this.hasColumnWithDelimiter = hasDelimiterByte(columnsToIndex) || hasDelimiterByte(compositeNames);
+
+    this.indexRowColumns = new byte[coveredColumns.size() + 1][];
+    int i = 0;
+    this.indexRowColumns[i++] = IDX_COL;
+    for (byte[] column : coveredColumns) {
+      this.indexRowColumns[i++] = Bytes.concat(COVERED_COL_PREFIX, column);
+    }
   }
 
   /**
@@ -250,11 +333,28 @@ public class IndexedTable extends AbstractDataset implements Table {
    */
   @ReadOnly
   public Scanner readByIndex(byte[] column, byte[] value) {
+    return readByIndex(column, value, null);
+  }
+
+  /**
+   * Reads the given columns of the table rows by the given secondary index key. If all the requested columns are
+   * either the indexed column or covered columns, the rows are read from the index table only. If no rows are indexed
+   * by the given key, then a {@link io.cdap.cdap.api.dataset.table.Scanner} with no results will be returned.
+   *
+   * @param column the column to use for the index lookup
+   * @param value the value to look up
+   * @param columns the columns to return for each row; {@code null} means all columns
+   * @return a Scanner returning rows from the data table, whose stored value for the given column matches the
+   * given value.
+   * @throws java.lang.IllegalArgumentException if the given column is not configured for indexing.
+   */
+  @ReadOnly
+  public Scanner readByIndex(byte[] column, byte[] value, @Nullable byte[][] columns) {
     assertIndexedColumn(column);
     byte[] rowKeyPrefix = Bytes.concat(keyPrefix, column, KEY_DELIMITER, value, KEY_DELIMITER);
     byte[] stopRow = Bytes.stopKeyForPrefix(rowKeyPrefix);
     Scanner indexScan = index.scan(rowKeyPrefix, stopRow);
-    return new IndexScanner(indexScan, column, value);
+    return new IndexScanner(indexScan, column, value, columns);
   }
 
   /**
@@ -272,6 +372,26 @@ public class IndexedTable extends AbstractDataset implements Table {
    */
   @ReadOnly
   public Scanner scanByIndex(byte[] column, @Nullable byte[] startValue, @Nullable byte[] endValue) {
+    return scanByIndex(column, startValue, endValue, null);
+  }
+
+  /**
+   * Reads the given columns of the table rows within the given secondary index key range. If all the requested
+   * columns are either the indexed column or covered columns, the rows are read from the index table only.
+   *
+   * @param column the column to use for the index lookup
+   * @param startValue the inclusive start of the range for which rows must fall within to be returned in the scan.
+   *                   {@code null} means start from first row of the table
+   * @param endValue the exclusive end of the range for which rows must fall within to be returned in the scan
+   *                 {@code null} means end with the last row of the table
+   * @param columns the columns to return for each row; {@code null} means all columns
+   * @return a Scanner returning rows from the data table, whose stored value for the given column is within the the
+   *         given range.
+   * @throws java.lang.IllegalArgumentException if the given column is not configured for indexing.
+   */
+  @ReadOnly
+  public Scanner scanByIndex(byte[] column, @Nullable byte[] startValue, @Nullable byte[] endValue,
+                             @Nullable byte[][] columns) {
     assertIndexedColumn(column);
     // KEY_DELIMITER is not used at the end of the rowKeys, because they are used for a range scan,
     // instead of a fixed-match lookup
@@ -280,7 +400,44 @@ public class IndexedTable extends AbstractDataset implements Table {
     byte[] stopRow = endValue == null ? Bytes.stopKeyForPrefix(Bytes.concat(keyPrefix, column, KEY_DELIMITER)) :
       Bytes.concat(keyPrefix, column, KEY_DELIMITER, endValue);
     Scanner indexScan = index.scan(startRow, stopRow);
-    return new IndexRangeScanner(indexScan, column, startValue, endValue);
+    return new IndexRangeScanner(indexScan, column, startValue, endValue, columns);
+  }
+
+  /**
+   * Reads table rows by the given values of a composite index. The given columns must be either all the columns
+   * of a composite index, or a leading subset of them, in the same order as in the index definition.
+   *
+   * @param indexColumns the columns to use for the index lookup
+   * @param values the values to look up, one for each of the given columns
+   * @return a Scanner returning rows from the data table, whose stored values for the given columns match the
+   *         given values.
+   * @throws java.lang.IllegalArgumentException if no composite index starts with the given columns.
+   */
+  @ReadOnly
+  public Scanner readByIndex(byte[][] indexColumns, byte[][] values) {
+    return readByIndex(indexColumns, values, null);
+  }
+
+  /**
+   * Reads the given columns of the table rows by the given values of a composite index. If all the requested
+   * columns are either columns of the composite index or covered columns, the rows are read from the index table only.
+   *
+   * @param indexColumns the columns to use for the index lookup
+   * @param values the values to look up, one for each of the given columns
+   * @param columns the columns to return for each row; {@code null} means all columns
+   * @return a Scanner returning rows from the data table, whose stored values for the given columns match the
+   *         given values.
+   * @throws java.lang.IllegalArgumentException if no composite index starts with the given columns.
+   */
+  @ReadOnly
+  public Scanner readByIndex(byte[][] indexColumns, byte[][] values, @Nullable byte[][] columns) {
+    if (indexColumns.length != values.length) {
+      throw new IllegalArgumentException("Size of index columns and values arguments must match");
+    }
+    CompositeIndex compositeIndex = findCompositeIndex(indexColumns);
+    byte[] rowKeyPrefix = compositeIndex.createKeyPrefix(values);
+    Scanner indexScan = index.scan(rowKeyPrefix, Bytes.stopKeyForPrefix(rowKeyPrefix));
+    return new CompositeIndexScanner(indexScan, compositeIndex, values, columns);
   }
 
   private void assertIndexedColumn(byte[] column) {
@@ -289,6 +446,19 @@ public class IndexedTable extends AbstractDataset implements Table {
     }
   }
 
+  private CompositeIndex findCompositeIndex(byte[][] columns) {
+    for (CompositeIndex compositeIndex : compositeIndexes) {
+      if (compositeIndex.startsWith(columns)) {
+        return compositeIndex;
+      }
+    }
+    StringBuilder names = new StringBuilder();
+    for (byte[] column : columns) {
+      names.append(names.length() == 0 ? "" : COMPOSITE_COLUMN_SEPARATOR).append(Bytes.toStringBinary(column));
+    }
+    throw new IllegalArgumentException("Columns " + names + " are not configured for composite indexing");
+  }
+
   /**
    * Writes a put to the data table. If any of the columns in the {@link Put} are configured to be indexed, the
    * appropriate indexes will be updated with the indexed values referencing the data table row.
@@ -301,31 +471,20 @@ public class IndexedTable extends AbstractDataset implements Table {
     // if different value exists, remove current index ref
     // add a new index ref unless same value already exists
     byte[] dataRow = put.getRow();
-    // find which values need to be indexed
     Map<byte[], byte[]> putColumns = put.getValues();
-    Set<byte[]> colsToIndex = new TreeSet<>(Bytes.BYTES_COMPARATOR);
-    for (Map.Entry<byte[], byte[]> putEntry : putColumns.entrySet()) {
-      if (indexedColumns.contains(putEntry.getKey())) {
-        colsToIndex.add(putEntry.getKey());
-      }
-    }
-
-    if (!colsToIndex.isEmpty()) {
-      // first read the existing indexed values to find which have changed and need to be updated
-      Row existingRow = table.get(dataRow, colsToIndex.toArray(new byte[colsToIndex.size()][]));
-      for (Map.Entry<byte[], byte[]> entry : existingRow.getColumns().entrySet()) {
-        if (!Arrays.equals(entry.getValue(), putColumns.get(entry.getKey()))) {
-          index.delete(createIndexKey(dataRow, entry.getKey(), entry.getValue()), IDX_COL);
-        } else {
-          // value already indexed
-          colsToIndex.remove(entry.getKey());
+    byte[][] columnsToRead = getColumnsToRead(putColumns.keySet());
+
+    if (columnsToRead.length > 0) {
+      // first read the existing values to find which index entries have changed and need to be updated
+      Map<byte[], byte[]> oldValues = table.get(dataRow, columnsToRead).getColumns();
+      NavigableMap<byte[], byte[]> newValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+      newValues.putAll(oldValues);
+      for (Map.Entry<byte[], byte[]> putEntry : putColumns.entrySet()) {
+        if (indexRelevantColumns.contains(putEntry.getKey())) {
+          newValues.put(putEntry.getKey(), putEntry.getValue());
         }
       }
-
-      // add new index entries for all values that have changed or did not exist
-      for (byte[] col : colsToIndex) {
-        index.put(createIndexKey(dataRow, col, putColumns.get(col)), IDX_COL, dataRow);
-      }
+      updateIndexes(dataRow, oldValues, newValues);
     }
 
     // store the data row
@@ -336,6 +495,94 @@ public class IndexedTable extends AbstractDataset implements Table {
     return Bytes.concat(keyPrefix, column, KEY_DELIMITER, value, KEY_DELIMITER, row);
   }
 
+  /**
+   * Returns the columns that need to be read from the data table before mutating the given columns, in order to
+   * update the index. Without composite indexes and covered columns, only the mutated indexed columns are needed.
+   * Otherwise, all columns that contribute to the index entries are read in a single get.
+   */
+  private byte[][] getColumnsToRead(Collection<byte[]> mutatedColumns) {
+    Set<byte[]> columns = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    for (byte[] column : mutatedColumns) {
+      if (indexRelevantColumns.contains(column)) {
+        columns.add(column);
+      }
+    }
+    if (columns.isEmpty()) {
+      return new byte[0][];
+    }
+    if (hasCoveringOrCompositeIndex()) {
+      columns.addAll(indexRelevantColumns);
+    }
+    return columns.toArray(new byte[columns.size()][]);
+  }
+
+  private boolean hasCoveringOrCompositeIndex() {
+    return !coveredColumns.isEmpty() || !compositeIndexes.isEmpty();
+  }
+
+  /**
+   * Updates all index entries of a data row, given the values of the index relevant columns before and after a
+   * mutation. Columns that are not in the given maps are treated as absent. Index entries whose key doesn't change
+   * are only rewritten if a covered value has changed.
+   */
+  private void updateIndexes(byte[] row, Map<byte[], byte[]> oldValues, Map<byte[], byte[]> newValues) {
+    for (byte[] column : indexedColumns) {
+      byte[] oldValue = oldValues.get(column);
+      byte[] newValue = newValues.get(column);
+      updateIndexEntry(row,
+                       oldValue == null ? null : createIndexKey(row, column, oldValue),
+                       newValue == null ? null : createIndexKey(row, column, newValue),
+                       oldValues, newValues);
+    }
+    for (CompositeIndex compositeIndex : compositeIndexes) {
+      updateIndexEntry(row,
+                       compositeIndex.createKey(row, oldValues),
+                       compositeIndex.createKey(row, newValues),
+                       oldValues, newValues);
+    }
+  }
+
+  private void updateIndexEntry(byte[] row, @Nullable byte[] oldKey, @Nullable byte[] newKey,
+                                Map<byte[], byte[]> oldValues, Map<byte[], byte[]> newValues) {
+    if (oldKey != null && Bytes.equals(oldKey, newKey)) {
+      // same index entry, only need to update the covered values that have changed
+      Put put = new Put(newKey);
+      List<byte[]> deletes = new ArrayList<>();
+      for (byte[] column : coveredColumns) {
+        byte[] oldValue = oldValues.get(column);
+        byte[] newValue = newValues.get(column);
+        if (!Arrays.equals(oldValue, newValue)) {
+          if (newValue == null) {
+            deletes.add(Bytes.concat(COVERED_COL_PREFIX, column));
+          } else {
+            put.add(Bytes.concat(COVERED_COL_PREFIX, column), newValue);
+          }
+        }
+      }
+      if (!put.getValues().isEmpty()) {
+        index.put(put);
+      }
+      if (!deletes.isEmpty()) {
+        index.delete(newKey, deletes.toArray(new byte[deletes.size()][]));
+      }
+      return;
+    }
+
+    if (oldKey != null) {
+      index.delete(oldKey, indexRowColumns);
+    }
+    if (newKey != null) {
+      Put put = new Put(newKey, IDX_COL, row);
+      for (byte[] column : coveredColumns) {
+        byte[] value = newValues.get(column);
+        if (value != null) {
+          put.add(Bytes.concat(COVERED_COL_PREFIX, column), value);
+        }
+      }
+      index.put(put);
+    }
+  }
+
   @WriteOnly
   @Override
   public void put(byte[] row, byte[] column, byte[] value) {
@@ -380,7 +627,7 @@ public class IndexedTable extends AbstractDataset implements Table {
     }
 
     // delete all index entries
-    deleteIndexEntries(existingRow);
+    updateIndexes(row, existingRow.getColumns(), Collections.<byte[], byte[]>emptyMap());
 
     // delete the row
     table.delete(row);
@@ -395,28 +642,22 @@ public class IndexedTable extends AbstractDataset implements Table {
   @WriteOnly
   @Override
   public void delete(byte[] row, byte[][] columns) {
-    Row existingRow = table.get(row, columns);
-    if (existingRow.isEmpty()) {
-      // no row to delete
-      return;
+    byte[][] columnsToRead = getColumnsToRead(Arrays.asList(columns));
+    if (columnsToRead.length > 0) {
+      Map<byte[], byte[]> oldValues = table.get(row, columnsToRead).getColumns();
+      NavigableMap<byte[], byte[]> newValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+      newValues.putAll(oldValues);
+      for (byte[] column : columns) {
+        newValues.remove(column);
+      }
+      // delete or update the affected index entries
+      updateIndexes(row, oldValues, newValues);
     }
 
-    // delete all index entries
-    deleteIndexEntries(existingRow);
-
     // delete the row's columns
     table.delete(row, columns);
   }
 
-  private void deleteIndexEntries(Row existingRow) {
-    byte[] row = existingRow.getRow();
-    for (Map.Entry<byte[], byte[]> entry : existingRow.getColumns().entrySet()) {
-      if (indexedColumns.contains(entry.getKey())) {
-        index.delete(createIndexKey(row, entry.getKey(), entry.getValue()), IDX_COL);
-      }
-    }
-  }
-
   /**
    * Perform a swap operation by primary key.
    * Parameters are as if they were on a non-indexed table.
@@ -431,11 +672,26 @@ public class IndexedTable extends AbstractDataset implements Table {
     // the index is not affected - just execute the swap.
     // also, if the swap is on the index column, but the old value
     // is the same as the new value, then the index is not affected either.
-    if (!indexedColumns.contains(column) ||
+    if (!indexRelevantColumns.contains(column) ||
         Arrays.equals(expected, newValue)) {
       return table.compareAndSwap(row, column, expected, newValue);
     }
 
+    if (hasCoveringOrCompositeIndex()) {
+      // the index entries depend on other columns as well, which need to be read before the swap
+      byte[][] columnsToRead = getColumnsToRead(Collections.singleton(column));
+      NavigableMap<byte[], byte[]> oldValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+      oldValues.putAll(table.get(row, columnsToRead).getColumns());
+      if (!table.compareAndSwap(row, column, expected, newValue)) {
+        return false;
+      }
+      NavigableMap<byte[], byte[]> newValues = new TreeMap<>(oldValues);
+      setOrRemove(oldValues, column, expected);
+      setOrRemove(newValues, column, newValue);
+      updateIndexes(row, oldValues, newValues);
+      return true;
+    }
+
     // the swap is on the index column. it will only succeed if the current
     // value matches the expected value of the swap. if that value is not null,
     // then we must remove the row key from the index for that value.
@@ -467,6 +723,14 @@ public class IndexedTable extends AbstractDataset implements Table {
     return true;
   }
 
+  private void setOrRemove(Map<byte[], byte[]> values, byte[] column, @Nullable byte[] value) {
+    if (value == null) {
+      values.remove(column);
+    } else {
+      values.put(column, value);
+    }
+  }
+
   /**
    * Increments (atomically) the specified row and column by the specified amount, and returns the new value.
    * Note that performing this operation on an indexed column will generally have a negative impact on performance,
@@ -497,9 +761,18 @@ public class IndexedTable extends AbstractDataset implements Table {
       throw new IllegalArgumentException("Size of columns and amounts arguments must match");
     }
 
-    Row existingRow = table.get(row, columns);
+    byte[][] columnsToRead = getColumnsToRead(Arrays.asList(columns));
+    Row existingRow = table.get(row, columnsToRead.length > 0 ? unionColumns(columns, columnsToRead) : columns);
     byte[][] updatedValues = new byte[columns.length][];
     NavigableMap<byte[], byte[]> result = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    NavigableMap<byte[], byte[]> oldValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    NavigableMap<byte[], byte[]> newValues = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+    for (Map.Entry<byte[], byte[]> entry : existingRow.getColumns().entrySet()) {
+      if (indexRelevantColumns.contains(entry.getKey())) {
+        oldValues.put(entry.getKey(), entry.getValue());
+        newValues.put(entry.getKey(), entry.getValue());
+      }
+    }
 
     for (int i = 0; i < columns.length; i++) {
       long existingValue = 0L;
@@ -511,21 +784,28 @@ public class IndexedTable extends AbstractDataset implements Table {
                                             " column: " + Bytes.toStringBinary(columns[i]));
         }
         existingValue = Bytes.toLong(existingBytes);
-        if (indexedColumns.contains(columns[i])) {
-          index.delete(createIndexKey(row, columns[i], existingBytes), IDX_COL);
-        }
       }
       updatedValues[i] = Bytes.toBytes(existingValue + amounts[i]);
       result.put(columns[i], updatedValues[i]);
-      if (indexedColumns.contains(columns[i])) {
-        index.put(createIndexKey(row, columns[i], updatedValues[i]), IDX_COL, row);
+      if (indexRelevantColumns.contains(columns[i])) {
+        newValues.put(columns[i], updatedValues[i]);
       }
     }
 
+    if (columnsToRead.length > 0) {
+      updateIndexes(row, oldValues, newValues);
+    }
     table.put(row, columns, updatedValues);
     return new Result(row, result);
   }
 
+  private byte[][] unionColumns(byte[][] columns, byte[][] otherColumns) {
+    Set<byte[]> union = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    union.addAll(Arrays.asList(columns));
+    union.addAll(Arrays.asList(otherColumns));
+    return union.toArray(new byte[union.size()][]);
+  }
+
   /**
    * Increments (atomically) the specified row and columns by the specified amounts, and returns the new values.
    * Note that performing this operation on an indexed column will generally have a negative impact on performance,
@@ -552,7 +832,8 @@ public class IndexedTable extends AbstractDataset implements Table {
 
   /**
    * Increments (atomically) the specified row and column by the specified amount, without returning the new value.
-   * Note that performing this operation on an indexed column throws {@link java.lang.IllegalArgumentException}.
+   * Note that performing this operation on an indexed or covered column throws
+   * {@link java.lang.IllegalArgumentException}.
    *
    * @see Table#increment(byte[], byte[], long)
    */
@@ -560,7 +841,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   @Override
   public void increment(byte[] row, byte[] column, long amount) {
     // read-less increments should not be used on indexed columns
-    if (indexedColumns.contains(column)) {
+    if (indexRelevantColumns.contains(column)) {
       throw new IllegalArgumentException("Read-less increment is not supported on indexed column '"
                                            + Bytes.toStringBinary(column) + "'");
     }
@@ -569,7 +850,8 @@ public class IndexedTable extends AbstractDataset implements Table {
 
   /**
    * Increments (atomically) the specified row and columns by the specified amounts, without returning the new values.
-   * Note that performing this operation on an indexed column throws {@link java.lang.IllegalArgumentException}.
+   * Note that performing this operation on an indexed or covered column throws
+   * {@link java.lang.IllegalArgumentException}.
    *
    * @see Table#increment(byte[], byte[][], long[])
    */
@@ -578,7 +860,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   public void increment(byte[] row, byte[][] columns, long[] amounts) {
     // read-less increments should not be used on indexed columns
     for (byte[] col : columns) {
-      if (indexedColumns.contains(col)) {
+      if (indexRelevantColumns.contains(col)) {
         throw new IllegalArgumentException("Read-less increment is not supported on indexed column '"
                                              + Bytes.toStringBinary(col) + "'");
       }
@@ -588,7 +870,8 @@ public class IndexedTable extends AbstractDataset implements Table {
 
   /**
    * Increments (atomically) the specified row and columns by the specified amounts, without returning the new values.
-   * Note that performing this operation on an indexed column throws {@link java.lang.IllegalArgumentException}.
+   * Note that performing this operation on an indexed or covered column throws
+   * {@link java.lang.IllegalArgumentException}.
    *
    * @see Table#increment(Increment)
    */
@@ -596,7 +879,7 @@ public class IndexedTable extends AbstractDataset implements Table {
   @Override
   public void increment(Increment increment) {
     for (byte[] col : increment.getValues().keySet()) {
-      if (indexedColumns.contains(col)) {
+      if (indexRelevantColumns.contains(col)) {
         throw new IllegalArgumentException("Read-less increment is not supported on indexed column '"
                                              + Bytes.toStringBinary(col) + "'");
       }
@@ -659,23 +942,127 @@ public class IndexedTable extends AbstractDataset implements Table {
     put(put);
   }
 
+  /**
+   * An index over multiple columns. The index row key is the key prefix, the index name, the length prefixed values
+   * of all the columns and the data row key. The length prefix keeps the values unambiguous, so that lookups on a
+   * leading subset of the columns are simple prefix scans.
+   */
+  private final class CompositeIndex {
+    private final byte[] name;
+    private final byte[][] columns;
+
+    CompositeIndex(byte[][] columns) {
+      if (columns.length < 2) {
+        throw new IllegalArgumentException("Composite index must have at least two columns");
+      }
+      StringBuilder name = new StringBuilder();
+      for (byte[] column : columns) {
+        name.append(name.length() == 0 ? "" : COMPOSITE_COLUMN_SEPARATOR).append(Bytes.toString(column));
+      }
+      this.name = Bytes.toBytes(name.toString());
+      this.columns = columns;
+    }
+
+    boolean startsWith(byte[][] prefixColumns) {
+      if (prefixColumns.length == 0 || prefixColumns.length > columns.length) {
+        return false;
+      }
+      for (int i = 0; i < prefixColumns.length; i++) {
+        if (!Bytes.equals(columns[i], prefixColumns[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    byte[] createKeyPrefix(byte[][] values) {
+      byte[][] parts = new byte[values.length * 2 + 3][];
+      int i = 0;
+      parts[i++] = keyPrefix;
+      parts[i++] = name;
+      parts[i++] = KEY_DELIMITER;
+      for (byte[] value : values) {
+        parts[i++] = Bytes.toBytes(value.length);
+        parts[i++] = value;
+      }
+      return Bytes.concat(parts);
+    }
+
+    /**
+     * Creates the index key for the given row, or returns {@code null} if the row doesn't have values for
+     * all the columns of this index.
+     */
+    @Nullable
+    byte[] createKey(byte[] row, Map<byte[], byte[]> rowValues) {
+      byte[][] values = new byte[columns.length][];
+      for (int i = 0; i < columns.length; i++) {
+        values[i] = rowValues.get(columns[i]);
+        if (values[i] == null) {
+          return null;
+        }
+      }
+      return Bytes.concat(createKeyPrefix(values), KEY_DELIMITER, row);
+    }
+
+    /**
+     * Decodes the column values from the given index key, or returns {@code null} if the key is not
+     * a valid key of this index.
+     */
+    @Nullable
+    byte[][] decodeValues(byte[] indexKey, byte[] rowKey) {
+      int offset = keyPrefix.length + name.length + 1;
+      int end = indexKey.length - rowKey.length - 1;
+      byte[][] values = new byte[columns.length][];
+      for (int i = 0; i < columns.length; i++) {
+        if (offset + Bytes.SIZEOF_INT > end) {
+          return null;
+        }
+        int length = Bytes.toInt(indexKey, offset);
+        offset += Bytes.SIZEOF_INT;
+        if (length < 0 || offset + length > end) {
+          return null;
+        }
+        values[i] = Arrays.copyOfRange(indexKey, offset, offset + length);
+        offset += length;
+      }
+      return offset == end ? values : null;
+    }
+  }
+
   private abstract class AbstractIndexScanner implements Scanner {
     // scanner over index table
     private final Scanner baseScanner;
-    private final byte[] column;
-
-    AbstractIndexScanner(Scanner baseScanner, byte[] column) {
+    // the columns whose values are encoded in the index key
+    private final byte[][] keyColumns;
+    // the columns to return, null for all columns
+    private final byte[][] projection;
+    // whether the rows can be served by the index table alone
+    private final boolean covered;
+
+    AbstractIndexScanner(Scanner baseScanner, byte[][] keyColumns, @Nullable byte[][] projection) {
       this.baseScanner = baseScanner;
-      this.column = column;
+      this.keyColumns = keyColumns;
+      this.projection = projection;
+      this.covered = projection != null && !hasColumnWithDelimiter && isCovered(keyColumns, projection);
     }
 
     /**
-     * checks if a particular column value matches a criteria defined by the implementing class
+     * Decodes the values of the key columns from the index row key.
+     *
+     * @param indexKey the row key of the index row
+     * @param rowKey the data row key referenced by the index row
+     * @return the values of the key columns, in the same order, or {@code null} if the key cannot be decoded
+     */
+    @Nullable
+    protected abstract byte[][] decode(byte[] indexKey, byte[] rowKey);
+
+    /**
+     * checks if particular column values match a criteria defined by the implementing class
      *
-     * @param columnValue the column to check for a match
+     * @param columnValues the values of the key columns to check for a match
      * @return false to indicate to skip the corresponding row
      */
-    protected abstract boolean matches(byte[] columnValue);
+    protected abstract boolean matches(byte[][] columnValues);
 
     @Nullable
     @Override
@@ -688,21 +1075,23 @@ public class IndexedTable extends AbstractDataset implements Table {
           LOG.warn("Row of Indexed table '{}' is missing index column. Row key: {}", getName(), indexRow.getRow());
           continue;
         }
-        byte[] columnValue = Arrays.copyOfRange(indexRow.getRow(),
-                                                keyPrefix.length + column.length + 1,
-                                                indexRow.getRow().length - rowkey.length - 1);
+        byte[][] columnValues = decode(indexRow.getRow(), rowkey);
         // Verify that datarow matches the expected row key to avoid issues with column name or value
         // containing the delimiter used. This is a sufficient check, as long as columns don't contain the null byte.
-        if (matches(columnValue)) {
-          Row row = table.get(rowkey);
-          // If a column has null byte (the key delimiter) in it, then we need to check against the data row's column
-          // to be sure this row isn't a false positive in the scan.
-          // For reference, take a look at IndexedTableTest#testIndexKeyDelimiterAmbiguity
-          if (hasColumnWithDelimiter && !Bytes.equals(row.get(column), columnValue)) {
-            continue;
-          }
-          return row;
+        if (columnValues == null || !matches(columnValues)) {
+          continue;
+        }
+        if (covered) {
+          return createCoveredRow(indexRow, rowkey, columnValues);
+        }
+        Row row = readDataRow(rowkey);
+        // If a column has null byte (the key delimiter) in it, then we need to check against the data row's column
+        // to be sure this row isn't a false positive in the scan.
+        // For reference, take a look at IndexedTableTest#testIndexKeyDelimiterAmbiguity
+        if (hasColumnWithDelimiter && !dataRowMatches(row, columnValues)) {
+          continue;
         }
+        return projectDataRow(row);
       }
       // end of index
       return null;
@@ -712,38 +1101,139 @@ public class IndexedTable extends AbstractDataset implements Table {
     public void close() {
       baseScanner.close();
     }
+
+    private Row createCoveredRow(Row indexRow, byte[] rowkey, byte[][] columnValues) {
+      NavigableMap<byte[], byte[]> columns = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+      for (byte[] column : projection) {
+        byte[] value = coveredColumns.contains(column) ? indexRow.get(Bytes.concat(COVERED_COL_PREFIX, column)) : null;
+        for (int i = 0; value == null && i < keyColumns.length; i++) {
+          if (Bytes.equals(keyColumns[i], column)) {
+            value = columnValues[i];
+          }
+        }
+        if (value != null) {
+          columns.put(column, value);
+        }
+      }
+      return new Result(rowkey, columns);
+    }
+
+    private Row readDataRow(byte[] rowkey) {
+      if (projection == null) {
+        return table.get(rowkey);
+      }
+      // the key columns are needed to verify against false positive
+      return table.get(rowkey, hasColumnWithDelimiter ? unionColumns(projection, keyColumns) : projection);
+    }
+
+    private boolean dataRowMatches(Row row, byte[][] columnValues) {
+      for (int i = 0; i < keyColumns.length; i++) {
+        if (!Bytes.equals(row.get(keyColumns[i]), columnValues[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private Row projectDataRow(Row row) {
+      if (projection == null || !hasColumnWithDelimiter) {
+        return row;
+      }
+      NavigableMap<byte[], byte[]> columns = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+      for (byte[] column : projection) {
+        byte[] value = row.get(column);
+        if (value != null) {
+          columns.put(column, value);
+        }
+      }
+      return new Result(row.getRow(), columns);
+    }
+  }
+
+  private boolean isCovered(byte[][] keyColumns, byte[][] projection) {
+    Set<byte[]> available = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+    available.addAll(coveredColumns);
+    available.addAll(Arrays.asList(keyColumns));
+    return available.containsAll(Arrays.asList(projection));
   }
 
   // scanner that matches column values based upon exact match
   private class IndexScanner extends AbstractIndexScanner {
+    private final byte[] column;
     private final byte[] value;
 
-    IndexScanner(Scanner baseScanner, byte[] column, byte[] value) {
-      super(baseScanner, column);
+    IndexScanner(Scanner baseScanner, byte[] column, byte[] value, @Nullable byte[][] projection) {
+      super(baseScanner, new byte[][] { column }, projection);
+      this.column = column;
       this.value = value;
     }
 
     @Override
-    protected boolean matches(byte[] columnValue) {
-      return Bytes.equals(columnValue, value);
+    protected byte[][] decode(byte[] indexKey, byte[] rowKey) {
+      return new byte[][] {
+        Arrays.copyOfRange(indexKey, keyPrefix.length + column.length + 1, indexKey.length - rowKey.length - 1)
+      };
+    }
+
+    @Override
+    protected boolean matches(byte[][] columnValues) {
+      return Bytes.equals(columnValues[0], value);
     }
   }
 
   // scanner that matches column values based upon range
   private class IndexRangeScanner extends AbstractIndexScanner {
+    private final byte[] column;
     private final byte[] start;
     private final byte[] end;
 
-    IndexRangeScanner(Scanner baseScanner, byte[] column, @Nullable byte[] start, @Nullable byte[] end) {
-      super(baseScanner, column);
+    IndexRangeScanner(Scanner baseScanner, byte[] column, @Nullable byte[] start, @Nullable byte[] end,
+                      @Nullable byte[][] projection) {
+      super(baseScanner, new byte[][] { column }, projection);
+      this.column = column;
       this.start = start;
       this.end = end;
     }
 
     @Override
-    protected boolean matches(byte[] columnValue) {
-      return (start == null || Bytes.compareTo(columnValue, start) >= 0)
-        && (end == null || Bytes.compareTo(columnValue, end) < 0);
+    protected byte[][] decode(byte[] indexKey, byte[] rowKey) {
+      return new byte[][] {
+        Arrays.copyOfRange(indexKey, keyPrefix.length + column.length + 1, indexKey.length - rowKey.length - 1)
+      };
+    }
+
+    @Override
+    protected boolean matches(byte[][] columnValues) {
+      return (start == null || Bytes.compareTo(columnValues[0], start) >= 0)
+        && (end == null || Bytes.compareTo(columnValues[0], end) < 0);
+    }
+  }
+
+  // scanner that matches the leading column values of a composite index based upon exact match
+  private class CompositeIndexScanner extends AbstractIndexScanner {
+    private final CompositeIndex compositeIndex;
+    private final byte[][] values;
+
+    CompositeIndexScanner(Scanner baseScanner, CompositeIndex compositeIndex, byte[][] values,
+                          @Nullable byte[][] projection) {
+      super(baseScanner, compositeIndex.columns, projection);
+      this.compositeIndex = compositeIndex;
+      this.values = values;
+    }
+
+    @Override
+    protected byte[][] decode(byte[] indexKey, byte[] rowKey) {
+      return compositeIndex.decodeValues(indexKey, rowKey);
+    }
+
+    @Override
+    protected boolean matches(byte[][] columnValues) {
+      for (int i = 0; i < values.length; i++) {
+        if (!Bytes.equals(columnValues[i], values[i])) {
+          return false;
+        }
+      }
+      return true;
     }
   }
 }
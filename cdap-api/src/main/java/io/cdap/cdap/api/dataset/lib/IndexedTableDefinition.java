@@ -26,10 +26,16 @@ import io.cdap.cdap.api.dataset.IncompatibleUpdateException;
 import io.cdap.cdap.api.dataset.table.Table;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 
 /**
  * DatasetDefinition for {@link IndexedTable}.
@@ -48,7 +54,8 @@ public class IndexedTableDefinition
     boolean dynamicIndexing = Boolean.parseBoolean(properties.getProperties().get(IndexedTable.DYNAMIC_INDEXING));
     if (!dynamicIndexing) {
       String columnNamesToIndex = properties.getProperties().get(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (columnNamesToIndex == null) {
+      String compositeIndexes = properties.getProperties().get(IndexedTable.INDEX_COMPOSITE_CONF_KEY);
+      if (columnNamesToIndex == null && compositeIndexes == null) {
         throw new IllegalArgumentException("columnsToIndex must be specified");
       }
     }
@@ -69,17 +76,26 @@ public class IndexedTableDefinition
     if (!dynamicIndexing) {
       // validate that the columns to index property is not null and the same as before
       String columnNamesToIndex = newProperties.getProperties().get(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (columnNamesToIndex == null) {
+      String compositeIndexes = newProperties.getProperties().get(IndexedTable.INDEX_COMPOSITE_CONF_KEY);
+      if (columnNamesToIndex == null && compositeIndexes == null) {
         throw new IllegalArgumentException("columnsToIndex must be specified");
       }
       String oldColumnsToIndex = currentSpec.getProperty(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (!columnNamesToIndex.equals(oldColumnsToIndex)) {
-        Set<byte[]> newColumns = parseColumns(columnNamesToIndex);
-        Set<byte[]> oldColumns = parseColumns(oldColumnsToIndex);
-        if (!newColumns.equals(oldColumns)) {
-          throw new IncompatibleUpdateException(String.format("Attempt to change columns to index from '%s' to '%s'",
-                                                              oldColumnsToIndex, columnNamesToIndex));
-        }
+      if (!parseColumns(columnNamesToIndex).equals(parseColumns(oldColumnsToIndex))) {
+        throw new IncompatibleUpdateException(String.format("Attempt to change columns to index from '%s' to '%s'",
+                                                            oldColumnsToIndex, columnNamesToIndex));
+      }
+      String oldCompositeIndexes = currentSpec.getProperty(IndexedTable.INDEX_COMPOSITE_CONF_KEY);
+      if (!parseNames(compositeIndexes).equals(parseNames(oldCompositeIndexes))) {
+        throw new IncompatibleUpdateException(String.format("Attempt to change composite indexes from '%s' to '%s'",
+                                                            oldCompositeIndexes, compositeIndexes));
+      }
+      // covered values are stored in the index rows, hence cannot change either
+      String coveredColumns = newProperties.getProperties().get(IndexedTable.INDEX_COVERED_COLUMNS_CONF_KEY);
+      String oldCoveredColumns = currentSpec.getProperty(IndexedTable.INDEX_COVERED_COLUMNS_CONF_KEY);
+      if (!parseColumns(coveredColumns).equals(parseColumns(oldCoveredColumns))) {
+        throw new IncompatibleUpdateException(String.format("Attempt to change covered columns from '%s' to '%s'",
+                                                            oldCoveredColumns, coveredColumns));
       }
     }
     return super.reconfigure(instanceName, newProperties, currentSpec);
@@ -89,17 +105,17 @@ public class IndexedTableDefinition
   public IndexedTable getDataset(DatasetContext datasetContext, DatasetSpecification spec,
                                  Map<String, String> arguments, ClassLoader classLoader) throws IOException {
 
-    SortedSet<byte[]> columnsToIndex;
+    Map<String, String> properties;
     String keyPrefix = null;
     boolean dynamicIndexing = Boolean.parseBoolean(spec.getProperty(IndexedTable.DYNAMIC_INDEXING));
     if (dynamicIndexing) {
       // If dynamic indexing is enabled, get the index columns from the runtime arguments
-      String columnsToIndexProp = arguments.get(IndexedTable.INDEX_COLUMNS_CONF_KEY);
-      if (columnsToIndexProp == null) {
+      if (arguments.get(IndexedTable.INDEX_COLUMNS_CONF_KEY) == null
+        && arguments.get(IndexedTable.INDEX_COMPOSITE_CONF_KEY) == null) {
         throw new IllegalArgumentException(
           "columnsToIndex must be specified in runtime arguments when dynamic indexing is enabled");
       }
-      columnsToIndex = parseColumns(columnsToIndexProp);
+      properties = arguments;
 
       // Dynamic indexing also needs a key prefix
       keyPrefix = arguments.get(IndexedTable.DYNAMIC_INDEXING_PREFIX);
@@ -107,25 +123,49 @@ public class IndexedTableDefinition
         throw new IllegalArgumentException("When dynamic indexing is used, the indexing prefix has to be specified");
       }
     } else {
-      columnsToIndex = parseColumns(spec.getProperty(IndexedTable.INDEX_COLUMNS_CONF_KEY));
+      properties = spec.getProperties();
+    }
+
+    SortedSet<byte[]> columnsToIndex = parseColumns(properties.get(IndexedTable.INDEX_COLUMNS_CONF_KEY));
+    SortedSet<byte[]> coveredColumns = parseColumns(properties.get(IndexedTable.INDEX_COVERED_COLUMNS_CONF_KEY));
+    List<byte[][]> compositeIndexes = new ArrayList<>();
+    for (String compositeIndex : parseNames(properties.get(IndexedTable.INDEX_COMPOSITE_CONF_KEY))) {
+      String[] columns = compositeIndex.split(Pattern.quote(IndexedTable.COMPOSITE_COLUMN_SEPARATOR));
+      byte[][] columnBytes = new byte[columns.length][];
+      for (int i = 0; i < columns.length; i++) {
+        columnBytes[i] = Bytes.toBytes(columns[i]);
+      }
+      compositeIndexes.add(columnBytes);
     }
 
     Table table = getDataset(datasetContext, "d", spec, arguments, classLoader);
     Table index = getDataset(datasetContext, "i", spec, arguments, classLoader);
 
     return new IndexedTable(spec.getName(), table, index, columnsToIndex,
-                            keyPrefix == null ? Bytes.EMPTY_BYTE_ARRAY : Bytes.toBytes(keyPrefix));
+                            keyPrefix == null ? Bytes.EMPTY_BYTE_ARRAY : Bytes.toBytes(keyPrefix),
+                            coveredColumns, compositeIndexes);
   }
 
   /**
    * Helper method to parse a list of column names, comma-separated.
    */
-  private SortedSet<byte[]> parseColumns(String value) {
+  private SortedSet<byte[]> parseColumns(@Nullable String value) {
     // TODO: add support for setting index key delimiter
     SortedSet<byte[]> columnsToIndex = new TreeSet<>(Bytes.BYTES_COMPARATOR);
-    for (String column : value.split(",")) {
+    for (String column : parseNames(value)) {
       columnsToIndex.add(Bytes.toBytes(column));
     }
     return columnsToIndex;
   }
+
+  /**
+   * Helper method to parse a comma-separated list of names, preserving the order.
+   */
+  private Set<String> parseNames(@Nullable String value) {
+    Set<String> names = new LinkedHashSet<>();
+    if (value != null) {
+      names.addAll(Arrays.asList(value.split(",")));
+    }
+    return names;
+  }
 }
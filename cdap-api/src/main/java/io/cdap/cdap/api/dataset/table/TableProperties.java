@@ -47,6 +47,14 @@ public class TableProperties {
   @Beta
   public static final String PROPERTY_TABLE_PERMISSIONS = "dataset.table.permissions.grants";
 
+  /**
+   * Set the maximum size in bytes of the in-memory cache of rows read by a table instance. Cached rows are reused
+   * by the following transactions of the same instance until another transaction commits, hence it is mainly useful
+   * for tables that are read much more often than they are written. The cache is disabled by default.
+   */
+  @Beta
+  public static final String PROPERTY_ROW_CACHE_SIZE = "dataset.table.row.cache.size.bytes";
+
   /**
    * Set a conflict detection level in dataset properties.
    */
@@ -258,6 +266,28 @@ public class TableProperties {
     builder.add(PROPERTY_TABLE_PERMISSIONS, GSON.toJson(permissions));
   }
 
+  /**
+   * Set the maximum size in bytes of the row cache in dataset properties. A zero or negative value disables the cache.
+   */
+  @Beta
+  public static void setRowCacheSize(DatasetProperties.Builder builder, long sizeBytes) {
+    builder.add(PROPERTY_ROW_CACHE_SIZE, sizeBytes);
+  }
+
+  /**
+   * @return the maximum size in bytes of the row cache, or zero if the row cache is disabled.
+   *
+   * @throws NumberFormatException if the value is not a valid long.
+   */
+  @Beta
+  public static long getRowCacheSize(Map<String, String> props) {
+    String stringValue = props.get(PROPERTY_ROW_CACHE_SIZE);
+    if (stringValue == null) {
+      return 0L;
+    }
+    return Math.max(0L, Long.parseLong(stringValue));
+  }
+
   public static Builder builder() {
     return new Builder();
   }
@@ -320,6 +350,16 @@ public class TableProperties {
       return (B) this;
     }
 
+    /**
+     * Set the maximum size in bytes of the row cache. A zero or negative value disables the cache.
+     */
+    @Beta
+    @SuppressWarnings("unchecked")
+    public B setRowCacheSize(long sizeBytes) {
+      TableProperties.setRowCacheSize(this, sizeBytes);
+      return (B) this;
+    }
+
     /**
      * Set the schema of a table.
      */
@@ -0,0 +1,34 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.api.metrics;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+/**
+ * A handle to a gauge metric, obtained from {@link Metrics#gauge(String)} or {@link MetricsCollector#gauge(String)}.
+ * The handle is bound to the metric when it is created, hence it can be held on to and used repeatedly without
+ * resolving the metric on every call.
+ */
+@Beta
+public interface Gauge {
+
+  /**
+   * Sets the metric to the given value.
+   */
+  void set(long value);
+}
@@ -50,6 +50,26 @@ public interface Metrics {
    */
   void gauge(String metricName, long value);
 
+  /**
+   * Returns a {@link Counter} bound to the specific metric. The returned handle can be used to increase the metric
+   * value repeatedly, which avoids resolving the metric on every call to {@link #count(String, int)}.
+   * @param metricName Name of the counter. Use alphanumeric characters in metric names.
+   * @return a {@link Counter} for the metric
+   */
+  default Counter counter(String metricName) {
+    return delta -> countLong(metricName, delta);
+  }
+
+  /**
+   * Returns a {@link Gauge} bound to the specific metric. The returned handle can be used to set the metric
+   * value repeatedly, which avoids resolving the metric on every call to {@link #gauge(String, long)}.
+   * @param metricName Name of the gauge. Use alphanumeric characters in metric names.
+   * @return a {@link Gauge} for the metric
+   */
+  default Gauge gauge(String metricName) {
+    return value -> gauge(metricName, value);
+  }
+
   /**
    * Get the child {@link Metrics} by adding specified tags to the current metrics context.
    * @param tags to be added to the current metrics context
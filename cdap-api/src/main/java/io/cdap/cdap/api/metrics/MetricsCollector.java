@@ -37,4 +37,24 @@ public interface MetricsCollector {
    * @param value value of the metric.
    */
   void gauge(String metricName, long value);
+
+  /**
+   * Returns a {@link Counter} bound to the given metric, which can be used to increment the metric repeatedly
+   * without resolving the metric on every call.
+   * @param metricName Name of the metric.
+   * @return a {@link Counter} for the metric
+   */
+  default Counter counter(String metricName) {
+    return value -> increment(metricName, value);
+  }
+
+  /**
+   * Returns a {@link Gauge} bound to the given metric, which can be used to gauge the metric repeatedly
+   * without resolving the metric on every call.
+   * @param metricName Name of the metric.
+   * @return a {@link Gauge} for the metric
+   */
+  default Gauge gauge(String metricName) {
+    return value -> gauge(metricName, value);
+  }
 }
@@ -122,10 +122,15 @@ public final class DefaultProgramRunnerFactory implements ProgramRunnerFactory {
 
     @Override
     public ProgramController run(Program program, ProgramOptions options) {
-      return addStateChangeListener(runner.run(program, options));
+      return addStateChangeListener(runner.run(program, options), programStateWriter.forProgramRun(options));
     }
 
     protected ProgramController addStateChangeListener(ProgramController controller) {
+      return addStateChangeListener(controller, programStateWriter);
+    }
+
+    private ProgramController addStateChangeListener(ProgramController controller,
+                                                     ProgramStateWriter programStateWriter) {
       controller.addListener(new StateChangeListener(controller, programStateWriter), Threads.SAME_THREAD_EXECUTOR);
       return controller;
     }
@@ -94,4 +94,16 @@ public interface ProgramStateWriter {
    */
   void reject(ProgramRunId programRunId, ProgramOptions programOptions, ProgramDescriptor programDescriptor,
               String userId, Throwable cause);
+
+  /**
+   * Returns a {@link ProgramStateWriter} for writing the states of the program run started with the given
+   * {@link ProgramOptions}. It allows implementations to carry information about the program run, such as the
+   * enclosing workflow run, in every state written for it. By default this instance is returned.
+   *
+   * @param programOptions the program options of the program run
+   * @return a {@link ProgramStateWriter} for the program run
+   */
+  default ProgramStateWriter forProgramRun(ProgramOptions programOptions) {
+    return this;
+  }
 }
@@ -19,8 +19,11 @@ package io.cdap.cdap.gateway.handlers;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -36,6 +39,7 @@ import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.http.LocationBodyProducer;
 import io.cdap.cdap.common.id.Id;
 import io.cdap.cdap.common.namespace.NamespaceQueryAdmin;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactChunks;
 import io.cdap.cdap.internal.app.runtime.artifact.ArtifactDetail;
 import io.cdap.cdap.internal.app.runtime.artifact.ArtifactRepository;
 import io.cdap.cdap.internal.io.SchemaTypeAdapter;
@@ -44,8 +48,13 @@ import io.cdap.cdap.proto.id.ArtifactId;
 import io.cdap.cdap.proto.id.Ids;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.http.AbstractHttpHandler;
+import io.cdap.http.BodyProducer;
 import io.cdap.http.HttpResponder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaderValues;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -55,7 +64,10 @@ import org.apache.twill.filesystem.Location;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.EOFException;
+import java.io.InputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -64,10 +76,12 @@ import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import javax.annotation.Nullable;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.QueryParam;
@@ -84,6 +98,7 @@ public class ArtifactHttpHandlerInternal extends AbstractHttpHandler {
     .create();
   private static final Type ARTIFACT_INFO_LIST_TYPE = new TypeToken<List<ArtifactInfo>>() { }.getType();
   private static final Type ARTIFACT_DETAIL_LIST_TYPE = new TypeToken<List<ArtifactDetail>>() { }.getType();
+  private static final Type CHUNK_INDICES_TYPE = new TypeToken<List<Integer>>() { }.getType();
 
   private final ArtifactRepository artifactRepository;
   private final NamespaceQueryAdmin namespaceQueryAdmin;
@@ -118,10 +133,7 @@ public class ArtifactHttpHandlerInternal extends AbstractHttpHandler {
                                @PathParam("artifact-version") String artifactVersion,
                                @QueryParam("scope") @DefaultValue("user") String scope) throws Exception {
 
-    NamespaceId namespace = validateAndGetScopedNamespace(Ids.namespace(namespaceId), scope);
-    ArtifactId artifactId = new ArtifactId(namespace.getNamespace(), artifactName, artifactVersion);
-    ArtifactDetail artifactDetail = artifactRepository.getArtifact(Id.Artifact.fromEntityId(artifactId));
-    Location location = artifactDetail.getDescriptor().getLocation();
+    Location location = getArtifactLocation(namespaceId, artifactName, artifactVersion, scope);
 
     ZonedDateTime newModifiedDate =
       ZonedDateTime.ofInstant(Instant.ofEpochMilli(location.lastModified()), ZoneId.of("GMT"));
@@ -138,6 +150,89 @@ public class ArtifactHttpHandlerInternal extends AbstractHttpHandler {
     responder.sendContent(HttpResponseStatus.OK, new LocationBodyProducer(location), headers);
   }
 
+  /**
+   * Returns the list of content defined chunks of the artifact jar as {@link ArtifactChunks}. It is used by the
+   * client to determine what chunks are needed to reconstruct the artifact jar from jars that it already has.
+   * Same as {@link #getArtifactBytes}, {@code 304 Not Modified} is returned if the artifact was not modified since
+   * the time in the If-Modified-Since header.
+   */
+  @GET
+  @Path("/namespaces/{namespace-id}/artifacts/{artifact-name}/versions/{artifact-version}/chunks")
+  public void getArtifactChunks(HttpRequest request, HttpResponder responder,
+                                @PathParam("namespace-id") String namespaceId,
+                                @PathParam("artifact-name") String artifactName,
+                                @PathParam("artifact-version") String artifactVersion,
+                                @QueryParam("scope") @DefaultValue("user") String scope) throws Exception {
+    Location location = getArtifactLocation(namespaceId, artifactName, artifactVersion, scope);
+    ZonedDateTime newModifiedDate =
+      ZonedDateTime.ofInstant(Instant.ofEpochMilli(location.lastModified()), ZoneId.of("GMT"));
+    if (areDatesEqual(request.headers().get(HttpHeaderNames.IF_MODIFIED_SINCE), newModifiedDate)) {
+      responder.sendStatus(HttpResponseStatus.NOT_MODIFIED, new DefaultHttpHeaders()
+        .add(HttpHeaderNames.LAST_MODIFIED, newModifiedDate.format(DateTimeFormatter.RFC_1123_DATE_TIME)));
+      return;
+    }
+    responder.sendJson(HttpResponseStatus.OK, GSON.toJson(ArtifactChunks.load(location)));
+  }
+
+  /**
+   * Streams the content of the requested chunks of the artifact jar. The request body is a JSON array of chunk
+   * indices in ascending order, based on the {@link ArtifactChunks} returned by the {@link #getArtifactChunks} call.
+   * If the artifact was modified since the given last modified time, {@code 412 Precondition Failed} is returned.
+   */
+  @POST
+  @Path("/namespaces/{namespace-id}/artifacts/{artifact-name}/versions/{artifact-version}/chunks")
+  public void getArtifactChunksContent(FullHttpRequest request, HttpResponder responder,
+                                       @PathParam("namespace-id") String namespaceId,
+                                       @PathParam("artifact-name") String artifactName,
+                                       @PathParam("artifact-version") String artifactVersion,
+                                       @QueryParam("scope") @DefaultValue("user") String scope,
+                                       @QueryParam("lastModified") long lastModified) throws Exception {
+    Location location = getArtifactLocation(namespaceId, artifactName, artifactVersion, scope);
+    ArtifactChunks artifactChunks = ArtifactChunks.load(location);
+    if (artifactChunks.getLastModified() != lastModified) {
+      responder.sendString(HttpResponseStatus.PRECONDITION_FAILED,
+                           String.format("Artifact %s:%s was modified", artifactName, artifactVersion));
+      return;
+    }
+
+    List<Integer> indices;
+    try {
+      indices = GSON.fromJson(request.content().toString(StandardCharsets.UTF_8), CHUNK_INDICES_TYPE);
+    } catch (JsonSyntaxException e) {
+      throw new BadRequestException("Invalid chunk indices", e);
+    }
+    if (indices == null) {
+      throw new BadRequestException("Missing chunk indices");
+    }
+
+    // Compute the offset of each requested chunk
+    List<ArtifactChunks.Chunk> chunks = artifactChunks.getChunks();
+    List<long[]> ranges = new ArrayList<>(indices.size());
+    long offset = 0;
+    int chunkIdx = 0;
+    for (int index : indices) {
+      if (index < chunkIdx || index >= chunks.size()) {
+        throw new BadRequestException("Chunk indices must be in ascending order and less than " + chunks.size());
+      }
+      for (; chunkIdx < index; chunkIdx++) {
+        offset += chunks.get(chunkIdx).getLength();
+      }
+      ranges.add(new long[] { offset, chunks.get(index).getLength() });
+    }
+
+    HttpHeaders headers = new DefaultHttpHeaders()
+      .add(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_OCTET_STREAM);
+    responder.sendContent(HttpResponseStatus.OK, new ChunksBodyProducer(location, ranges), headers);
+  }
+
+  private Location getArtifactLocation(String namespaceId, String artifactName,
+                                       String artifactVersion, String scope) throws Exception {
+    NamespaceId namespace = validateAndGetScopedNamespace(Ids.namespace(namespaceId), scope);
+    ArtifactId artifactId = new ArtifactId(namespace.getNamespace(), artifactName, artifactVersion);
+    ArtifactDetail artifactDetail = artifactRepository.getArtifact(Id.Artifact.fromEntityId(artifactId));
+    return artifactDetail.getDescriptor().getLocation();
+  }
+
   private boolean areDatesEqual(String lastModifiedDate, ZonedDateTime newModifiedDate) {
     if (Strings.isNullOrEmpty(lastModifiedDate) || newModifiedDate == null) {
       return false;
@@ -250,4 +345,62 @@ public class ArtifactHttpHandlerInternal extends AbstractHttpHandler {
 
     return ArtifactScope.SYSTEM.equals(scope) ? NamespaceId.SYSTEM : namespace;
   }
+
+  /**
+   * A {@link BodyProducer} for streaming ranges of content from a {@link Location}.
+   */
+  private static final class ChunksBodyProducer extends BodyProducer {
+
+    private final Location location;
+    private final Iterator<long[]> ranges;
+    private InputStream inputStream;
+    private long position;
+
+    ChunksBodyProducer(Location location, List<long[]> ranges) {
+      this.location = location;
+      this.ranges = ranges.iterator();
+    }
+
+    @Override
+    public ByteBuf nextChunk() throws Exception {
+      if (!ranges.hasNext()) {
+        return Unpooled.EMPTY_BUFFER;
+      }
+      if (inputStream == null) {
+        inputStream = location.getInputStream();
+      }
+
+      long[] range = ranges.next();
+      ByteStreams.skipFully(inputStream, range[0] - position);
+      int length = (int) range[1];
+      ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer(length);
+      try {
+        while (buffer.readableBytes() < length) {
+          if (buffer.writeBytes(inputStream, length - buffer.readableBytes()) < 0) {
+            throw new EOFException("Unexpected end of artifact " + location);
+          }
+        }
+      } catch (Exception e) {
+        buffer.release();
+        throw e;
+      }
+      position = range[0] + length;
+      return buffer;
+    }
+
+    @Override
+    public void finished() throws Exception {
+      if (inputStream != null) {
+        inputStream.close();
+      }
+    }
+
+    @Override
+    public void handleError(@Nullable Throwable throwable) {
+      if (throwable != null) {
+        LOG.warn("Error in sending chunks of location {}", location, throwable);
+      }
+      Closeables.closeQuietly(inputStream);
+    }
+  }
 }
@@ -129,7 +129,8 @@ public class NamespaceHttpHandler extends AbstractAppFabricHttpHandler {
   @Path("/unrecoverable/namespaces/{namespace-id}")
   public void delete(HttpRequest request, HttpResponder responder, @PathParam("namespace-id") String namespace)
     throws Exception {
-    if (!cConf.getBoolean(Constants.Dangerous.UNRECOVERABLE_RESET, Constants.Dangerous.DEFAULT_UNRECOVERABLE_RESET)) {
+    if (!cConf.getSnapshot().getBoolean(Constants.Dangerous.UNRECOVERABLE_RESET,
+                                        Constants.Dangerous.DEFAULT_UNRECOVERABLE_RESET)) {
       responder.sendString(HttpResponseStatus.FORBIDDEN,
                            String.format("Namespace '%s' cannot be deleted because '%s' is not enabled. " +
                                            "Please enable it and restart CDAP Master.",
@@ -145,7 +146,8 @@ public class NamespaceHttpHandler extends AbstractAppFabricHttpHandler {
   @Path("/unrecoverable/namespaces/{namespace-id}/datasets")
   public void deleteDatasets(HttpRequest request, HttpResponder responder,
                              @PathParam("namespace-id") String namespace) throws Exception {
-    if (!cConf.getBoolean(Constants.Dangerous.UNRECOVERABLE_RESET, Constants.Dangerous.DEFAULT_UNRECOVERABLE_RESET)) {
+    if (!cConf.getSnapshot().getBoolean(Constants.Dangerous.UNRECOVERABLE_RESET,
+                                        Constants.Dangerous.DEFAULT_UNRECOVERABLE_RESET)) {
       responder.sendString(HttpResponseStatus.FORBIDDEN,
                            String.format("All datasets in namespace %s cannot be deleted because '%s' is not enabled." +
                                            " Please enable it and restart CDAP Master.",
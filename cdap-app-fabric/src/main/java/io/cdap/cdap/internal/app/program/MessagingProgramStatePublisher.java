@@ -24,6 +24,7 @@ import io.cdap.cdap.api.security.AccessException;
 import io.cdap.cdap.app.runtime.Arguments;
 import io.cdap.cdap.app.runtime.ProgramOptions;
 import io.cdap.cdap.common.ServiceUnavailableException;
+import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.internal.app.ApplicationSpecificationAdapter;
 import io.cdap.cdap.internal.app.runtime.codec.ArgumentsCodec;
@@ -38,6 +39,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  * Publishes program state and heartbeat messages through the messaging service
@@ -49,19 +51,35 @@ public class MessagingProgramStatePublisher implements ProgramStatePublisher {
       .registerTypeAdapter(Arguments.class, new ArgumentsCodec())
       .registerTypeAdapter(ProgramOptions.class, new ProgramOptionsCodec()).create();
   private final MessagingService messagingService;
-  private final TopicId topicId;
+  private final Function<Map<String, String>, TopicId> topicSelector;
   private final RetryStrategy retryStrategy;
 
+  /**
+   * Creates a publisher that publishes to the program status topic partition of the program run
+   * as determined by {@link ProgramStatusTopics}.
+   */
+  public MessagingProgramStatePublisher(CConfiguration cConf, MessagingService messagingService,
+                                        RetryStrategy retryStrategy) {
+    this(messagingService, properties -> ProgramStatusTopics.getTopic(cConf, properties), retryStrategy);
+  }
+
   public MessagingProgramStatePublisher(MessagingService messagingService,
                                         TopicId topicId, RetryStrategy retryStrategy) {
+    this(messagingService, properties -> topicId, retryStrategy);
+  }
+
+  private MessagingProgramStatePublisher(MessagingService messagingService,
+                                         Function<Map<String, String>, TopicId> topicSelector,
+                                         RetryStrategy retryStrategy) {
     this.messagingService = messagingService;
-    this.topicId = topicId;
+    this.topicSelector = topicSelector;
     this.retryStrategy = retryStrategy;
   }
 
   public void publish(Notification.Type notificationType, Map<String, String> properties) {
     // ProgramRunId is always required in a notification
     Notification programStatusNotification = new Notification(notificationType, properties);
+    TopicId topicId = topicSelector.apply(properties);
 
     int failureCount = 0;
     long startTime = -1L;
@@ -25,7 +25,6 @@ import io.cdap.cdap.app.runtime.Arguments;
 import io.cdap.cdap.app.runtime.ProgramOptions;
 import io.cdap.cdap.app.runtime.ProgramStateWriter;
 import io.cdap.cdap.common.conf.CConfiguration;
-import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.service.RetryStrategies;
 import io.cdap.cdap.internal.app.ApplicationSpecificationAdapter;
 import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
@@ -35,7 +34,6 @@ import io.cdap.cdap.messaging.MessagingService;
 import io.cdap.cdap.proto.BasicThrowable;
 import io.cdap.cdap.proto.Notification;
 import io.cdap.cdap.proto.ProgramRunStatus;
-import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 
 import javax.annotation.Nullable;
@@ -52,19 +50,36 @@ public final class MessagingProgramStateWriter implements ProgramStateWriter {
       .registerTypeAdapter(ProgramOptions.class, new ProgramOptionsCodec()).create();
 
   private final ProgramStatePublisher programStatePublisher;
-
+  @Nullable
+  private final String workflowRunId;
 
   @Inject
   public MessagingProgramStateWriter(CConfiguration cConf, MessagingService messagingService) {
-    this(new MessagingProgramStatePublisher(messagingService,
-                                            NamespaceId.SYSTEM.topic(cConf.get(
-                                              Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC)),
+    this(new MessagingProgramStatePublisher(cConf, messagingService,
                                             RetryStrategies.fromConfiguration(cConf, "system.program.state.")));
   }
 
   @VisibleForTesting
   public MessagingProgramStateWriter(ProgramStatePublisher programStatePublisher) {
+    this(programStatePublisher, null);
+  }
+
+  private MessagingProgramStateWriter(ProgramStatePublisher programStatePublisher, @Nullable String workflowRunId) {
     this.programStatePublisher = programStatePublisher;
+    this.workflowRunId = workflowRunId;
+  }
+
+  /**
+   * Returns a {@link ProgramStateWriter} that adds the {@link ProgramOptionConstants#WORKFLOW_RUN_ID} to every
+   * notification if the program runs inside a workflow, so that they are routed with the workflow notifications.
+   */
+  @Override
+  public ProgramStateWriter forProgramRun(ProgramOptions programOptions) {
+    String workflowRunId = programOptions.getArguments().getOption(ProgramOptionConstants.WORKFLOW_RUN_ID);
+    if (workflowRunId == null || workflowRunId.equals(this.workflowRunId)) {
+      return this;
+    }
+    return new MessagingProgramStateWriter(programStatePublisher, workflowRunId);
   }
 
   @Override
@@ -80,7 +95,7 @@ public final class MessagingProgramStateWriter implements ProgramStateWriter {
     if (twillRunId != null) {
       properties.put(ProgramOptionConstants.TWILL_RUN_ID, twillRunId);
     }
-    programStatePublisher.publish(Notification.Type.PROGRAM_STATUS, properties.build());
+    publish(properties, programOptions);
   }
 
   @Override
@@ -92,7 +107,7 @@ public final class MessagingProgramStateWriter implements ProgramStateWriter {
     if (twillRunId != null) {
       properties.put(ProgramOptionConstants.TWILL_RUN_ID, twillRunId);
     }
-    programStatePublisher.publish(Notification.Type.PROGRAM_STATUS, properties.build());
+    publish(properties);
   }
 
   @Override
@@ -112,23 +127,18 @@ public final class MessagingProgramStateWriter implements ProgramStateWriter {
 
   @Override
   public void suspend(ProgramRunId programRunId) {
-    programStatePublisher.publish(Notification.Type.PROGRAM_STATUS,
-                                  ImmutableMap.<String, String>builder()
-                                    .put(ProgramOptionConstants.PROGRAM_RUN_ID, GSON.toJson(programRunId))
-                                    .put(ProgramOptionConstants.SUSPEND_TIME,
-                                         String.valueOf(System.currentTimeMillis()))
-                                    .put(ProgramOptionConstants.PROGRAM_STATUS, ProgramRunStatus.SUSPENDED.name())
-                                    .build()
-    );
+    publish(ImmutableMap.<String, String>builder()
+              .put(ProgramOptionConstants.PROGRAM_RUN_ID, GSON.toJson(programRunId))
+              .put(ProgramOptionConstants.SUSPEND_TIME, String.valueOf(System.currentTimeMillis()))
+              .put(ProgramOptionConstants.PROGRAM_STATUS, ProgramRunStatus.SUSPENDED.name()));
   }
 
   @Override
   public void resume(ProgramRunId programRunId) {
-    ImmutableMap<String, String> properties = ImmutableMap.<String, String>builder()
-      .put(ProgramOptionConstants.PROGRAM_RUN_ID, GSON.toJson(programRunId))
-      .put(ProgramOptionConstants.RESUME_TIME, String.valueOf(System.currentTimeMillis()))
-      .put(ProgramOptionConstants.PROGRAM_STATUS, ProgramRunStatus.RESUMING.name()).build();
-    programStatePublisher.publish(Notification.Type.PROGRAM_STATUS, properties);
+    publish(ImmutableMap.<String, String>builder()
+              .put(ProgramOptionConstants.PROGRAM_RUN_ID, GSON.toJson(programRunId))
+              .put(ProgramOptionConstants.RESUME_TIME, String.valueOf(System.currentTimeMillis()))
+              .put(ProgramOptionConstants.PROGRAM_STATUS, ProgramRunStatus.RESUMING.name()));
   }
 
   @Override
@@ -142,7 +152,7 @@ public final class MessagingProgramStateWriter implements ProgramStateWriter {
       .put(ProgramOptionConstants.USER_ID, userId)
       .put(ProgramOptionConstants.PROGRAM_DESCRIPTOR, GSON.toJson(programDescriptor))
       .put(ProgramOptionConstants.PROGRAM_ERROR, GSON.toJson(new BasicThrowable(cause)));
-    programStatePublisher.publish(Notification.Type.PROGRAM_STATUS, properties.build());
+    publish(properties, programOptions);
   }
 
   private void stop(ProgramRunId programRunId, ProgramRunStatus runStatus, @Nullable Throwable cause) {
@@ -153,6 +163,21 @@ public final class MessagingProgramStateWriter implements ProgramStateWriter {
     if (cause != null) {
       properties.put(ProgramOptionConstants.PROGRAM_ERROR, GSON.toJson(new BasicThrowable(cause)));
     }
+    publish(properties);
+  }
+
+  private void publish(ImmutableMap.Builder<String, String> properties, ProgramOptions programOptions) {
+    String workflowRunId = programOptions.getArguments().getOption(ProgramOptionConstants.WORKFLOW_RUN_ID);
+    if (workflowRunId != null) {
+      properties.put(ProgramOptionConstants.WORKFLOW_RUN_ID, workflowRunId);
+    }
+    programStatePublisher.publish(Notification.Type.PROGRAM_STATUS, properties.build());
+  }
+
+  private void publish(ImmutableMap.Builder<String, String> properties) {
+    if (workflowRunId != null) {
+      properties.put(ProgramOptionConstants.WORKFLOW_RUN_ID, workflowRunId);
+    }
     programStatePublisher.publish(Notification.Type.PROGRAM_STATUS, properties.build());
   }
 
@@ -31,7 +31,6 @@ import io.cdap.cdap.internal.app.runtime.codec.ArgumentsCodec;
 import io.cdap.cdap.internal.app.runtime.codec.ProgramOptionsCodec;
 import io.cdap.cdap.messaging.MessagingService;
 import io.cdap.cdap.proto.Notification;
-import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
@@ -66,9 +65,7 @@ public class ProgramStateWriterWithHeartBeat {
                                          MessagingService messagingService,
                                          CConfiguration cConf) {
     this(programRunId, programStateWriter, cConf.getLong(Constants.ProgramHeartbeat.HEARTBEAT_INTERVAL_SECONDS),
-         new MessagingProgramStatePublisher(messagingService,
-                                            NamespaceId.SYSTEM.topic(cConf.get(
-                                              Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC)),
+         new MessagingProgramStatePublisher(cConf, messagingService,
                                             RetryStrategies.fromConfiguration(cConf, "system.program.state.")));
   }
 
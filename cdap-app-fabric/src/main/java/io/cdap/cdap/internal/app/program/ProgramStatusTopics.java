@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.program;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonSyntaxException;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.ConfigurationSnapshot;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.internal.app.ApplicationSpecificationAdapter;
+import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.cdap.proto.id.TopicId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Utility class for resolving the TMS topics for program status notifications.
+ *
+ * When {@link Constants.AppFabric#PROGRAM_STATUS_EVENT_NUM_PARTITIONS} is greater than one, notifications are
+ * partitioned by the hash of the program run id, so that notifications of the same run always go to the same
+ * topic and are processed in order, while notifications of different runs are processed in parallel.
+ * Notifications of programs running inside a workflow carry the {@link ProgramOptionConstants#WORKFLOW_RUN_ID} property
+ * and are partitioned by the run id of the workflow instead, so that they are processed in order with the
+ * notifications of the workflow.
+ *
+ * Changing the number of partitions re-routes the notifications of runs that are in progress, hence it should only be
+ * changed when no program is running. Partitions that are no longer configured keep being processed until drained.
+ */
+public final class ProgramStatusTopics {
+
+  private static final Gson GSON = ApplicationSpecificationAdapter.addTypeAdapters(new GsonBuilder()).create();
+
+  private ProgramStatusTopics() {
+    // no-op
+  }
+
+  /**
+   * Returns the number of program status topic partitions.
+   */
+  public static int getNumPartitions(CConfiguration cConf) {
+    return getNumPartitions(cConf.getSnapshot());
+  }
+
+  /**
+   * Returns all the topics that program status notifications can be published to. The non-partitioned topic is
+   * always included so that notifications published before partitioning was enabled are still processed.
+   */
+  public static List<TopicId> getTopics(CConfiguration cConf) {
+    String topic = cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC);
+    int numPartitions = getNumPartitions(cConf);
+
+    List<TopicId> topics = new ArrayList<>();
+    topics.add(NamespaceId.SYSTEM.topic(topic));
+    if (numPartitions > 1) {
+      for (int i = 0; i < numPartitions; i++) {
+        topics.add(NamespaceId.SYSTEM.topic(topic + i));
+      }
+    }
+    return topics;
+  }
+
+  /**
+   * Returns the topic for publishing program status notifications of the given program run.
+   */
+  public static TopicId getTopic(CConfiguration cConf, ProgramRunId programRunId) {
+    return getTopic(cConf, programRunId.getRun());
+  }
+
+  /**
+   * Returns the topic for publishing a program status notification with the given properties. The notification
+   * is published to the non-partitioned topic if it doesn't carry a valid program run id.
+   */
+  public static TopicId getTopic(CConfiguration cConf, Map<String, String> properties) {
+    String programRun = properties.get(ProgramOptionConstants.PROGRAM_RUN_ID);
+    ProgramRunId programRunId = null;
+    if (programRun != null) {
+      try {
+        programRunId = GSON.fromJson(programRun, ProgramRunId.class);
+      } catch (JsonSyntaxException e) {
+        // Let the subscriber handle the invalid notification
+      }
+    }
+    if (programRunId == null || programRunId.getRun() == null) {
+      return NamespaceId.SYSTEM.topic(cConf.getSnapshot().get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC));
+    }
+    String workflowRunId = properties.get(ProgramOptionConstants.WORKFLOW_RUN_ID);
+    return getTopic(cConf, workflowRunId == null ? programRunId.getRun() : workflowRunId);
+  }
+
+  /**
+   * Returns {@code true} if the given topic is a program status topic partition, regardless of the number of
+   * partitions currently configured.
+   */
+  public static boolean isPartitionTopic(CConfiguration cConf, String topic) {
+    String prefix = cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC);
+    if (topic.length() <= prefix.length() || !topic.startsWith(prefix)) {
+      return false;
+    }
+    for (int i = prefix.length(); i < topic.length(); i++) {
+      if (!Character.isDigit(topic.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static TopicId getTopic(CConfiguration cConf, String partitionKey) {
+    // This is called for every program status notification, hence reads from the snapshot
+    ConfigurationSnapshot snapshot = cConf.getSnapshot();
+    String topic = snapshot.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC);
+    int numPartitions = getNumPartitions(snapshot);
+
+    // Program runtime running remotely only has the non-partitioned topic. Notifications are relayed to CDAP through
+    // the RuntimeHandler, which publishes them to the right partition.
+    if (numPartitions == 1 || snapshot.getBoolean(Constants.AppFabric.PROGRAM_REMOTE_RUNNER, false)) {
+      return NamespaceId.SYSTEM.topic(topic);
+    }
+    return NamespaceId.SYSTEM.topic(topic + Math.floorMod(partitionKey.hashCode(), numPartitions));
+  }
+
+  private static int getNumPartitions(ConfigurationSnapshot cConf) {
+    return Math.max(1, cConf.getInt(Constants.AppFabric.PROGRAM_STATUS_EVENT_NUM_PARTITIONS, 1));
+  }
+}
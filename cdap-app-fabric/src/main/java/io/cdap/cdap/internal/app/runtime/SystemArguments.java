@@ -82,6 +82,7 @@ public final class SystemArguments {
   // Keys for http service
   public static final String SERVICE_THREADS = "system.service.threads";
   public static final String SERVICE_THREAD_KEEPALIVE_SECS = "system.service.thread.keepalive.secs";
+  public static final String SERVICE_HANDLER_POOL_SIZE = "system.service.handler.pool.size";
 
   // Keys for profiles
   public static final String PROFILE_NAME = "system.profile.name";
@@ -355,6 +356,19 @@ public final class SystemArguments {
     return builder;
   }
 
+  /**
+   * Returns the maximum number of user service handler instances per handler class when handler instances are
+   * borrowed per request instead of being bound to the request thread. This allows configuring a large
+   * {@link #SERVICE_THREADS} for blocking handlers without having one handler instance per thread.
+   *
+   * @param args the arguments to use for looking up http service configurations
+   * @return the handler pool size or {@code 0} if handler instances should be bound to the request thread
+   */
+  public static int getServiceHandlerPoolSize(Map<String, String> args) {
+    Integer poolSize = getInt(args, SERVICE_HANDLER_POOL_SIZE, "http service handler pool size");
+    return poolSize == null ? 0 : Math.max(0, poolSize);
+  }
+
   /**
    * Get the profile id for the given program, given arguments for a run. All non-workflow program types will use the
    * native profile. Workflow program types will use whatever profile is specified in its arguments, or the native
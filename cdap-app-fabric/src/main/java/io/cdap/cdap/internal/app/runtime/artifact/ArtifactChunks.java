@@ -0,0 +1,288 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.internal.app.runtime.artifact;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.common.io.Locations;
+import org.apache.twill.filesystem.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import javax.annotation.Nullable;
+
+/**
+ * The list of content defined chunks of an artifact jar. Chunk boundaries are determined by a rolling hash of the
+ * content instead of fixed offsets, hence inserting or removing bytes in a jar only changes the chunks around the
+ * modification. It is used for transferring only the chunks that are not available locally when an artifact changes.
+ *
+ * The chunk list of an artifact is persisted next to the artifact jar by the {@link ArtifactStore} when the artifact
+ * is written, so that it doesn't need to be computed when it is requested.
+ */
+public final class ArtifactChunks {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ArtifactChunks.class);
+  private static final Gson GSON = new Gson();
+  private static final String CHUNKS_FILE_SUFFIX = ".chunks";
+
+  private static final int MIN_CHUNK_SIZE = 4 * 1024;
+  private static final int MAX_CHUNK_SIZE = 64 * 1024;
+  // Boundary is found when the top 14 bits of the hash are all zero, which gives an average chunk size
+  // of around 16K on top of the minimum chunk size. Top bits are used since they depend on more bytes.
+  private static final int BOUNDARY_SHIFT = Long.SIZE - 14;
+  private static final long[] GEAR = createGearTable();
+
+  private final long lastModified;
+  private final long size;
+  private final List<Chunk> chunks;
+
+  public ArtifactChunks(long lastModified, long size, List<Chunk> chunks) {
+    this.lastModified = lastModified;
+    this.size = size;
+    this.chunks = Collections.unmodifiableList(new ArrayList<>(chunks));
+  }
+
+  /**
+   * Splits the content of the given {@link InputStream} into chunks.
+   *
+   * @param inputStream the content to split. The stream will not be closed by this method.
+   * @param lastModified the last modified time of the content
+   * @return a new {@link ArtifactChunks} instance
+   * @throws IOException if failed to read from the stream
+   */
+  public static ArtifactChunks create(InputStream inputStream, long lastModified) throws IOException {
+    return create(inputStream, null, lastModified);
+  }
+
+  /**
+   * Copies the content of the given {@link InputStream} to the given {@link OutputStream} and splits it into chunks
+   * in the same pass.
+   *
+   * @param inputStream the content to copy and split. The stream will not be closed by this method.
+   * @param outputStream the stream to copy the content to. The stream will not be closed by this method.
+   * @param lastModified the last modified time of the content
+   * @return a new {@link ArtifactChunks} instance
+   * @throws IOException if failed to read from or write to the streams
+   */
+  public static ArtifactChunks copy(InputStream inputStream, OutputStream outputStream,
+                                    long lastModified) throws IOException {
+    return create(inputStream, outputStream, lastModified);
+  }
+
+  private static ArtifactChunks create(InputStream inputStream, @Nullable OutputStream outputStream,
+                                       long lastModified) throws IOException {
+    MessageDigest digest = createDigest();
+    List<Chunk> chunks = new ArrayList<>();
+    byte[] buffer = new byte[MAX_CHUNK_SIZE];
+    long size = 0;
+    int chunkSize = 0;
+    long hash = 0;
+
+    int len = inputStream.read(buffer);
+    while (len >= 0) {
+      if (outputStream != null) {
+        outputStream.write(buffer, 0, len);
+      }
+      int start = 0;
+      for (int i = 0; i < len; i++) {
+        hash = (hash << 1) + GEAR[buffer[i] & 0xff];
+        chunkSize++;
+        if ((chunkSize >= MIN_CHUNK_SIZE && (hash >>> BOUNDARY_SHIFT) == 0) || chunkSize >= MAX_CHUNK_SIZE) {
+          digest.update(buffer, start, i + 1 - start);
+          chunks.add(new Chunk(Bytes.toHexString(digest.digest()), chunkSize));
+          start = i + 1;
+          chunkSize = 0;
+          hash = 0;
+        }
+      }
+      digest.update(buffer, start, len - start);
+      size += len;
+      len = inputStream.read(buffer);
+    }
+    if (chunkSize > 0) {
+      chunks.add(new Chunk(Bytes.toHexString(digest.digest()), chunkSize));
+    }
+    return new ArtifactChunks(lastModified, size, chunks);
+  }
+
+  /**
+   * Returns the {@link ArtifactChunks} of the given artifact jar. The chunk list persisted by {@link #save(Location)}
+   * is used if it is still valid for the artifact jar. Otherwise the chunk list is computed from the jar and persisted
+   * for later calls.
+   *
+   * @param artifactLocation the location of the artifact jar
+   * @return the {@link ArtifactChunks} of the artifact
+   * @throws IOException if failed to read the artifact jar
+   */
+  public static ArtifactChunks load(Location artifactLocation) throws IOException {
+    long lastModified = artifactLocation.lastModified();
+    Location chunksLocation = getChunksLocation(artifactLocation);
+    if (chunksLocation.exists()) {
+      try (Reader reader = new InputStreamReader(chunksLocation.getInputStream(), StandardCharsets.UTF_8)) {
+        ArtifactChunks chunks = GSON.fromJson(reader, ArtifactChunks.class);
+        if (chunks != null && chunks.getLastModified() == lastModified) {
+          return chunks;
+        }
+      } catch (IOException | JsonParseException e) {
+        LOG.debug("Ignoring invalid artifact chunks file {}", chunksLocation, e);
+      }
+    }
+
+    // Artifacts written before chunk lists were persisted, or modified since
+    ArtifactChunks chunks;
+    try (InputStream is = artifactLocation.getInputStream()) {
+      chunks = create(is, lastModified);
+    }
+    try {
+      chunks.save(artifactLocation);
+    } catch (IOException e) {
+      // It is still fine to return the chunks, as they will just be computed again on next call
+      LOG.debug("Failed to persist chunks of artifact {}", artifactLocation, e);
+    }
+    return chunks;
+  }
+
+  /**
+   * Deletes the persisted chunk list of the given artifact jar if it exists.
+   */
+  public static void delete(Location artifactLocation) throws IOException {
+    getChunksLocation(artifactLocation).delete();
+  }
+
+  /**
+   * Persists this chunk list next to the given artifact jar.
+   *
+   * @param artifactLocation the location of the artifact jar that this chunk list is created from
+   * @throws IOException if failed to persist
+   */
+  public void save(Location artifactLocation) throws IOException {
+    Location chunksLocation = getChunksLocation(artifactLocation);
+    // Write to a temp file and rename to make sure readers never see a partial file
+    Location tmpLocation = chunksLocation.getTempFile(".tmp");
+    try {
+      try (Writer writer = new OutputStreamWriter(tmpLocation.getOutputStream(), StandardCharsets.UTF_8)) {
+        GSON.toJson(this, writer);
+      }
+      if (tmpLocation.renameTo(chunksLocation) == null) {
+        throw new IOException("Failed to rename " + tmpLocation + " to " + chunksLocation);
+      }
+    } finally {
+      Locations.deleteQuietly(tmpLocation);
+    }
+  }
+
+  private static Location getChunksLocation(Location artifactLocation) {
+    Location parent = Locations.getParent(artifactLocation);
+    if (parent == null) {
+      throw new IllegalArgumentException("Artifact location " + artifactLocation + " has no parent");
+    }
+    return parent.append(artifactLocation.getName() + CHUNKS_FILE_SUFFIX);
+  }
+
+  /**
+   * Returns the hex encoded digest of the given chunk content.
+   */
+  public static String hash(byte[] bytes, int offset, int length) {
+    MessageDigest digest = createDigest();
+    digest.update(bytes, offset, length);
+    return Bytes.toHexString(digest.digest());
+  }
+
+  /**
+   * Returns the last modified time of the artifact in milliseconds.
+   */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  /**
+   * Returns the size of the artifact in bytes.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the list of chunks in the artifact, in the order of their offsets.
+   */
+  public List<Chunk> getChunks() {
+    return chunks;
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // This shouldn't happen since every JVM must support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static long[] createGearTable() {
+    // Use a fixed seed so that chunk boundaries are the same in every process
+    Random random = new Random(0x636461704368756eL);
+    long[] table = new long[256];
+    for (int i = 0; i < table.length; i++) {
+      table[i] = random.nextLong();
+    }
+    return table;
+  }
+
+  /**
+   * Represents a chunk in an artifact.
+   */
+  public static final class Chunk {
+
+    private final String hash;
+    private final int length;
+
+    public Chunk(String hash, int length) {
+      this.hash = hash;
+      this.length = length;
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 digest of the chunk content.
+     */
+    public String getHash() {
+      return hash;
+    }
+
+    /**
+     * Returns the length of the chunk in bytes.
+     */
+    public int getLength() {
+      return length;
+    }
+  }
+}
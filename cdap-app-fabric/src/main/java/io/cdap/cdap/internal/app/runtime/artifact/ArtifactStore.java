@@ -66,6 +66,7 @@ import org.apache.twill.filesystem.LocationFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Files;
@@ -729,6 +730,7 @@ public class ArtifactStore {
                                                        artifactId.toArtifactId(), destination), artifactMeta);
     } catch (TransactionException e) {
       destination.delete();
+      ArtifactChunks.delete(destination);
       // TODO: CDAP-14672 define TransactionConflictException for the SPI
       // should throw WriteConflictException(artifactId) on transaction conflict
       throw TransactionRunners.propagate(e, ArtifactAlreadyExistsException.class, IOException.class);
@@ -746,10 +748,13 @@ public class ArtifactStore {
       .append(ARTIFACTS_PATH).append(artifactId.getName());
     Location destination = fileDirectory.append(artifactId.getVersion().getVersion()).getTempFile(".jar");
     Locations.mkdirsIfNotExists(fileDirectory);
-    // write the file contents
-    try (OutputStream destinationStream = destination.getOutputStream()) {
-      Files.copy(artifactContent.toPath(), destinationStream);
+    // write the file contents, and compute the chunk list of the jar in the same pass
+    ArtifactChunks chunks;
+    try (InputStream is = Files.newInputStream(artifactContent.toPath());
+         OutputStream destinationStream = destination.getOutputStream()) {
+      chunks = ArtifactChunks.copy(is, destinationStream, 0L);
     }
+    new ArtifactChunks(destination.lastModified(), chunks.getSize(), chunks.getChunks()).save(destination);
     return destination;
   }
 
@@ -962,7 +967,9 @@ public class ArtifactStore {
     // delete the old jar file
     try {
       new EntityImpersonator(artifactId.toEntityId(), impersonator).impersonate(() -> {
-        Locations.getLocationFromAbsolutePath(locationFactory, oldMeta.getLocationPath()).delete();
+        Location oldLocation = Locations.getLocationFromAbsolutePath(locationFactory, oldMeta.getLocationPath());
+        oldLocation.delete();
+        ArtifactChunks.delete(oldLocation);
         return null;
       });
     } catch (IOException ioe) {
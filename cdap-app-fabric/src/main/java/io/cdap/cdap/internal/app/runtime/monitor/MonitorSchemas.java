@@ -68,6 +68,13 @@ public final class MonitorSchemas {
     public static final class MonitorRequest {
       public static final Schema SCHEMA = loadSchema(MonitorSchemas.V2.MonitorRequest.class);
     }
+
+    /**
+     * Contains schema for monitor request that carries messages of multiple topics.
+     */
+    public static final class MonitorBatchRequest {
+      public static final Schema SCHEMA = loadSchema(MonitorSchemas.V2.MonitorBatchRequest.class);
+    }
   }
 
   /**
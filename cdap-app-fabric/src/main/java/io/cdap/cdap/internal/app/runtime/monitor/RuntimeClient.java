@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.internal.app.runtime.monitor;
 
+import com.google.common.base.Splitter;
 import com.google.common.io.ByteStreams;
 import com.google.common.net.HttpHeaders;
 import com.google.inject.Inject;
@@ -45,8 +46,12 @@ import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
 import javax.ws.rs.core.MediaType;
 
@@ -77,6 +82,13 @@ public class RuntimeClient {
     if (schema.getType() != Schema.Type.ARRAY || schema.getElementType().getType() != Schema.Type.BYTES) {
       throw new IllegalStateException("MonitorRequest schema should be an array of bytes");
     }
+    Schema batchSchema = MonitorSchemas.V2.MonitorBatchRequest.SCHEMA;
+    if (batchSchema.getType() != Schema.Type.ARRAY
+      || !Arrays.asList("topic", "messages").equals(batchSchema.getElementType().getFields().stream()
+                                                      .map(Schema.Field::name).collect(Collectors.toList()))
+      || !schema.equals(batchSchema.getElementType().getField("messages").schema())) {
+      throw new IllegalStateException("MonitorBatchRequest schema should be an array of topic and messages");
+    }
   }
 
   /**
@@ -95,14 +107,7 @@ public class RuntimeClient {
       throw new IllegalArgumentException("Only topic in the system namespace is supported");
     }
 
-    String path = String.format("%s/apps/%s/versions/%s/%s/%s/runs/%s/topics/%s",
-                                programRunId.getNamespace(),
-                                programRunId.getApplication(),
-                                programRunId.getVersion(),
-                                programRunId.getType().getCategoryName(),
-                                programRunId.getProgram(),
-                                programRunId.getRun(),
-                                topicId.getTopic());
+    String path = getRunPath(programRunId) + "/topics/" + topicId.getTopic();
 
     // Stream out the messages
     HttpURLConnection urlConn = remoteClient.openConnection(HttpMethod.POST, path);
@@ -120,6 +125,84 @@ public class RuntimeClient {
     }
   }
 
+  /**
+   * Sends messages to multiple TMS system topics from the given program run in one request. Messages of all topics
+   * are written to the same request body, hence sharing the same compression stream.
+   *
+   * @param programRunId the program run id of the program run
+   * @param messages a map from topic to the list of messages to send to that topic. The namespace of all topics
+   *                 must be {@link NamespaceId#SYSTEM}
+   * @throws IOException if failed to send all the given messages
+   * @throws BadRequestException if the server denial the request due to bad request
+   * @throws ServiceUnavailableException if the server is not available
+   */
+  public void sendMessages(ProgramRunId programRunId,
+                           Map<TopicId, Iterator<Message>> messages) throws IOException, BadRequestException {
+    sendMessages(programRunId, messages, topicId -> { });
+  }
+
+  /**
+   * Sends messages to multiple TMS system topics from the given program run in one request. Messages of all topics
+   * are written to the same request body, hence sharing the same compression stream.
+   * The given {@link Consumer} is called for each topic that all of its messages were published by the server,
+   * even if the request failed for other topics. The caller can use it to only resend messages of the topics that
+   * were not published.
+   *
+   * @param programRunId the program run id of the program run
+   * @param messages a map from topic to the list of messages to send to that topic. The namespace of all topics
+   *                 must be {@link NamespaceId#SYSTEM}
+   * @param publishedConsumer a {@link Consumer} to be called with each topic that was published
+   * @throws IOException if failed to send all the given messages
+   * @throws BadRequestException if the server denial the request due to bad request
+   * @throws ServiceUnavailableException if the server is not available
+   */
+  public void sendMessages(ProgramRunId programRunId, Map<TopicId, Iterator<Message>> messages,
+                           Consumer<TopicId> publishedConsumer) throws IOException, BadRequestException {
+    for (TopicId topicId : messages.keySet()) {
+      if (!NamespaceId.SYSTEM.equals(topicId.getNamespaceId())) {
+        throw new IllegalArgumentException("Only topic in the system namespace is supported");
+      }
+    }
+
+    // Stream out the messages
+    HttpURLConnection urlConn = remoteClient.openConnection(HttpMethod.POST, getRunPath(programRunId) + "/topics");
+    try {
+      urlConn.setChunkedStreamingMode(CHUNK_SIZE);
+      urlConn.setRequestProperty(HttpHeaders.CONTENT_TYPE, "avro/binary");
+
+      try (OutputStream os = openOutputStream(urlConn)) {
+        Encoder encoder = EncoderFactory.get().directBinaryEncoder(os, null);
+        encoder.writeArrayStart();
+        // Write each topic as one array block, so that topics can be streamed without knowing the count upfront.
+        for (Map.Entry<TopicId, Iterator<Message>> entry : messages.entrySet()) {
+          encoder.setItemCount(1);
+          encoder.startItem();
+          encoder.writeString(entry.getKey().getTopic());
+          writeMessages(entry.getValue(), encoder);
+        }
+        encoder.writeArrayEnd();
+      }
+
+      if (urlConn.getResponseCode() == HttpURLConnection.HTTP_OK) {
+        messages.keySet().forEach(publishedConsumer);
+      } else {
+        // On failure, the server reports the topics that were published before the failure
+        String publishedTopics = urlConn.getHeaderField(RuntimeHandler.PUBLISHED_TOPICS);
+        if (publishedTopics != null) {
+          Splitter.on(',').omitEmptyStrings().trimResults().split(publishedTopics).forEach(topic -> {
+            TopicId topicId = NamespaceId.SYSTEM.topic(topic);
+            if (messages.containsKey(topicId)) {
+              publishedConsumer.accept(topicId);
+            }
+          });
+        }
+      }
+      throwIfError(programRunId, urlConn);
+    } finally {
+      closeURLConnection(urlConn);
+    }
+  }
+
   /**
    * Uploads Spark program event logs to the runtime service.
    *
@@ -129,14 +212,7 @@ public class RuntimeClient {
    * @throws ServiceUnavailableException if the service is not available
    */
   public void uploadSparkEventLogs(ProgramRunId programRunId, File eventFile) throws IOException {
-    String path = String.format("%s/apps/%s/versions/%s/%s/%s/runs/%s/spark-event-logs/%s",
-                                programRunId.getNamespace(),
-                                programRunId.getApplication(),
-                                programRunId.getVersion(),
-                                programRunId.getType().getCategoryName(),
-                                programRunId.getProgram(),
-                                programRunId.getRun(),
-                                eventFile.getName());
+    String path = getRunPath(programRunId) + "/spark-event-logs/" + eventFile.getName();
 
     // Stream out the messages
     HttpURLConnection urlConn = remoteClient.openConnection(HttpMethod.POST, path);
@@ -157,6 +233,19 @@ public class RuntimeClient {
     }
   }
 
+  /**
+   * Returns the path to the runtime server for the given program run.
+   */
+  private String getRunPath(ProgramRunId programRunId) {
+    return String.format("%s/apps/%s/versions/%s/%s/%s/runs/%s",
+                         programRunId.getNamespace(),
+                         programRunId.getApplication(),
+                         programRunId.getVersion(),
+                         programRunId.getType().getCategoryName(),
+                         programRunId.getProgram(),
+                         programRunId.getRun());
+  }
+
   /**
    * Opens a {@link OutputStream} to the given {@link URLConnection}. If {@link #compression} is {@code true},
    * the output stream will be wrapped with a {@link GZIPOutputStream} with appropriate request header set.
@@ -17,7 +17,6 @@
 package io.cdap.cdap.internal.app.runtime.monitor;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.AbstractIterator;
 import com.google.gson.Gson;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.common.Bytes;
@@ -49,16 +48,17 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Spliterators;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 /**
  * A service that periodically relay messages from local TMS to the runtime server.
@@ -98,9 +98,38 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
   @Override
   protected long runTask() throws Exception {
     long nextPollDelay = pollTimeMillis;
-    for (Map.Entry<String, TopicRelayer> entry : topicRelayers.entrySet()) {
-      TopicRelayer topicRelayer = entry.getValue();
-      nextPollDelay = Math.min(nextPollDelay, topicRelayer.publishMessages());
+
+    // Fetch from all topics that are due, then send them to the runtime server in one request
+    long currentTimeMillis = System.currentTimeMillis();
+    Map<TopicRelayer, List<Message>> fetched = new LinkedHashMap<>();
+    Map<TopicId, Iterator<Message>> batch = new LinkedHashMap<>();
+    for (TopicRelayer topicRelayer : topicRelayers.values()) {
+      long delay = topicRelayer.getPublishDelay(currentTimeMillis);
+      if (delay > 0) {
+        nextPollDelay = Math.min(nextPollDelay, delay);
+        continue;
+      }
+      List<Message> messages = topicRelayer.fetchMessages();
+      fetched.put(topicRelayer, messages);
+      if (!messages.isEmpty()) {
+        batch.put(topicRelayer.getTopicId(), topicRelayer.prepareMessages(messages));
+      }
+    }
+
+    // Only advance the offsets of topics that were published, so that a failure of one topic doesn't cause
+    // messages of other topics to be sent again on retry.
+    Set<TopicId> publishedTopics = new HashSet<>();
+    try {
+      if (!batch.isEmpty()) {
+        runtimeClient.sendMessages(programRunId, batch, publishedTopics::add);
+      }
+    } finally {
+      for (Map.Entry<TopicRelayer, List<Message>> entry : fetched.entrySet()) {
+        TopicRelayer topicRelayer = entry.getKey();
+        if (!batch.containsKey(topicRelayer.getTopicId()) || publishedTopics.contains(topicRelayer.getTopicId())) {
+          nextPollDelay = Math.min(nextPollDelay, topicRelayer.published(entry.getValue()));
+        }
+      }
     }
 
     // If we got the program finished state, determine when to shutdown
@@ -174,64 +203,92 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
       this.topicId = topicId;
     }
 
+    TopicId getTopicId() {
+      return topicId;
+    }
+
     /**
-     * Fetches messages from the {@link MessagingContext} and publish them using {@link RuntimeClient}.
-     *
-     * @return delay in milliseconds till the next poll
-     * @throws TopicNotFoundException if the TMS topic to fetch from does not exist
-     * @throws IOException if failed to read from TMS or write to RuntimeClient
+     * Returns the delay in milliseconds till the next publish. Returns {@code 0} if it is time to publish.
      */
-    long publishMessages() throws TopicNotFoundException, IOException, BadRequestException {
-      long currentTimeMillis = System.currentTimeMillis();
-
+    long getPublishDelay(long currentTimeMillis) {
       // Not too publish more than necessary in one topic.
       // This method might get called more than once even before the next publish time is hit.
-      if (currentTimeMillis < nextPublishTimeMillis) {
-        return nextPublishTimeMillis - currentTimeMillis;
-      }
+      return Math.max(0L, nextPublishTimeMillis - currentTimeMillis);
+    }
 
+    /**
+     * Fetches the next batch of messages from the {@link MessagingContext}.
+     *
+     * @throws TopicNotFoundException if the TMS topic to fetch from does not exist
+     * @throws IOException if failed to read from TMS
+     */
+    List<Message> fetchMessages() throws TopicNotFoundException, IOException {
+      List<Message> messages = new ArrayList<>();
       try (CloseableIterator<Message> iterator = messagingContext.getMessageFetcher().fetch(topicId.getNamespace(),
                                                                                             topicId.getTopic(),
                                                                                             fetchLimit,
                                                                                             lastMessageId)) {
-        AtomicInteger messageCount = new AtomicInteger();
-        if (iterator.hasNext()) {
-          String[] messageId = new String[1];
-          processMessages(new AbstractIterator<Message>() {
-            @Override
-            protected Message computeNext() {
-              if (!iterator.hasNext()) {
-                return endOfData();
-              }
-              Message message = iterator.next();
-              messageId[0] = message.getId();
-              messageCount.incrementAndGet();
-              return message;
-            }
-          });
-
-          // Update the lastMessageId if sendMessages succeeded
-          lastMessageId = messageId[0] == null ? lastMessageId : messageId[0];
-          totalPublished += messageCount.get();
-          progressLog.trace("Processed in total {} messages on topic {}", totalPublished, topicId);
-        }
+        iterator.forEachRemaining(messages::add);
+      }
+      return messages;
+    }
 
-        // If we fetched all messages, then delay the next poll by pollTimeMillis.
-        // Otherwise, try to poll again immediately.
-        nextPublishTimeMillis = System.currentTimeMillis();
-        if (messageCount.get() >= fetchLimit) {
-          return 0L;
-        }
-        nextPublishTimeMillis += pollTimeMillis;
-        return pollTimeMillis;
+    /**
+     * Returns the messages to send to the runtime server for the given list of fetched messages. By default it is
+     * the same as the fetched messages.
+     */
+    protected Iterator<Message> prepareMessages(List<Message> messages) {
+      return messages.iterator();
+    }
+
+    /**
+     * Updates the states after the given list of fetched messages were sent to the runtime server successfully.
+     *
+     * @return delay in milliseconds till the next poll
+     */
+    protected long published(List<Message> messages) {
+      if (!messages.isEmpty()) {
+        // Update the lastMessageId since sendMessages succeeded
+        lastMessageId = messages.get(messages.size() - 1).getId();
+        totalPublished += messages.size();
+        progressLog.trace("Processed in total {} messages on topic {}", totalPublished, topicId);
       }
+
+      // If we fetched all messages, then delay the next poll by pollTimeMillis.
+      // Otherwise, try to poll again immediately.
+      nextPublishTimeMillis = System.currentTimeMillis();
+      if (messages.size() >= fetchLimit) {
+        return 0L;
+      }
+      nextPublishTimeMillis += pollTimeMillis;
+      return pollTimeMillis;
     }
 
     /**
-     * Processes the give list of {@link Message}. By default it sends them through the {@link RuntimeClient}.
+     * Fetches messages from the {@link MessagingContext} and publish them using {@link RuntimeClient}.
+     *
+     * @return delay in milliseconds till the next poll
+     * @throws TopicNotFoundException if the TMS topic to fetch from does not exist
+     * @throws IOException if failed to read from TMS or write to RuntimeClient
      */
-    protected void processMessages(Iterator<Message> iterator) throws IOException, BadRequestException {
-      runtimeClient.sendMessages(programRunId, topicId, iterator);
+    long publishMessages() throws TopicNotFoundException, IOException, BadRequestException {
+      long delay = getPublishDelay(System.currentTimeMillis());
+      if (delay > 0) {
+        return delay;
+      }
+
+      List<Message> messages = fetchMessages();
+      if (!messages.isEmpty()) {
+        sendMessages(prepareMessages(messages));
+      }
+      return published(messages);
+    }
+
+    /**
+     * Sends the given messages of this topic through the {@link RuntimeClient}.
+     */
+    void sendMessages(Iterator<Message> messages) throws IOException, BadRequestException {
+      runtimeClient.sendMessages(programRunId, Collections.singletonMap(topicId, messages));
     }
 
     @Override
@@ -266,27 +323,29 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
     }
 
     @Override
-    protected void processMessages(Iterator<Message> iterator) throws IOException, BadRequestException {
-      List<Message> message = StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, 0), false)
-        .collect(Collectors.toList());
-
+    protected Iterator<Message> prepareMessages(List<Message> messages) {
       if (programFinishTime < 0) {
-        programFinishTime = findProgramFinishTime(message);
+        programFinishTime = findProgramFinishTime(messages);
       }
       if (programFinishTime >= 0) {
-        // Buffer the program state messages and don't publish them until the end
+        // Don't publish the program state messages until the end. They are buffered once the heartbeat is sent.
         // Otherwise, once we publish, the deprovisioner will kick in and delete the cluster
         // which could result in losing the last set of messages for some topics.
-        // Since we already consumed the incoming Iterator, the next fetch offset is being updated.
-        // This is to avoid fetching duplicate messages.
-        lastProgramStateMessages.addAll(message);
-
         // Send an empty iterator to serve as the heartbeat.
-        super.processMessages(Collections.emptyIterator());
-      } else {
-        // If the program is not yet finished, just publish the messages
-        super.processMessages(message.iterator());
+        return Collections.emptyIterator();
+      }
+      // If the program is not yet finished, just publish the messages
+      return messages.iterator();
+    }
+
+    @Override
+    protected long published(List<Message> messages) {
+      if (programFinishTime >= 0) {
+        // Buffer the program state messages only after the heartbeat was sent, since the fetch offset is updated
+        // at the same time. This is to avoid buffering duplicate messages when the send is retried.
+        lastProgramStateMessages.addAll(messages);
       }
+      return super.published(messages);
     }
 
     @Override
@@ -303,7 +362,7 @@ public class RuntimeClientService extends AbstractRetryableScheduledService {
 
       if (!lastProgramStateMessages.isEmpty()) {
         try {
-          Retries.runWithRetries(() -> super.processMessages(lastProgramStateMessages.iterator()),
+          Retries.runWithRetries(() -> sendMessages(lastProgramStateMessages.iterator()),
                                  getRetryStrategy(), t -> t instanceof IOException || t instanceof RetryableException);
         } catch (BadRequestException e) {
           // This shouldn't happen. If it does, that means the server thinks this program is no longer running.
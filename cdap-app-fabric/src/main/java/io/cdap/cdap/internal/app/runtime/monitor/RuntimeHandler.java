@@ -17,6 +17,8 @@
 package io.cdap.cdap.internal.app.runtime.monitor;
 
 import com.google.common.io.Closeables;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.api.messaging.MessagingContext;
@@ -25,8 +27,10 @@ import io.cdap.cdap.api.security.AccessException;
 import io.cdap.cdap.common.BadRequestException;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.internal.app.program.ProgramStatusTopics;
 import io.cdap.cdap.messaging.MessagingService;
 import io.cdap.cdap.messaging.context.MultiThreadMessagingContext;
+import io.cdap.cdap.proto.Notification;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.NamespaceId;
@@ -41,6 +45,8 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufInputStream;
 import io.netty.buffer.CompositeByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
@@ -58,11 +64,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -75,12 +89,21 @@ import javax.ws.rs.core.MediaType;
   "/runtime/namespaces/{namespace}/apps/{app}/versions/{version}/{program-type}/{program}/runs/{run}")
 public class RuntimeHandler extends AbstractHttpHandler {
 
+  /**
+   * Response header of the batch topics endpoint carrying the comma separated list of topics that were fully published
+   * when the request failed, so that the client only resends messages of the other topics.
+   */
+  static final String PUBLISHED_TOPICS = "CDAP-Published-Topics";
+
   private static final Logger LOG = LoggerFactory.getLogger(RuntimeHandler.class);
+  private static final Gson GSON = new Gson();
 
+  private final CConfiguration cConf;
   private final MessagingContext messagingContext;
   private final RuntimeRequestValidator requestValidator;
   private final RemoteExecutionLogProcessor logProcessor;
   private final String logsTopicPrefix;
+  private final String programStatusTopic;
   private final boolean eventLogsEnabled;
   private final Location eventLogsBaseLocation;
   private final Set<String> allowedTopics;
@@ -89,10 +112,12 @@ public class RuntimeHandler extends AbstractHttpHandler {
   RuntimeHandler(CConfiguration cConf, MessagingService messagingService,
                  RemoteExecutionLogProcessor logProcessor, RuntimeRequestValidator requestValidator,
                  LocationFactory locationFactory) {
+    this.cConf = cConf;
     this.requestValidator = requestValidator;
     this.logProcessor = logProcessor;
     this.messagingContext = new MultiThreadMessagingContext(messagingService);
     this.logsTopicPrefix = cConf.get(Constants.Logging.TMS_TOPIC_PREFIX);
+    this.programStatusTopic = cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC);
     this.eventLogsEnabled = cConf.getBoolean(Constants.AppFabric.SPARK_EVENT_LOGS_ENABLED);
     this.eventLogsBaseLocation = locationFactory.create(cConf.get(Constants.AppFabric.SPARK_EVENT_LOGS_DIR));
     this.allowedTopics = new HashSet<>(RuntimeMonitors.createTopicConfigs(cConf).values());
@@ -110,6 +135,13 @@ public class RuntimeHandler extends AbstractHttpHandler {
     if (schema.getType() != Schema.Type.ARRAY || schema.getElementType().getType() != Schema.Type.BYTES) {
       throw new IllegalStateException("MonitorRequest schema should be an array of bytes");
     }
+    Schema batchSchema = MonitorSchemas.V2.MonitorBatchRequest.SCHEMA;
+    if (batchSchema.getType() != Schema.Type.ARRAY
+      || !Arrays.asList("topic", "messages").equals(batchSchema.getElementType().getFields().stream()
+                                                      .map(Schema.Field::name).collect(Collectors.toList()))
+      || !schema.equals(batchSchema.getElementType().getField("messages").schema())) {
+      throw new IllegalStateException("MonitorBatchRequest schema should be an array of topic and messages");
+    }
 
     if (eventLogsEnabled) {
       try {
@@ -145,23 +177,33 @@ public class RuntimeHandler extends AbstractHttpHandler {
                                                  program, run);
     requestValidator.validate(programRunId, request);
 
-    if (!allowedTopics.contains(topic)) {
-      throw new UnauthorizedException("Access denied accessing topic " + topic);
-    }
+    return new MessageBodyConsumer(NamespaceId.SYSTEM.topic(topic), getPayloadProcessor(topic));
+  }
 
-    TopicId topicId = NamespaceId.SYSTEM.topic(topic);
-    if (topic.startsWith(logsTopicPrefix)) {
-      return new MessageBodyConsumer(topicId, logProcessor::process);
+  /**
+   * Handles call for writing to multiple TMS topics from the program runtime for a given program run in one request.
+   * The POST body is an avro array of topic and messages pairs.
+   */
+  @Path("/topics")
+  @POST
+  public BodyConsumer writeBatchMessages(HttpRequest request, HttpResponder responder,
+                                         @PathParam("namespace") String namespace,
+                                         @PathParam("app") String app,
+                                         @PathParam("version") String version,
+                                         @PathParam("program-type") String programType,
+                                         @PathParam("program") String program,
+                                         @PathParam("run") String run) throws Exception {
+
+    if (!"avro/binary".equals(request.headers().get(HttpHeaderNames.CONTENT_TYPE))) {
+      throw new BadRequestException("Only avro/binary content type is supported.");
     }
 
-    return new MessageBodyConsumer(topicId, payloads -> {
-      try {
-        messagingContext.getDirectMessagePublisher().publish(topicId.getNamespace(),
-                                                             topicId.getTopic(), payloads);
-      } catch (TopicNotFoundException e) {
-        throw new BadRequestException(e);
-      }
-    });
+    ApplicationId appId = new NamespaceId(namespace).app(app, version);
+    ProgramRunId programRunId = new ProgramRunId(appId,
+                                                 ProgramType.valueOfCategoryName(programType, BadRequestException::new),
+                                                 program, run);
+    requestValidator.validate(programRunId, request);
+    return new BatchMessageBodyConsumer(programRunId);
   }
 
   /**
@@ -230,6 +272,68 @@ public class RuntimeHandler extends AbstractHttpHandler {
     };
   }
 
+  /**
+   * Returns the {@link PayloadProcessor} for processing payloads for the given topic.
+   *
+   * @throws UnauthorizedException if the topic is not allowed to be written to from the program runtime
+   */
+  private PayloadProcessor getPayloadProcessor(String topic) {
+    if (!allowedTopics.contains(topic)) {
+      throw new UnauthorizedException("Access denied accessing topic " + topic);
+    }
+
+    TopicId topicId = NamespaceId.SYSTEM.topic(topic);
+    if (topic.startsWith(logsTopicPrefix)) {
+      return logProcessor::process;
+    }
+    if (topic.equals(programStatusTopic) && ProgramStatusTopics.getNumPartitions(cConf) > 1) {
+      return this::publishProgramStatus;
+    }
+
+    return payloads -> {
+      try {
+        messagingContext.getDirectMessagePublisher().publish(topicId.getNamespace(),
+                                                             topicId.getTopic(), payloads);
+      } catch (TopicNotFoundException e) {
+        throw new BadRequestException(e);
+      }
+    };
+  }
+
+  /**
+   * Publishes program status notifications relayed from the program runtime to the program status topic
+   * partition of each notification's program run.
+   */
+  private void publishProgramStatus(Iterator<byte[]> payloads)
+    throws IOException, BadRequestException, AccessException {
+    // Group the payloads by partition. Ordering is preserved within each partition, hence within each program run.
+    Map<TopicId, List<byte[]>> partitionPayloads = new LinkedHashMap<>();
+    while (payloads.hasNext()) {
+      byte[] payload = payloads.next();
+      Map<String, String> properties = null;
+      try {
+        Notification notification = GSON.fromJson(Bytes.toString(payload), Notification.class);
+        properties = notification == null ? null : notification.getProperties();
+      } catch (JsonSyntaxException e) {
+        // Publish it as is and let the subscriber handle the invalid notification
+        LOG.debug("Failed to decode program status notification relayed from the program runtime", e);
+      }
+      TopicId topicId = ProgramStatusTopics.getTopic(cConf, properties == null
+        ? Collections.emptyMap() : properties);
+      partitionPayloads.computeIfAbsent(topicId, k -> new ArrayList<>()).add(payload);
+    }
+
+    for (Map.Entry<TopicId, List<byte[]>> entry : partitionPayloads.entrySet()) {
+      TopicId topicId = entry.getKey();
+      try {
+        messagingContext.getDirectMessagePublisher().publish(topicId.getNamespace(), topicId.getTopic(),
+                                                             entry.getValue().iterator());
+      } catch (TopicNotFoundException e) {
+        throw new BadRequestException(e);
+      }
+    }
+  }
+
   /**
    * A {@link BodyConsumer} to consume request from program runtime for writing messages to TMS.
    * It decodes and write messages to TMS in a streaming micro-batching fashion.
@@ -343,6 +447,184 @@ public class RuntimeHandler extends AbstractHttpHandler {
     }
   }
 
+  /**
+   * A {@link BodyConsumer} to consume request from program runtime for writing messages of multiple topics to TMS.
+   * Same as the {@link MessageBodyConsumer}, it decodes and write messages to TMS in a streaming micro-batching
+   * fashion, with each array block of messages of a topic as one batch.
+   */
+  private final class BatchMessageBodyConsumer extends BodyConsumer {
+
+    private final ProgramRunId programRunId;
+    private final CompositeByteBuf buffer;
+    private final DelegatingInputStream inputStream;
+    private final Decoder decoder;
+    private final Map<String, PayloadProcessor> processors;
+    // Payloads that are not yet processed for each topic
+    private final Map<String, List<byte[]>> topicPayloads;
+    // Topics that all messages in the request were published
+    private final Set<String> publishedTopics;
+    private ByteBuffer payload;
+    // Number of remaining topics in the current array block of topics
+    private long topics;
+    // The topic that messages are being decoded for
+    private String topic;
+    // Number of remaining messages in the current array block of messages
+    private long items;
+    private boolean completed;
+
+    BatchMessageBodyConsumer(ProgramRunId programRunId) {
+      this.programRunId = programRunId;
+      this.buffer = Unpooled.compositeBuffer();
+      this.inputStream = new DelegatingInputStream(new ByteBufInputStream(buffer));
+      this.decoder = DecoderFactory.get().directBinaryDecoder(inputStream, null);
+      this.processors = new HashMap<>();
+      this.topicPayloads = new LinkedHashMap<>();
+      this.publishedTopics = new LinkedHashSet<>();
+      this.topics = -1L;
+      this.items = -1L;
+    }
+
+    @Override
+    public void chunk(ByteBuf request, HttpResponder responder) {
+      buffer.discardReadComponents();
+      buffer.addComponent(true, request.retain());
+      inputStream.setDelegate(new ByteBufInputStream(buffer));
+      try {
+        try {
+          // Each iteration decodes one item. If there is not enough bytes for the item, it will be decoded again
+          // from the marked position when more bytes are received.
+          while (!completed && inputStream.available() > 0) {
+            inputStream.mark(buffer.readableBytes());
+
+            if (topics < 0) {
+              topics = decoder.readArrayStart();
+              completed = topics == 0;
+            } else if (topics == 0) {
+              topics = decoder.arrayNext();
+              completed = topics == 0;
+            } else if (topic == null) {
+              if (!isLengthAvailable()) {
+                return;
+              }
+              topic = decoder.readString();
+              processors.computeIfAbsent(topic, RuntimeHandler.this::getPayloadProcessor);
+            } else if (items < 0) {
+              items = decoder.readArrayStart();
+              if (items == 0) {
+                endTopic();
+              }
+            } else if (items == 0) {
+              // Process the payloads decoded from the last array block before reading the next one
+              processPayloads(topic);
+              items = decoder.arrayNext();
+              if (items == 0) {
+                endTopic();
+              }
+            } else {
+              if (!isLengthAvailable()) {
+                return;
+              }
+              payload = decoder.readBytes(payload);
+              topicPayloads.computeIfAbsent(topic, k -> new LinkedList<>()).add(Bytes.toBytes(payload));
+              items--;
+            }
+          }
+        } catch (EOFException e) {
+          inputStream.reset();
+        }
+      } catch (UnauthorizedException e) {
+        responder.sendString(HttpResponseStatus.FORBIDDEN, e.getMessage(), getPublishedTopicsHeaders());
+        throw e;
+      } catch (IOException | BadRequestException | AccessException e) {
+        responder.sendString(HttpResponseStatus.BAD_REQUEST,
+                             "Failed to process request due to exception " + e.getMessage(),
+                             getPublishedTopicsHeaders());
+        throw new RuntimeException(e);
+      }
+    }
+
+    @Override
+    public void finished(HttpResponder responder) {
+      try {
+        if (!completed) {
+          responder.sendString(HttpResponseStatus.BAD_REQUEST, "Incomplete request body", getPublishedTopicsHeaders());
+          return;
+        }
+        try {
+          Iterator<Map.Entry<String, List<byte[]>>> iterator = topicPayloads.entrySet().iterator();
+          while (iterator.hasNext()) {
+            Map.Entry<String, List<byte[]>> entry = iterator.next();
+            processors.get(entry.getKey()).process(entry.getValue().iterator());
+            publishedTopics.add(entry.getKey());
+            iterator.remove();
+          }
+          responder.sendStatus(HttpResponseStatus.OK);
+        } catch (BadRequestException e) {
+          responder.sendString(HttpResponseStatus.BAD_REQUEST, e.getMessage(), getPublishedTopicsHeaders());
+        } catch (UnauthorizedException e) {
+          responder.sendString(HttpResponseStatus.FORBIDDEN, e.getMessage(), getPublishedTopicsHeaders());
+        } catch (IOException | AccessException e) {
+          responder.sendString(HttpResponseStatus.SERVICE_UNAVAILABLE,
+                               "Failed to process all messages due to " + e.getMessage(),
+                               getPublishedTopicsHeaders());
+        }
+      } finally {
+        Closeables.closeQuietly(inputStream);
+        buffer.release();
+      }
+    }
+
+    @Override
+    public void handleError(Throwable cause) {
+      LOG.error("Exception raised when processing message body for publishing messages from {}", programRunId, cause);
+    }
+
+    /**
+     * Reads the length prefix of the next string or bytes and returns whether that many bytes are available.
+     * The stream position is reset to the marked position afterwards.
+     */
+    private boolean isLengthAvailable() throws IOException {
+      long len = decoder.readLong();
+      try {
+        return inputStream.available() >= len;
+      } finally {
+        inputStream.reset();
+      }
+    }
+
+    private void processPayloads(String topic) throws BadRequestException {
+      List<byte[]> payloads = topicPayloads.get(topic);
+      if (payloads == null || payloads.isEmpty()) {
+        return;
+      }
+      try {
+        processors.get(topic).process(payloads.iterator());
+        topicPayloads.remove(topic);
+      } catch (IOException e) {
+        // If we cannot process, just continue to keep buffering messages and retry at the next/finished called.
+        LOG.debug("Failed to process payload for topic {}. Will be retried", topic, e);
+      }
+    }
+
+    private void endTopic() throws BadRequestException {
+      processPayloads(topic);
+      // The topic is published if there is no payload left that failed to be processed
+      if (!topicPayloads.containsKey(topic)) {
+        publishedTopics.add(topic);
+      }
+      topic = null;
+      topics--;
+      items = -1L;
+    }
+
+    /**
+     * Returns the response headers that carry the topics that were published.
+     */
+    private HttpHeaders getPublishedTopicsHeaders() {
+      return new DefaultHttpHeaders().set(PUBLISHED_TOPICS, String.join(",", publishedTopics));
+    }
+  }
+
   /**
    * An {@link InputStream} that delegates all operations to another {@link InputStream}.
    */
@@ -19,6 +19,7 @@ package io.cdap.cdap.internal.app.runtime.plugin;
 import com.google.common.base.Defaults;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -51,9 +52,7 @@ import io.cdap.cdap.common.lang.InstantiatorFactory;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
 import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.internal.app.runtime.artifact.Artifacts;
-import io.cdap.cdap.internal.lang.FieldVisitor;
 import io.cdap.cdap.internal.lang.Fields;
-import io.cdap.cdap.internal.lang.Reflections;
 import org.apache.twill.filesystem.Location;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -100,8 +99,12 @@ public class PluginInstantiator implements Closeable {
     .put("short", short.class)
     .put("string", String.class)
     .build();
+  // Maximum number of distinct plugin properties to keep the macro substitution plan for
+  private static final int MAX_PROPERTIES_PLANS = 1000;
 
   private final LoadingCache<ClassLoaderKey, PluginClassLoader> classLoaders;
+  private final Cache<Class<?>, PluginClassPlan> pluginClassPlans;
+  private final Cache<Plugin, PluginPropertiesPlan> pluginPropertiesPlans;
   private final InstantiatorFactory instantiatorFactory;
   private final File tmpDir;
   private final File pluginDir;
@@ -123,6 +126,9 @@ public class PluginInstantiator implements Closeable {
     this.classLoaders = CacheBuilder.newBuilder()
       .removalListener(new ClassLoaderRemovalListener())
       .build(new ClassLoaderCacheLoader());
+    // Plugin classes are kept alive by the classloader cache anyway, hence no need to use weak keys
+    this.pluginClassPlans = CacheBuilder.newBuilder().build();
+    this.pluginPropertiesPlans = CacheBuilder.newBuilder().maximumSize(MAX_PROPERTIES_PLANS).build();
     this.parentClassLoader = filterClassloader ? PluginClassLoader.createParent(parentClassLoader) : parentClassLoader;
     this.ownedParentClassLoader = filterClassloader;
   }
@@ -232,28 +238,32 @@ public class PluginInstantiator implements Closeable {
     throws IOException, ClassNotFoundException, InvalidMacroException {
     ClassLoader classLoader = getPluginClassLoader(plugin);
     PluginClass pluginClass = plugin.getPluginClass();
-    @SuppressWarnings("unchecked")
-    TypeToken<T> pluginType = TypeToken.of((Class<T>) classLoader.loadClass(pluginClass.getClassName()));
+    Class<?> pluginRawType = classLoader.loadClass(pluginClass.getClassName());
 
     try {
-      String configFieldName = pluginClass.getConfigFieldName();
+      PluginClassPlan classPlan = pluginClassPlans.get(pluginRawType,
+                                                       () -> new PluginClassPlan(pluginRawType,
+                                                                                 pluginClass.getConfigFieldName()));
       // Plugin doesn't have config. Simply return a new instance.
-      if (configFieldName == null) {
-        return instantiatorFactory.get(pluginType).create();
+      if (classPlan.configField == null) {
+        @SuppressWarnings("unchecked")
+        T instance = (T) instantiatorFactory.get(classPlan.pluginType).create();
+        return instance;
       }
 
       // Create the config instance
-      Field field = Fields.findField(pluginType.getType(), configFieldName);
-      TypeToken<?> configFieldType = pluginType.resolveType(field.getGenericType());
-      Object config = instantiatorFactory.get(configFieldType).create();
+      Object config = instantiatorFactory.get(classPlan.configFieldType).create();
 
       // perform macro substitution if an evaluator is provided, collect fields with macros only at configure time
       PluginProperties pluginProperties = substituteMacros(plugin, macroEvaluator);
       Set<String> macroFields = (macroEvaluator == null) ? getFieldsWithMacro(plugin) : Collections.emptySet();
 
       PluginProperties rawProperties = plugin.getProperties();
-      ConfigFieldSetter fieldSetter = new ConfigFieldSetter(pluginClass, pluginProperties, rawProperties, macroFields);
-      Reflections.visit(config, configFieldType.getType(), fieldSetter);
+      ConfigFieldSetter fieldSetter = new ConfigFieldSetter(pluginClass, pluginProperties, rawProperties,
+                                                            macroFields, classPlan.gson);
+      for (ConfigFieldPlan fieldPlan : classPlan.configFields) {
+        fieldSetter.set(config, fieldPlan);
+      }
 
       if (!fieldSetter.invalidProperties.isEmpty() || !fieldSetter.missingProperties.isEmpty()) {
         throw new InvalidPluginConfigException(pluginClass, fieldSetter.missingProperties,
@@ -261,20 +271,33 @@ public class PluginInstantiator implements Closeable {
       }
 
       // Create the plugin instance
-      return newInstance(pluginType, field, configFieldType, config);
-    } catch (NoSuchFieldException e) {
-      throw new InvalidPluginConfigException("Config field not found in plugin class: " + pluginClass, e);
+      return newInstance(classPlan, config);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof NoSuchFieldException) {
+        throw new InvalidPluginConfigException("Config field not found in plugin class: " + pluginClass,
+                                               e.getCause());
+      }
+      throw Throwables.propagate(e.getCause());
     } catch (IllegalAccessException e) {
       throw new InvalidPluginConfigException("Failed to set plugin config field: " + pluginClass, e);
     }
   }
 
   public PluginProperties substituteMacros(Plugin plugin, @Nullable MacroEvaluator macroEvaluator) {
+    if (macroEvaluator == null) {
+      return substituteMacrosAtConfigTime(plugin);
+    }
+    try {
+      return pluginPropertiesPlans.get(plugin, () -> new PluginPropertiesPlan(plugin)).substitute(macroEvaluator);
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private PluginProperties substituteMacrosAtConfigTime(Plugin plugin) {
     Map<String, String> properties = new HashMap<>();
     Map<String, PluginPropertyField> pluginPropertyFieldMap = plugin.getPluginClass().getProperties();
 
-    // create macro evaluator and parser based on if it is config or runtime
-    boolean configTime = (macroEvaluator == null);
     TrackingMacroEvaluator trackingMacroEvaluator = new TrackingMacroEvaluator();
 
     for (Map.Entry<String, String> property : plugin.getProperties().getProperties().entrySet()) {
@@ -282,22 +305,14 @@ public class PluginInstantiator implements Closeable {
       String propertyValue = property.getValue();
       if (field != null && field.isMacroSupported()) {
         // TODO: cleanup after endpoint to get plugin details is merged (#6089)
-        if (configTime) {
-          // parse for syntax check and check if trackingMacroEvaluator finds macro syntax present
-          MacroParser macroParser = new MacroParser(trackingMacroEvaluator,
-                                                    MacroParserOptions.builder()
-                                                      .setEscaping(field.isMacroEscapingEnabled())
-                                                      .build());
-          macroParser.parse(propertyValue);
-          propertyValue = getOriginalOrDefaultValue(propertyValue, property.getKey(), field.getType(),
-                                                    trackingMacroEvaluator);
-        } else {
-          MacroParser macroParser = new MacroParser(macroEvaluator,
-                                                    MacroParserOptions.builder()
-                                                      .setEscaping(field.isMacroEscapingEnabled())
-                                                      .build());
-          propertyValue = macroParser.parse(propertyValue);
-        }
+        // parse for syntax check and check if trackingMacroEvaluator finds macro syntax present
+        MacroParser macroParser = new MacroParser(trackingMacroEvaluator,
+                                                  MacroParserOptions.builder()
+                                                    .setEscaping(field.isMacroEscapingEnabled())
+                                                    .build());
+        macroParser.parse(propertyValue);
+        propertyValue = getOriginalOrDefaultValue(propertyValue, property.getKey(), field.getType(),
+                                                  trackingMacroEvaluator);
       }
       properties.put(property.getKey(), propertyValue);
     }
@@ -354,44 +369,35 @@ public class PluginInstantiator implements Closeable {
 
 
   /**
-   * Creates a new plugin instance and optionally setup the {@link PluginConfig} field.
+   * Creates a new plugin instance and setup the {@link PluginConfig} field.
    */
   @SuppressWarnings("unchecked")
-  private <T> T newInstance(TypeToken<?> pluginType, Field configField,
-                            TypeToken<?> configFieldType, Object config) throws IllegalAccessException {
-    // See if the plugin has a constructor that takes the config type.
-    // Need to loop because we need to resolve the constructor parameter type from generic.
-    for (Constructor<?> constructor : pluginType.getRawType().getConstructors()) {
-      Type[] parameterTypes = constructor.getGenericParameterTypes();
-      if (parameterTypes.length != 1) {
-        continue;
-      }
-      if (configFieldType.equals(pluginType.resolveType(parameterTypes[0]))) {
-        constructor.setAccessible(true);
-        try {
-          // Call the plugin constructor to construct the instance
-          return (T) constructor.newInstance(config);
-        } catch (InvocationTargetException e) {
-          // If there is exception thrown from the constructor, propagate it.
-          throw Throwables.propagate(e.getCause());
-        } catch (Exception e) {
-          // Failed to instantiate. Resort to field injection
-          LOG.warn("Failed to invoke plugin constructor {}. Resort to config field injection.", constructor);
-          break;
-        }
+  private <T> T newInstance(PluginClassPlan classPlan, Object config) throws IllegalAccessException {
+    Constructor<?> constructor = classPlan.configConstructor;
+    if (constructor != null) {
+      try {
+        // Call the plugin constructor to construct the instance
+        return (T) constructor.newInstance(config);
+      } catch (InvocationTargetException e) {
+        // If there is exception thrown from the constructor, propagate it.
+        throw Throwables.propagate(e.getCause());
+      } catch (Exception e) {
+        // Failed to instantiate. Resort to field injection
+        LOG.warn("Failed to invoke plugin constructor {}. Resort to config field injection.", constructor);
       }
     }
 
     // No matching constructor found, do field injection.
-    T plugin = (T) instantiatorFactory.get(pluginType).create();
-    configField.setAccessible(true);
-    configField.set(plugin, config);
+    T plugin = (T) instantiatorFactory.get(classPlan.pluginType).create();
+    classPlan.configField.set(plugin, config);
     return plugin;
   }
 
   @Override
   public void close() throws IOException {
     // Cleanup the ClassLoader cache and the temporary directory for the expanded plugin jar.
+    pluginClassPlans.invalidateAll();
+    pluginPropertiesPlans.invalidateAll();
     classLoaders.invalidateAll();
     if (ownedParentClassLoader) {
       Closeables.closeQuietly((Closeable) parentClassLoader);
@@ -494,9 +500,160 @@ public class PluginInstantiator implements Closeable {
   }
 
   /**
-   * A {@link FieldVisitor} for setting values into {@link PluginConfig} object based on {@link PluginProperties}.
+   * Pre-resolved reflection information of a plugin class, so that creating a new plugin instance only needs to
+   * allocate objects and set fields.
+   */
+  private static final class PluginClassPlan {
+
+    private final TypeToken<?> pluginType;
+    private final Field configField;
+    private final TypeToken<?> configFieldType;
+    private final Constructor<?> configConstructor;
+    private final List<ConfigFieldPlan> configFields;
+    private final Gson gson;
+
+    PluginClassPlan(Class<?> pluginClass, @Nullable String configFieldName) throws NoSuchFieldException {
+      this.pluginType = TypeToken.of(pluginClass);
+      // Don't use a static Gson object to avoid caching of classloader, which can cause classloader leakage.
+      this.gson = new GsonBuilder().setFieldNamingStrategy(new PluginFieldNamingStrategy()).create();
+
+      if (configFieldName == null) {
+        this.configField = null;
+        this.configFieldType = null;
+        this.configConstructor = null;
+        this.configFields = Collections.emptyList();
+        return;
+      }
+
+      this.configField = Fields.findField(pluginType.getType(), configFieldName);
+      this.configField.setAccessible(true);
+      this.configFieldType = pluginType.resolveType(configField.getGenericType());
+      this.configConstructor = findConfigConstructor(pluginType, configFieldType);
+
+      // Collects the fields to set in the same order as Reflections.visit
+      List<ConfigFieldPlan> fields = new ArrayList<>();
+      for (TypeToken<?> type : configFieldType.getTypes().classes()) {
+        if (Object.class.equals(type.getRawType())) {
+          break;
+        }
+        for (Field field : type.getRawType().getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (Modifier.isTransient(modifiers) || Modifier.isStatic(modifiers) || field.isSynthetic()) {
+            continue;
+          }
+          field.setAccessible(true);
+          fields.add(new ConfigFieldPlan(field, type));
+        }
+      }
+      this.configFields = Collections.unmodifiableList(fields);
+    }
+
+    /**
+     * Returns the plugin constructor that takes the config type as the only parameter or {@code null} if there is
+     * no such constructor.
+     */
+    @Nullable
+    private static Constructor<?> findConfigConstructor(TypeToken<?> pluginType, TypeToken<?> configFieldType) {
+      // Need to loop because we need to resolve the constructor parameter type from generic.
+      for (Constructor<?> constructor : pluginType.getRawType().getConstructors()) {
+        Type[] parameterTypes = constructor.getGenericParameterTypes();
+        if (parameterTypes.length == 1 && configFieldType.equals(pluginType.resolveType(parameterTypes[0]))) {
+          constructor.setAccessible(true);
+          return constructor;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Pre-resolved information of a field in a {@link PluginConfig} class.
+   */
+  private static final class ConfigFieldPlan {
+
+    private final Field field;
+    private final Type declareType;
+    private final boolean pluginConfigField;
+    private final String name;
+    private final TypeToken<?> fieldType;
+
+    ConfigFieldPlan(Field field, TypeToken<?> declareType) {
+      this.field = field;
+      this.declareType = declareType.getType();
+      this.pluginConfigField = PluginConfig.class.equals(declareType.getRawType());
+      Name nameAnnotation = field.getAnnotation(Name.class);
+      this.name = nameAnnotation == null ? field.getName() : nameAnnotation.value();
+      this.fieldType = declareType.resolveType(field.getGenericType());
+    }
+  }
+
+  /**
+   * The result of parsing the properties of a {@link Plugin} for macros. Property values that don't contain macro
+   * are resolved once, so that only properties with macros need to be parsed again for each evaluation.
+   */
+  private static final class PluginPropertiesPlan {
+
+    private final Map<String, String> constants;
+    private final Map<String, MacroParserOptions> macroOptions;
+    private final Map<String, String> macroValues;
+    private final PluginProperties constantProperties;
+
+    PluginPropertiesPlan(Plugin plugin) {
+      Map<String, PluginPropertyField> pluginPropertyFieldMap = plugin.getPluginClass().getProperties();
+      Map<String, String> constants = new HashMap<>();
+      Map<String, MacroParserOptions> macroOptions = new HashMap<>();
+      Map<String, String> macroValues = new HashMap<>();
+
+      for (Map.Entry<String, String> property : plugin.getProperties().getProperties().entrySet()) {
+        PluginPropertyField field = pluginPropertyFieldMap.get(property.getKey());
+        String propertyValue = property.getValue();
+        if (field == null || !field.isMacroSupported()) {
+          constants.put(property.getKey(), propertyValue);
+          continue;
+        }
+
+        MacroParserOptions options = MacroParserOptions.builder().setEscaping(field.isMacroEscapingEnabled()).build();
+        TrackingMacroEvaluator trackingMacroEvaluator = new TrackingMacroEvaluator();
+        try {
+          // If there is no macro, the parsed value doesn't depend on the macro evaluator
+          String parsedValue = new MacroParser(trackingMacroEvaluator, options).parse(propertyValue);
+          if (!trackingMacroEvaluator.hasMacro()) {
+            constants.put(property.getKey(), parsedValue);
+            continue;
+          }
+        } catch (InvalidMacroException e) {
+          // Leave it to be parsed with the actual macro evaluator to surface the error at substitution time
+        }
+        macroOptions.put(property.getKey(), options);
+        macroValues.put(property.getKey(), propertyValue);
+      }
+
+      this.constants = constants;
+      this.macroOptions = macroOptions;
+      this.macroValues = macroValues;
+      this.constantProperties = macroValues.isEmpty() ? PluginProperties.builder().addAll(constants).build() : null;
+    }
+
+    /**
+     * Returns the {@link PluginProperties} with all macros substituted by the given {@link MacroEvaluator}.
+     */
+    PluginProperties substitute(MacroEvaluator macroEvaluator) {
+      if (constantProperties != null) {
+        return constantProperties;
+      }
+      Map<String, String> properties = new HashMap<>(constants);
+      for (Map.Entry<String, String> entry : macroValues.entrySet()) {
+        MacroParser macroParser = new MacroParser(macroEvaluator, macroOptions.get(entry.getKey()));
+        properties.put(entry.getKey(), macroParser.parse(entry.getValue()));
+      }
+      return PluginProperties.builder().addAll(properties).build();
+    }
+  }
+
+  /**
+   * Sets values into {@link PluginConfig} object based on {@link PluginProperties}.
    */
-  private static final class ConfigFieldSetter extends FieldVisitor {
+  private static final class ConfigFieldSetter {
 
     private final PluginClass pluginClass;
     private final PluginProperties properties;
@@ -507,28 +664,21 @@ public class PluginInstantiator implements Closeable {
     private final Gson gson;
 
     ConfigFieldSetter(PluginClass pluginClass, PluginProperties properties, PluginProperties rawProperties,
-                      Set<String> macroFields) {
+                      Set<String> macroFields, Gson gson) {
       this.pluginClass = pluginClass;
       this.properties = properties;
       this.rawProperties = rawProperties;
       this.macroFields = macroFields;
       this.missingProperties = new HashSet<>();
       this.invalidProperties = new HashSet<>();
-
-      // Don't use a static Gson object to avoid caching of classloader, which can cause classloader leakage.
-      this.gson = new GsonBuilder().setFieldNamingStrategy(new PluginFieldNamingStrategy()).create();
+      this.gson = gson;
     }
 
-    @Override
-    public void visit(Object instance, Type inspectType, Type declareType, Field field) throws Exception {
-      int modifiers = field.getModifiers();
-      if (Modifier.isTransient(modifiers) || Modifier.isStatic(modifiers) || field.isSynthetic()) {
-        return;
-      }
+    void set(Object instance, ConfigFieldPlan fieldPlan) throws IllegalAccessException {
+      Field field = fieldPlan.field;
+      Type declareType = fieldPlan.declareType;
 
-      TypeToken<?> declareTypeToken = TypeToken.of(declareType);
-
-      if (PluginConfig.class.equals(declareTypeToken.getRawType())) {
+      if (fieldPlan.pluginConfigField) {
         switch (field.getName()) {
           case "properties":
             field.set(instance, properties);
@@ -543,8 +693,7 @@ public class PluginInstantiator implements Closeable {
         return;
       }
 
-      Name nameAnnotation = field.getAnnotation(Name.class);
-      String name = nameAnnotation == null ? field.getName() : nameAnnotation.value();
+      String name = fieldPlan.name;
       PluginPropertyField pluginPropertyField = pluginClass.getProperties().get(name);
       // if the property is required and it's not a macro and the property doesn't exist and it is not an config
       // that is consisted of a collection of configs
@@ -585,8 +734,7 @@ public class PluginInstantiator implements Closeable {
 
       if (pluginPropertyField.isRequired() || value != null) {
         try {
-          Object convertedValue = convertValue(name, declareType,
-                                               declareTypeToken.resolveType(field.getGenericType()), value);
+          Object convertedValue = convertValue(name, declareType, fieldPlan.fieldType, value);
 
           // set the remaining plugin properties field
           if (!children.isEmpty() && convertedValue instanceof PluginConfig) {
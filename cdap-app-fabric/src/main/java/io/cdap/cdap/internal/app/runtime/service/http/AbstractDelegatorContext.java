@@ -21,10 +21,14 @@ import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.cache.RemovalListener;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.cdap.cdap.api.Transactional;
 import io.cdap.cdap.api.metrics.MetricsContext;
 import io.cdap.cdap.api.service.http.HttpContentConsumer;
 import io.cdap.cdap.api.service.http.HttpContentProducer;
+import io.cdap.cdap.common.ServiceUnavailableException;
 import io.cdap.cdap.common.lang.InstantiatorFactory;
+import io.cdap.cdap.internal.app.runtime.ThrowingRunnable;
 import org.apache.twill.common.Cancellable;
 
 import java.io.Closeable;
@@ -32,7 +36,12 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,10 +50,27 @@ import java.util.concurrent.atomic.AtomicInteger;
  * together with the context capturing capability that is suitable for {@link HttpContentProducer} and
  * {@link HttpContentConsumer} use cases.
  *
+ * The context can operate in one of two modes:
+ * <ul>
+ *   <li>
+ *     Thread bound (default). Each thread that calls the user service handler gets its own handler instance,
+ *     which stays with the thread until the thread dies or the context is captured.
+ *   </li>
+ *   <li>
+ *     Request scoped. Enabled by providing a positive {@code maxPoolSize}. Handler instances are borrowed from a
+ *     bounded pool at the beginning of a request and returned to the pool once the request completed
+ *     (i.e. when {@link ServiceTaskExecutor#releaseCallResources()} is called). This allows running
+ *     blocking handlers with a large number of request threads, without having one handler instance
+ *     (and its dataset cache) per thread.
+ *   </li>
+ * </ul>
+ *
  * @param <T> type of the user service handler
  */
 public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>, Closeable {
 
+  private static final long DEFAULT_BORROW_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
   private final TypeToken<T> handlerType;
   private final InstantiatorFactory instantiatorFactory;
   private final LoadingCache<Thread, HandlerTaskExecutor> handlerExecutorCache;
@@ -52,11 +78,34 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
   private final AtomicInteger handlerExecutorSize;
   private final MetricsContext programMetricsContext;
   private final MetricsContext handlerMetricsContext;
+  private final int maxPoolSize;
+  private final long borrowTimeoutMillis;
+  private final Semaphore borrowPermits;
+  private final ConcurrentMap<Thread, RequestBinding> requestBindings;
   private volatile boolean shutdown;
 
-
   protected AbstractDelegatorContext(TypeToken<T> handlerType, InstantiatorFactory instantiatorFactory,
                                      MetricsContext programMetricsContext, MetricsContext handlerMetricsContext) {
+    this(handlerType, instantiatorFactory, programMetricsContext, handlerMetricsContext, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param maxPoolSize maximum number of user service handler instances to have when operating in
+   *                    request scoped mode. If it is smaller than or equal to {@code 0},
+   *                    handler instances are bound to threads.
+   */
+  protected AbstractDelegatorContext(TypeToken<T> handlerType, InstantiatorFactory instantiatorFactory,
+                                     MetricsContext programMetricsContext, MetricsContext handlerMetricsContext,
+                                     int maxPoolSize) {
+    this(handlerType, instantiatorFactory, programMetricsContext, handlerMetricsContext,
+         maxPoolSize, DEFAULT_BORROW_TIMEOUT_MILLIS);
+  }
+
+  protected AbstractDelegatorContext(TypeToken<T> handlerType, InstantiatorFactory instantiatorFactory,
+                                     MetricsContext programMetricsContext, MetricsContext handlerMetricsContext,
+                                     int maxPoolSize, long borrowTimeoutMillis) {
     this.handlerType = handlerType;
     this.instantiatorFactory = instantiatorFactory;
     this.programMetricsContext = programMetricsContext;
@@ -64,6 +113,10 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     this.handlerExecutorPool = new ConcurrentLinkedQueue<>();
     this.handlerExecutorCache = createHandlerTaskExecutorCache();
     this.handlerExecutorSize = new AtomicInteger();
+    this.maxPoolSize = Math.max(0, maxPoolSize);
+    this.borrowTimeoutMillis = borrowTimeoutMillis;
+    this.borrowPermits = new Semaphore(this.maxPoolSize);
+    this.requestBindings = new ConcurrentHashMap<>();
   }
 
   /**
@@ -73,21 +126,42 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     return handlerMetricsContext;
   }
 
+  /**
+   * Returns {@code true} if user service handler instances are borrowed per request from a bounded pool,
+   * instead of being bound to the calling thread.
+   */
+  public final boolean isRequestScoped() {
+    return maxPoolSize > 0;
+  }
+
   @Override
   public final T getHandler() {
+    if (isRequestScoped()) {
+      return getRequestBinding().executor.getHandler();
+    }
     return handlerExecutorCache.getUnchecked(Thread.currentThread()).getHandler();
   }
 
   @Override
   public final ServiceTaskExecutor getServiceTaskExecutor() {
+    if (isRequestScoped()) {
+      return getRequestBinding();
+    }
     return handlerExecutorCache.getUnchecked(Thread.currentThread());
   }
 
   @Override
   public final Cancellable capture() {
-    // To capture, remove the executor from the cache.
-    // The removal listener of the cache will be triggered for this thread entry with an EXPLICIT cause
-    final HandlerTaskExecutor executor = handlerExecutorCache.asMap().remove(Thread.currentThread());
+    final HandlerTaskExecutor executor;
+    if (isRequestScoped()) {
+      // To capture, remove the binding so that the executor won't be returned to the pool at the end of the request
+      RequestBinding binding = requestBindings.remove(Thread.currentThread());
+      executor = binding == null ? null : binding.executor;
+    } else {
+      // To capture, remove the executor from the cache.
+      // The removal listener of the cache will be triggered for this thread entry with an EXPLICIT cause
+      executor = handlerExecutorCache.asMap().remove(Thread.currentThread());
+    }
     if (executor == null) {
       // Shouldn't happen, as the executor should of the current thread must be in the cache
       // Otherwise, it's a bug in the system.
@@ -97,9 +171,7 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     final AtomicBoolean cancelled = new AtomicBoolean(false);
     return () -> {
       if (cancelled.compareAndSet(false, true)) {
-        handlerExecutorPool.offer(executor);
-        // offer never return false for ConcurrentLinkedQueue
-        programMetricsContext.gauge("context.pool.size", handlerExecutorSize.incrementAndGet());
+        returnToPool(executor);
       } else {
         // This shouldn't happen, unless there is bug in the platform.
         // Since the context capture and release is a complicated logic, it's better throwing exception
@@ -122,6 +194,13 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     }
     handlerExecutorCache.invalidateAll(invalidKeys);
     handlerExecutorCache.cleanUp();
+
+    // Return executors that were borrowed by threads that are no longer running
+    for (Map.Entry<Thread, RequestBinding> entry : requestBindings.entrySet()) {
+      if (!entry.getKey().isAlive() && requestBindings.remove(entry.getKey(), entry.getValue())) {
+        returnToPool(entry.getValue().executor);
+      }
+    }
   }
 
   @Override
@@ -129,6 +208,8 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
     shutdown = true;
     handlerExecutorCache.invalidateAll();
     handlerExecutorCache.cleanUp();
+    requestBindings.values().forEach(binding -> binding.executor.close());
+    requestBindings.clear();
     handlerExecutorPool.forEach(HandlerTaskExecutor::close);
     handlerExecutorPool.clear();
   }
@@ -175,6 +256,110 @@ public abstract class AbstractDelegatorContext<T> implements DelegatorContext<T>
       });
   }
 
+  /**
+   * Returns the {@link RequestBinding} of the current thread. If there is no executor bound to the current thread,
+   * one will be borrowed from the pool, blocking until one is available.
+   */
+  private RequestBinding getRequestBinding() {
+    Thread thread = Thread.currentThread();
+    RequestBinding binding = requestBindings.get(thread);
+    if (binding != null) {
+      return binding;
+    }
+
+    binding = new RequestBinding(thread, borrowFromPool());
+    requestBindings.put(thread, binding);
+    return binding;
+  }
+
+  /**
+   * Borrows a {@link HandlerTaskExecutor} from the pool, or creates a new one if the pool is empty and the
+   * maximum number of instances hasn't been reached.
+   */
+  private HandlerTaskExecutor borrowFromPool() {
+    try {
+      if (!borrowPermits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        throw new ServiceUnavailableException(handlerType.getRawType().getName(),
+                                              "No handler instance available after waiting for "
+                                                + borrowTimeoutMillis + " ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ServiceUnavailableException(handlerType.getRawType().getName(), e);
+    }
+
+    HandlerTaskExecutor executor = handlerExecutorPool.poll();
+    if (executor != null) {
+      programMetricsContext.gauge("context.pool.size", handlerExecutorSize.decrementAndGet());
+      return executor;
+    }
+    try {
+      return createTaskExecutor(instantiatorFactory);
+    } catch (Exception e) {
+      borrowPermits.release();
+      throw new UncheckedExecutionException(e);
+    }
+  }
+
+  /**
+   * Returns a {@link HandlerTaskExecutor} to the pool so that it can be reused.
+   */
+  private void returnToPool(HandlerTaskExecutor executor) {
+    if (shutdown) {
+      executor.close();
+      return;
+    }
+    handlerExecutorPool.offer(executor);
+    // offer never return false for ConcurrentLinkedQueue
+    programMetricsContext.gauge("context.pool.size", handlerExecutorSize.incrementAndGet());
+    if (isRequestScoped()) {
+      borrowPermits.release();
+    }
+  }
+
+  /**
+   * A {@link ServiceTaskExecutor} that represents the borrowing of a {@link HandlerTaskExecutor} by a thread
+   * for the duration of a request. The executor is returned to the pool when the request resources are released,
+   * unless the binding was captured.
+   */
+  private final class RequestBinding implements ServiceTaskExecutor {
+
+    private final Thread thread;
+    private final HandlerTaskExecutor executor;
+
+    private RequestBinding(Thread thread, HandlerTaskExecutor executor) {
+      this.thread = thread;
+      this.executor = executor;
+    }
+
+    @Override
+    public void execute(ThrowingRunnable runnable, boolean transactional) throws Exception {
+      executor.execute(runnable, transactional);
+    }
+
+    @Override
+    public <V> V execute(Callable<V> callable, boolean transactional) throws Exception {
+      return executor.execute(callable, transactional);
+    }
+
+    @Override
+    public void releaseCallResources() {
+      try {
+        executor.releaseCallResources();
+      } finally {
+        // Only return the executor if this binding is still the active one for the thread.
+        // If the context was captured, the executor will be returned by the capture Cancellable instead.
+        if (requestBindings.remove(thread, this)) {
+          returnToPool(executor);
+        }
+      }
+    }
+
+    @Override
+    public Transactional getTransactional() {
+      return executor.getTransactional();
+    }
+  }
 
   /**
    * Helper class for performing user service handler lifecycle calls as well as task execution.
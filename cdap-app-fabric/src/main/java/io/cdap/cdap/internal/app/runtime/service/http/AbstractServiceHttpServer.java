@@ -93,6 +93,16 @@ public abstract class AbstractServiceHttpServer<T> extends AbstractIdleService {
     return instanceId;
   }
 
+  /**
+   * Returns the maximum number of handler instances per handler class for serving requests, or {@code 0} if
+   * handler instances are bound to the request threads.
+   *
+   * @see SystemArguments#getServiceHandlerPoolSize(java.util.Map)
+   */
+  protected final int getHandlerPoolSize() {
+    return SystemArguments.getServiceHandlerPoolSize(programOptions.getUserArguments().asMap());
+  }
+
   protected abstract String getRoutingPathName();
 
   protected abstract LoggingContext getLoggingContext();
@@ -147,6 +147,7 @@ final class WorkflowDriver extends AbstractExecutionThreadService {
   private final FieldLineageWriter fieldLineageWriter;
   private final NamespaceQueryAdmin namespaceQueryAdmin;
   private final RemoteClientFactory remoteClientFactory;
+  private final WorkflowNodeSlots nodeSlots;
 
   private volatile Thread runningThread;
   private boolean suspended;
@@ -196,6 +197,8 @@ final class WorkflowDriver extends AbstractExecutionThreadService {
     this.fieldLineageWriter = fieldLineageWriter;
     this.namespaceQueryAdmin = namespaceQueryAdmin;
     this.remoteClientFactory = remoteClientFactory;
+    this.nodeSlots = new WorkflowNodeSlots(cConf.getInt(Constants.AppFabric.WORKFLOW_MAX_CONCURRENT_NODES, 0),
+                                           workflowContext.getProgramMetrics());
   }
 
   @Override
@@ -469,11 +472,14 @@ final class WorkflowDriver extends AbstractExecutionThreadService {
     switch (nodeType) {
       case ACTION:
         WorkflowActionNode actionNode = (WorkflowActionNode) node;
-        if (SchedulableProgramType.CUSTOM_ACTION == actionNode.getProgram().getProgramType()) {
-          executeCustomAction(actionNode, instantiator, classLoader, token);
-        } else {
-          executeAction(actionNode, token);
-        }
+        nodeSlots.execute(node.getNodeId(), () -> {
+          if (SchedulableProgramType.CUSTOM_ACTION == actionNode.getProgram().getProgramType()) {
+            executeCustomAction(actionNode, instantiator, classLoader, token);
+          } else {
+            executeAction(actionNode, token);
+          }
+          return null;
+        });
         break;
       case FORK:
         executeFork(appSpec, (WorkflowForkNode) node, instantiator, classLoader, token);
@@ -486,10 +492,26 @@ final class WorkflowDriver extends AbstractExecutionThreadService {
     }
   }
 
-  @SuppressWarnings("unchecked")
-  private void executeCondition(ApplicationSpecification appSpec, final WorkflowConditionNode node,
+  private void executeCondition(ApplicationSpecification appSpec, WorkflowConditionNode node,
                                 InstantiatorFactory instantiator, ClassLoader classLoader,
                                 WorkflowToken token) throws Exception {
+    Iterator<WorkflowNode> iterator = nodeSlots.execute(
+      node.getNodeId(), () -> evaluateCondition(node, instantiator, classLoader, token));
+
+    // If a workflow updates its token at a condition node, it will be persisted after the execution of the next node.
+    // However, the call below ensures that even if the workflow fails/crashes after a condition node, updates from the
+    // condition node are also persisted.
+    workflowStateWriter.setWorkflowToken(workflowRunId, token);
+    executeAll(iterator, appSpec, instantiator, classLoader, token);
+  }
+
+  /**
+   * Evaluates the predicate of the given condition node and returns the nodes of the branch to execute.
+   */
+  @SuppressWarnings("unchecked")
+  private Iterator<WorkflowNode> evaluateCondition(final WorkflowConditionNode node,
+                                                   InstantiatorFactory instantiator, ClassLoader classLoader,
+                                                   WorkflowToken token) throws Exception {
 
     final BasicWorkflowContext context = new BasicWorkflowContext(workflowSpec, token, program, programOptions,
                                                                   cConf, metricsCollectionService, datasetFramework,
@@ -533,12 +555,7 @@ final class WorkflowDriver extends AbstractExecutionThreadService {
         context.destroyProgram(workflowCondition, txControl, false);
       }
     }
-
-    // If a workflow updates its token at a condition node, it will be persisted after the execution of the next node.
-    // However, the call below ensures that even if the workflow fails/crashes after a condition node, updates from the
-    // condition node are also persisted.
-    workflowStateWriter.setWorkflowToken(workflowRunId, token);
-    executeAll(iterator, appSpec, instantiator, classLoader, token);
+    return iterator;
   }
 
   private DatasetProperties addLocalDatasetProperty(DatasetProperties properties, boolean keepLocal) {
@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.workflow;
+
+import io.cdap.cdap.api.metrics.MetricsContext;
+import io.cdap.cdap.common.conf.Constants;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Bounds the number of workflow nodes executing concurrently across all workflows running in the same process,
+ * and emits the queue and run latency of each node to the program metrics.
+ *
+ * Only actions and condition predicates hold a slot while executing. Forks and condition branches don't, so that
+ * nodes in nested fork branches never wait for slots held by their enclosing nodes.
+ */
+final class WorkflowNodeSlots {
+
+  // Slots are shared by all workflows in the process that are configured with the same limit
+  private static final ConcurrentMap<Integer, Semaphore> SLOTS = new ConcurrentHashMap<>();
+
+  @Nullable
+  private final Semaphore slots;
+  private final MetricsContext metricsContext;
+
+  /**
+   * Creates an instance.
+   *
+   * @param maxConcurrentNodes maximum number of nodes that can execute concurrently; zero or negative means no limit
+   * @param metricsContext the {@link MetricsContext} of the workflow program for emitting node metrics
+   */
+  WorkflowNodeSlots(int maxConcurrentNodes, MetricsContext metricsContext) {
+    this.slots = maxConcurrentNodes <= 0 ? null
+      : SLOTS.computeIfAbsent(maxConcurrentNodes, permits -> new Semaphore(permits, true));
+    this.metricsContext = metricsContext;
+  }
+
+  /**
+   * Executes the given node task once a slot is available.
+   *
+   * @param nodeId id of the workflow node
+   * @param task the task for executing the node
+   * @return the result of the task
+   * @throws InterruptedException if interrupted while waiting for a slot
+   * @throws Exception if the task failed
+   */
+  <T> T execute(String nodeId, Callable<T> task) throws Exception {
+    long queueStartTime = System.nanoTime();
+    if (slots != null) {
+      slots.acquire();
+    }
+    try {
+      long runStartTime = System.nanoTime();
+      MetricsContext nodeMetrics = metricsContext.childContext(Constants.Metrics.Tag.NODE, nodeId);
+      nodeMetrics.gauge(Constants.Metrics.Workflow.NODE_QUEUE_MILLIS,
+                        TimeUnit.NANOSECONDS.toMillis(runStartTime - queueStartTime));
+      try {
+        return task.call();
+      } finally {
+        nodeMetrics.gauge(Constants.Metrics.Workflow.NODE_RUN_MILLIS,
+                          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - runStartTime));
+      }
+    } finally {
+      if (slots != null) {
+        slots.release();
+      }
+    }
+  }
+}
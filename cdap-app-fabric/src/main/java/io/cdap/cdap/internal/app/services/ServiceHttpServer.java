@@ -272,7 +272,8 @@ public class ServiceHttpServer extends AbstractServiceHttpServer<HttpServiceHand
                                     HttpServiceHandlerSpecification spec,
                                     BasicHttpServiceContextFactory contextFactory,
                                     MetricsContext handlerMetricsContext) {
-      super(handlerType, instantiatorFactory, httpServiceContext.getProgramMetrics(), handlerMetricsContext);
+      super(handlerType, instantiatorFactory, httpServiceContext.getProgramMetrics(), handlerMetricsContext,
+            getHandlerPoolSize());
       this.spec = spec;
       this.contextFactory = contextFactory;
     }
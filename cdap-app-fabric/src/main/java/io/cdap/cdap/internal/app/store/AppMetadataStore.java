@@ -1605,6 +1605,25 @@ public class AppMetadataStore {
     getSubscriberStateTable().upsert(keys);
   }
 
+  /**
+   * Gets the TMS topics that have the id of the last fetched message stored for the given subscriber.
+   *
+   * @param subscriber the subscriber name
+   * @return the set of topic names
+   */
+  public Set<String> getSubscriberTopics(String subscriber) throws IOException {
+    Set<String> topics = new LinkedHashSet<>();
+    try (CloseableIterator<StructuredRow> iterator = getSubscriberStateTable().scan(Range.all(), Integer.MAX_VALUE)) {
+      while (iterator.hasNext()) {
+        StructuredRow row = iterator.next();
+        if (subscriber.equals(row.getString(StoreDefinition.AppMetadataStore.SUBSCRIBER))) {
+          topics.add(row.getString(StoreDefinition.AppMetadataStore.SUBSCRIBER_TOPIC));
+        }
+      }
+    }
+    return topics;
+  }
+
   @VisibleForTesting
   Set<RunId> getRunningInRangeForStatus(String statusKey, long startTimeInSecs,
                                         long endTimeInSecs) throws IOException {
@@ -14,7 +14,10 @@
 
 package io.cdap.cdap.internal.app.worker.sidecar;
 
+import com.google.common.io.ByteStreams;
 import com.google.common.io.CharStreams;
+import com.google.common.io.Closeables;
+import com.google.gson.Gson;
 import com.google.inject.Inject;
 import io.cdap.cdap.api.artifact.ArtifactScope;
 import io.cdap.cdap.api.retry.RetryableException;
@@ -29,10 +32,13 @@ import io.cdap.cdap.common.service.Retries;
 import io.cdap.cdap.common.service.RetryStrategies;
 import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.common.utils.DirUtils;
+import io.cdap.cdap.internal.app.runtime.artifact.ArtifactChunks;
 import io.cdap.cdap.proto.id.ArtifactId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.common.http.HttpMethod;
+import io.cdap.common.http.HttpRequest;
 import io.cdap.common.http.HttpRequestConfig;
+import io.cdap.common.http.HttpResponse;
 import org.jboss.resteasy.util.HttpHeaderNames;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +47,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -51,8 +62,11 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
 /**
@@ -86,11 +100,19 @@ import javax.annotation.Nullable;
  *
  * NOTE: There is no need to invalidate the cache at any point since we will always need to call appfabric to confirm
  * that the cached version is the newest version available.
+ *
+ * If there are locally cached jars of the same artifact (any version) with their chunks recorded, the content defined
+ * chunks of the artifact are fetched from appfabric as {@link ArtifactChunks} instead, with the same lastModified
+ * check. If some of the chunks can be found in the locally cached jars, the new jar is reconstructed from the local
+ * chunks plus the missing chunks downloaded from appfabric. Otherwise the whole jar is downloaded. The chunks of
+ * each cached jar are computed while it is written and stored using the following file structure:
+ * /DATA_DIRECTORY/chunks/<namespace>/<artifact-name>/<artifact-version>/<last-modified-timestamp>.json
  */
 public class ArtifactLocalizer {
 
   private static final Logger LOG = LoggerFactory.getLogger(ArtifactLocalizer.class);
   private static final String LAST_MODIFIED_HEADER = HttpHeaderNames.LAST_MODIFIED.toLowerCase();
+  private static final Gson GSON = new Gson();
 
   private final RemoteClient remoteClient;
   private final RetryStrategy retryStrategy;
@@ -179,12 +201,22 @@ public class ArtifactLocalizer {
       scope = ArtifactScope.SYSTEM;
     }
 
-    String url = String.format("namespaces/%s/artifacts/%s/versions/%s/download?scope=%s",
-                               namespaceId,
-                               artifactId.getArtifact(),
-                               artifactId.getVersion(),
-                               scope);
+    String artifactPath = String.format("namespaces/%s/artifacts/%s/versions/%s",
+                                        namespaceId,
+                                        artifactId.getArtifact(),
+                                        artifactId.getVersion());
 
+    // Chunks can only be reused if there are locally cached jars of the artifact with their chunks recorded
+    Map<File, File> localChunksFiles = getLocalChunksFiles(artifactId);
+    if (!localChunksFiles.isEmpty()) {
+      File chunksLocation = fetchArtifactChunks(artifactId, artifactPath, scope, lastModifiedTimestamp,
+                                                localChunksFiles);
+      if (chunksLocation != null) {
+        return chunksLocation;
+      }
+    }
+
+    String url = String.format("%s/download?scope=%s", artifactPath, scope);
     HttpURLConnection urlConn = remoteClient.openConnection(HttpMethod.GET, url);
     try {
       if (lastModifiedTimestamp != null) {
@@ -218,21 +250,228 @@ public class ArtifactLocalizer {
 
       // Download the artifact to a temporary file then atomically rename it to the final name to
       // avoid race conditions with multiple threads.
+      // The chunks of the jar are computed while downloading, so that it can be used for reconstructing
+      // other versions of the artifact.
       Path tempFile = Files.createTempFile(newLocation.getParentFile().toPath(), String.valueOf(newTimestamp), ".jar");
+      ArtifactChunks artifactChunks;
       try (InputStream in = urlConn.getInputStream()) {
-        Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        try (OutputStream os = Files.newOutputStream(tempFile)) {
+          artifactChunks = ArtifactChunks.copy(in, os, newTimestamp);
+        }
         Files.move(tempFile, newLocation.toPath(), StandardCopyOption.ATOMIC_MOVE,
                    StandardCopyOption.REPLACE_EXISTING);
       } finally {
         Files.deleteIfExists(tempFile);
       }
 
+      saveArtifactChunks(artifactId, newTimestamp, artifactChunks);
       return newLocation;
     } finally {
       urlConn.disconnect();
     }
   }
 
+  /**
+   * Fetches the given artifact by reconstructing the jar from chunks of locally cached jars of the same artifact and
+   * the missing chunks downloaded from appfabric.
+   *
+   * @param localChunksFiles the chunks files of the locally cached jars of the artifact, as returned by
+   *                         {@link #getLocalChunksFiles(ArtifactId)}
+   * @return the locally cached jar of the newest version or {@code null} if the jar cannot be reconstructed from
+   *         chunks, in which case the whole jar should be downloaded
+   */
+  @Nullable
+  private File fetchArtifactChunks(ArtifactId artifactId, String artifactPath, ArtifactScope scope,
+                                   @Nullable Long lastModifiedTimestamp,
+                                   Map<File, File> localChunksFiles) throws IOException {
+    HttpRequest.Builder requestBuilder = remoteClient.requestBuilder(
+      HttpMethod.GET, String.format("%s/chunks?scope=%s", artifactPath, scope));
+    if (lastModifiedTimestamp != null) {
+      requestBuilder.addHeader(HttpHeaderNames.IF_MODIFIED_SINCE, ZonedDateTime
+        .ofInstant(Instant.ofEpochMilli(lastModifiedTimestamp), ZoneId.of("GMT"))
+        .format(DateTimeFormatter.RFC_1123_DATE_TIME));
+    }
+    HttpResponse response = remoteClient.execute(requestBuilder.build());
+    if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED && lastModifiedTimestamp != null) {
+      File artifactJarLocation = getArtifactJarLocation(artifactId, lastModifiedTimestamp);
+      if (artifactJarLocation.exists()) {
+        LOG.debug("Locally cached artifact {} with timestamp {} is up to date", artifactId, lastModifiedTimestamp);
+        return artifactJarLocation;
+      }
+      return null;
+    }
+    if (response.getResponseCode() != HttpURLConnection.HTTP_OK) {
+      LOG.debug("Failed to fetch chunks of artifact {}, download the whole artifact instead: {} {}",
+                artifactId, response.getResponseCode(), response.getResponseBodyAsString());
+      return null;
+    }
+    ArtifactChunks artifactChunks = GSON.fromJson(response.getResponseBodyAsString(), ArtifactChunks.class);
+
+    // Use timestamp with seconds precision to be the same as the one from the Last-Modified header
+    long newTimestamp = TimeUnit.SECONDS.toMillis(TimeUnit.MILLISECONDS.toSeconds(artifactChunks.getLastModified()));
+    File newLocation = getArtifactJarLocation(artifactId, newTimestamp);
+    if (lastModifiedTimestamp != null && lastModifiedTimestamp == newTimestamp && newLocation.exists()) {
+      LOG.debug("Locally cached artifact {} with timestamp {} is up to date", artifactId, lastModifiedTimestamp);
+      return newLocation;
+    }
+
+    Map<String, LocalChunk> localChunks = getLocalChunks(localChunksFiles);
+    List<ArtifactChunks.Chunk> chunks = artifactChunks.getChunks();
+    List<Integer> missingChunks = new ArrayList<>();
+    for (int i = 0; i < chunks.size(); i++) {
+      if (!localChunks.containsKey(chunks.get(i).getHash())) {
+        missingChunks.add(i);
+      }
+    }
+    if (missingChunks.size() == chunks.size()) {
+      // Nothing can be reused
+      return null;
+    }
+    LOG.debug("Reconstructing artifact {} from {} local chunks and {} remote chunks",
+              artifactId, chunks.size() - missingChunks.size(), missingChunks.size());
+
+    DirUtils.mkdirs(newLocation.getParentFile());
+    Path tempFile = Files.createTempFile(newLocation.getParentFile().toPath(), String.valueOf(newTimestamp), ".jar");
+    HttpURLConnection urlConn = null;
+    InputStream remoteInput = null;
+    Map<File, RandomAccessFile> localFiles = new HashMap<>();
+    try {
+      if (!missingChunks.isEmpty()) {
+        urlConn = remoteClient.openConnection(HttpMethod.POST, String.format("%s/chunks?scope=%s&lastModified=%d",
+                                                                             artifactPath, scope,
+                                                                             artifactChunks.getLastModified()));
+        try (Writer writer = new OutputStreamWriter(urlConn.getOutputStream(), StandardCharsets.UTF_8)) {
+          GSON.toJson(missingChunks, writer);
+        }
+        if (urlConn.getResponseCode() != HttpURLConnection.HTTP_OK) {
+          // The artifact may have been modified after the chunks were fetched
+          LOG.debug("Failed to fetch chunks content of artifact {}, download the whole artifact instead: {}",
+                    artifactId, urlConn.getResponseCode());
+          return null;
+        }
+        remoteInput = urlConn.getInputStream();
+      }
+
+      byte[] buffer = new byte[0];
+      try (OutputStream os = Files.newOutputStream(tempFile)) {
+        for (ArtifactChunks.Chunk chunk : chunks) {
+          int length = chunk.getLength();
+          if (buffer.length < length) {
+            buffer = new byte[length];
+          }
+          LocalChunk localChunk = localChunks.get(chunk.getHash());
+          if (localChunk != null && localChunk.length == length) {
+            RandomAccessFile file = localFiles.get(localChunk.file);
+            if (file == null) {
+              file = new RandomAccessFile(localChunk.file, "r");
+              localFiles.put(localChunk.file, file);
+            }
+            file.seek(localChunk.offset);
+            file.readFully(buffer, 0, length);
+          } else if (remoteInput != null) {
+            ByteStreams.readFully(remoteInput, buffer, 0, length);
+          } else {
+            return null;
+          }
+          if (!chunk.getHash().equals(ArtifactChunks.hash(buffer, 0, length))) {
+            LOG.debug("Chunk content mismatch when reconstructing artifact {}, download the whole artifact instead",
+                      artifactId);
+            return null;
+          }
+          os.write(buffer, 0, length);
+        }
+      }
+      Files.move(tempFile, newLocation.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      for (RandomAccessFile file : localFiles.values()) {
+        Closeables.closeQuietly(file);
+      }
+      Closeables.closeQuietly(remoteInput);
+      if (urlConn != null) {
+        urlConn.disconnect();
+      }
+      Files.deleteIfExists(tempFile);
+    }
+
+    saveArtifactChunks(artifactId, newTimestamp, artifactChunks);
+    return newLocation;
+  }
+
+  /**
+   * Returns the chunks files of the locally cached jars of all versions of the given artifact, mapped to the jar file.
+   */
+  private Map<File, File> getLocalChunksFiles(ArtifactId artifactId) {
+    Map<File, File> chunksFiles = new HashMap<>();
+    File artifactChunksDir = getLocalPath("chunks", artifactId).getParent().toFile();
+    for (File versionDir : DirUtils.listFiles(artifactChunksDir, File::isDirectory)) {
+      for (File chunksFile : DirUtils.listFiles(versionDir, "json")) {
+        ArtifactId versionArtifactId = new ArtifactId(artifactId.getNamespace(), artifactId.getArtifact(),
+                                                      versionDir.getName());
+        File jarFile;
+        try {
+          long timestamp = Long.parseLong(removeFileExtension(chunksFile.getName()));
+          jarFile = getArtifactJarLocation(versionArtifactId, timestamp);
+        } catch (NumberFormatException e) {
+          continue;
+        }
+        if (jarFile.isFile()) {
+          chunksFiles.put(chunksFile, jarFile);
+        }
+      }
+    }
+    return chunksFiles;
+  }
+
+  /**
+   * Returns the chunks available in the given locally cached jars.
+   *
+   * @param localChunksFiles map from chunks file to the jar file that it describes
+   */
+  private Map<String, LocalChunk> getLocalChunks(Map<File, File> localChunksFiles) {
+    Map<String, LocalChunk> localChunks = new HashMap<>();
+    for (Map.Entry<File, File> entry : localChunksFiles.entrySet()) {
+      File chunksFile = entry.getKey();
+      File jarFile = entry.getValue();
+      try (Reader reader = Files.newBufferedReader(chunksFile.toPath(), StandardCharsets.UTF_8)) {
+        ArtifactChunks artifactChunks = GSON.fromJson(reader, ArtifactChunks.class);
+        if (artifactChunks.getSize() != jarFile.length()) {
+          continue;
+        }
+        long offset = 0;
+        for (ArtifactChunks.Chunk chunk : artifactChunks.getChunks()) {
+          localChunks.putIfAbsent(chunk.getHash(), new LocalChunk(jarFile, offset, chunk.getLength()));
+          offset += chunk.getLength();
+        }
+      } catch (Exception e) {
+        LOG.debug("Ignoring chunks file {} that cannot be read", chunksFile, e);
+      }
+    }
+    return localChunks;
+  }
+
+  /**
+   * Saves the {@link ArtifactChunks} of a locally cached jar.
+   */
+  private void saveArtifactChunks(ArtifactId artifactId, long lastModifiedTimestamp, ArtifactChunks artifactChunks) {
+    File chunksFile = getLocalPath("chunks", artifactId).resolve(lastModifiedTimestamp + ".json").toFile();
+    try {
+      DirUtils.mkdirs(chunksFile.getParentFile());
+      Path tempFile = Files.createTempFile(chunksFile.getParentFile().toPath(), chunksFile.getName(), ".tmp");
+      try {
+        try (Writer writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+          GSON.toJson(artifactChunks, writer);
+        }
+        Files.move(tempFile, chunksFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                   StandardCopyOption.REPLACE_EXISTING);
+      } finally {
+        Files.deleteIfExists(tempFile);
+      }
+    } catch (IOException e) {
+      // This only affects reconstruction of other artifact versions. Just log and continue.
+      LOG.debug("Failed to save chunks of artifact {} to {}", artifactId, chunksFile, e);
+    }
+  }
+
   /**
    * This checks the local cache for this artifact and retrieves the timestamp for the newest cache entry, if this
    * artifact is not cached it returns null
@@ -329,4 +568,19 @@ public class ArtifactLocalizer {
   private File getUnpackLocalPath(ArtifactId artifactId, long lastModifiedTimestamp) {
     return getLocalPath("unpacked", artifactId).resolve(String.valueOf(lastModifiedTimestamp)).toFile();
   }
+
+  /**
+   * Location of a chunk in a locally cached jar.
+   */
+  private static final class LocalChunk {
+    private final File file;
+    private final long offset;
+    private final int length;
+
+    LocalChunk(File file, long offset, int length) {
+      this.file = file;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
 }
@@ -26,18 +26,17 @@ import io.cdap.cdap.api.security.AccessException;
 import io.cdap.cdap.app.program.ProgramDescriptor;
 import io.cdap.cdap.app.runtime.ProgramOptions;
 import io.cdap.cdap.common.conf.CConfiguration;
-import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.service.Retries;
 import io.cdap.cdap.common.service.RetryStrategies;
 import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.internal.app.ApplicationSpecificationAdapter;
+import io.cdap.cdap.internal.app.program.ProgramStatusTopics;
 import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
 import io.cdap.cdap.messaging.MessagingService;
 import io.cdap.cdap.messaging.StoreRequest;
 import io.cdap.cdap.messaging.client.StoreRequestBuilder;
 import io.cdap.cdap.proto.Notification;
 import io.cdap.cdap.proto.ProgramRunClusterStatus;
-import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.id.ProgramRunId;
 import io.cdap.cdap.proto.id.TopicId;
 import io.cdap.cdap.runtime.spi.provisioner.Cluster;
@@ -52,13 +51,13 @@ import javax.inject.Inject;
  */
 public class ProvisionerNotifier {
   private static final Gson GSON = ApplicationSpecificationAdapter.addTypeAdapters(new GsonBuilder()).create();
-  private final TopicId topic;
+  private final CConfiguration cConf;
   private final RetryStrategy retryStrategy;
   private final MessagingService messagingService;
 
   @Inject
   ProvisionerNotifier(CConfiguration cConf, MessagingService messagingService) {
-    this.topic = NamespaceId.SYSTEM.topic(cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC));
+    this.cConf = cConf;
     this.retryStrategy = RetryStrategies.fromConfiguration(cConf, "system.program.state.");
     this.messagingService = messagingService;
   }
@@ -125,7 +124,8 @@ public class ProvisionerNotifier {
   }
 
   private void publish(Map<String, String> properties) {
-    final StoreRequest storeRequest = StoreRequestBuilder.of(topic)
+    TopicId topic = ProgramStatusTopics.getTopic(cConf, properties);
+    StoreRequest storeRequest = StoreRequestBuilder.of(topic)
       .addPayload(GSON.toJson(new Notification(Notification.Type.PROGRAM_STATUS, properties)))
       .build();
     Retries.supplyWithRetries(
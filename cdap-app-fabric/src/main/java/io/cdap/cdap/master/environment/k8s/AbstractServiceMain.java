@@ -36,6 +36,7 @@ import io.cdap.cdap.common.guice.ConfigModule;
 import io.cdap.cdap.common.guice.IOModule;
 import io.cdap.cdap.common.guice.SupplierProviderBridge;
 import io.cdap.cdap.common.guice.ZKClientModule;
+import io.cdap.cdap.common.internal.remote.AsyncHttpTransport;
 import io.cdap.cdap.common.logging.LoggingContext;
 import io.cdap.cdap.common.logging.LoggingContextAccessor;
 import io.cdap.cdap.common.logging.common.UncaughtExceptionHandler;
@@ -191,7 +192,8 @@ public abstract class AbstractServiceMain<T extends EnvironmentOptions> extends
     logAppenderInitializer.initialize();
     Optional.ofNullable(getLoggingContext(options)).ifPresent(LoggingContextAccessor::setLoggingContext);
 
-    // Add Services
+    // Add Services. The async transport is added first so that it is stopped after all the services using it.
+    services.add(injector.getInstance(AsyncHttpTransport.class));
     services.add(injector.getInstance(MetricsCollectionService.class));
     addServices(injector, services, closeableResources, masterEnv, masterEnvContext, options);
     initializeDataSourceConnection(cConf);
@@ -53,7 +53,8 @@ public class RemoteMetadataClient extends AbstractMetadataClient {
   protected HttpResponse execute(HttpRequest request, int... allowedErrorCodes)
     throws IOException, UnauthorizedException {
     LOG.trace("Making metadata request {}", request);
-    HttpResponse response = remoteClient.execute(request);
+    // Metadata calls from programs are small and frequent, hence use the pooled connections
+    HttpResponse response = remoteClient.executePooled(request);
     LOG.trace("Received response {} for request {}", response, request);
     return response;
   }
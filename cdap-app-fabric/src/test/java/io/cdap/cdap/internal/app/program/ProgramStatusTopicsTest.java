@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.program;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import io.cdap.cdap.app.runtime.ProgramOptions;
+import io.cdap.cdap.app.runtime.ProgramStateWriter;
+import io.cdap.cdap.common.app.RunIds;
+import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.Constants;
+import io.cdap.cdap.internal.app.runtime.BasicArguments;
+import io.cdap.cdap.internal.app.runtime.ProgramOptionConstants;
+import io.cdap.cdap.internal.app.runtime.SimpleProgramOptions;
+import io.cdap.cdap.proto.ProgramType;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.id.ProgramRunId;
+import io.cdap.cdap.proto.id.TopicId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link ProgramStatusTopics}.
+ */
+public class ProgramStatusTopicsTest {
+
+  private static final Gson GSON = new Gson();
+
+  @Test
+  public void testSinglePartition() {
+    CConfiguration cConf = CConfiguration.create();
+    TopicId topicId = NamespaceId.SYSTEM.topic(cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC));
+
+    Assert.assertEquals(Collections.singletonList(topicId), ProgramStatusTopics.getTopics(cConf));
+    Assert.assertEquals(topicId, ProgramStatusTopics.getTopic(cConf, createProgramRunId()));
+  }
+
+  @Test
+  public void testPartitioned() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.AppFabric.PROGRAM_STATUS_EVENT_NUM_PARTITIONS, 4);
+    String topic = cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC);
+
+    // The non-partitioned topic is always subscribed
+    List<TopicId> topics = ProgramStatusTopics.getTopics(cConf);
+    Assert.assertEquals(5, topics.size());
+    Assert.assertEquals(NamespaceId.SYSTEM.topic(topic), topics.get(0));
+
+    Set<TopicId> usedTopics = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      ProgramRunId programRunId = createProgramRunId();
+      TopicId topicId = ProgramStatusTopics.getTopic(cConf, programRunId);
+      Assert.assertTrue(topics.subList(1, topics.size()).contains(topicId));
+
+      // The same run always goes to the same partition, regardless of how the run id is provided
+      Assert.assertEquals(topicId, ProgramStatusTopics.getTopic(cConf, programRunId));
+      Assert.assertEquals(topicId, ProgramStatusTopics.getTopic(
+        cConf, ImmutableMap.of(ProgramOptionConstants.PROGRAM_RUN_ID, GSON.toJson(programRunId))));
+      usedTopics.add(topicId);
+    }
+    Assert.assertTrue(usedTopics.size() > 1);
+
+    // Notifications without a valid program run id go to the non-partitioned topic
+    Assert.assertEquals(NamespaceId.SYSTEM.topic(topic), ProgramStatusTopics.getTopic(cConf, Collections.emptyMap()));
+    Assert.assertEquals(NamespaceId.SYSTEM.topic(topic), ProgramStatusTopics.getTopic(
+      cConf, ImmutableMap.of(ProgramOptionConstants.PROGRAM_RUN_ID, "{invalid")));
+  }
+
+  @Test
+  public void testWorkflowInnerProgram() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.AppFabric.PROGRAM_STATUS_EVENT_NUM_PARTITIONS, 4);
+
+    List<Map<String, String>> published = new ArrayList<>();
+    ProgramStateWriter writer = new MessagingProgramStateWriter((type, properties) -> published.add(properties));
+
+    for (int i = 0; i < 20; i++) {
+      ProgramRunId workflowRunId = createProgramRunId();
+      ProgramRunId innerRunId = NamespaceId.DEFAULT.app("app")
+        .program(ProgramType.SPARK, "spark").run(RunIds.generate());
+      TopicId workflowTopic = ProgramStatusTopics.getTopic(cConf, workflowRunId);
+
+      // Every notification written for the inner program carries the workflow run id
+      ProgramOptions options = new SimpleProgramOptions(
+        innerRunId.getParent(),
+        new BasicArguments(Collections.singletonMap(ProgramOptionConstants.WORKFLOW_RUN_ID, workflowRunId.getRun())),
+        new BasicArguments());
+      ProgramStateWriter innerWriter = writer.forProgramRun(options);
+      published.clear();
+      innerWriter.running(innerRunId, null);
+      innerWriter.suspend(innerRunId);
+      innerWriter.resume(innerRunId);
+      innerWriter.completed(innerRunId);
+      Assert.assertEquals(4, published.size());
+      for (Map<String, String> properties : published) {
+        Assert.assertEquals(workflowRunId.getRun(), properties.get(ProgramOptionConstants.WORKFLOW_RUN_ID));
+        Assert.assertEquals(workflowTopic, ProgramStatusTopics.getTopic(cConf, properties));
+      }
+    }
+
+    // Notifications of programs not in a workflow don't carry a workflow run id
+    ProgramRunId programRunId = createProgramRunId();
+    ProgramStateWriter programWriter = writer.forProgramRun(new SimpleProgramOptions(programRunId.getParent()));
+    Assert.assertSame(writer, programWriter);
+    published.clear();
+    programWriter.killed(programRunId);
+    Assert.assertFalse(published.get(0).containsKey(ProgramOptionConstants.WORKFLOW_RUN_ID));
+    Assert.assertEquals(ProgramStatusTopics.getTopic(cConf, programRunId),
+                        ProgramStatusTopics.getTopic(cConf, published.get(0)));
+  }
+
+  @Test
+  public void testPartitionTopic() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.AppFabric.PROGRAM_STATUS_EVENT_NUM_PARTITIONS, 2);
+    String topic = cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC);
+
+    // Partitions beyond the configured number are still recognized
+    Assert.assertTrue(ProgramStatusTopics.isPartitionTopic(cConf, topic + "0"));
+    Assert.assertTrue(ProgramStatusTopics.isPartitionTopic(cConf, topic + "7"));
+    Assert.assertFalse(ProgramStatusTopics.isPartitionTopic(cConf, topic));
+    Assert.assertFalse(ProgramStatusTopics.isPartitionTopic(cConf, topic + "x"));
+    Assert.assertFalse(ProgramStatusTopics.isPartitionTopic(
+      cConf, cConf.get(Constants.AppFabric.PROGRAM_STATUS_RECORD_EVENT_TOPIC)));
+  }
+
+  @Test
+  public void testRemoteRunner() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.setInt(Constants.AppFabric.PROGRAM_STATUS_EVENT_NUM_PARTITIONS, 4);
+    cConf.setBoolean(Constants.AppFabric.PROGRAM_REMOTE_RUNNER, true);
+
+    // Remote runtime always publishes to the non-partitioned topic
+    Assert.assertEquals(NamespaceId.SYSTEM.topic(cConf.get(Constants.AppFabric.PROGRAM_STATUS_EVENT_TOPIC)),
+                        ProgramStatusTopics.getTopic(cConf, createProgramRunId()));
+  }
+
+  private ProgramRunId createProgramRunId() {
+    return NamespaceId.DEFAULT.app("app").program(ProgramType.WORKFLOW, "workflow").run(RunIds.generate());
+  }
+}
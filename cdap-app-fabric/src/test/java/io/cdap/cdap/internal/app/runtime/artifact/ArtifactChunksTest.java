@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.internal.app.runtime.artifact;
+
+import org.apache.twill.filesystem.LocalLocationFactory;
+import org.apache.twill.filesystem.Location;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link ArtifactChunks}.
+ */
+public class ArtifactChunksTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testChunks() throws Exception {
+    byte[] content = new byte[1024 * 1024];
+    new Random(0).nextBytes(content);
+
+    ArtifactChunks chunks = ArtifactChunks.create(new ByteArrayInputStream(content), 1000L);
+    Assert.assertEquals(1000L, chunks.getLastModified());
+    Assert.assertEquals(content.length, chunks.getSize());
+    Assert.assertTrue(chunks.getChunks().size() > 1);
+
+    // Chunks should cover the whole content
+    int offset = 0;
+    for (ArtifactChunks.Chunk chunk : chunks.getChunks()) {
+      Assert.assertEquals(ArtifactChunks.hash(content, offset, chunk.getLength()), chunk.getHash());
+      offset += chunk.getLength();
+    }
+    Assert.assertEquals(content.length, offset);
+
+    // Chunking should be deterministic
+    Assert.assertEquals(getHashes(chunks), getHashes(ArtifactChunks.create(new ByteArrayInputStream(content), 0L)));
+  }
+
+  @Test
+  public void testCopy() throws Exception {
+    byte[] content = new byte[1024 * 1024];
+    new Random(0).nextBytes(content);
+
+    // Copying should produce the same chunks as reading the content separately
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    ArtifactChunks chunks = ArtifactChunks.copy(new ByteArrayInputStream(content), os, 1000L);
+    Assert.assertArrayEquals(content, os.toByteArray());
+    Assert.assertEquals(content.length, chunks.getSize());
+    Assert.assertEquals(getHashes(ArtifactChunks.create(new ByteArrayInputStream(content), 1000L)),
+                        getHashes(chunks));
+  }
+
+  @Test
+  public void testLocalChange() throws Exception {
+    byte[] content = new byte[1024 * 1024];
+    new Random(0).nextBytes(content);
+
+    // Insert some bytes in the middle. Only chunks around the insertion point should be changed.
+    byte[] modified = new byte[content.length + 100];
+    int insertAt = content.length / 2;
+    System.arraycopy(content, 0, modified, 0, insertAt);
+    System.arraycopy(content, insertAt, modified, insertAt + 100, content.length - insertAt);
+
+    ArtifactChunks chunks = ArtifactChunks.create(new ByteArrayInputStream(content), 0L);
+    ArtifactChunks modifiedChunks = ArtifactChunks.create(new ByteArrayInputStream(modified), 0L);
+
+    Set<String> hashes = getHashes(chunks);
+    long changed = modifiedChunks.getChunks().stream().filter(c -> !hashes.contains(c.getHash())).count();
+    Assert.assertTrue(changed > 0);
+    Assert.assertTrue("Too many changed chunks " + changed, changed <= 2);
+  }
+
+  @Test
+  public void testPersist() throws Exception {
+    byte[] content = new byte[256 * 1024];
+    new Random(0).nextBytes(content);
+
+    Location location = new LocalLocationFactory(TEMP_FOLDER.newFolder()).create("artifact.jar");
+    try (OutputStream os = location.getOutputStream()) {
+      os.write(content);
+    }
+
+    // The persisted chunk list should be used if it matches the artifact last modified time
+    ArtifactChunks persisted = new ArtifactChunks(location.lastModified(), content.length,
+                                                  Collections.singletonList(new ArtifactChunks.Chunk("hash", 10)));
+    persisted.save(location);
+    Assert.assertEquals(getHashes(persisted), getHashes(ArtifactChunks.load(location)));
+
+    // If the artifact is modified, the chunk list is computed again and persisted
+    Assert.assertTrue(location.delete());
+    try (OutputStream os = location.getOutputStream()) {
+      os.write(content);
+    }
+    Assert.assertTrue(new File(location.toURI()).setLastModified(location.lastModified() + 10000L));
+    ArtifactChunks expected = ArtifactChunks.create(new ByteArrayInputStream(content), location.lastModified());
+    ArtifactChunks chunks = ArtifactChunks.load(location);
+    Assert.assertEquals(location.lastModified(), chunks.getLastModified());
+    Assert.assertEquals(getHashes(expected), getHashes(chunks));
+    Assert.assertEquals(getHashes(expected), getHashes(ArtifactChunks.load(location)));
+
+    // Deleting the chunk list should make it computed again
+    ArtifactChunks.delete(location);
+    Assert.assertEquals(getHashes(expected), getHashes(ArtifactChunks.load(location)));
+  }
+
+  private Set<String> getHashes(ArtifactChunks chunks) {
+    return chunks.getChunks().stream()
+      .map(ArtifactChunks.Chunk::getHash)
+      .collect(Collectors.toCollection(HashSet::new));
+  }
+}
@@ -42,6 +42,7 @@ import io.cdap.cdap.common.ArtifactAlreadyExistsException;
 import io.cdap.cdap.common.ArtifactNotFoundException;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.id.Id;
+import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.internal.app.runtime.artifact.app.inspection.InspectionApp;
 import io.cdap.cdap.internal.app.runtime.plugin.PluginNotExistsException;
 import io.cdap.cdap.internal.io.ReflectionSchemaGenerator;
@@ -200,6 +201,13 @@ public abstract class ArtifactStoreTest {
     ArtifactDetail artifactDetail = artifactStore.getArtifact(artifactId);
     assertEqual(artifactId, artifactMeta, artifactContents, artifactDetail);
 
+    // the chunk list of the artifact should be persisted along with it
+    Location artifactLocation = artifactDetail.getDescriptor().getLocation();
+    Assert.assertTrue(Locations.getParent(artifactLocation).append(artifactLocation.getName() + ".chunks").exists());
+    ArtifactChunks chunks = ArtifactChunks.load(artifactLocation);
+    Assert.assertEquals(artifactLocation.lastModified(), chunks.getLastModified());
+    Assert.assertEquals(artifactContents.length(), chunks.getSize());
+
     // test that plugins in the artifact show up when getting plugins for that artifact
     Map<ArtifactDescriptor, Set<PluginClass>> pluginsMap =
       artifactStore.getPluginClasses(NamespaceId.DEFAULT, artifactId);
@@ -61,7 +61,13 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -213,6 +219,58 @@ public class RuntimeClientServerTest {
     Assert.assertEquals(expected, logEntries);
   }
 
+  @Test
+  public void testBatchMessages() throws Exception {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").workflow("workflow").run(RunIds.generate());
+    TopicId topicId = NamespaceId.SYSTEM.topic(TEST_TOPIC);
+    TopicId logTopicId = NamespaceId.SYSTEM.topic(cConf.get(Constants.Logging.TMS_TOPIC_PREFIX) + "0");
+
+    // Generate a mix of large and small messages for one topic and many small messages for the log topic
+    List<Message> messages = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      messages.add(createMessage(i + 1));
+      messages.add(createMessage(i + RuntimeClient.CHUNK_SIZE));
+    }
+    List<Message> logMessages = IntStream.range(0, 100).mapToObj(this::createMessage).collect(Collectors.toList());
+
+    Map<TopicId, Iterator<Message>> batch = new LinkedHashMap<>();
+    batch.put(topicId, messages.iterator());
+    batch.put(logTopicId, logMessages.iterator());
+    runtimeClient.sendMessages(programRunId, batch);
+
+    assertMessages(topicId, messages);
+    Assert.assertEquals(logMessages.stream().map(Message::getPayloadAsString).collect(Collectors.toList()),
+                        logEntries);
+
+    // Topics without messages should be fine
+    runtimeClient.sendMessages(programRunId, Collections.singletonMap(topicId, Collections.emptyIterator()));
+    runtimeClient.sendMessages(programRunId, Collections.emptyMap());
+    assertMessages(topicId, messages);
+  }
+
+  @Test
+  public void testBatchMessagesPartialFailure() throws Exception {
+    ProgramRunId programRunId = NamespaceId.DEFAULT.app("app").workflow("workflow").run(RunIds.generate());
+    TopicId topicId = NamespaceId.SYSTEM.topic(TEST_TOPIC);
+    TopicId deniedTopicId = NamespaceId.SYSTEM.topic("denied");
+
+    List<Message> messages = IntStream.range(0, 10).mapToObj(this::createMessage).collect(Collectors.toList());
+    Map<TopicId, Iterator<Message>> batch = new LinkedHashMap<>();
+    batch.put(topicId, messages.iterator());
+    batch.put(deniedTopicId, Collections.singletonList(createMessage(1)).iterator());
+
+    // The request fails because of the denied topic, but the topic before it should be reported as published
+    Set<TopicId> published = new HashSet<>();
+    try {
+      runtimeClient.sendMessages(programRunId, batch, published::add);
+      Assert.fail("Expected failure when sending to a topic that is not allowed");
+    } catch (Exception e) {
+      // expected
+    }
+    Assert.assertEquals(Collections.singleton(topicId), published);
+    assertMessages(topicId, messages);
+  }
+
   @Test (timeout = 2000L)
   public void testSparkEventLogs() throws Exception {
     File eventFile = TEMP_FOLDER.newFile();
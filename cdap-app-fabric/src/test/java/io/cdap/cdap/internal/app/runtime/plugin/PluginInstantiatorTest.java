@@ -16,9 +16,15 @@
 
 package io.cdap.cdap.internal.app.runtime.plugin;
 
+import com.google.common.collect.ImmutableMap;
 import io.cdap.cdap.api.artifact.ArtifactId;
 import io.cdap.cdap.api.artifact.ArtifactScope;
 import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.api.macro.InvalidMacroException;
+import io.cdap.cdap.api.plugin.Plugin;
+import io.cdap.cdap.api.plugin.PluginClass;
+import io.cdap.cdap.api.plugin.PluginProperties;
+import io.cdap.cdap.api.plugin.PluginPropertyField;
 import io.cdap.cdap.common.conf.CConfiguration;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.lang.jar.BundleJarUtil;
@@ -33,6 +39,7 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Map;
 
 public class PluginInstantiatorTest {
   @ClassRule
@@ -63,4 +70,58 @@ public class PluginInstantiatorTest {
     Assert.assertEquals("pluginData", IOUtils.toString(loader.getResource("test.class")));
     pluginInstantiator.close();
   }
+
+  @Test
+  public void testSubstituteMacros() throws IOException {
+    CConfiguration cConf = CConfiguration.create();
+    PluginClass pluginClass = PluginClass.builder()
+      .setName("test").setType("test").setDescription("test").setClassName("Test").setConfigFieldName("config")
+      .add("plain", new PluginPropertyField("plain", "", "string", true, false))
+      .add("escaped", new PluginPropertyField("escaped", "", "string", true, true, true))
+      .add("macro", new PluginPropertyField("macro", "", "string", true, true))
+      .add("number", new PluginPropertyField("number", "", "int", true, true))
+      .build();
+    Plugin plugin = new Plugin(Collections.emptyList(),
+                               new ArtifactId("dummy", new ArtifactVersion("1.0"), ArtifactScope.USER),
+                               pluginClass,
+                               PluginProperties.builder()
+                                 .add("plain", "${key}")
+                                 .add("escaped", "a\\${key}")
+                                 .add("macro", "x${key}")
+                                 .add("number", "${num}")
+                                 .build());
+
+    PluginInstantiator pluginInstantiator = new PluginInstantiator(cConf, getClass().getClassLoader(),
+                                                                   TMP_FOLDER.newFolder());
+    try {
+      // Substitution with different evaluators should give different results for the same plugin
+      for (int i = 0; i < 3; i++) {
+        Map<String, String> substitutions = ImmutableMap.of("key", "v" + i, "num", String.valueOf(i));
+        Map<String, String> properties = pluginInstantiator.substituteMacros(
+          plugin, new TestMacroEvaluator(substitutions, Collections.emptyMap())).getProperties();
+        Assert.assertEquals("${key}", properties.get("plain"));
+        Assert.assertEquals("a${key}", properties.get("escaped"));
+        Assert.assertEquals("xv" + i, properties.get("macro"));
+        Assert.assertEquals(String.valueOf(i), properties.get("number"));
+      }
+
+      // At configure time, properties with macros are replaced with the default value
+      Map<String, String> properties = pluginInstantiator.substituteMacros(plugin, null).getProperties();
+      Assert.assertEquals("${key}", properties.get("plain"));
+      Assert.assertEquals("a\\${key}", properties.get("escaped"));
+      Assert.assertNull(properties.get("macro"));
+      Assert.assertEquals("0", properties.get("number"));
+
+      // Invalid macro should fail at substitution time
+      try {
+        pluginInstantiator.substituteMacros(plugin, new TestMacroEvaluator(Collections.emptyMap(),
+                                                                           Collections.emptyMap()));
+        Assert.fail("Expected failure due to missing macro value");
+      } catch (InvalidMacroException e) {
+        // expected
+      }
+    } finally {
+      pluginInstantiator.close();
+    }
+  }
 }
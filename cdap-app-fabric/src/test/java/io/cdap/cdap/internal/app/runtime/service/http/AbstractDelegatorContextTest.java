@@ -0,0 +1,232 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.service.http;
+
+import com.google.common.reflect.TypeToken;
+import io.cdap.cdap.api.Transactional;
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
+import io.cdap.cdap.common.ServiceUnavailableException;
+import io.cdap.cdap.common.lang.InstantiatorFactory;
+import io.cdap.cdap.internal.app.runtime.ThrowingRunnable;
+import org.apache.twill.common.Cancellable;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link AbstractDelegatorContext}.
+ */
+public class AbstractDelegatorContextTest {
+
+  @Test
+  public void testThreadBound() throws Exception {
+    try (TestDelegatorContext context = new TestDelegatorContext(0, 1000L)) {
+      Assert.assertFalse(context.isRequestScoped());
+
+      Object handler = context.getHandler();
+      runRequest(context, 0L);
+
+      // The same handler instance should stay with the thread
+      Assert.assertSame(handler, context.getHandler());
+      Assert.assertEquals(1, context.getCreated());
+    }
+  }
+
+  @Test
+  public void testRequestScoped() throws Exception {
+    int poolSize = 2;
+    try (TestDelegatorContext context = new TestDelegatorContext(poolSize, 10000L)) {
+      Assert.assertTrue(context.isRequestScoped());
+
+      ExecutorService executor = Executors.newFixedThreadPool(10);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+          futures.add(executor.submit(() -> {
+            runRequest(context, 5L);
+            return null;
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get(10, TimeUnit.SECONDS);
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+
+      // There are more threads than the pool size, but there should never be more handler instances than the pool size
+      Assert.assertTrue(context.getCreated() <= poolSize);
+      Assert.assertTrue(context.getMaxActive() <= poolSize);
+    }
+  }
+
+  @Test
+  public void testRequestScopedCapture() throws Exception {
+    try (TestDelegatorContext context = new TestDelegatorContext(1, 200L)) {
+      Object handler = context.getHandler();
+      ServiceTaskExecutor taskExecutor = context.getServiceTaskExecutor();
+      Cancellable cancellable = context.capture();
+
+      // Releasing call resources of a captured context shouldn't return the handler to the pool
+      taskExecutor.releaseCallResources();
+
+      // The only handler instance is captured, hence no handler should be available for other request
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        try {
+          executor.submit(context::getHandler).get(10, TimeUnit.SECONDS);
+          Assert.fail("Expected no handler available");
+        } catch (ExecutionException e) {
+          Assert.assertTrue(e.getCause() instanceof ServiceUnavailableException);
+        }
+
+        // Release the captured context. The handler should be reused.
+        cancellable.cancel();
+        Assert.assertSame(handler, executor.submit(context::getHandler).get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1, context.getCreated());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @Ignore
+  @Test
+  public void testSpeed() throws Exception {
+    // Simulates blocking handlers (e.g. calling an external service) with high request concurrency
+    int threads = 200;
+    int requests = 2000;
+    long blockMillis = 20L;
+
+    for (int poolSize : new int[] { 0, 16, 64 }) {
+      try (TestDelegatorContext context = new TestDelegatorContext(poolSize, TimeUnit.MINUTES.toMillis(1))) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+          long startTime = System.nanoTime();
+          List<Future<?>> futures = new ArrayList<>();
+          for (int i = 0; i < requests; i++) {
+            futures.add(executor.submit(() -> {
+              runRequest(context, blockMillis);
+              return null;
+            }));
+          }
+          for (Future<?> future : futures) {
+            future.get();
+          }
+          long endTime = System.nanoTime();
+          System.out.printf("Pool size: %d, handler instances: %d, time spent: %d ms%n", poolSize,
+                            context.getCreated(), TimeUnit.NANOSECONDS.toMillis(endTime - startTime));
+        } finally {
+          executor.shutdownNow();
+        }
+      }
+    }
+  }
+
+  /**
+   * Simulates what the generated handler delegator does for a request.
+   */
+  private static void runRequest(TestDelegatorContext context, long blockMillis) throws Exception {
+    Object handler = context.getHandler();
+    ServiceTaskExecutor taskExecutor = context.getServiceTaskExecutor();
+    taskExecutor.execute(() -> {
+      // Within a request, the handler instance shouldn't change
+      Assert.assertSame(handler, context.getHandler());
+      if (blockMillis > 0) {
+        TimeUnit.MILLISECONDS.sleep(blockMillis);
+      }
+    }, false);
+    taskExecutor.releaseCallResources();
+  }
+
+  /**
+   * A {@link AbstractDelegatorContext} for testing that keeps track of handler instances.
+   */
+  private static final class TestDelegatorContext extends AbstractDelegatorContext<Object> {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+
+    TestDelegatorContext(int maxPoolSize, long borrowTimeoutMillis) {
+      super(TypeToken.of(Object.class), new InstantiatorFactory(false),
+            new NoopMetricsContext(), new NoopMetricsContext(), maxPoolSize, borrowTimeoutMillis);
+    }
+
+    int getCreated() {
+      return created.get();
+    }
+
+    int getMaxActive() {
+      return maxActive.get();
+    }
+
+    @Override
+    protected HandlerTaskExecutor createTaskExecutor(InstantiatorFactory instantiatorFactory) throws Exception {
+      created.incrementAndGet();
+      return new HandlerTaskExecutor(new Object()) {
+        @Override
+        protected void initHandler(Object handler) {
+          // no-op
+        }
+
+        @Override
+        protected void destroyHandler(Object handler) {
+          // no-op
+        }
+
+        @Override
+        public void execute(ThrowingRunnable runnable, boolean transactional) throws Exception {
+          execute(() -> {
+            runnable.run();
+            return null;
+          }, transactional);
+        }
+
+        @Override
+        public <T> T execute(Callable<T> callable, boolean transactional) throws Exception {
+          maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+          try {
+            return callable.call();
+          } finally {
+            active.decrementAndGet();
+          }
+        }
+
+        @Override
+        public void releaseCallResources() {
+          // no-op
+        }
+
+        @Override
+        public Transactional getTransactional() {
+          throw new UnsupportedOperationException();
+        }
+      };
+    }
+  }
+}
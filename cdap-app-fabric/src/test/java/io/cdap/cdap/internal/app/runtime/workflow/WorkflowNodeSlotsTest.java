@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.internal.app.runtime.workflow;
+
+import io.cdap.cdap.api.metrics.NoopMetricsContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link WorkflowNodeSlots}.
+ */
+public class WorkflowNodeSlotsTest {
+
+  @Test
+  public void testBoundedConcurrency() throws Exception {
+    // Two workflows sharing the same process share the same slots
+    WorkflowNodeSlots slots1 = new WorkflowNodeSlots(2, new NoopMetricsContext());
+    WorkflowNodeSlots slots2 = new WorkflowNodeSlots(2, new NoopMetricsContext());
+
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<String>> futures = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        WorkflowNodeSlots slots = i % 2 == 0 ? slots1 : slots2;
+        String nodeId = "node" + i;
+        futures.add(executor.submit(() -> slots.execute(nodeId, () -> {
+          maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+          TimeUnit.MILLISECONDS.sleep(10);
+          running.decrementAndGet();
+          return nodeId;
+        })));
+      }
+      for (int i = 0; i < futures.size(); i++) {
+        Assert.assertEquals("node" + i, futures.get(i).get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    Assert.assertTrue(maxRunning.get() <= 2);
+  }
+
+  @Test
+  public void testUnbounded() throws Exception {
+    WorkflowNodeSlots slots = new WorkflowNodeSlots(0, new NoopMetricsContext());
+
+    // Nested execution never blocks without a limit
+    Assert.assertEquals("inner", slots.execute("outer", () -> slots.execute("inner", () -> "inner")));
+  }
+
+  @Test
+  public void testSlotReleasedOnFailure() throws Exception {
+    WorkflowNodeSlots slots = new WorkflowNodeSlots(1, new NoopMetricsContext());
+    try {
+      slots.execute("failed", () -> {
+        throw new IllegalStateException("failure");
+      });
+      Assert.fail("Expected failure from the node");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    Assert.assertEquals("next", slots.execute("next", () -> "next"));
+  }
+}
@@ -31,6 +31,7 @@ import io.cdap.cdap.etl.common.LocationAwareMDCWrapperLogger;
 import io.cdap.cdap.etl.common.plugin.PipelinePluginContext;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 import io.cdap.cdap.etl.spark.plugin.SparkPipelinePluginContext;
+import io.cdap.cdap.etl.spark.streaming.BatchCompletionOrder;
 import io.cdap.cdap.internal.io.SchemaTypeAdapter;
 import org.apache.hadoop.security.UserGroupInformation;
 import org.apache.spark.SparkConf;
@@ -101,6 +102,20 @@ public class DataStreamsSparkLauncher extends AbstractSpark {
     sparkConf.set("spark.spark.streaming.blockInterval", String.valueOf(spec.getBatchIntervalMillis() / 5));
     sparkConf.set("spark.maxRemoteBlockSizeFetchToMem", String.valueOf(Integer.MAX_VALUE - 512));
 
+    // Spark runs the jobs of one micro batch at a time by default, so a slow sink holds up every batch behind it.
+    // Allowing more than one lets the next batch be processed while the sinks of the previous one are still writing.
+    // Output operations still complete in batch time order, so a batch is never checkpointed before an earlier one.
+    // Without checkpoints there is nothing to recover an incomplete batch from, so concurrency is not allowed.
+    int concurrentBatches = BatchCompletionOrder.getConcurrentBatches(context.getRuntimeArguments());
+    if (concurrentBatches > 1) {
+      if (spec.isCheckpointsDisabled()) {
+        throw new IllegalArgumentException(
+          String.format("'%s' cannot be greater than 1 when checkpointing is disabled for the pipeline.",
+                        Constants.STREAMING_CONCURRENT_BATCHES));
+      }
+      sparkConf.set("spark.streaming.concurrentJobs", String.valueOf(concurrentBatches));
+    }
+
     // spark... makes you set this to at least the number of receivers (streaming sources)
     // because it holds one thread per receiver, or one core in distributed mode.
     // so... we have to set this hacky master variable based on the isUnitTest setting in the config
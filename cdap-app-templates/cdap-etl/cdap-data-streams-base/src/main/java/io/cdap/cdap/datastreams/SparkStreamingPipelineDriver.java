@@ -50,6 +50,7 @@ import io.cdap.cdap.etl.common.plugin.PipelinePluginContext;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 import io.cdap.cdap.etl.spark.SparkPipelineRuntime;
 import io.cdap.cdap.etl.spark.streaming.SparkStreamingPreparer;
+import io.cdap.cdap.etl.spark.streaming.StreamingBatchMetricsListener;
 import io.cdap.cdap.internal.io.SchemaTypeAdapter;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileStatus;
@@ -169,6 +170,8 @@ public class SparkStreamingPipelineDriver implements JavaSparkMain {
     }
 
     JavaStreamingContext jssc = run(pipelineSpec, pipelinePhase, sec, checkpointDir, context);
+    // listeners are not part of the checkpoint, so this needs to be added whether or not the context was recovered
+    jssc.addStreamingListener(new StreamingBatchMetricsListener(sec.getMetrics()));
     jssc.start();
 
     boolean stopped = false;
@@ -16,6 +16,8 @@
 
 package io.cdap.cdap.etl.api;
 
+import io.cdap.cdap.api.metrics.Counter;
+import io.cdap.cdap.api.metrics.Gauge;
 import io.cdap.cdap.api.metrics.Metrics;
 
 /**
@@ -53,12 +55,36 @@ public interface StageMetrics extends Metrics {
    * Sets the specific metric to the provided value. Metrics name will be prefixed by the
    * stage id, hence it will be aggregated for the current stage.
    *
-   * @param metricName Name of the counter. Use alphanumeric characters in metric names.
+   * @param metricName Name of the gauge. Use alphanumeric characters in metric names.
    * @param value The value to be set.
    */
   @Override
   void gauge(String metricName, long value);
 
+  /**
+   * Returns a {@link Counter} bound to the specific metric. Metrics name will be prefixed by the
+   * stage id, hence it will be aggregated for the current stage.
+   *
+   * @param metricName Name of the counter. Use alphanumeric characters in metric names.
+   * @return a {@link Counter} for the metric
+   */
+  @Override
+  default Counter counter(String metricName) {
+    return delta -> countLong(metricName, delta);
+  }
+
+  /**
+   * Returns a {@link Gauge} bound to the specific metric. Metrics name will be prefixed by the
+   * stage id, hence it will be aggregated for the current stage.
+   *
+   * @param metricName Name of the gauge. Use alphanumeric characters in metric names.
+   * @return a {@link Gauge} for the metric
+   */
+  @Override
+  default Gauge gauge(String metricName) {
+    return value -> gauge(metricName, value);
+  }
+
   /**
    * Increases the value of the specific metric by delta. Metrics emitted will be aggregated
    * for the whole ETL pipeline.
@@ -72,8 +98,19 @@ public interface StageMetrics extends Metrics {
    * Sets the specific metric to the provided value. Metrics emitted will be aggregated
    * for the whole ETL pipeline.
    *
-   * @param metricName Name of the counter. Use alphanumeric characters in metric names.
+   * @param metricName Name of the gauge. Use alphanumeric characters in metric names.
    * @param value The value to be set.
    */
   void pipelineGauge(String metricName, long value);
+
+  /**
+   * Returns a {@link Counter} bound to the specific metric. Metrics emitted will be aggregated
+   * for the whole ETL pipeline.
+   *
+   * @param metricName Name of the counter. Use alphanumeric characters in metric names.
+   * @return a {@link Counter} for the metric
+   */
+  default Counter pipelineCounter(String metricName) {
+    return delta -> pipelineCount(metricName, Math.toIntExact(delta));
+  }
 }
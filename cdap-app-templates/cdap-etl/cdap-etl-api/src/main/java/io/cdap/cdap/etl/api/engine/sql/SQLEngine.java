@@ -24,10 +24,14 @@ import io.cdap.cdap.etl.api.SubmitterLifecycle;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLDataset;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLPullDataset;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLPushDataset;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLAggregationDefinition;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLAggregationRequest;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLJoinDefinition;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLJoinRequest;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLPullRequest;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLPushRequest;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLTransformDefinition;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLTransformRequest;
 
 /**
  * A SQL Engine can be used to pushdown certain dataset operations.
@@ -101,6 +105,56 @@ public interface SQLEngine<KEY_IN, VALUE_IN, KEY_OUT, VALUE_OUT>
    */
   SQLDataset join(SQLJoinRequest joinRequest) throws SQLEngineException;
 
+  /**
+   * Check if the supplied Transform Definition can be executed in this engine.
+   * <p>
+   * Engines that don't support transformations don't need to override this method.
+   *
+   * @param transformDefinition the transform definition to validate
+   * @return boolean specifying if this transform operation can be executed in the SQL Engine.
+   */
+  default boolean canTransform(SQLTransformDefinition transformDefinition) {
+    return false;
+  }
+
+  /**
+   * Executes the transform operation defined by the supplied transform request.
+   * <p>
+   * The input dataset must be pushed to the SQL engine, or be the result of another operation. This method is only
+   * called if {@link #canTransform(SQLTransformDefinition)} returns {@code true} for the request.
+   *
+   * @param transformRequest the transform request to execute.
+   * @return the {@link SQLDataset} instance representing the output of this operation.
+   */
+  default SQLDataset transform(SQLTransformRequest transformRequest) throws SQLEngineException {
+    throw new SQLEngineException("Transform operations are not supported by this SQL engine.");
+  }
+
+  /**
+   * Check if the supplied Aggregation Definition can be executed in this engine.
+   * <p>
+   * Engines that don't support aggregations don't need to override this method.
+   *
+   * @param aggregationDefinition the aggregation definition to validate
+   * @return boolean specifying if this aggregation operation can be executed in the SQL Engine.
+   */
+  default boolean canAggregate(SQLAggregationDefinition aggregationDefinition) {
+    return false;
+  }
+
+  /**
+   * Executes the aggregation operation defined by the supplied aggregation request.
+   * <p>
+   * The input dataset must be pushed to the SQL engine, or be the result of another operation. This method is only
+   * called if {@link #canAggregate(SQLAggregationDefinition)} returns {@code true} for the request.
+   *
+   * @param aggregationRequest the aggregation request to execute.
+   * @return the {@link SQLDataset} instance representing the output of this operation.
+   */
+  default SQLDataset aggregate(SQLAggregationRequest aggregationRequest) throws SQLEngineException {
+    throw new SQLEngineException("Aggregation operations are not supported by this SQL engine.");
+  }
+
   /**
    * Deletes all temporary datasets and cleans up all temporary data from the SQL engine.
    *
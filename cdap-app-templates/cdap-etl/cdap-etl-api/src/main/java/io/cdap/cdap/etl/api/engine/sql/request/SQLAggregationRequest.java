@@ -0,0 +1,46 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.api.engine.sql.request;
+
+import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.etl.api.engine.sql.dataset.SQLDataset;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+
+import java.io.Serializable;
+
+/**
+ * Class representing a Request to execute an aggregation operation on a SQL engine.
+ */
+@Beta
+public class SQLAggregationRequest extends SQLAggregationDefinition implements Serializable {
+  private static final long serialVersionUID = 7751640982337103649L;
+  private final SQLDataset inputDataset;
+
+  public SQLAggregationRequest(String datasetName, AggregationDefinition aggregationDefinition,
+                               SQLDataset inputDataset) {
+    super(datasetName, aggregationDefinition);
+    this.inputDataset = inputDataset;
+  }
+
+  /**
+   * Get the dataset this aggregation operation reads from.
+   */
+  public SQLDataset getInputDataset() {
+    return inputDataset;
+  }
+}
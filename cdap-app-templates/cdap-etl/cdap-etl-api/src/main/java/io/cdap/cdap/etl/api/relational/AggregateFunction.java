@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.api.relational;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * An aggregate function over a field, with the alias of the output field.
+ */
+@Beta
+public class AggregateFunction {
+
+  /**
+   * Supported aggregate functions.
+   */
+  public enum Type {
+    COUNT,
+    SUM,
+    MIN,
+    MAX,
+    AVG
+  }
+
+  private final Type type;
+  private final String fieldName;
+  private final String alias;
+
+  private AggregateFunction(Type type, @Nullable String fieldName, String alias) {
+    this.type = type;
+    this.fieldName = fieldName;
+    this.alias = alias;
+  }
+
+  /**
+   * Creates a function that counts all records in a group.
+   */
+  public static AggregateFunction countAll(String alias) {
+    return new AggregateFunction(Type.COUNT, null, alias);
+  }
+
+  /**
+   * Creates a function of the given type over the given field.
+   * For {@link Type#COUNT}, only records with a non-null value of the field are counted.
+   */
+  public static AggregateFunction of(Type type, String fieldName, String alias) {
+    Objects.requireNonNull(type, "Function type must be specified");
+    Objects.requireNonNull(fieldName, "Field name must be specified");
+    return new AggregateFunction(type, fieldName, alias);
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * @return the name of the input field, or {@code null} if this function counts all records
+   */
+  @Nullable
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  public String getAlias() {
+    return alias;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AggregateFunction that = (AggregateFunction) o;
+    return type == that.type &&
+      Objects.equals(fieldName, that.fieldName) &&
+      Objects.equals(alias, that.alias);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, fieldName, alias);
+  }
+
+  @Override
+  public String toString() {
+    return "AggregateFunction{" +
+      "type=" + type +
+      ", field='" + fieldName + '\'' +
+      ", alias='" + alias + '\'' +
+      '}';
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.api.relational;
+
+import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Specifies a group by aggregation in relational terms, so that it can be executed by an engine other than Spark.
+ * The output records contain the group by fields followed by the aggregate functions, in the order they are added.
+ */
+@Beta
+public class AggregationDefinition {
+  private final List<String> groupByFields;
+  private final List<AggregateFunction> aggregateFunctions;
+  private final Schema outputSchema;
+
+  private AggregationDefinition(List<String> groupByFields, List<AggregateFunction> aggregateFunctions,
+                                Schema outputSchema) {
+    this.groupByFields = Collections.unmodifiableList(new ArrayList<>(groupByFields));
+    this.aggregateFunctions = Collections.unmodifiableList(new ArrayList<>(aggregateFunctions));
+    this.outputSchema = outputSchema;
+  }
+
+  public List<String> getGroupByFields() {
+    return groupByFields;
+  }
+
+  public List<AggregateFunction> getAggregateFunctions() {
+    return aggregateFunctions;
+  }
+
+  public Schema getOutputSchema() {
+    return outputSchema;
+  }
+
+  /**
+   * @return a Builder to create an AggregationDefinition.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Builds an AggregationDefinition.
+   */
+  public static class Builder {
+    private final List<String> groupByFields;
+    private final List<AggregateFunction> aggregateFunctions;
+    private Schema outputSchema;
+
+    private Builder() {
+      groupByFields = new ArrayList<>();
+      aggregateFunctions = new ArrayList<>();
+    }
+
+    public Builder setGroupByFields(String... fields) {
+      return setGroupByFields(Arrays.asList(fields));
+    }
+
+    public Builder setGroupByFields(Collection<String> fields) {
+      groupByFields.clear();
+      groupByFields.addAll(fields);
+      return this;
+    }
+
+    public Builder addAggregateFunction(AggregateFunction function) {
+      aggregateFunctions.add(function);
+      return this;
+    }
+
+    public Builder setOutputSchema(Schema outputSchema) {
+      this.outputSchema = outputSchema;
+      return this;
+    }
+
+    /**
+     * @return a valid AggregationDefinition
+     * @throws IllegalArgumentException if the output schema is not set or if output field names are not unique
+     */
+    public AggregationDefinition build() {
+      if (outputSchema == null) {
+        throw new IllegalArgumentException("An output schema must be specified for the aggregation.");
+      }
+      Set<String> outputFields = new HashSet<>();
+      for (String field : groupByFields) {
+        if (!outputFields.add(field)) {
+          throw new IllegalArgumentException(String.format("Group by field '%s' is specified more than once.",
+                                                           field));
+        }
+      }
+      for (AggregateFunction function : aggregateFunctions) {
+        if (!outputFields.add(function.getAlias())) {
+          throw new IllegalArgumentException(String.format("Output field '%s' is specified more than once.",
+                                                           function.getAlias()));
+        }
+      }
+      return new AggregationDefinition(groupByFields, aggregateFunctions, outputSchema);
+    }
+  }
+}
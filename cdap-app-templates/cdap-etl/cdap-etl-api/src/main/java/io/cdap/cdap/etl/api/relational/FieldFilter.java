@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.api.relational;
+
+import io.cdap.cdap.api.annotation.Beta;
+
+import java.util.Objects;
+import javax.annotation.Nullable;
+
+/**
+ * A condition on the value of a single field, compared against a constant.
+ */
+@Beta
+public class FieldFilter {
+
+  /**
+   * Comparison operators.
+   */
+  public enum Op {
+    EQUAL,
+    NOT_EQUAL,
+    LESS_THAN,
+    LESS_THAN_OR_EQUAL,
+    GREATER_THAN,
+    GREATER_THAN_OR_EQUAL,
+    IS_NULL,
+    IS_NOT_NULL
+  }
+
+  private final String fieldName;
+  private final Op op;
+  private final Object value;
+
+  private FieldFilter(String fieldName, Op op, @Nullable Object value) {
+    this.fieldName = fieldName;
+    this.op = op;
+    this.value = value;
+  }
+
+  /**
+   * Creates a filter that compares the field against the given value. A record with a null field value never
+   * matches a comparison.
+   *
+   * @param fieldName the name of the field
+   * @param op the comparison operator
+   * @param value the value to compare against. It must be a {@link String}, {@link Boolean} or {@link Number}
+   * @throws IllegalArgumentException if the value is of an unsupported type
+   */
+  public static FieldFilter compare(String fieldName, Op op, Object value) {
+    if (op == Op.IS_NULL || op == Op.IS_NOT_NULL) {
+      throw new IllegalArgumentException(String.format("Operator %s does not take a value.", op));
+    }
+    if (!(value instanceof String || value instanceof Boolean || value instanceof Number)) {
+      throw new IllegalArgumentException(String.format("Value for field '%s' must be a string, boolean or number.",
+                                                       fieldName));
+    }
+    return new FieldFilter(fieldName, op, value);
+  }
+
+  /**
+   * Creates a filter that matches records where the field is null.
+   */
+  public static FieldFilter isNull(String fieldName) {
+    return new FieldFilter(fieldName, Op.IS_NULL, null);
+  }
+
+  /**
+   * Creates a filter that matches records where the field is not null.
+   */
+  public static FieldFilter isNotNull(String fieldName) {
+    return new FieldFilter(fieldName, Op.IS_NOT_NULL, null);
+  }
+
+  public String getFieldName() {
+    return fieldName;
+  }
+
+  public Op getOp() {
+    return op;
+  }
+
+  /**
+   * @return the value to compare against, or {@code null} for the null check operators
+   */
+  @Nullable
+  public Object getValue() {
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FieldFilter that = (FieldFilter) o;
+    return Objects.equals(fieldName, that.fieldName) &&
+      op == that.op &&
+      Objects.equals(value, that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(fieldName, op, value);
+  }
+
+  @Override
+  public String toString() {
+    return "FieldFilter{" +
+      "field='" + fieldName + '\'' +
+      ", op=" + op +
+      ", value=" + value +
+      '}';
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.api.relational;
+
+import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import javax.annotation.Nullable;
+
+/**
+ * An aggregator that can describe its logic as an {@link AggregationDefinition}. When a pipeline runs with a SQL
+ * engine, such an aggregator can be executed inside the engine instead of pulling the records back into Spark.
+ */
+@Beta
+public interface RelationalAggregator {
+
+  /**
+   * Returns the relational definition of this aggregator, or {@code null} if it cannot be expressed for the given
+   * input, in which case the aggregation runs in Spark.
+   *
+   * @param inputSchema the schema of the input records
+   */
+  @Nullable
+  AggregationDefinition defineAggregation(Schema inputSchema);
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.api.relational;
+
+import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import javax.annotation.Nullable;
+
+/**
+ * A transform that can describe its logic as a {@link TransformDefinition}. When a pipeline runs with a SQL engine,
+ * such a transform can be executed inside the engine instead of pulling the records back into Spark.
+ * The definition must produce the same output as the transform itself for records without errors.
+ */
+@Beta
+public interface RelationalTransform {
+
+  /**
+   * Returns the relational definition of this transform, or {@code null} if it cannot be expressed for the given
+   * input, in which case the transform runs in Spark.
+   *
+   * @param inputSchema the schema of the input records
+   */
+  @Nullable
+  TransformDefinition defineTransform(Schema inputSchema);
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.api.relational;
+
+import io.cdap.cdap.api.annotation.Beta;
+import io.cdap.cdap.api.data.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Specifies a record by record transformation in relational terms, so that it can be executed by an engine other
+ * than Spark. A transformation keeps the records that match all the filters, then projects the selected fields.
+ */
+@Beta
+public class TransformDefinition {
+  private final List<FieldFilter> filters;
+  private final Map<String, String> projection;
+  private final Schema outputSchema;
+
+  private TransformDefinition(List<FieldFilter> filters, Map<String, String> projection, Schema outputSchema) {
+    this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+    this.projection = Collections.unmodifiableMap(new LinkedHashMap<>(projection));
+    this.outputSchema = outputSchema;
+  }
+
+  /**
+   * @return the filters to apply. A record is kept only if it matches all filters
+   */
+  public List<FieldFilter> getFilters() {
+    return filters;
+  }
+
+  /**
+   * @return an ordered map from output field name to input field name. An empty map means all input fields
+   *         are kept as is
+   */
+  public Map<String, String> getProjection() {
+    return projection;
+  }
+
+  public Schema getOutputSchema() {
+    return outputSchema;
+  }
+
+  /**
+   * @return a Builder to create a TransformDefinition.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Builds a TransformDefinition.
+   */
+  public static class Builder {
+    private final List<FieldFilter> filters;
+    private final Map<String, String> projection;
+    private Schema outputSchema;
+
+    private Builder() {
+      filters = new ArrayList<>();
+      projection = new LinkedHashMap<>();
+    }
+
+    public Builder addFilter(FieldFilter filter) {
+      filters.add(filter);
+      return this;
+    }
+
+    public Builder select(String fieldName) {
+      return select(fieldName, fieldName);
+    }
+
+    public Builder select(String fieldName, String alias) {
+      if (projection.containsKey(alias)) {
+        throw new IllegalArgumentException(String.format("Output field '%s' is selected more than once.", alias));
+      }
+      projection.put(alias, fieldName);
+      return this;
+    }
+
+    public Builder setOutputSchema(Schema outputSchema) {
+      this.outputSchema = outputSchema;
+      return this;
+    }
+
+    /**
+     * @return a valid TransformDefinition
+     * @throws IllegalArgumentException if the output schema is not set
+     */
+    public TransformDefinition build() {
+      if (outputSchema == null) {
+        throw new IllegalArgumentException("An output schema must be specified for the transformation.");
+      }
+      return new TransformDefinition(filters, projection, outputSchema);
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch;
+
+import io.cdap.cdap.etl.api.relational.AggregateFunction;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator.PartialAggregate;
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableUtils;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Wrapper around a {@link PartialAggregate} so that it can be used as the output value of a mapper and combiner.
+ * A new {@link PartialAggregate} is created every time the fields are read, hence it is safe to keep a reference
+ * to it while Hadoop reuses this instance for the next value.
+ */
+public class PartialAggregateWritable implements Writable {
+
+  private static final AggregateFunction.Type[] TYPES = AggregateFunction.Type.values();
+
+  // tags for the java types of the running values
+  private static final byte NULL = 0;
+  private static final byte INT = 1;
+  private static final byte LONG = 2;
+  private static final byte FLOAT = 3;
+  private static final byte DOUBLE = 4;
+  private static final byte STRING = 5;
+
+  private PartialAggregate aggregate;
+
+  // required by Hadoop
+  @SuppressWarnings("unused")
+  public PartialAggregateWritable() {
+  }
+
+  public PartialAggregateWritable(PartialAggregate aggregate) {
+    this.aggregate = aggregate;
+  }
+
+  public PartialAggregate get() {
+    return aggregate;
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    int size = aggregate.size();
+    WritableUtils.writeVInt(out, size);
+    for (int i = 0; i < size; i++) {
+      out.writeByte(aggregate.getType(i).ordinal());
+      WritableUtils.writeVLong(out, aggregate.getCount(i));
+      writeValue(out, aggregate.getValue(i));
+    }
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    int size = WritableUtils.readVInt(in);
+    AggregateFunction.Type[] types = new AggregateFunction.Type[size];
+    long[] counts = new long[size];
+    Object[] values = new Object[size];
+    for (int i = 0; i < size; i++) {
+      types[i] = TYPES[in.readByte()];
+      counts[i] = WritableUtils.readVLong(in);
+      values[i] = readValue(in);
+    }
+    aggregate = new PartialAggregate(types, counts, values);
+  }
+
+  private static void writeValue(DataOutput out, Object value) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value instanceof Integer) {
+      out.writeByte(INT);
+      WritableUtils.writeVInt(out, (Integer) value);
+    } else if (value instanceof Long) {
+      out.writeByte(LONG);
+      WritableUtils.writeVLong(out, (Long) value);
+    } else if (value instanceof Float) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (value instanceof Double) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (value instanceof String) {
+      out.writeByte(STRING);
+      Text.writeString(out, (String) value);
+    } else {
+      throw new IOException("Unsupported partial aggregate value type " + value.getClass());
+    }
+  }
+
+  private static Object readValue(DataInput in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case INT:
+        return WritableUtils.readVInt(in);
+      case LONG:
+        return WritableUtils.readVLong(in);
+      case FLOAT:
+        return in.readFloat();
+      case DOUBLE:
+        return in.readDouble();
+      case STRING:
+        return Text.readString(in);
+      default:
+        throw new IOException("Unknown partial aggregate value type tag " + tag);
+    }
+  }
+}
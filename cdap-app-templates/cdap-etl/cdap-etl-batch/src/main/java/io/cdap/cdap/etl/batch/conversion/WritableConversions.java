@@ -18,7 +18,9 @@ package io.cdap.cdap.etl.batch.conversion;
 
 import com.google.common.collect.ImmutableMap;
 import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.etl.batch.PartialAggregateWritable;
 import io.cdap.cdap.etl.batch.StructuredRecordWritable;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator.PartialAggregate;
 import org.apache.hadoop.io.BooleanWritable;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.DoubleWritable;
@@ -53,6 +55,18 @@ public class WritableConversions {
                     return val.get();
                   }
                 });
+    builder.put(PartialAggregate.class.getName(),
+                new WritableConversion<PartialAggregate, PartialAggregateWritable>() {
+                  @Override
+                  public PartialAggregateWritable toWritable(PartialAggregate val) {
+                    return new PartialAggregateWritable(val);
+                  }
+
+                  @Override
+                  public PartialAggregate fromWritable(PartialAggregateWritable val) {
+                    return val.get();
+                  }
+                });
     builder.put(String.class.getName(),
                 new WritableConversion<String, Text>() {
                   @Override
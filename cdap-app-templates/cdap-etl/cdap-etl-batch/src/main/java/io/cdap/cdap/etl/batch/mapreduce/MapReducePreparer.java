@@ -41,6 +41,7 @@ import io.cdap.cdap.etl.batch.conversion.WritableConversions;
 import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.PipelineRuntime;
 import io.cdap.cdap.etl.common.TypeChecker;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator;
 import io.cdap.cdap.etl.common.submit.AggregatorContextProvider;
 import io.cdap.cdap.etl.common.submit.ContextProvider;
 import io.cdap.cdap.etl.common.submit.Finisher;
@@ -182,6 +183,13 @@ public class MapReducePreparer extends PipelinePhasePreparer {
       if (outputValClass == null) {
         outputValClass = TypeChecker.getGroupValueClass(aggregator);
       }
+      // aggregators that describe their aggregation emit partial aggregates from the mapper,
+      // which are merged by a combiner before the shuffle
+      if (RelationalReducibleAggregator.from(aggregator, stageSpec) != null) {
+        outputKeyClass = StructuredRecord.class;
+        outputValClass = RelationalReducibleAggregator.PartialAggregate.class;
+        job.setCombinerClass(PartialAggregateCombiner.class);
+      }
       hConf.set(ETLMapReduce.MAP_KEY_CLASS, outputKeyClass.getName());
       hConf.set(ETLMapReduce.MAP_VAL_CLASS, outputValClass.getName());
       job.setMapOutputKeyClass(getOutputKeyClass(stageName, outputKeyClass));
@@ -40,7 +40,9 @@ import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
 import io.cdap.cdap.etl.api.join.JoinCondition;
 import io.cdap.cdap.etl.api.join.JoinDefinition;
 import io.cdap.cdap.etl.api.join.JoinStage;
+import io.cdap.cdap.etl.batch.PartialAggregateWritable;
 import io.cdap.cdap.etl.batch.PipelinePluginInstantiator;
+import io.cdap.cdap.etl.batch.StructuredRecordWritable;
 import io.cdap.cdap.etl.batch.conversion.WritableConversion;
 import io.cdap.cdap.etl.batch.conversion.WritableConversions;
 import io.cdap.cdap.etl.batch.join.Join;
@@ -58,6 +60,8 @@ import io.cdap.cdap.etl.common.TrackedTransform;
 import io.cdap.cdap.etl.common.TransformExecutor;
 import io.cdap.cdap.etl.common.plugin.AggregatorBridge;
 import io.cdap.cdap.etl.common.plugin.JoinerBridge;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator.PartialAggregate;
 import io.cdap.cdap.etl.exec.DirectOutputPipeStage;
 import io.cdap.cdap.etl.exec.PipeStage;
 import io.cdap.cdap.etl.exec.TransformExecutorFactory;
@@ -154,6 +158,25 @@ public class MapReduceTransformExecutorFactory<T> extends TransformExecutorFacto
       new MapReduceStageStatisticsCollector(stageName, taskAttemptContext) : new NoopStageStatisticsCollector();
     if (BatchAggregator.PLUGIN_TYPE.equals(pluginType)) {
       Object plugin = pluginInstantiator.newPluginInstance(stageName, macroEvaluator);
+      if (PartialAggregate.class.getName().equals(mapOutputValClassName)) {
+        // the preparer decided to combine partial aggregates, which must be done the same way in both phases
+        RelationalReducibleAggregator reducibleAggregator = RelationalReducibleAggregator.from(plugin, stageSpec);
+        if (reducibleAggregator == null) {
+          throw new IllegalStateException(String.format(
+            "Aggregator stage '%s' no longer describes an aggregation that can be combined. " +
+              "This means the plugin returned a different aggregation at runtime.", stageName));
+        }
+        reducibleAggregator.initialize(createRuntimeContext(stageSpec));
+        if (isMapPhase) {
+          return (TrackedTransform<IN, OUT>) getTrackedEmitKeyStep(
+            new MapperReducibleAggregatorTransformation(reducibleAggregator),
+            stageMetrics, getDataTracer(stageName), collector);
+        } else {
+          return (TrackedTransform<IN, OUT>) getTrackedAggregateStep(
+            new ReducerReducibleAggregatorTransformation(reducibleAggregator),
+            stageMetrics, getDataTracer(stageName), collector);
+        }
+      }
       BatchAggregator<?, ?, ?> batchAggregator;
       if (plugin instanceof BatchReducibleAggregator) {
         BatchReducibleAggregator<?, ?, ?, ?> reducibleAggregator = (BatchReducibleAggregator<?, ?, ?, ?>) plugin;
@@ -460,6 +483,57 @@ public class MapReduceTransformExecutorFactory<T> extends TransformExecutorFacto
     }
   }
 
+  /**
+   * A Transformation that emits a partial aggregate of each input record for every group key of the record,
+   * so that the partial aggregates can be merged by the {@link PartialAggregateCombiner} before the shuffle.
+   */
+  private static class MapperReducibleAggregatorTransformation
+    implements Transformation<StructuredRecord, KeyValue<StructuredRecordWritable, PartialAggregateWritable>> {
+    private final RelationalReducibleAggregator aggregator;
+    private final NoErrorEmitter<StructuredRecord> groupKeyEmitter;
+
+    MapperReducibleAggregatorTransformation(RelationalReducibleAggregator aggregator) {
+      this.aggregator = aggregator;
+      this.groupKeyEmitter =
+        new NoErrorEmitter<>("Errors and Alerts cannot be emitted from the groupBy method of an aggregator");
+    }
+
+    @Override
+    public void transform(StructuredRecord input,
+                          Emitter<KeyValue<StructuredRecordWritable, PartialAggregateWritable>> emitter) {
+      groupKeyEmitter.reset();
+      aggregator.groupBy(input, groupKeyEmitter);
+      for (StructuredRecord groupKey : groupKeyEmitter.getEntries()) {
+        emitter.emit(new KeyValue<>(new StructuredRecordWritable(groupKey),
+                                    new PartialAggregateWritable(aggregator.initializeAggregateValue(input))));
+      }
+    }
+  }
+
+  /**
+   * A Transformation that merges the partial aggregates of a group and emits the final aggregate.
+   */
+  private static class ReducerReducibleAggregatorTransformation
+    implements Transformation<KeyValue<StructuredRecordWritable, Iterator<PartialAggregateWritable>>,
+    StructuredRecord> {
+    private final RelationalReducibleAggregator aggregator;
+
+    ReducerReducibleAggregatorTransformation(RelationalReducibleAggregator aggregator) {
+      this.aggregator = aggregator;
+    }
+
+    @Override
+    public void transform(KeyValue<StructuredRecordWritable, Iterator<PartialAggregateWritable>> input,
+                          Emitter<StructuredRecord> emitter) {
+      Iterator<PartialAggregateWritable> iter = input.getValue();
+      PartialAggregate aggregate = iter.next().get();
+      while (iter.hasNext()) {
+        aggregate = aggregator.mergePartitions(aggregate, iter.next().get());
+      }
+      aggregator.finalize(input.getKey().get(), aggregate, emitter);
+    }
+  }
+
   /**
    * Conversion that doesn't do anything but cast types to each other.
    * This is used in the MapperAggregatorTransformation and ReducerAggregatorTransformation when the user is already
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch.mapreduce;
+
+import io.cdap.cdap.etl.batch.PartialAggregateWritable;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator.PartialAggregate;
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.mapreduce.Reducer;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Combiner that merges the partial aggregates emitted by the mapper for each group key before the shuffle.
+ * Partial aggregates carry their own function types, so the combiner does not need the aggregator plugin.
+ */
+public class PartialAggregateCombiner
+  extends Reducer<Writable, PartialAggregateWritable, Writable, PartialAggregateWritable> {
+
+  @Override
+  protected void reduce(Writable key, Iterable<PartialAggregateWritable> values, Context context)
+    throws IOException, InterruptedException {
+    Iterator<PartialAggregateWritable> iter = values.iterator();
+    // each read of a value creates a new partial aggregate, so it is safe to merge into the first one
+    PartialAggregate aggregate = iter.next().get();
+    while (iter.hasNext()) {
+      aggregate.merge(iter.next().get());
+    }
+    context.write(key, new PartialAggregateWritable(aggregate));
+  }
+}
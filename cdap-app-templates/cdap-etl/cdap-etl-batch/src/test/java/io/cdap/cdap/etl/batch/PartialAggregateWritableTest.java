@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.batch;
+
+import io.cdap.cdap.etl.api.relational.AggregateFunction;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator.PartialAggregate;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Tests for {@link PartialAggregateWritable}.
+ */
+public class PartialAggregateWritableTest {
+
+  private static final AggregateFunction.Type[] TYPES = {
+    AggregateFunction.Type.COUNT, AggregateFunction.Type.SUM, AggregateFunction.Type.AVG,
+    AggregateFunction.Type.MIN, AggregateFunction.Type.MAX, AggregateFunction.Type.MIN
+  };
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    PartialAggregate aggregate = new PartialAggregate(TYPES, new long[] { 5L, 4L, 3L, 2L, 1L, 0L },
+                                                      new Object[] { null, 10L, 2.5d, 3, "идыло", null });
+    PartialAggregate copy = roundTrip(aggregate);
+
+    Assert.assertEquals(aggregate.size(), copy.size());
+    for (int i = 0; i < aggregate.size(); i++) {
+      Assert.assertEquals(aggregate.getType(i), copy.getType(i));
+      Assert.assertEquals(aggregate.getCount(i), copy.getCount(i));
+      Assert.assertEquals(aggregate.getValue(i), copy.getValue(i));
+    }
+  }
+
+  @Test
+  public void testMergeAfterRoundTrip() throws IOException {
+    PartialAggregate aggregate1 = new PartialAggregate(TYPES, new long[] { 2L, 2L, 2L, 2L, 2L, 0L },
+                                                       new Object[] { null, 10L, 1.5d, 3, "b", null });
+    PartialAggregate aggregate2 = new PartialAggregate(TYPES, new long[] { 1L, 1L, 1L, 1L, 1L, 1L },
+                                                       new Object[] { null, 5L, 1d, 7, "a", 4f });
+
+    PartialAggregate merged = roundTrip(aggregate1).merge(roundTrip(aggregate2));
+    Assert.assertEquals(3L, merged.getCount(0));
+    Assert.assertEquals(15L, merged.getValue(1));
+    Assert.assertEquals(2.5d, merged.getValue(2));
+    Assert.assertEquals(3, merged.getValue(3));
+    Assert.assertEquals("b", merged.getValue(4));
+    Assert.assertEquals(1L, merged.getCount(5));
+    Assert.assertEquals(4f, merged.getValue(5));
+  }
+
+  private static PartialAggregate roundTrip(PartialAggregate aggregate) throws IOException {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    new PartialAggregateWritable(aggregate).write(new DataOutputStream(os));
+
+    PartialAggregateWritable writable = new PartialAggregateWritable();
+    writable.readFields(new DataInputStream(new ByteArrayInputStream(os.toByteArray())));
+    return writable.get();
+  }
+}
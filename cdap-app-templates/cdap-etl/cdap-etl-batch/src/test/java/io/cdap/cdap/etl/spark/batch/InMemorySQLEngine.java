@@ -0,0 +1,321 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.spark.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.engine.sql.BatchSQLEngine;
+import io.cdap.cdap.etl.api.engine.sql.SQLEngineException;
+import io.cdap.cdap.etl.api.engine.sql.dataset.SQLDataset;
+import io.cdap.cdap.etl.api.engine.sql.dataset.SQLPullDataset;
+import io.cdap.cdap.etl.api.engine.sql.dataset.SQLPushDataset;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLAggregationDefinition;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLAggregationRequest;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLJoinDefinition;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLJoinRequest;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLPullRequest;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLPushRequest;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLTransformDefinition;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLTransformRequest;
+import io.cdap.cdap.etl.api.relational.AggregateFunction;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.FieldFilter;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * A reference {@link BatchSQLEngine} that keeps datasets in memory and evaluates transform and aggregation
+ * definitions directly on {@link StructuredRecord}s. Datasets are added through
+ * {@link #addDataset(String, Schema, List)} rather than pushed from Spark.
+ */
+public class InMemorySQLEngine extends BatchSQLEngine<Object, Object, Object, Object> {
+
+  private final Map<String, InMemoryDataset> datasets = new ConcurrentHashMap<>();
+
+  /**
+   * Adds a dataset to this engine.
+   */
+  public SQLDataset addDataset(String datasetName, Schema schema, List<StructuredRecord> records) {
+    InMemoryDataset dataset = new InMemoryDataset(datasetName, schema, records);
+    datasets.put(datasetName, dataset);
+    return dataset;
+  }
+
+  /**
+   * Returns the records of the given dataset.
+   */
+  public List<StructuredRecord> getRecords(String datasetName) {
+    InMemoryDataset dataset = datasets.get(datasetName);
+    if (dataset == null) {
+      throw new IllegalArgumentException("Dataset " + datasetName + " does not exist");
+    }
+    return dataset.records;
+  }
+
+  @Override
+  public SQLPushDataset<StructuredRecord, Object, Object> getPushProvider(SQLPushRequest pushRequest)
+    throws SQLEngineException {
+    throw new SQLEngineException("Push is not supported by the in-memory engine");
+  }
+
+  @Override
+  public SQLPullDataset<StructuredRecord, Object, Object> getPullProvider(SQLPullRequest pullRequest)
+    throws SQLEngineException {
+    throw new SQLEngineException("Pull is not supported by the in-memory engine");
+  }
+
+  @Override
+  public boolean exists(String datasetName) {
+    return datasets.containsKey(datasetName);
+  }
+
+  @Override
+  public boolean canJoin(SQLJoinDefinition joinDefinition) {
+    return false;
+  }
+
+  @Override
+  public SQLDataset join(SQLJoinRequest joinRequest) throws SQLEngineException {
+    throw new SQLEngineException("Join is not supported by the in-memory engine");
+  }
+
+  @Override
+  public boolean canTransform(SQLTransformDefinition transformDefinition) {
+    return true;
+  }
+
+  @Override
+  public SQLDataset transform(SQLTransformRequest transformRequest) throws SQLEngineException {
+    TransformDefinition definition = transformRequest.getTransformDefinition();
+    Schema outputSchema = definition.getOutputSchema();
+    List<StructuredRecord> output = new ArrayList<>();
+
+    for (StructuredRecord record : getRecords(transformRequest.getInputDataset().getDatasetName())) {
+      if (!matches(record, definition.getFilters())) {
+        continue;
+      }
+      StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
+      for (Schema.Field field : outputSchema.getFields()) {
+        String inputField = definition.getProjection().isEmpty()
+          ? field.getName() : definition.getProjection().get(field.getName());
+        if (inputField == null) {
+          throw new SQLEngineException("Output field " + field.getName() + " is not selected");
+        }
+        builder.set(field.getName(), record.get(inputField));
+      }
+      output.add(builder.build());
+    }
+    return addDataset(transformRequest.getDatasetName(), outputSchema, output);
+  }
+
+  @Override
+  public boolean canAggregate(SQLAggregationDefinition aggregationDefinition) {
+    return true;
+  }
+
+  @Override
+  public SQLDataset aggregate(SQLAggregationRequest aggregationRequest) throws SQLEngineException {
+    AggregationDefinition definition = aggregationRequest.getAggregationDefinition();
+    Schema outputSchema = definition.getOutputSchema();
+
+    // Group records by the values of the group by fields, keeping the order of first occurrence
+    Map<List<Object>, List<StructuredRecord>> groups = new LinkedHashMap<>();
+    for (StructuredRecord record : getRecords(aggregationRequest.getInputDataset().getDatasetName())) {
+      List<Object> key = definition.getGroupByFields().stream().map(record::get).collect(Collectors.toList());
+      groups.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+    }
+
+    List<StructuredRecord> output = new ArrayList<>();
+    for (Map.Entry<List<Object>, List<StructuredRecord>> group : groups.entrySet()) {
+      StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
+      for (int i = 0; i < definition.getGroupByFields().size(); i++) {
+        builder.set(definition.getGroupByFields().get(i), group.getKey().get(i));
+      }
+      for (AggregateFunction function : definition.getAggregateFunctions()) {
+        Schema.Field field = outputSchema.getField(function.getAlias());
+        if (field == null) {
+          throw new SQLEngineException("Output schema does not contain field " + function.getAlias());
+        }
+        builder.set(function.getAlias(), convert(evaluate(function, group.getValue()), field.getSchema()));
+      }
+      output.add(builder.build());
+    }
+    return addDataset(aggregationRequest.getDatasetName(), outputSchema, output);
+  }
+
+  @Override
+  public void cleanup(String datasetName) {
+    datasets.remove(datasetName);
+  }
+
+  private boolean matches(StructuredRecord record, List<FieldFilter> filters) throws SQLEngineException {
+    for (FieldFilter filter : filters) {
+      Object value = record.get(filter.getFieldName());
+      switch (filter.getOp()) {
+        case IS_NULL:
+          if (value != null) {
+            return false;
+          }
+          break;
+        case IS_NOT_NULL:
+          if (value == null) {
+            return false;
+          }
+          break;
+        default:
+          if (value == null || !compare(filter.getOp(), compare(value, filter.getValue()))) {
+            return false;
+          }
+      }
+    }
+    return true;
+  }
+
+  private boolean compare(FieldFilter.Op op, int result) {
+    switch (op) {
+      case EQUAL:
+        return result == 0;
+      case NOT_EQUAL:
+        return result != 0;
+      case LESS_THAN:
+        return result < 0;
+      case LESS_THAN_OR_EQUAL:
+        return result <= 0;
+      case GREATER_THAN:
+        return result > 0;
+      case GREATER_THAN_OR_EQUAL:
+        return result >= 0;
+      default:
+        throw new IllegalArgumentException("Unsupported operator " + op);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private int compare(Object value, Object other) throws SQLEngineException {
+    if (value instanceof Number && other instanceof Number) {
+      return new BigDecimal(value.toString()).compareTo(new BigDecimal(other.toString()));
+    }
+    if (value instanceof Comparable && value.getClass().equals(other.getClass())) {
+      return ((Comparable<Object>) value).compareTo(other);
+    }
+    throw new SQLEngineException("Cannot compare " + value + " with " + other);
+  }
+
+  private Object evaluate(AggregateFunction function, List<StructuredRecord> records) throws SQLEngineException {
+    if (function.getFieldName() == null) {
+      return (long) records.size();
+    }
+    List<Object> values = records.stream()
+      .map(r -> r.get(function.getFieldName()))
+      .filter(Objects::nonNull)
+      .collect(Collectors.toList());
+
+    switch (function.getType()) {
+      case COUNT:
+        return (long) values.size();
+      case SUM:
+        return values.isEmpty() ? null : sum(values);
+      case AVG:
+        return values.isEmpty() ? null : sum(values).doubleValue() / values.size();
+      case MIN:
+        return values.isEmpty() ? null : Collections.min(values, this::compareUnchecked);
+      case MAX:
+        return values.isEmpty() ? null : Collections.max(values, this::compareUnchecked);
+      default:
+        throw new SQLEngineException("Unsupported aggregate function " + function.getType());
+    }
+  }
+
+  private BigDecimal sum(List<Object> values) {
+    BigDecimal sum = BigDecimal.ZERO;
+    for (Object value : values) {
+      sum = sum.add(new BigDecimal(value.toString()));
+    }
+    return sum;
+  }
+
+  private int compareUnchecked(Object value, Object other) {
+    try {
+      return compare(value, other);
+    } catch (SQLEngineException e) {
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Converts a numeric value to the type of the given schema.
+   */
+  private Object convert(Object value, Schema schema) {
+    if (!(value instanceof Number)) {
+      return value;
+    }
+    Number number = (Number) value;
+    Schema nonNullable = schema.isNullable() ? schema.getNonNullable() : schema;
+    switch (nonNullable.getType()) {
+      case INT:
+        return number.intValue();
+      case LONG:
+        return number.longValue();
+      case FLOAT:
+        return number.floatValue();
+      case DOUBLE:
+        return number.doubleValue();
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * A {@link SQLDataset} held in memory.
+   */
+  private static final class InMemoryDataset implements SQLDataset {
+    private final String datasetName;
+    private final Schema schema;
+    private final List<StructuredRecord> records;
+
+    private InMemoryDataset(String datasetName, Schema schema, List<StructuredRecord> records) {
+      this.datasetName = datasetName;
+      this.schema = schema;
+      this.records = Collections.unmodifiableList(new ArrayList<>(records));
+    }
+
+    @Override
+    public String getDatasetName() {
+      return datasetName;
+    }
+
+    @Override
+    public Schema getSchema() {
+      return schema;
+    }
+
+    @Override
+    public long getNumRows() {
+      return records.size();
+    }
+  }
+}
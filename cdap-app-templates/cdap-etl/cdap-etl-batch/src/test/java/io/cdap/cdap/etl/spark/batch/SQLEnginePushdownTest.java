@@ -0,0 +1,198 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.spark.batch;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.metrics.Metrics;
+import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
+import io.cdap.cdap.etl.api.engine.sql.dataset.SQLDataset;
+import io.cdap.cdap.etl.api.relational.AggregateFunction;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.FieldFilter;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
+import io.cdap.cdap.etl.engine.SQLEngineJob;
+import io.cdap.cdap.etl.engine.SQLEngineJobKey;
+import io.cdap.cdap.etl.engine.SQLEngineJobType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for pushing transformations and aggregations down to a SQL engine through {@link BatchSQLEngineAdapter}.
+ */
+public class SQLEnginePushdownTest {
+
+  private static final Schema INPUT_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+
+  private InMemorySQLEngine engine;
+  private BatchSQLEngineAdapter adapter;
+  private SQLEngineJob<SQLDataset> inputJob;
+
+  @Before
+  public void setUp() {
+    JavaSparkExecutionContext sec = mock(JavaSparkExecutionContext.class);
+    when(sec.getMetrics()).thenReturn(mock(Metrics.class));
+
+    engine = new InMemorySQLEngine();
+    adapter = new BatchSQLEngineAdapter(engine, sec, Collections.emptyMap());
+
+    SQLDataset input = engine.addDataset("input", INPUT_SCHEMA, Arrays.asList(
+      purchase("alice", "apple", 1.0d),
+      purchase("alice", "pear", 3.0d),
+      purchase("bob", "apple", 2.0d),
+      purchase("bob", "melon", null),
+      purchase("carol", "apple", 10.0d)));
+    inputJob = new SQLEngineJob<>(new SQLEngineJobKey("input", SQLEngineJobType.PUSH),
+                                  CompletableFuture.completedFuture(input));
+  }
+
+  @After
+  public void tearDown() {
+    adapter.close();
+  }
+
+  @Test
+  public void testTransform() {
+    Schema outputSchema = Schema.recordOf(
+      "output",
+      Schema.Field.of("buyer", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+    TransformDefinition definition = TransformDefinition.builder()
+      .addFilter(FieldFilter.compare("item", FieldFilter.Op.EQUAL, "apple"))
+      .addFilter(FieldFilter.compare("price", FieldFilter.Op.LESS_THAN, 5))
+      .select("user", "buyer")
+      .select("price")
+      .setOutputSchema(outputSchema)
+      .build();
+
+    Assert.assertTrue(adapter.canTransform("cheapApples", definition));
+    SQLDataset result = adapter.transform("cheapApples", definition, inputJob).waitFor();
+
+    Assert.assertEquals(2, result.getNumRows());
+    List<StructuredRecord> records = engine.getRecords("cheapApples");
+    Assert.assertEquals("alice", records.get(0).get("buyer"));
+    Assert.assertEquals(1.0d, (Double) records.get(0).get("price"), 0.0001d);
+    Assert.assertEquals("bob", records.get(1).get("buyer"));
+    Assert.assertEquals(2.0d, (Double) records.get(1).get("price"), 0.0001d);
+  }
+
+  @Test
+  public void testAggregate() {
+    Schema outputSchema = Schema.recordOf(
+      "output",
+      Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("purchases", Schema.of(Schema.Type.LONG)),
+      Schema.Field.of("total", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+      Schema.Field.of("maxPrice", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+    AggregationDefinition definition = AggregationDefinition.builder()
+      .setGroupByFields("user")
+      .addAggregateFunction(AggregateFunction.countAll("purchases"))
+      .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.SUM, "price", "total"))
+      .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.MAX, "price", "maxPrice"))
+      .setOutputSchema(outputSchema)
+      .build();
+
+    Assert.assertTrue(adapter.canAggregate("perUser", definition));
+    SQLDataset result = adapter.aggregate("perUser", definition, inputJob).waitFor();
+
+    Assert.assertEquals(3, result.getNumRows());
+    List<StructuredRecord> records = engine.getRecords("perUser");
+    assertUserTotal(records.get(0), "alice", 2L, 4.0d, 3.0d);
+    assertUserTotal(records.get(1), "bob", 2L, 2.0d, 2.0d);
+    assertUserTotal(records.get(2), "carol", 1L, 10.0d, 10.0d);
+  }
+
+  @Test
+  public void testTransformThenAggregate() {
+    Schema filteredSchema = Schema.recordOf(
+      "filtered",
+      Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("price", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+    TransformDefinition transform = TransformDefinition.builder()
+      .addFilter(FieldFilter.isNotNull("price"))
+      .select("item")
+      .select("price")
+      .setOutputSchema(filteredSchema)
+      .build();
+
+    Schema outputSchema = Schema.recordOf(
+      "output",
+      Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+      Schema.Field.of("avgPrice", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+    AggregationDefinition aggregation = AggregationDefinition.builder()
+      .setGroupByFields("item")
+      .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.AVG, "price", "avgPrice"))
+      .setOutputSchema(outputSchema)
+      .build();
+
+    // The aggregation job waits for the transform job, without pulling the intermediate result out of the engine
+    SQLEngineJob<SQLDataset> transformJob = adapter.transform("priced", transform, inputJob);
+    SQLDataset result = adapter.aggregate("avgPrice", aggregation, transformJob).waitFor();
+
+    Assert.assertEquals(2, result.getNumRows());
+    List<StructuredRecord> records = engine.getRecords("avgPrice");
+    Assert.assertEquals("apple", records.get(0).get("item"));
+    Assert.assertEquals(13.0d / 3, (Double) records.get(0).get("avgPrice"), 0.0001d);
+    Assert.assertEquals("pear", records.get(1).get("item"));
+    Assert.assertEquals(3.0d, (Double) records.get(1).get("avgPrice"), 0.0001d);
+  }
+
+  @Test
+  public void testInvalidAggregationDefinition() {
+    try {
+      AggregationDefinition.builder()
+        .setGroupByFields("user")
+        .addAggregateFunction(AggregateFunction.countAll("user"))
+        .setOutputSchema(INPUT_SCHEMA)
+        .build();
+      Assert.fail("Expected failure due to duplicate output field");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+
+  private static void assertUserTotal(StructuredRecord record, String user, long purchases,
+                                      double total, double maxPrice) {
+    Assert.assertEquals(user, record.get("user"));
+    Assert.assertEquals(purchases, (long) record.<Long>get("purchases"));
+    Assert.assertEquals(total, (Double) record.get("total"), 0.0001d);
+    Assert.assertEquals(maxPrice, (Double) record.get("maxPrice"), 0.0001d);
+  }
+
+  private static StructuredRecord purchase(String user, String item, Double price) {
+    return StructuredRecord.builder(INPUT_SCHEMA)
+      .set("user", user)
+      .set("item", item)
+      .set("price", price)
+      .build();
+  }
+}
@@ -40,6 +40,12 @@ public final class Constants {
   public static final String DATASET_AGGREGATE_ENABLED = "spark.cdap.pipeline.aggregate.dataset.enable";
   public static final String DATASET_AGGREGATE_IGNORE_PARTITIONS =
     "spark.cdap.pipeline.aggregate.dataset.partitions.ignore";
+  public static final String JOIN_SKEW_DETECTION_ENABLED = "spark.cdap.pipeline.join.skew.detection.enable";
+  public static final String JOIN_SKEW_SAMPLE_FRACTION = "spark.cdap.pipeline.join.skew.sample.fraction";
+  public static final String JOIN_SKEW_THRESHOLD = "spark.cdap.pipeline.join.skew.threshold";
+  public static final String JOIN_SKEW_MAX_DISTRIBUTION_FACTOR = "spark.cdap.pipeline.join.skew.distribution.max";
+  public static final String JOIN_BROADCAST_ROWS_THRESHOLD = "spark.cdap.pipeline.join.broadcast.rows.threshold";
+  public static final String STREAMING_CONCURRENT_BATCHES = "spark.cdap.pipeline.streaming.concurrent.batches";
   public static final String DEFAULT_CACHING_STORAGE_LEVEL = "DISK_ONLY";
 
   private Constants() {
@@ -73,7 +79,15 @@ public final class Constants {
     public static final String RECORDS_ALERT = "records.alert";
     public static final String AGG_GROUPS = "aggregator.groups";
     public static final String JOIN_KEYS = "joiner.keys";
+    public static final String JOIN_STRATEGY_PREFIX = "joiner.strategy.";
+    public static final String JOIN_HOT_KEY_PERCENT = "joiner.hotkey.percent";
+    public static final String JOIN_DISTRIBUTION_FACTOR = "joiner.distribution.factor";
     public static final String DRAFT_COUNT = "draft.count";
+    public static final String STREAMING_SCHEDULING_DELAY = "streaming.batch.scheduling.delay.ms";
+    public static final String STREAMING_PROCESSING_TIME = "streaming.batch.processing.time.ms";
+    public static final String STREAMING_TOTAL_DELAY = "streaming.batch.total.delay.ms";
+    public static final String STREAMING_QUEUED_BATCHES = "streaming.batch.queued";
+    public static final String STREAMING_RUNNING_BATCHES = "streaming.batch.running";
   }
 
   /**
@@ -16,6 +16,8 @@
 
 package io.cdap.cdap.etl.common;
 
+import io.cdap.cdap.api.metrics.Counter;
+import io.cdap.cdap.api.metrics.Gauge;
 import io.cdap.cdap.api.metrics.Metrics;
 import io.cdap.cdap.etl.api.StageMetrics;
 import io.cdap.cdap.etl.common.plugin.Caller;
@@ -82,6 +84,18 @@ public class DefaultStageMetrics implements StageMetrics, Externalizable {
     });
   }
 
+  @Override
+  public Counter counter(String metricName) {
+    // The metric name is resolved once. Increments on the returned handle don't go through the caller,
+    // since they don't call into the plugin and hence there is no stage logging to suppress.
+    return caller.callUnchecked(() -> metrics.counter(prefix + metricName));
+  }
+
+  @Override
+  public Gauge gauge(String metricName) {
+    return caller.callUnchecked(() -> metrics.gauge(prefix + metricName));
+  }
+
   @Override
   public Metrics child(Map<String, String> tags) {
     return metrics.child(tags);
@@ -114,6 +128,11 @@ public class DefaultStageMetrics implements StageMetrics, Externalizable {
     });
   }
 
+  @Override
+  public Counter pipelineCounter(String metricName) {
+    return caller.callUnchecked(() -> metrics.counter(metricName));
+  }
+
   @Override
   public void writeExternal(ObjectOutput out) throws IOException {
     out.writeObject(metrics);
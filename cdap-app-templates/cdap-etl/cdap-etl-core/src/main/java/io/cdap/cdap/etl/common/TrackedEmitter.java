@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.etl.common;
 
+import io.cdap.cdap.api.metrics.Counter;
 import io.cdap.cdap.api.preview.DataTracer;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.InvalidEntry;
@@ -30,24 +31,40 @@ import java.util.Map;
  */
 public class TrackedEmitter<T> implements Emitter<T> {
   private final Emitter<T> delegate;
-  private final StageMetrics stageMetrics;
+  private final Counter emitCounter;
+  private final Counter errorCounter;
+  private final Counter alertCounter;
   private final String emitMetricName;
+  private final boolean recordsOut;
   private final DataTracer dataTracer;
   private final StageStatisticsCollector collector;
 
   public TrackedEmitter(Emitter<T> delegate, StageMetrics stageMetrics, String emitMetricName, DataTracer dataTracer,
                         StageStatisticsCollector collector) {
+    this(delegate, stageMetrics.counter(emitMetricName), stageMetrics.counter(Constants.Metrics.RECORDS_ERROR),
+         stageMetrics.counter(Constants.Metrics.RECORDS_ALERT), emitMetricName, dataTracer, collector);
+  }
+
+  /**
+   * Creates an instance with metric handles that are already bound, so that creating an emitter doesn't need to
+   * resolve any metric.
+   */
+  TrackedEmitter(Emitter<T> delegate, Counter emitCounter, Counter errorCounter, Counter alertCounter,
+                 String emitMetricName, DataTracer dataTracer, StageStatisticsCollector collector) {
     this.delegate = delegate;
-    this.stageMetrics = stageMetrics;
+    this.emitCounter = emitCounter;
+    this.errorCounter = errorCounter;
+    this.alertCounter = alertCounter;
     this.emitMetricName = emitMetricName;
+    this.recordsOut = emitMetricName.equals(Constants.Metrics.RECORDS_OUT);
     this.dataTracer = dataTracer;
     this.collector = collector;
   }
 
   @Override
   public void emit(T value) {
-    stageMetrics.count(emitMetricName, 1);
-    if (emitMetricName.equals(Constants.Metrics.RECORDS_OUT)) {
+    emitCounter.increment();
+    if (recordsOut) {
       collector.incrementOutputRecordCount();
     }
     if (dataTracer.isEnabled()) {
@@ -58,7 +75,7 @@ public class TrackedEmitter<T> implements Emitter<T> {
 
   @Override
   public void emitError(InvalidEntry<T> value) {
-    stageMetrics.count(Constants.Metrics.RECORDS_ERROR, 1);
+    errorCounter.increment();
     collector.incrementErrorRecordCount();
     if (dataTracer.isEnabled()) {
       dataTracer.info(Constants.Metrics.RECORDS_ERROR, value);
@@ -68,7 +85,7 @@ public class TrackedEmitter<T> implements Emitter<T> {
 
   @Override
   public void emitAlert(Map<String, String> payload) {
-    stageMetrics.count(Constants.Metrics.RECORDS_ALERT, 1);
+    alertCounter.increment();
     if (dataTracer.isEnabled()) {
       dataTracer.info(Constants.Metrics.RECORDS_ALERT, payload);
     }
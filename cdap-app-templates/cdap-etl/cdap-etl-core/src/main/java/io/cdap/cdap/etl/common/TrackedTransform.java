@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.etl.common;
 
+import io.cdap.cdap.api.metrics.Counter;
 import io.cdap.cdap.api.preview.DataTracer;
 import io.cdap.cdap.etl.api.Destroyable;
 import io.cdap.cdap.etl.api.Emitter;
@@ -33,9 +34,12 @@ import javax.annotation.Nullable;
  */
 public class TrackedTransform<IN, OUT> implements Transformation<IN, OUT>, Destroyable {
   private final Transformation<IN, OUT> transform;
-  private final StageMetrics metrics;
-  private final String metricInName;
+  private final Counter inCounter;
+  private final boolean recordsIn;
   private final String metricOutName;
+  private final Counter outCounter;
+  private final Counter errorCounter;
+  private final Counter alertCounter;
   private final DataTracer dataTracer;
   private final StageStatisticsCollector collector;
 
@@ -56,23 +60,27 @@ public class TrackedTransform<IN, OUT> implements Transformation<IN, OUT>, Destr
   public TrackedTransform(Transformation<IN, OUT> transform, StageMetrics metrics, @Nullable String metricInName,
                           @Nullable String metricOutName, DataTracer dataTracer, StageStatisticsCollector collector) {
     this.transform = transform;
-    this.metrics = metrics;
-    this.metricInName = metricInName;
+    // Metric handles are bound once, instead of resolving the metric names for every record
+    this.inCounter = metricInName == null ? null : metrics.counter(metricInName);
+    this.recordsIn = Constants.Metrics.RECORDS_IN.equals(metricInName);
     this.metricOutName = metricOutName;
+    this.outCounter = metricOutName == null ? null : metrics.counter(metricOutName);
+    this.errorCounter = metricOutName == null ? null : metrics.counter(Constants.Metrics.RECORDS_ERROR);
+    this.alertCounter = metricOutName == null ? null : metrics.counter(Constants.Metrics.RECORDS_ALERT);
     this.dataTracer = dataTracer;
     this.collector = collector;
   }
 
   @Override
   public void transform(IN input, Emitter<OUT> emitter) throws Exception {
-    if (metricInName != null) {
-      metrics.count(metricInName, 1);
-      if (metricInName.equals(Constants.Metrics.RECORDS_IN)) {
+    if (inCounter != null) {
+      inCounter.increment();
+      if (recordsIn) {
         collector.incrementInputRecordCount();
       }
     }
     transform.transform(input, metricOutName == null ? emitter :
-      new TrackedEmitter<>(emitter, metrics, metricOutName, dataTracer, collector));
+      new TrackedEmitter<>(emitter, outCounter, errorCounter, alertCounter, metricOutName, dataTracer, collector));
   }
 
   @Override
@@ -0,0 +1,358 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.common.plugin;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
+import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
+import io.cdap.cdap.etl.api.relational.AggregateFunction;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.RelationalAggregator;
+import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link BatchReducibleAggregator} that executes the {@link AggregationDefinition} of a
+ * {@link RelationalAggregator}. As all the functions of a definition can be computed from partial results,
+ * this allows an aggregator that only implements {@link BatchAggregator} to be combined before the shuffle,
+ * instead of buffering all the values of a group.
+ * Lifecycle methods are delegated to the original aggregator.
+ */
+public class RelationalReducibleAggregator
+  extends BatchReducibleAggregator<StructuredRecord, StructuredRecord, RelationalReducibleAggregator.PartialAggregate,
+  StructuredRecord> {
+
+  private static final Set<Schema.Type> NUMERIC_TYPES = EnumSet.of(Schema.Type.INT, Schema.Type.LONG,
+                                                                   Schema.Type.FLOAT, Schema.Type.DOUBLE);
+
+  private final BatchAggregator<?, ?, ?> delegate;
+  private final List<String> groupByFields;
+  private final List<AggregateFunction> functions;
+  private final AggregateFunction.Type[] functionTypes;
+  private final Schema groupKeySchema;
+  private final Schema outputSchema;
+
+  private RelationalReducibleAggregator(BatchAggregator<?, ?, ?> delegate, AggregationDefinition definition,
+                                        Schema groupKeySchema) {
+    this.delegate = delegate;
+    this.groupByFields = definition.getGroupByFields();
+    this.functions = definition.getAggregateFunctions();
+    this.functionTypes = new AggregateFunction.Type[functions.size()];
+    for (int i = 0; i < functionTypes.length; i++) {
+      functionTypes[i] = functions.get(i).getType();
+    }
+    this.groupKeySchema = groupKeySchema;
+    this.outputSchema = definition.getOutputSchema();
+  }
+
+  /**
+   * Creates a {@link RelationalReducibleAggregator} for the given aggregator plugin if it is a
+   * {@link RelationalAggregator} whose definition can be executed on the input of the stage.
+   *
+   * @param plugin the aggregator plugin instance
+   * @param stageSpec the spec of the aggregator stage
+   * @return the reducible aggregator, or {@code null} if the plugin cannot be converted
+   */
+  @Nullable
+  public static RelationalReducibleAggregator from(Object plugin, StageSpec stageSpec) {
+    if (plugin instanceof BatchReducibleAggregator || !(plugin instanceof BatchAggregator)
+      || !(plugin instanceof RelationalAggregator)) {
+      return null;
+    }
+    Schema inputSchema = getInputSchema(stageSpec);
+    if (inputSchema == null || inputSchema.getFields() == null) {
+      return null;
+    }
+    AggregationDefinition definition = ((RelationalAggregator) plugin).defineAggregation(inputSchema);
+    if (definition == null || !isSupported(definition, inputSchema)) {
+      return null;
+    }
+
+    List<Schema.Field> keyFields = new ArrayList<>();
+    for (String field : definition.getGroupByFields()) {
+      keyFields.add(inputSchema.getField(field));
+    }
+    Schema groupKeySchema = Schema.recordOf(stageSpec.getName() + ".groupKey", keyFields);
+    return new RelationalReducibleAggregator((BatchAggregator<?, ?, ?>) plugin, definition, groupKeySchema);
+  }
+
+  @Override
+  public void initialize(BatchRuntimeContext context) throws Exception {
+    delegate.initialize(context);
+  }
+
+  @Override
+  public void destroy() {
+    delegate.destroy();
+  }
+
+  @Override
+  public void groupBy(StructuredRecord groupValue, Emitter<StructuredRecord> emitter) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(groupKeySchema);
+    for (String field : groupByFields) {
+      builder.set(field, groupValue.get(field));
+    }
+    emitter.emit(builder.build());
+  }
+
+  @Override
+  public PartialAggregate initializeAggregateValue(StructuredRecord groupValue) {
+    return mergeValues(new PartialAggregate(functionTypes), groupValue);
+  }
+
+  @Override
+  public PartialAggregate mergeValues(PartialAggregate aggValue, StructuredRecord groupValue) {
+    for (int i = 0; i < functions.size(); i++) {
+      AggregateFunction function = functions.get(i);
+      if (function.getFieldName() == null) {
+        aggValue.counts[i]++;
+        continue;
+      }
+      Object value = groupValue.get(function.getFieldName());
+      if (value != null) {
+        aggValue.counts[i]++;
+        aggValue.values[i] = merge(function.getType(), aggValue.values[i], value);
+      }
+    }
+    return aggValue;
+  }
+
+  @Override
+  public PartialAggregate mergePartitions(PartialAggregate value1, PartialAggregate value2) {
+    return value1.merge(value2);
+  }
+
+  @Override
+  public void finalize(StructuredRecord groupKey, PartialAggregate aggValue, Emitter<StructuredRecord> emitter) {
+    StructuredRecord.Builder builder = StructuredRecord.builder(outputSchema);
+    for (String field : groupByFields) {
+      builder.set(field, groupKey.get(field));
+    }
+    for (int i = 0; i < functions.size(); i++) {
+      AggregateFunction function = functions.get(i);
+      Object result;
+      switch (function.getType()) {
+        case COUNT:
+          result = aggValue.counts[i];
+          break;
+        case AVG:
+          result = aggValue.counts[i] == 0 ? null
+            : ((Number) aggValue.values[i]).doubleValue() / aggValue.counts[i];
+          break;
+        default:
+          result = aggValue.values[i];
+      }
+      builder.set(function.getAlias(), convert(result, outputSchema.getField(function.getAlias()).getSchema()));
+    }
+    emitter.emit(builder.build());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  private static Object merge(AggregateFunction.Type type, @Nullable Object current, Object value) {
+    switch (type) {
+      case SUM:
+      case AVG:
+        return add(current == null ? 0L : current, value);
+      case MIN:
+        return current == null || ((Comparable<Object>) value).compareTo(current) < 0 ? value : current;
+      case MAX:
+        return current == null || ((Comparable<Object>) value).compareTo(current) > 0 ? value : current;
+      default:
+        // COUNT only needs the number of values
+        return null;
+    }
+  }
+
+  /**
+   * Adds two numbers, keeping integral sums as a long to avoid losing precision.
+   */
+  private static Number add(Object value1, Object value2) {
+    if (isIntegral(value1) && isIntegral(value2)) {
+      return ((Number) value1).longValue() + ((Number) value2).longValue();
+    }
+    return ((Number) value1).doubleValue() + ((Number) value2).doubleValue();
+  }
+
+  private static boolean isIntegral(Object value) {
+    return value instanceof Integer || value instanceof Long;
+  }
+
+  /**
+   * Converts a numeric result to the type of the output field.
+   */
+  @Nullable
+  private static Object convert(@Nullable Object value, Schema schema) {
+    if (!(value instanceof Number)) {
+      return value;
+    }
+    Number number = (Number) value;
+    Schema nonNullable = schema.isNullable() ? schema.getNonNullable() : schema;
+    switch (nonNullable.getType()) {
+      case INT:
+        return number.intValue();
+      case LONG:
+        return number.longValue();
+      case FLOAT:
+        return number.floatValue();
+      case DOUBLE:
+        return number.doubleValue();
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * Checks that all fields referenced by the definition exist, and that numeric functions are over numeric fields.
+   * Definitions that don't satisfy this are left to the aggregator itself.
+   */
+  private static boolean isSupported(AggregationDefinition definition, Schema inputSchema) {
+    Schema outputSchema = definition.getOutputSchema();
+    if (outputSchema.getFields() == null) {
+      return false;
+    }
+    for (String field : definition.getGroupByFields()) {
+      if (inputSchema.getField(field) == null || outputSchema.getField(field) == null) {
+        return false;
+      }
+    }
+    for (AggregateFunction function : definition.getAggregateFunctions()) {
+      Schema.Field outputField = outputSchema.getField(function.getAlias());
+      if (outputField == null) {
+        return false;
+      }
+      if (function.getFieldName() == null) {
+        continue;
+      }
+      Schema.Field inputField = inputSchema.getField(function.getFieldName());
+      if (inputField == null) {
+        return false;
+      }
+      Schema fieldSchema = inputField.getSchema().isNullable()
+        ? inputField.getSchema().getNonNullable() : inputField.getSchema();
+      boolean numeric = fieldSchema.getLogicalType() == null && NUMERIC_TYPES.contains(fieldSchema.getType());
+      switch (function.getType()) {
+        case SUM:
+        case AVG:
+          if (!numeric) {
+            return false;
+          }
+          break;
+        case MIN:
+        case MAX:
+          if (!numeric && fieldSchema.getType() != Schema.Type.STRING) {
+            return false;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the single input schema of the stage, or {@code null} if the inputs don't share the same schema.
+   */
+  @Nullable
+  private static Schema getInputSchema(StageSpec stageSpec) {
+    Schema inputSchema = null;
+    for (Schema schema : stageSpec.getInputSchemas().values()) {
+      if (schema == null || (inputSchema != null && !inputSchema.equals(schema))) {
+        return null;
+      }
+      inputSchema = schema;
+    }
+    return inputSchema;
+  }
+
+  /**
+   * Partial results of the aggregate functions of a group. For each function, it holds the type of the function,
+   * the number of values seen, and the running sum, min or max. Partial results can be merged without the
+   * aggregator, which allows engines to combine them on their own, such as in a MapReduce combiner.
+   */
+  public static final class PartialAggregate implements Serializable {
+
+    private static final long serialVersionUID = 4204981725462870373L;
+
+    private final AggregateFunction.Type[] types;
+    private final Object[] values;
+    private final long[] counts;
+
+    PartialAggregate(AggregateFunction.Type[] types) {
+      this(types, new long[types.length], new Object[types.length]);
+    }
+
+    /**
+     * Creates a partial aggregate with the given function types, value counts and running values, which are
+     * {@code null} for functions that have not seen any value.
+     */
+    public PartialAggregate(AggregateFunction.Type[] types, long[] counts, Object[] values) {
+      if (types.length != counts.length || types.length != values.length) {
+        throw new IllegalArgumentException("The number of types, counts and values must be the same");
+      }
+      this.types = types;
+      this.counts = counts;
+      this.values = values;
+    }
+
+    /**
+     * Returns the number of aggregate functions.
+     */
+    public int size() {
+      return types.length;
+    }
+
+    public AggregateFunction.Type getType(int idx) {
+      return types[idx];
+    }
+
+    public long getCount(int idx) {
+      return counts[idx];
+    }
+
+    @Nullable
+    public Object getValue(int idx) {
+      return values[idx];
+    }
+
+    /**
+     * Merges the given partial aggregate of the same functions into this one.
+     *
+     * @return this partial aggregate
+     */
+    public PartialAggregate merge(PartialAggregate other) {
+      for (int i = 0; i < types.length; i++) {
+        counts[i] += other.counts[i];
+        if (other.values[i] != null) {
+          values[i] = RelationalReducibleAggregator.merge(types[i], values[i], other.values[i]);
+        }
+      }
+      return this;
+    }
+  }
+}
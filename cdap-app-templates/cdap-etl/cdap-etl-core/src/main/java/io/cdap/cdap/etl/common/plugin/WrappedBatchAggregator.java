@@ -16,15 +16,19 @@
 
 package io.cdap.cdap.etl.common.plugin;
 
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
 import io.cdap.cdap.etl.api.batch.BatchAggregator;
 import io.cdap.cdap.etl.api.batch.BatchAggregatorContext;
 import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.RelationalAggregator;
 import io.cdap.cdap.etl.common.TypeChecker;
 
 import java.util.Iterator;
 import java.util.concurrent.Callable;
+import javax.annotation.Nullable;
 
 /**
  * Wrapper around {@link BatchAggregator} that makes sure logging, classloading, and other pipeline capabilities
@@ -34,7 +38,8 @@ import java.util.concurrent.Callable;
  * @param <GROUP_VALUE> group value type. Must be a supported type
  * @param <OUT> output object type
  */
-public class WrappedBatchAggregator<GROUP_KEY, GROUP_VALUE, OUT> extends BatchAggregator<GROUP_KEY, GROUP_VALUE, OUT> {
+public class WrappedBatchAggregator<GROUP_KEY, GROUP_VALUE, OUT> extends BatchAggregator<GROUP_KEY, GROUP_VALUE, OUT>
+  implements RelationalAggregator {
   private final BatchAggregator<GROUP_KEY, GROUP_VALUE, OUT> aggregator;
   private final Caller caller;
   private final OperationTimer operationTimer;
@@ -114,4 +119,13 @@ public class WrappedBatchAggregator<GROUP_KEY, GROUP_VALUE, OUT> extends BatchAg
       operationTimer.reset();
     }
   }
+
+  @Nullable
+  @Override
+  public AggregationDefinition defineAggregation(Schema inputSchema) {
+    if (!(aggregator instanceof RelationalAggregator)) {
+      return null;
+    }
+    return caller.callUnchecked(() -> ((RelationalAggregator) aggregator).defineAggregation(inputSchema));
+  }
 }
@@ -16,14 +16,18 @@
 
 package io.cdap.cdap.etl.common.plugin;
 
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
 import io.cdap.cdap.etl.api.batch.BatchAggregatorContext;
 import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
 import io.cdap.cdap.etl.api.batch.BatchRuntimeContext;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.RelationalAggregator;
 import io.cdap.cdap.etl.common.TypeChecker;
 
 import java.util.concurrent.Callable;
+import javax.annotation.Nullable;
 
 /**
  * Wrapper around {@link BatchReducibleAggregator} that makes sure logging, classloading, and other pipeline
@@ -35,7 +39,7 @@ import java.util.concurrent.Callable;
  * @param <OUT> output object type
  */
 public class WrappedReduceAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT>
-  extends BatchReducibleAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT> {
+  extends BatchReducibleAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT> implements RelationalAggregator {
   private final BatchReducibleAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT> aggregator;
   private final Caller caller;
   private final OperationTimer operationTimer;
@@ -144,4 +148,13 @@ public class WrappedReduceAggregator<GROUP_KEY, GROUP_VALUE, AGG_VALUE, OUT>
       operationTimer.reset();
     }
   }
+
+  @Nullable
+  @Override
+  public AggregationDefinition defineAggregation(Schema inputSchema) {
+    if (!(aggregator instanceof RelationalAggregator)) {
+      return null;
+    }
+    return caller.callUnchecked(() -> ((RelationalAggregator) aggregator).defineAggregation(inputSchema));
+  }
 }
@@ -16,13 +16,17 @@
 
 package io.cdap.cdap.etl.common.plugin;
 
+import io.cdap.cdap.api.data.schema.Schema;
 import io.cdap.cdap.etl.api.Emitter;
 import io.cdap.cdap.etl.api.PipelineConfigurer;
 import io.cdap.cdap.etl.api.StageSubmitterContext;
 import io.cdap.cdap.etl.api.Transform;
 import io.cdap.cdap.etl.api.TransformContext;
+import io.cdap.cdap.etl.api.relational.RelationalTransform;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
 
 import java.util.concurrent.Callable;
+import javax.annotation.Nullable;
 
 /**
  * Wrapper around a {@link Transform} that makes sure logging, classloading, and other pipeline capabilities
@@ -31,7 +35,7 @@ import java.util.concurrent.Callable;
  * @param <IN> type of input
  * @param <OUT> type of output
  */
-public class WrappedTransform<IN, OUT> extends Transform<IN, OUT> {
+public class WrappedTransform<IN, OUT> extends Transform<IN, OUT> implements RelationalTransform {
   private final Transform<IN, OUT> transform;
   private final Caller caller;
   private final OperationTimer operationTimer;
@@ -94,4 +98,13 @@ public class WrappedTransform<IN, OUT> extends Transform<IN, OUT> {
       operationTimer.reset();
     }
   }
+
+  @Nullable
+  @Override
+  public TransformDefinition defineTransform(Schema inputSchema) {
+    if (!(transform instanceof RelationalTransform)) {
+      return null;
+    }
+    return caller.callUnchecked(() -> ((RelationalTransform) transform).defineTransform(inputSchema));
+  }
 }
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.common.plugin;
+
+import io.cdap.cdap.api.artifact.ArtifactId;
+import io.cdap.cdap.api.artifact.ArtifactScope;
+import io.cdap.cdap.api.artifact.ArtifactVersion;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.Emitter;
+import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import io.cdap.cdap.etl.api.relational.AggregateFunction;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.RelationalAggregator;
+import io.cdap.cdap.etl.common.DefaultEmitter;
+import io.cdap.cdap.etl.proto.v2.spec.PluginSpec;
+import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Tests for {@link RelationalReducibleAggregator}.
+ */
+public class RelationalReducibleAggregatorTest {
+
+  private static final ArtifactId ARTIFACT_ID =
+    new ArtifactId("plugins", new ArtifactVersion("1.0.0"), ArtifactScope.USER);
+  private static final Schema INPUT_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("item", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("quantity", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("price", Schema.of(Schema.Type.DOUBLE)));
+  private static final Schema OUTPUT_SCHEMA = Schema.recordOf(
+    "userStats",
+    Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("purchases", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("items", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("totalQuantity", Schema.nullableOf(Schema.of(Schema.Type.INT))),
+    Schema.Field.of("avgPrice", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))),
+    Schema.Field.of("firstItem", Schema.nullableOf(Schema.of(Schema.Type.STRING))),
+    Schema.Field.of("maxPrice", Schema.nullableOf(Schema.of(Schema.Type.DOUBLE))));
+  private static final AggregationDefinition DEFINITION = AggregationDefinition.builder()
+    .setGroupByFields("user")
+    .addAggregateFunction(AggregateFunction.countAll("purchases"))
+    .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.COUNT, "quantity", "items"))
+    .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.SUM, "quantity", "totalQuantity"))
+    .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.AVG, "price", "avgPrice"))
+    .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.MIN, "item", "firstItem"))
+    .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.MAX, "price", "maxPrice"))
+    .setOutputSchema(OUTPUT_SCHEMA)
+    .build();
+
+  @Test
+  public void testCombine() {
+    RelationalReducibleAggregator aggregator =
+      RelationalReducibleAggregator.from(new DefinedAggregator(DEFINITION), createStageSpec(INPUT_SCHEMA));
+    Assert.assertNotNull(aggregator);
+
+    // Records of the same user are split across two partitions, which are combined separately and then merged
+    List<StructuredRecord> partition1 = Arrays.asList(purchase("alice", "pear", 2, 3.0d),
+                                                      purchase("bob", "apple", 1, 1.0d),
+                                                      purchase("alice", "apple", null, 1.0d));
+    List<StructuredRecord> partition2 = Arrays.asList(purchase("alice", "melon", 1, 5.0d),
+                                                      purchase("carol", "kiwi", null, 0.5d));
+
+    Map<StructuredRecord, RelationalReducibleAggregator.PartialAggregate> combined = combine(aggregator, partition1);
+    for (Map.Entry<StructuredRecord, RelationalReducibleAggregator.PartialAggregate> entry
+      : combine(aggregator, partition2).entrySet()) {
+      combined.merge(entry.getKey(), entry.getValue(), aggregator::mergePartitions);
+    }
+    Assert.assertEquals(3, combined.size());
+
+    Map<String, StructuredRecord> results = new HashMap<>();
+    DefaultEmitter<StructuredRecord> emitter = new DefaultEmitter<>();
+    for (Map.Entry<StructuredRecord, RelationalReducibleAggregator.PartialAggregate> entry : combined.entrySet()) {
+      aggregator.finalize(entry.getKey(), entry.getValue(), emitter);
+    }
+    for (StructuredRecord record : emitter.getEntries()) {
+      results.put(record.get("user"), record);
+    }
+
+    StructuredRecord alice = results.get("alice");
+    Assert.assertEquals(3L, (long) alice.<Long>get("purchases"));
+    Assert.assertEquals(2L, (long) alice.<Long>get("items"));
+    Assert.assertEquals(3, (int) alice.<Integer>get("totalQuantity"));
+    Assert.assertEquals(3.0d, alice.<Double>get("avgPrice"), 0.0001d);
+    Assert.assertEquals("apple", alice.get("firstItem"));
+    Assert.assertEquals(5.0d, alice.<Double>get("maxPrice"), 0.0001d);
+
+    StructuredRecord carol = results.get("carol");
+    Assert.assertEquals(1L, (long) carol.<Long>get("purchases"));
+    Assert.assertEquals(0L, (long) carol.<Long>get("items"));
+    Assert.assertNull(carol.get("totalQuantity"));
+    Assert.assertEquals(0.5d, carol.<Double>get("avgPrice"), 0.0001d);
+  }
+
+  @Test
+  public void testNotConvertible() {
+    StageSpec stageSpec = createStageSpec(INPUT_SCHEMA);
+
+    // Aggregator without a definition
+    Assert.assertNull(RelationalReducibleAggregator.from(new DefinedAggregator(null), stageSpec));
+
+    // SUM over a string field
+    AggregationDefinition definition = AggregationDefinition.builder()
+      .setGroupByFields("user")
+      .addAggregateFunction(AggregateFunction.of(AggregateFunction.Type.SUM, "item", "total"))
+      .setOutputSchema(Schema.recordOf("out",
+                                       Schema.Field.of("user", Schema.of(Schema.Type.STRING)),
+                                       Schema.Field.of("total", Schema.of(Schema.Type.LONG))))
+      .build();
+    Assert.assertNull(RelationalReducibleAggregator.from(new DefinedAggregator(definition), stageSpec));
+
+    // Input schema not known
+    Assert.assertNull(RelationalReducibleAggregator.from(new DefinedAggregator(DEFINITION), createStageSpec(null)));
+  }
+
+  private static Map<StructuredRecord, RelationalReducibleAggregator.PartialAggregate> combine(
+    RelationalReducibleAggregator aggregator, List<StructuredRecord> records) {
+    Map<StructuredRecord, RelationalReducibleAggregator.PartialAggregate> partials = new HashMap<>();
+    DefaultEmitter<StructuredRecord> keyEmitter = new DefaultEmitter<>();
+    for (StructuredRecord record : records) {
+      keyEmitter.reset();
+      aggregator.groupBy(record, keyEmitter);
+      StructuredRecord key = keyEmitter.getEntries().iterator().next();
+      RelationalReducibleAggregator.PartialAggregate partial = partials.get(key);
+      partials.put(key, partial == null
+        ? aggregator.initializeAggregateValue(record) : aggregator.mergeValues(partial, record));
+    }
+    return partials;
+  }
+
+  private static StageSpec createStageSpec(@Nullable Schema inputSchema) {
+    return StageSpec.builder("agg", new PluginSpec(BatchAggregator.PLUGIN_TYPE, "defined",
+                                                   Collections.emptyMap(), ARTIFACT_ID))
+      .addInputSchema("source", inputSchema)
+      .build();
+  }
+
+  private static StructuredRecord purchase(String user, String item, @Nullable Integer quantity, double price) {
+    return StructuredRecord.builder(INPUT_SCHEMA)
+      .set("user", user)
+      .set("item", item)
+      .set("quantity", quantity)
+      .set("price", price)
+      .build();
+  }
+
+  /**
+   * An aggregator that only provides an aggregation definition.
+   */
+  private static final class DefinedAggregator extends BatchAggregator<StructuredRecord, StructuredRecord,
+    StructuredRecord> implements RelationalAggregator {
+
+    private final AggregationDefinition definition;
+
+    private DefinedAggregator(@Nullable AggregationDefinition definition) {
+      this.definition = definition;
+    }
+
+    @Nullable
+    @Override
+    public AggregationDefinition defineAggregation(Schema inputSchema) {
+      return definition;
+    }
+
+    @Override
+    public void groupBy(StructuredRecord groupValue, Emitter<StructuredRecord> emitter) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void aggregate(StructuredRecord groupKey, Iterator<StructuredRecord> groupValues,
+                          Emitter<StructuredRecord> emitter) {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
@@ -60,6 +60,7 @@ import io.cdap.cdap.etl.common.PipelinePhase;
 import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.etl.common.Schemas;
 import io.cdap.cdap.etl.common.StageStatisticsCollector;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator;
 import io.cdap.cdap.etl.planner.CombinerDag;
 import io.cdap.cdap.etl.planner.Dag;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
@@ -269,7 +270,10 @@ public abstract class SparkPipelineRunner {
 
       } else if (Transform.PLUGIN_TYPE.equals(pluginType)) {
 
-        SparkCollection<RecordInfo<Object>> combinedData = stageData.transform(stageSpec, collector);
+        // Stages with error or alert outputs always run in Spark, since relational execution doesn't emit them
+        SparkCollection<RecordInfo<Object>> combinedData = hasErrorOutput || hasAlertOutput
+          ? stageData.transform(stageSpec, collector)
+          : handleTransform(stageSpec, stageData, pluginContext, macroEvaluator, collector);
         emittedBuilder = addEmitted(emittedBuilder, pipelinePhase, stageSpec,
                                     combinedData, groupedDag, branchers, shufflers, hasErrorOutput, hasAlertOutput);
 
@@ -320,16 +324,11 @@ public abstract class SparkPipelineRunner {
         Object plugin = pluginContext.newPluginInstance(stageName, macroEvaluator);
         Integer partitions = stagePartitions.get(stageName);
 
-        if (plugin instanceof BatchReducibleAggregator) {
-          SparkCollection<RecordInfo<Object>> combinedData = stageData.reduceAggregate(stageSpec, partitions,
-                                                                                       collector);
-          emittedBuilder = addEmitted(emittedBuilder, pipelinePhase, stageSpec,
-                                      combinedData, groupedDag, branchers, shufflers, hasErrorOutput, hasAlertOutput);
-        } else {
-          SparkCollection<RecordInfo<Object>> combinedData = stageData.aggregate(stageSpec, partitions, collector);
-          emittedBuilder = addEmitted(emittedBuilder, pipelinePhase, stageSpec,
-                                      combinedData, groupedDag, branchers, shufflers, hasErrorOutput, hasAlertOutput);
-        }
+        SparkCollection<RecordInfo<Object>> combinedData = hasErrorOutput || hasAlertOutput
+          ? aggregate(stageSpec, plugin, stageData, partitions, collector)
+          : handleAggregate(stageSpec, plugin, stageData, partitions, collector);
+        emittedBuilder = addEmitted(emittedBuilder, pipelinePhase, stageSpec,
+                                    combinedData, groupedDag, branchers, shufflers, hasErrorOutput, hasAlertOutput);
 
       } else if (BatchJoiner.PLUGIN_TYPE.equals(pluginType)) {
 
@@ -449,6 +448,41 @@ public abstract class SparkPipelineRunner {
     return fullInput.createMultiStoreTask(phaseSpec, groupStages, groupSinks, collectors);
   }
 
+  /**
+   * Executes a {@link Transform} stage. Subclasses can override this method to execute the stage outside of Spark.
+   * This method is only called for stages without error or alert outputs.
+   */
+  protected SparkCollection<RecordInfo<Object>> handleTransform(StageSpec stageSpec,
+                                                                SparkCollection<Object> stageData,
+                                                                PluginContext pluginContext,
+                                                                MacroEvaluator macroEvaluator,
+                                                                StageStatisticsCollector collector) throws Exception {
+    return stageData.transform(stageSpec, collector);
+  }
+
+  /**
+   * Executes a {@link BatchAggregator} stage. Subclasses can override this method to execute the stage outside of
+   * Spark. This method is only called for stages without error or alert outputs.
+   */
+  protected SparkCollection<RecordInfo<Object>> handleAggregate(StageSpec stageSpec, Object plugin,
+                                                                SparkCollection<Object> stageData,
+                                                                @Nullable Integer partitions,
+                                                                StageStatisticsCollector collector) throws Exception {
+    return aggregate(stageSpec, plugin, stageData, partitions, collector);
+  }
+
+  private SparkCollection<RecordInfo<Object>> aggregate(StageSpec stageSpec, Object plugin,
+                                                        SparkCollection<Object> stageData,
+                                                        @Nullable Integer partitions,
+                                                        StageStatisticsCollector collector) {
+    // Aggregators that can describe their aggregation are converted to reducible aggregators,
+    // so that they can be combined before the shuffle
+    if (plugin instanceof BatchReducibleAggregator || RelationalReducibleAggregator.from(plugin, stageSpec) != null) {
+      return stageData.reduceAggregate(stageSpec, partitions, collector);
+    }
+    return stageData.aggregate(stageSpec, partitions, collector);
+  }
+
   protected SparkCollection<Object> handleJoin(Map<String, SparkCollection<Object>> inputDataCollections,
                                                PipelinePhase pipelinePhase, PluginFunctionContext pluginFunctionContext,
                                                StageSpec stageSpec, FunctionCache.Factory functionCacheFactory,
@@ -476,6 +510,7 @@ public abstract class SparkPipelineRunner {
       // it is checked by PipelinePhasePreparer at the start of the run.
       JoinDefinition joinDefinition = autoJoiner.define(autoJoinerContext);
       failureCollector.getOrThrowException();
+      joinDefinition = planAutoJoin(stageName, joinDefinition, inputDataCollections, numPartitions);
       if (joinDefinition.getStages().stream().noneMatch(JoinStage::isBroadcast)) {
         shufflers.add(stageName);
       }
@@ -487,6 +522,18 @@ public abstract class SparkPipelineRunner {
     }
   }
 
+  /**
+   * Chooses how an auto join is executed, before it is executed. Subclasses can override this method to modify the
+   * join definition, for example to broadcast a stage or to distribute a skewed stage, based on the input data.
+   *
+   * @return the join definition to execute
+   */
+  protected JoinDefinition planAutoJoin(String stageName, JoinDefinition joinDefinition,
+                                        Map<String, SparkCollection<Object>> inputDataCollections,
+                                        @Nullable Integer numPartitions) {
+    return joinDefinition;
+  }
+
   protected SparkCollection<Object> handleAutoJoin(String stageName, JoinDefinition joinDefinition,
                                                    Map<String, SparkCollection<Object>> inputDataCollections,
                                                    @Nullable Integer numPartitions) {
@@ -907,8 +954,8 @@ public abstract class SparkPipelineRunner {
    * @param collection Collection to use.
    * @return Instance of a spark collection with RecordInfo attached to output records.
    */
-  private SparkCollection<RecordInfo<Object>> mapToRecordInfoCollection(String stageName,
-                                                                        SparkCollection<Object> collection) {
+  protected SparkCollection<RecordInfo<Object>> mapToRecordInfoCollection(String stageName,
+                                                                          SparkCollection<Object> collection) {
     // For SQLEngineCollection or WrappedSparkCollection, we wrap the collection in order to not force a
     // premature/unnecessary pull operation from the SQL engine.
     if (collection instanceof SQLBackedCollection) {
@@ -27,12 +27,18 @@ import io.cdap.cdap.etl.api.engine.sql.SQLEngineException;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLDataset;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLPullDataset;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLPushDataset;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLAggregationDefinition;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLAggregationRequest;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLJoinDefinition;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLJoinRequest;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLPullRequest;
 import io.cdap.cdap.etl.api.engine.sql.request.SQLPushRequest;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLTransformDefinition;
+import io.cdap.cdap.etl.api.engine.sql.request.SQLTransformRequest;
 import io.cdap.cdap.etl.api.join.JoinDefinition;
 import io.cdap.cdap.etl.api.join.JoinStage;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
 import io.cdap.cdap.etl.common.Constants;
 import io.cdap.cdap.etl.common.DefaultStageMetrics;
 import io.cdap.cdap.etl.common.StageStatisticsCollector;
@@ -371,6 +377,119 @@ public class BatchSQLEngineAdapter<T> implements Closeable {
     future.complete(joinDataset);
   }
 
+  /**
+   * Verify if a Transform Definition can be executed on a SQL Engine.
+   *
+   * @param datasetName         the dataset name to use to store the result of the transform operation
+   * @param transformDefinition the Transform Definition
+   * @return boolean specifying if this transform operation can be executed on the SQL engine.
+   */
+  public boolean canTransform(String datasetName,
+                              TransformDefinition transformDefinition) {
+    return sqlEngine.canTransform(new SQLTransformDefinition(datasetName, transformDefinition));
+  }
+
+  /**
+   * Executes a Transform operation in the SQL engine
+   *
+   * @param datasetName         the dataset name to use to store the result of the transform operation
+   * @param transformDefinition the Transform Definition
+   * @param inputJob            the job producing the input dataset for this operation
+   * @return Job representing this transform operation
+   */
+  public SQLEngineJob<SQLDataset> transform(String datasetName,
+                                            TransformDefinition transformDefinition,
+                                            SQLEngineJob<SQLDataset> inputJob) {
+    return execute(datasetName, "transform", inputJob, inputDataset -> {
+      SQLTransformRequest transformRequest = new SQLTransformRequest(datasetName, transformDefinition, inputDataset);
+      if (!sqlEngine.canTransform(transformRequest)) {
+        throw new IllegalArgumentException("Unable to execute this transform in the SQL engine");
+      }
+      return sqlEngine.transform(transformRequest);
+    });
+  }
+
+  /**
+   * Verify if an Aggregation Definition can be executed on a SQL Engine.
+   *
+   * @param datasetName           the dataset name to use to store the result of the aggregation operation
+   * @param aggregationDefinition the Aggregation Definition
+   * @return boolean specifying if this aggregation operation can be executed on the SQL engine.
+   */
+  public boolean canAggregate(String datasetName,
+                              AggregationDefinition aggregationDefinition) {
+    return sqlEngine.canAggregate(new SQLAggregationDefinition(datasetName, aggregationDefinition));
+  }
+
+  /**
+   * Executes an Aggregation operation in the SQL engine
+   *
+   * @param datasetName           the dataset name to use to store the result of the aggregation operation
+   * @param aggregationDefinition the Aggregation Definition
+   * @param inputJob              the job producing the input dataset for this operation
+   * @return Job representing this aggregation operation
+   */
+  public SQLEngineJob<SQLDataset> aggregate(String datasetName,
+                                            AggregationDefinition aggregationDefinition,
+                                            SQLEngineJob<SQLDataset> inputJob) {
+    return execute(datasetName, "aggregation", inputJob, inputDataset -> {
+      SQLAggregationRequest aggregationRequest =
+        new SQLAggregationRequest(datasetName, aggregationDefinition, inputDataset);
+      if (!sqlEngine.canAggregate(aggregationRequest)) {
+        throw new IllegalArgumentException("Unable to execute this aggregation in the SQL engine");
+      }
+      return sqlEngine.aggregate(aggregationRequest);
+    });
+  }
+
+  /**
+   * Creates a job to execute a single input operation in the SQL engine, once the input job completes.
+   *
+   * @param datasetName   the dataset name to use to store the result of the operation
+   * @param operationName name of the operation, used for logging
+   * @param inputJob      the job producing the input dataset for this operation
+   * @param operation     the operation to execute with the input dataset
+   * @return Job representing this operation
+   */
+  @SuppressWarnings("unchecked")
+  private SQLEngineJob<SQLDataset> execute(String datasetName, String operationName,
+                                           SQLEngineJob<SQLDataset> inputJob, SQLOperation operation) {
+    //If this job already exists, return the existing instance.
+    SQLEngineJobKey jobKey = new SQLEngineJobKey(datasetName, SQLEngineJobType.EXECUTE);
+    if (jobs.containsKey(jobKey)) {
+      return (SQLEngineJob<SQLDataset>) jobs.get(jobKey);
+    }
+
+    CompletableFuture<SQLDataset> future = new CompletableFuture<>();
+
+    Runnable task = () -> {
+      try {
+        LOG.debug("Starting {} for dataset '{}'", operationName, datasetName);
+        waitForJobAndHandleExceptionInternal(inputJob);
+        SQLDataset inputDataset = inputJob.waitFor();
+
+        DefaultStageMetrics stageMetrics = new DefaultStageMetrics(metrics, datasetName);
+        StageStatisticsCollector statisticsCollector = statsCollectors.get(datasetName);
+        countRecordsIn(inputDataset, statisticsCollector, stageMetrics);
+
+        SQLDataset result = operation.apply(inputDataset);
+
+        countRecordsOut(result, statisticsCollector, stageMetrics);
+        LOG.debug("Completed {} for dataset '{}'", operationName, datasetName);
+        future.complete(result);
+      } catch (Throwable t) {
+        future.completeExceptionally(t);
+      }
+    };
+
+    executorService.submit(task);
+
+    SQLEngineJob<SQLDataset> job = new SQLEngineJob<>(jobKey, future);
+    jobs.put(jobKey, job);
+
+    return job;
+  }
+
   /**
    * Stops all jobs from executing and cleans up the SQL engine.
    */
@@ -524,4 +643,11 @@ public class BatchSQLEngineAdapter<T> implements Closeable {
                                           long numRecords) {
     stageMetrics.countLong(metricName, numRecords);
   }
+
+  /**
+   * An operation executed in the SQL engine over a single input dataset.
+   */
+  private interface SQLOperation {
+    SQLDataset apply(SQLDataset inputDataset) throws SQLEngineException;
+  }
 }
@@ -24,26 +24,43 @@ import io.cdap.cdap.api.Transactionals;
 import io.cdap.cdap.api.TxRunnable;
 import io.cdap.cdap.api.data.DatasetContext;
 import io.cdap.cdap.api.data.batch.InputFormatProvider;
+import io.cdap.cdap.api.data.format.StructuredRecord;
 import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.macro.MacroEvaluator;
+import io.cdap.cdap.api.plugin.PluginContext;
 import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
 import io.cdap.cdap.api.spark.JavaSparkMain;
 import io.cdap.cdap.api.workflow.WorkflowToken;
 import io.cdap.cdap.etl.api.JoinElement;
+import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.Transform;
+import io.cdap.cdap.etl.api.batch.BatchAggregator;
+import io.cdap.cdap.etl.api.batch.BatchJoiner;
 import io.cdap.cdap.etl.api.batch.BatchSource;
 import io.cdap.cdap.etl.api.engine.sql.SQLEngine;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLDataset;
+import io.cdap.cdap.etl.api.join.InvalidJoinException;
+import io.cdap.cdap.etl.api.join.JoinCondition;
 import io.cdap.cdap.etl.api.join.JoinDefinition;
+import io.cdap.cdap.etl.api.join.JoinKey;
 import io.cdap.cdap.etl.api.join.JoinStage;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.RelationalAggregator;
+import io.cdap.cdap.etl.api.relational.RelationalTransform;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
 import io.cdap.cdap.etl.batch.BatchPhaseSpec;
 import io.cdap.cdap.etl.batch.PipelinePluginInstantiator;
 import io.cdap.cdap.etl.batch.connector.SingleConnectorFactory;
 import io.cdap.cdap.etl.common.Constants;
+import io.cdap.cdap.etl.common.DefaultStageMetrics;
+import io.cdap.cdap.etl.common.PipelinePhase;
 import io.cdap.cdap.etl.common.RecordInfo;
 import io.cdap.cdap.etl.common.SetMultimapCodec;
 import io.cdap.cdap.etl.common.StageStatisticsCollector;
 import io.cdap.cdap.etl.common.plugin.PipelinePluginContext;
 import io.cdap.cdap.etl.engine.SQLEngineJob;
 import io.cdap.cdap.etl.engine.SQLEngineUtils;
+import io.cdap.cdap.etl.planner.Dag;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 import io.cdap.cdap.etl.spark.SparkCollection;
 import io.cdap.cdap.etl.spark.SparkPairCollection;
@@ -54,7 +71,10 @@ import io.cdap.cdap.etl.spark.function.FunctionCache;
 import io.cdap.cdap.etl.spark.function.JoinMergeFunction;
 import io.cdap.cdap.etl.spark.function.JoinOnFunction;
 import io.cdap.cdap.etl.spark.function.PluginFunctionContext;
+import io.cdap.cdap.etl.spark.join.JoinKeyStats;
+import io.cdap.cdap.etl.spark.join.JoinStrategySelector;
 import io.cdap.cdap.internal.io.SchemaTypeAdapter;
+import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.apache.spark.sql.SQLContext;
@@ -66,10 +86,14 @@ import java.io.BufferedReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 
 /**
@@ -215,8 +239,15 @@ public class BatchSparkPipelineDriver extends SparkPipelineRunner implements Jav
         }
       }
 
+      // Transforms that can be executed in the SQL engine are not combined with other stages,
+      // so that they can be executed individually
+      Set<String> uncombinableStages = new HashSet<>(sinkFactory.getUncombinableSinks());
+      if (sqlEngineAdapter != null) {
+        uncombinableStages.addAll(getRelationalTransformStages(phaseSpec.getPhase(), pluginInstantiator));
+      }
+
       runPipeline(phaseSpec, BatchSource.PLUGIN_TYPE, sec, stagePartitions, pluginInstantiator, collectors,
-                  sinkFactory.getUncombinableSinks(), shouldConsolidateStages, shouldCacheFunctions);
+                  uncombinableStages, shouldConsolidateStages, shouldCacheFunctions);
     } catch (Throwable t) {
       // Mark this execution as not successful.
       isSuccessful = false;
@@ -250,6 +281,60 @@ public class BatchSparkPipelineDriver extends SparkPipelineRunner implements Jav
     }
   }
 
+  @Override
+  @SuppressWarnings("unchecked")
+  protected JoinDefinition planAutoJoin(String stageName, JoinDefinition joinDefinition,
+                                        Map<String, SparkCollection<Object>> inputDataCollections,
+                                        @Nullable Integer numPartitions) {
+    boolean skewDetectionEnabled = Boolean.parseBoolean(
+      sec.getRuntimeArguments().getOrDefault(Constants.JOIN_SKEW_DETECTION_ENABLED, Boolean.FALSE.toString()));
+    // Joins that may be executed in the SQL engine are left as is, since sampling requires the data in Spark
+    if (!skewDetectionEnabled || sqlEngineAdapter != null
+      || joinDefinition.getCondition().getOp() != JoinCondition.Op.KEY_EQUALITY
+      || !JoinStrategySelector.isApplicable(joinDefinition)) {
+      return joinDefinition;
+    }
+
+    JoinStrategySelector selector = JoinStrategySelector.fromArguments(sec.getRuntimeArguments());
+    Map<String, JoinKeyStats> stats = new HashMap<>();
+    for (JoinKey joinKey : ((JoinCondition.OnKeys) joinDefinition.getCondition()).getKeys()) {
+      Object underlying = inputDataCollections.get(joinKey.getStageName()).getUnderlying();
+      if (!(underlying instanceof JavaRDD)) {
+        return joinDefinition;
+      }
+      stats.put(joinKey.getStageName(), sampleJoinKeys((JavaRDD<StructuredRecord>) underlying,
+                                                       new ArrayList<>(joinKey.getFields()),
+                                                       selector.getSampleFraction()));
+    }
+
+    JoinStrategySelector.Decision decision =
+      selector.select(joinDefinition, stats, numPartitions == null ? jsc.defaultParallelism() : numPartitions);
+    LOG.info("Using {} join for stage '{}' based on sampled join keys: {}",
+             decision.getStrategy().name().toLowerCase(), stageName, decision);
+
+    StageMetrics stageMetrics = new DefaultStageMetrics(sec.getMetrics(), stageName);
+    stageMetrics.count(Constants.Metrics.JOIN_STRATEGY_PREFIX + decision.getStrategy().name().toLowerCase(), 1);
+    stageMetrics.gauge(Constants.Metrics.JOIN_HOT_KEY_PERCENT, Math.round(decision.getHotKeyFraction() * 100));
+    stageMetrics.gauge(Constants.Metrics.JOIN_DISTRIBUTION_FACTOR, decision.getDistributionFactor());
+
+    try {
+      return decision.apply(joinDefinition);
+    } catch (InvalidJoinException e) {
+      LOG.warn("Unable to use {} join for stage '{}', using the join as defined by the stage.",
+               decision.getStrategy().name().toLowerCase(), stageName, e);
+      return joinDefinition;
+    }
+  }
+
+  /**
+   * Collects {@link JoinKeyStats} from a sample of the given records.
+   */
+  @VisibleForTesting
+  static JoinKeyStats sampleJoinKeys(JavaRDD<StructuredRecord> records, List<String> keyFields, double fraction) {
+    JavaRDD<StructuredRecord> sample = fraction >= 1d ? records : records.sample(false, fraction);
+    return sample.aggregate(new JoinKeyStats(), (stats, record) -> stats.add(record, keyFields), JoinKeyStats::merge);
+  }
+
   @Override
   @SuppressWarnings("unchecked")
   protected SparkCollection<Object> handleAutoJoin(String stageName, JoinDefinition joinDefinition,
@@ -282,6 +367,105 @@ public class BatchSparkPipelineDriver extends SparkPipelineRunner implements Jav
     return super.handleAutoJoin(stageName, joinDefinition, inputDataCollections, numPartitions);
   }
 
+  @Override
+  @SuppressWarnings("unchecked")
+  protected SparkCollection<RecordInfo<Object>> handleTransform(StageSpec stageSpec,
+                                                                SparkCollection<Object> stageData,
+                                                                PluginContext pluginContext,
+                                                                MacroEvaluator macroEvaluator,
+                                                                StageStatisticsCollector collector) throws Exception {
+    String stageName = stageSpec.getName();
+    Schema inputSchema = getInputSchema(stageSpec);
+    if (sqlEngineAdapter != null && stageData instanceof SQLBackedCollection && inputSchema != null) {
+      Object plugin = pluginContext.newPluginInstance(stageName, macroEvaluator);
+      if (plugin instanceof RelationalTransform) {
+        TransformDefinition transformDefinition = ((RelationalTransform) plugin).defineTransform(inputSchema);
+        if (transformDefinition != null && sqlEngineAdapter.canTransform(stageName, transformDefinition)) {
+          LOG.debug("Executing transform stage '{}' in the SQL engine", stageName);
+          SparkCollection<Object> transformed =
+            ((SQLBackedCollection<Object>) stageData).transform(stageName, transformDefinition);
+          return mapToRecordInfoCollection(stageName, transformed);
+        }
+      }
+    }
+    return super.handleTransform(stageSpec, stageData, pluginContext, macroEvaluator, collector);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  protected SparkCollection<RecordInfo<Object>> handleAggregate(StageSpec stageSpec, Object plugin,
+                                                                SparkCollection<Object> stageData,
+                                                                @Nullable Integer partitions,
+                                                                StageStatisticsCollector collector) throws Exception {
+    String stageName = stageSpec.getName();
+    Schema inputSchema = getInputSchema(stageSpec);
+    if (sqlEngineAdapter != null && stageData instanceof SQLBackedCollection && inputSchema != null
+      && plugin instanceof RelationalAggregator) {
+      AggregationDefinition aggregationDefinition = ((RelationalAggregator) plugin).defineAggregation(inputSchema);
+      if (aggregationDefinition != null && sqlEngineAdapter.canAggregate(stageName, aggregationDefinition)) {
+        LOG.debug("Executing aggregator stage '{}' in the SQL engine", stageName);
+        SparkCollection<Object> aggregated =
+          ((SQLBackedCollection<Object>) stageData).aggregate(stageName, aggregationDefinition);
+        return mapToRecordInfoCollection(stageName, aggregated);
+      }
+    }
+    return super.handleAggregate(stageSpec, plugin, stageData, partitions, collector);
+  }
+
+  /**
+   * Returns the single input schema of the given stage, or {@code null} if the stage has no input schema or
+   * inputs with different schemas.
+   */
+  @Nullable
+  private Schema getInputSchema(StageSpec stageSpec) {
+    Collection<Schema> inputSchemas = stageSpec.getInputSchemas().values();
+    Schema inputSchema = null;
+    for (Schema schema : inputSchemas) {
+      if (schema == null || (inputSchema != null && !inputSchema.equals(schema))) {
+        return null;
+      }
+      inputSchema = schema;
+    }
+    return inputSchema;
+  }
+
+  /**
+   * Finds the {@link RelationalTransform} stages that can potentially be executed in the SQL engine.
+   * Those are the stages with a single input, which is a join, an aggregation or another such transform.
+   * Other transforms would have their records in Spark already.
+   */
+  @VisibleForTesting
+  static Set<String> getRelationalTransformStages(PipelinePhase phase, PluginContext pluginContext) {
+    Set<String> result = new HashSet<>();
+    Dag dag = phase.getDag();
+    if (dag == null) {
+      return result;
+    }
+
+    Set<String> sqlStages = new HashSet<>();
+    for (String stageName : dag.getTopologicalOrder()) {
+      StageSpec stageSpec = phase.getStage(stageName);
+      String pluginType = stageSpec.getPluginType();
+      if (BatchJoiner.PLUGIN_TYPE.equals(pluginType) || BatchAggregator.PLUGIN_TYPE.equals(pluginType)) {
+        sqlStages.add(stageName);
+        continue;
+      }
+      if (!Transform.PLUGIN_TYPE.equals(pluginType)) {
+        continue;
+      }
+      Set<String> inputs = phase.getStageInputs(stageName);
+      if (inputs.size() != 1 || !sqlStages.contains(inputs.iterator().next())) {
+        continue;
+      }
+      Class<?> pluginClass = pluginContext.loadPluginClass(stageName);
+      if (RelationalTransform.class.isAssignableFrom(pluginClass)) {
+        sqlStages.add(stageName);
+        result.add(stageName);
+      }
+    }
+    return result;
+  }
+
   /**
    * Decide if we should pushdown this join operation into the SQL Engine.
    *
@@ -16,6 +16,8 @@
 
 package io.cdap.cdap.etl.spark.batch;
 
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
 import io.cdap.cdap.etl.spark.SparkCollection;
 
 /**
@@ -24,4 +26,22 @@ import io.cdap.cdap.etl.spark.SparkCollection;
  * @param <T> type of elements in the spark collection
  */
 public interface SQLBackedCollection<T> extends SparkCollection<T> {
+
+  /**
+   * Executes a transform operation in the SQL engine, without pulling records into Spark.
+   *
+   * @param stageName the name of the stage, which is used as the name of the resulting dataset
+   * @param transformDefinition the relational definition of the transform
+   * @return collection representing the records produced by the transform
+   */
+  SparkCollection<T> transform(String stageName, TransformDefinition transformDefinition);
+
+  /**
+   * Executes an aggregation operation in the SQL engine, without pulling records into Spark.
+   *
+   * @param stageName the name of the stage, which is used as the name of the resulting dataset
+   * @param aggregationDefinition the relational definition of the aggregation
+   * @return collection representing the records produced by the aggregation
+   */
+  SparkCollection<T> aggregate(String stageName, AggregationDefinition aggregationDefinition);
 }
@@ -21,6 +21,8 @@ import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
 import io.cdap.cdap.etl.api.batch.SparkCompute;
 import io.cdap.cdap.etl.api.batch.SparkSink;
 import io.cdap.cdap.etl.api.engine.sql.dataset.SQLDataset;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
 import io.cdap.cdap.etl.api.streaming.Windower;
 import io.cdap.cdap.etl.common.PhaseSpec;
 import io.cdap.cdap.etl.common.RecordInfo;
@@ -222,4 +224,18 @@ public class SQLEngineCollection<T> implements SQLBackedCollection<T> {
     return new SQLEngineCollection<>(sec, functionCacheFactory, jsc, sqlContext, datasetContext, sinkFactory,
                                      joinStageName, adapter, job);
   }
+
+  @Override
+  public SparkCollection<T> transform(String stageName, TransformDefinition transformDefinition) {
+    SQLEngineJob<SQLDataset> job = adapter.transform(stageName, transformDefinition, this.job);
+    return new SQLEngineCollection<>(sec, functionCacheFactory, jsc, sqlContext, datasetContext, sinkFactory,
+                                     stageName, adapter, job);
+  }
+
+  @Override
+  public SparkCollection<T> aggregate(String stageName, AggregationDefinition aggregationDefinition) {
+    SQLEngineJob<SQLDataset> job = adapter.aggregate(stageName, aggregationDefinition, this.job);
+    return new SQLEngineCollection<>(sec, functionCacheFactory, jsc, sqlContext, datasetContext, sinkFactory,
+                                     stageName, adapter, job);
+  }
 }
@@ -18,6 +18,8 @@ package io.cdap.cdap.etl.spark.batch;
 
 import io.cdap.cdap.etl.api.batch.SparkCompute;
 import io.cdap.cdap.etl.api.batch.SparkSink;
+import io.cdap.cdap.etl.api.relational.AggregationDefinition;
+import io.cdap.cdap.etl.api.relational.TransformDefinition;
 import io.cdap.cdap.etl.api.streaming.Windower;
 import io.cdap.cdap.etl.common.PhaseSpec;
 import io.cdap.cdap.etl.common.RecordInfo;
@@ -180,4 +182,14 @@ public class WrappedSQLEngineCollection<T, U> implements SQLBackedCollection<U>
   public SparkCollection<U> join(JoinExpressionRequest joinExpressionRequest) {
     return rewrap(c -> c.join(joinExpressionRequest));
   }
+
+  @Override
+  public SparkCollection<U> transform(String stageName, TransformDefinition transformDefinition) {
+    return rewrap(c -> ((SQLBackedCollection<T>) c).transform(stageName, transformDefinition));
+  }
+
+  @Override
+  public SparkCollection<U> aggregate(String stageName, AggregationDefinition aggregationDefinition) {
+    return rewrap(c -> ((SQLBackedCollection<T>) c).aggregate(stageName, aggregationDefinition));
+  }
 }
@@ -53,7 +53,7 @@ public class AggregatorFinalizeFunction<GROUP_KEY, GROUP_VAL, AGG_VAL, OUT>
   public Iterator<RecordInfo<Object>> call(Tuple2<GROUP_KEY, AGG_VAL> input) throws Exception {
     if (aggregateTransform == null) {
       BatchReducibleAggregator<GROUP_KEY, GROUP_VAL, AGG_VAL, OUT> aggregator =
-        pluginFunctionContext.createAndInitializePlugin(functionCache);
+        pluginFunctionContext.createAndInitializeReducibleAggregator(functionCache);
       aggregateTransform = new TrackedTransform<>(new AggregateTransform<>(aggregator),
                                                   pluginFunctionContext.createStageMetrics(),
                                                   Constants.Metrics.AGG_GROUPS,
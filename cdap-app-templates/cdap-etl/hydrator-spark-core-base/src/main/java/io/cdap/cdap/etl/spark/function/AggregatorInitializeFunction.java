@@ -40,7 +40,7 @@ public class AggregatorInitializeFunction<GROUP_VALUE, AGG_VALUE> implements Fun
   @Override
   public AGG_VALUE call(GROUP_VALUE value) throws Exception {
     if (aggregator == null) {
-      aggregator = pluginFunctionContext.createAndInitializePlugin(functionCache);
+      aggregator = pluginFunctionContext.createAndInitializeReducibleAggregator(functionCache);
     }
     return aggregator.initializeAggregateValue(value);
   }
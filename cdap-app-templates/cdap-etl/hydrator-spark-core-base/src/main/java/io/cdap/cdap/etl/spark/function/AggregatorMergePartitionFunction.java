@@ -39,7 +39,7 @@ public class AggregatorMergePartitionFunction<AGG_VALUE> implements Function2<AG
   @Override
   public AGG_VALUE call(AGG_VALUE value1, AGG_VALUE value2) throws Exception {
     if (aggregator == null) {
-      aggregator = pluginFunctionContext.createAndInitializePlugin(functionCache);
+      aggregator = pluginFunctionContext.createAndInitializeReducibleAggregator(functionCache);
     }
     return aggregator.mergePartitions(value1, value2);
   }
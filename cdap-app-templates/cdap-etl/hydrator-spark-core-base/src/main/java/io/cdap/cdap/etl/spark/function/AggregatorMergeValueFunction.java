@@ -40,7 +40,7 @@ public class AggregatorMergeValueFunction<AGG_VALUE, GROUP_VALUE>
   @Override
   public AGG_VALUE call(AGG_VALUE aggValue, GROUP_VALUE groupValue) throws Exception {
     if (aggregator == null) {
-      aggregator = pluginFunctionContext.createAndInitializePlugin(functionCache);
+      aggregator = pluginFunctionContext.createAndInitializeReducibleAggregator(functionCache);
     }
     return aggregator.mergeValues(aggValue, groupValue);
   }
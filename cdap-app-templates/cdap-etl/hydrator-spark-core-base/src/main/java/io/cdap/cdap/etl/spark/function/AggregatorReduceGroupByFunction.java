@@ -51,7 +51,7 @@ public class AggregatorReduceGroupByFunction<GROUP_KEY, GROUP_VAL>
   public Iterator<Tuple2<GROUP_KEY, GROUP_VAL>> call(GROUP_VAL input) throws Exception {
     if (groupByFunction == null) {
       BatchReducibleAggregator<GROUP_KEY, GROUP_VAL, ?, ?> aggregator =
-        pluginFunctionContext.createAndInitializePlugin(functionCache);
+        pluginFunctionContext.createAndInitializeReducibleAggregator(functionCache);
       groupByFunction = new TrackedTransform<>(new GroupByTransform<>(aggregator),
                                                pluginFunctionContext.createStageMetrics(),
                                                Constants.Metrics.RECORDS_IN,
@@ -26,6 +26,7 @@ import io.cdap.cdap.api.spark.JavaSparkExecutionContext;
 import io.cdap.cdap.etl.api.FailureCollector;
 import io.cdap.cdap.etl.api.StageLifecycle;
 import io.cdap.cdap.etl.api.StageMetrics;
+import io.cdap.cdap.etl.api.batch.BatchReducibleAggregator;
 import io.cdap.cdap.etl.api.join.AutoJoinerContext;
 import io.cdap.cdap.etl.batch.connector.SingleConnectorSink;
 import io.cdap.cdap.etl.batch.connector.SingleConnectorSource;
@@ -37,6 +38,7 @@ import io.cdap.cdap.etl.common.DefaultStageMetrics;
 import io.cdap.cdap.etl.common.PipelineRuntime;
 import io.cdap.cdap.etl.common.StageStatisticsCollector;
 import io.cdap.cdap.etl.common.plugin.PipelinePluginContext;
+import io.cdap.cdap.etl.common.plugin.RelationalReducibleAggregator;
 import io.cdap.cdap.etl.proto.v2.spec.StageSpec;
 import io.cdap.cdap.etl.spark.batch.SparkBatchRuntimeContext;
 import io.cdap.cdap.etl.spark.plugin.SparkPipelinePluginContext;
@@ -114,6 +116,26 @@ public class PluginFunctionContext implements Serializable {
     return createAndInitializePlugin(createBatchRuntimeContext(), cache);
   }
 
+  /**
+   * Creates and initializes the {@link BatchReducibleAggregator} of the stage. An aggregator that is not reducible
+   * is converted to a {@link RelationalReducibleAggregator} from its aggregation definition.
+   */
+  @SuppressWarnings("unchecked")
+  public <T extends BatchReducibleAggregator<?, ?, ?, ?>> T createAndInitializeReducibleAggregator(FunctionCache cache)
+    throws Exception {
+    return cache.getValue(() -> {
+      Object plugin = createPlugin();
+      BatchReducibleAggregator<?, ?, ?, ?> aggregator = plugin instanceof BatchReducibleAggregator
+        ? (BatchReducibleAggregator<?, ?, ?, ?>) plugin : RelationalReducibleAggregator.from(plugin, stageSpec);
+      if (aggregator == null) {
+        throw new IllegalStateException(String.format("Stage '%s' is not a reducible aggregator.",
+                                                      stageSpec.getName()));
+      }
+      aggregator.initialize(createBatchRuntimeContext());
+      return (T) aggregator;
+    });
+  }
+
   public AutoJoinerContext createAutoJoinerContext() {
     FailureCollector failureCollector = new LoggingFailureCollector(getStageName(), stageSpec.getInputSchemas());
     return DefaultAutoJoinerContext.from(stageSpec.getInputSchemas(), failureCollector);
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.spark.join;
+
+import io.cdap.cdap.api.common.Bytes;
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import org.apache.spark.util.sketch.CountMinSketch;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Join key statistics collected from a sample of the records of one side of a join.
+ * Key frequencies are estimated with a {@link CountMinSketch}. A small set of candidate heavy hitters is kept
+ * along with the sketch, so that the most frequent key can be found without collecting all keys.
+ */
+public class JoinKeyStats implements Serializable {
+
+  private static final long serialVersionUID = -2217634190484231307L;
+  private static final double RELATIVE_ERROR = 0.001d;
+  private static final double CONFIDENCE = 0.99d;
+  private static final int SEED = 42;
+  private static final int MAX_CANDIDATES = 16;
+
+  private final CountMinSketch sketch;
+  private final Map<String, Long> candidates;
+
+  public JoinKeyStats() {
+    this.sketch = CountMinSketch.create(RELATIVE_ERROR, CONFIDENCE, SEED);
+    this.candidates = new HashMap<>();
+  }
+
+  /**
+   * Adds the key of the given record to the statistics.
+   */
+  public JoinKeyStats add(StructuredRecord record, List<String> keyFields) {
+    String key = toKey(record, keyFields);
+    sketch.add(key);
+    offer(key, sketch.estimateCount(key));
+    return this;
+  }
+
+  /**
+   * Merges the given statistics into this one.
+   */
+  public JoinKeyStats merge(JoinKeyStats other) {
+    sketch.mergeInPlace(other.sketch);
+    Map<String, Long> merged = new HashMap<>(candidates);
+    merged.putAll(other.candidates);
+    candidates.clear();
+    // Estimates are only comparable after merging, since a key can be frequent across partitions
+    merged.keySet().forEach(key -> offer(key, sketch.estimateCount(key)));
+    return this;
+  }
+
+  /**
+   * @return the number of sampled records
+   */
+  public long getSampleCount() {
+    return sketch.totalCount();
+  }
+
+  /**
+   * @return the estimated number of sampled records with the most frequent key
+   */
+  public long getHottestKeyCount() {
+    return candidates.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+  }
+
+  /**
+   * @return the estimated fraction of the records that have the most frequent key
+   */
+  public double getHottestKeyFraction() {
+    long total = getSampleCount();
+    return total == 0L ? 0d : (double) getHottestKeyCount() / total;
+  }
+
+  private void offer(String key, long count) {
+    if (candidates.containsKey(key) || candidates.size() < MAX_CANDIDATES) {
+      candidates.put(key, count);
+      return;
+    }
+    Map.Entry<String, Long> min = null;
+    for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+      if (min == null || entry.getValue() < min.getValue()) {
+        min = entry;
+      }
+    }
+    if (min.getValue() < count) {
+      candidates.remove(min.getKey());
+      candidates.put(key, count);
+    }
+  }
+
+  private static String toKey(StructuredRecord record, List<String> keyFields) {
+    if (keyFields.size() == 1) {
+      return toString(record.get(keyFields.get(0)));
+    }
+    StringBuilder key = new StringBuilder();
+    for (String field : keyFields) {
+      // Separate values with a character that is unlikely to appear in a key
+      key.append(toString(record.get(field))).append('\u0001');
+    }
+    return key.toString();
+  }
+
+  private static String toString(Object value) {
+    if (value instanceof byte[]) {
+      return Bytes.toStringBinary((byte[]) value);
+    }
+    if (value instanceof ByteBuffer) {
+      return Bytes.toStringBinary((ByteBuffer) value);
+    }
+    return Objects.toString(value);
+  }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.spark.join;
+
+import io.cdap.cdap.etl.api.join.JoinDefinition;
+import io.cdap.cdap.etl.api.join.JoinStage;
+import io.cdap.cdap.etl.common.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Chooses how a join on keys between two stages is executed, based on the {@link JoinKeyStats} sampled from
+ * each side of the join. A side that is small enough is broadcast. Otherwise, if a key holds a large fraction of
+ * the records of a side, that side is salted so that the hot key is spread over multiple partitions.
+ * Otherwise, the join is a plain repartition join.
+ */
+public class JoinStrategySelector {
+
+  /**
+   * Strategy to execute a join.
+   */
+  public enum Strategy {
+    BROADCAST,
+    SALTED,
+    REPARTITION
+  }
+
+  static final double DEFAULT_SAMPLE_FRACTION = 0.01d;
+  static final double DEFAULT_SKEW_THRESHOLD = 0.05d;
+  static final int DEFAULT_MAX_DISTRIBUTION_FACTOR = 20;
+  static final long DEFAULT_BROADCAST_ROWS_THRESHOLD = 100000L;
+
+  private final double sampleFraction;
+  private final double skewThreshold;
+  private final int maxDistributionFactor;
+  private final long broadcastRowsThreshold;
+
+  public JoinStrategySelector(double sampleFraction, double skewThreshold, int maxDistributionFactor,
+                              long broadcastRowsThreshold) {
+    if (sampleFraction <= 0d || sampleFraction > 1d) {
+      throw new IllegalArgumentException("Sample fraction must be in (0, 1], but is " + sampleFraction);
+    }
+    this.sampleFraction = sampleFraction;
+    this.skewThreshold = skewThreshold;
+    this.maxDistributionFactor = maxDistributionFactor;
+    this.broadcastRowsThreshold = broadcastRowsThreshold;
+  }
+
+  /**
+   * Creates a {@link JoinStrategySelector} from the runtime arguments of the pipeline.
+   */
+  public static JoinStrategySelector fromArguments(Map<String, String> arguments) {
+    return new JoinStrategySelector(
+      Double.parseDouble(arguments.getOrDefault(Constants.JOIN_SKEW_SAMPLE_FRACTION,
+                                                String.valueOf(DEFAULT_SAMPLE_FRACTION))),
+      Double.parseDouble(arguments.getOrDefault(Constants.JOIN_SKEW_THRESHOLD,
+                                                String.valueOf(DEFAULT_SKEW_THRESHOLD))),
+      Integer.parseInt(arguments.getOrDefault(Constants.JOIN_SKEW_MAX_DISTRIBUTION_FACTOR,
+                                              String.valueOf(DEFAULT_MAX_DISTRIBUTION_FACTOR))),
+      Long.parseLong(arguments.getOrDefault(Constants.JOIN_BROADCAST_ROWS_THRESHOLD,
+                                            String.valueOf(DEFAULT_BROADCAST_ROWS_THRESHOLD))));
+  }
+
+  /**
+   * Returns whether the strategy of the given join can be chosen automatically. This is only the case for joins
+   * between two stages where the user didn't already choose to broadcast a stage or to distribute a skewed stage.
+   */
+  public static boolean isApplicable(JoinDefinition joinDefinition) {
+    return joinDefinition.getStages().size() == 2 && joinDefinition.getDistribution() == null
+      && joinDefinition.getStages().stream().noneMatch(JoinStage::isBroadcast);
+  }
+
+  public double getSampleFraction() {
+    return sampleFraction;
+  }
+
+  /**
+   * Chooses the strategy for the given join.
+   *
+   * @param joinDefinition the join, which must be {@link #isApplicable(JoinDefinition) applicable}
+   * @param stats the key statistics sampled from each stage of the join
+   * @param numPartitions the number of partitions of the join
+   * @return the decision
+   */
+  public Decision select(JoinDefinition joinDefinition, Map<String, JoinKeyStats> stats, int numPartitions) {
+    JoinStage stage1 = joinDefinition.getStages().get(0);
+    JoinStage stage2 = joinDefinition.getStages().get(1);
+    JoinKeyStats stats1 = stats.get(stage1.getStageName());
+    JoinKeyStats stats2 = stats.get(stage2.getStageName());
+    double hotKeyFraction = Math.max(stats1.getHottestKeyFraction(), stats2.getHottestKeyFraction());
+
+    // Spark can only broadcast the side whose records don't need to be preserved,
+    // hence the other side must be required.
+    long rows1 = estimateRows(stats1);
+    long rows2 = estimateRows(stats2);
+    JoinStage smaller = rows1 <= rows2 ? stage1 : stage2;
+    JoinStage larger = smaller == stage1 ? stage2 : stage1;
+    if (Math.min(rows1, rows2) <= broadcastRowsThreshold && larger.isRequired()) {
+      return new Decision(Strategy.BROADCAST, smaller.getStageName(), 0, hotKeyFraction);
+    }
+
+    // Only a required stage can be salted, the other side gets exploded
+    JoinStage skewed = null;
+    double skewedFraction = skewThreshold;
+    for (JoinStage stage : joinDefinition.getStages()) {
+      double fraction = stats.get(stage.getStageName()).getHottestKeyFraction();
+      if (stage.isRequired() && fraction >= skewedFraction) {
+        skewed = stage;
+        skewedFraction = fraction;
+      }
+    }
+    if (skewed != null && maxDistributionFactor > 1) {
+      // An even share of the records is 1 / numPartitions, so spread the hot key over enough partitions
+      // to get close to that, without exploding the other side too much.
+      // The fraction is an overestimate, hence rounding instead of rounding up.
+      int factor = (int) Math.round(skewedFraction * numPartitions);
+      factor = Math.max(2, Math.min(maxDistributionFactor, factor));
+      return new Decision(Strategy.SALTED, skewed.getStageName(), factor, hotKeyFraction);
+    }
+    return new Decision(Strategy.REPARTITION, null, 0, hotKeyFraction);
+  }
+
+  private long estimateRows(JoinKeyStats stats) {
+    return (long) Math.ceil(stats.getSampleCount() / sampleFraction);
+  }
+
+  /**
+   * The strategy chosen for a join.
+   */
+  public static final class Decision {
+    private final Strategy strategy;
+    private final String stageName;
+    private final int distributionFactor;
+    private final double hotKeyFraction;
+
+    private Decision(Strategy strategy, @Nullable String stageName, int distributionFactor,
+                     double hotKeyFraction) {
+      this.strategy = strategy;
+      this.stageName = stageName;
+      this.distributionFactor = distributionFactor;
+      this.hotKeyFraction = hotKeyFraction;
+    }
+
+    public Strategy getStrategy() {
+      return strategy;
+    }
+
+    /**
+     * @return the stage to broadcast or salt, or {@code null} for a repartition join
+     */
+    @Nullable
+    public String getStageName() {
+      return stageName;
+    }
+
+    public int getDistributionFactor() {
+      return distributionFactor;
+    }
+
+    /**
+     * @return the largest estimated fraction of the records of a stage that have the same key
+     */
+    public double getHotKeyFraction() {
+      return hotKeyFraction;
+    }
+
+    /**
+     * Returns the given join definition modified to use this strategy.
+     */
+    public JoinDefinition apply(JoinDefinition joinDefinition) {
+      if (strategy == Strategy.REPARTITION) {
+        return joinDefinition;
+      }
+      List<JoinStage> stages = new ArrayList<>();
+      for (JoinStage stage : joinDefinition.getStages()) {
+        boolean broadcast = strategy == Strategy.BROADCAST && stage.getStageName().equals(stageName);
+        stages.add(JoinStage.builder(stage).setBroadcast(broadcast).build());
+      }
+      JoinDefinition.Builder builder = JoinDefinition.builder()
+        .select(joinDefinition.getSelectedFields())
+        .from(stages)
+        .on(joinDefinition.getCondition());
+      if (joinDefinition.getOutputSchema() != null) {
+        builder.setOutputSchema(joinDefinition.getOutputSchema());
+      }
+      if (strategy == Strategy.SALTED) {
+        builder.setDistributionFactor(distributionFactor, stageName);
+      }
+      return builder.build();
+    }
+
+    @Override
+    public String toString() {
+      return "Decision{" +
+        "strategy=" + strategy +
+        ", stage='" + stageName + '\'' +
+        ", distributionFactor=" + distributionFactor +
+        ", hotKeyFraction=" + hotKeyFraction +
+        '}';
+    }
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming;
+
+import io.cdap.cdap.etl.common.Constants;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.function.Function2;
+import org.apache.spark.api.java.function.VoidFunction2;
+import org.apache.spark.streaming.Time;
+import org.apache.spark.streaming.api.java.JavaDStream;
+
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the output operations of a streaming pipeline completing in batch time order when more than one micro batch
+ * is allowed to run at the same time.
+ *
+ * Spark marks a batch as completed, and checkpoints the offsets it consumed, once all output operations of the batch
+ * have finished. When micro batches run concurrently, a later batch could otherwise complete before an earlier one.
+ * With ordering, the sinks of a later batch still write while the earlier batch is running, but each output operation
+ * only returns after the same operation has returned for every earlier batch. Batch times are registered when Spark
+ * generates the batch, which happens on a single thread in batch time order.
+ *
+ * Spark runs the jobs of the batches in submission order, so by the time an operation waits for an earlier batch, the
+ * operation of the earlier batch has already been given a thread and waiting cannot deadlock.
+ */
+public final class BatchCompletionOrder {
+
+  private static final ConcurrentMap<String, BatchCompletionOrder> ORDERS = new ConcurrentHashMap<>();
+
+  private final NavigableSet<Long> pendingBatches = new TreeSet<>();
+
+  /**
+   * Returns the number of micro batches that are allowed to run at the same time, as set in the runtime arguments.
+   *
+   * @throws IllegalArgumentException if the value is not a positive integer
+   */
+  public static int getConcurrentBatches(Map<String, String> arguments) {
+    String concurrentBatches = arguments.get(Constants.STREAMING_CONCURRENT_BATCHES);
+    if (concurrentBatches == null) {
+      return 1;
+    }
+    String errorMessage = String.format("Invalid value '%s' for '%s'. It must be a positive integer.",
+                                        concurrentBatches, Constants.STREAMING_CONCURRENT_BATCHES);
+    int value;
+    try {
+      value = Integer.parseInt(concurrentBatches.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(errorMessage, e);
+    }
+    if (value < 1) {
+      throw new IllegalArgumentException(errorMessage);
+    }
+    return value;
+  }
+
+  /**
+   * Adds an output operation to the given stream. If more than one batch can run at the same time, the operation
+   * is made to complete in batch time order.
+   */
+  public static <T> void foreachBatch(JavaDStream<T> stream, VoidFunction2<JavaRDD<T>, Time> function,
+                                      int concurrentBatches) {
+    if (concurrentBatches <= 1) {
+      stream.foreachRDD(function);
+      return;
+    }
+    String orderId = UUID.randomUUID().toString();
+    stream.transform(new RegisterBatchFunction<T>(orderId)).foreachRDD(new OrderedFunction<>(orderId, function));
+  }
+
+  static BatchCompletionOrder get(String orderId) {
+    return ORDERS.computeIfAbsent(orderId, id -> new BatchCompletionOrder());
+  }
+
+  synchronized void register(long batchTime) {
+    pendingBatches.add(batchTime);
+  }
+
+  /**
+   * Blocks until every earlier registered batch has completed.
+   */
+  synchronized void awaitTurn(long batchTime) throws InterruptedException {
+    while (!pendingBatches.isEmpty() && pendingBatches.first() < batchTime) {
+      wait();
+    }
+  }
+
+  synchronized void complete(long batchTime) {
+    pendingBatches.remove(batchTime);
+    notifyAll();
+  }
+
+  /**
+   * Registers each batch time as the batch is generated.
+   *
+   * @param <T> type of object in the rdd
+   */
+  private static final class RegisterBatchFunction<T> implements Function2<JavaRDD<T>, Time, JavaRDD<T>> {
+    private final String orderId;
+
+    RegisterBatchFunction(String orderId) {
+      this.orderId = orderId;
+    }
+
+    @Override
+    public JavaRDD<T> call(JavaRDD<T> data, Time batchTime) {
+      get(orderId).register(batchTime.milliseconds());
+      return data;
+    }
+  }
+
+  /**
+   * Runs an output operation and waits for the earlier batches before returning.
+   *
+   * @param <T> type of object in the rdd
+   */
+  private static final class OrderedFunction<T> implements VoidFunction2<JavaRDD<T>, Time> {
+    private final String orderId;
+    private final VoidFunction2<JavaRDD<T>, Time> delegate;
+
+    OrderedFunction(String orderId, VoidFunction2<JavaRDD<T>, Time> delegate) {
+      this.orderId = orderId;
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void call(JavaRDD<T> data, Time batchTime) throws Exception {
+      BatchCompletionOrder order = get(orderId);
+      long time = batchTime.milliseconds();
+      try {
+        delegate.call(data, batchTime);
+        order.awaitTurn(time);
+      } finally {
+        order.complete(time);
+      }
+    }
+  }
+}
@@ -186,7 +186,7 @@ public class DStreamCollection<T> implements SparkCollection<T> {
     return new Runnable() {
       @Override
       public void run() {
-        stream.foreachRDD(new StreamingBatchSinkFunction<T>(sec, stageSpec, functionCacheFactory.newCache()));
+        foreachBatch(stream, new StreamingBatchSinkFunction<T>(sec, stageSpec, functionCacheFactory.newCache()));
       }
     };
   }
@@ -197,8 +197,8 @@ public class DStreamCollection<T> implements SparkCollection<T> {
     return new Runnable() {
       @Override
       public void run() {
-        ((JavaDStream<RecordInfo<Object>>) stream).foreachRDD(
-              new StreamingMultiSinkFunction(sec, phaseSpec, group, sinks, collectors));
+        foreachBatch((JavaDStream<RecordInfo<Object>>) stream,
+                     new StreamingMultiSinkFunction(sec, phaseSpec, group, sinks, collectors));
       }
     };
   }
@@ -208,14 +208,21 @@ public class DStreamCollection<T> implements SparkCollection<T> {
     return new Runnable() {
       @Override
       public void run() {
-        stream.foreachRDD(new StreamingSparkSinkFunction<T>(sec, stageSpec));
+        foreachBatch(stream, new StreamingSparkSinkFunction<T>(sec, stageSpec));
       }
     };
   }
 
   @Override
   public void publishAlerts(StageSpec stageSpec, StageStatisticsCollector collector) throws Exception {
-    ((JavaDStream<Alert>) stream).foreachRDD(new StreamingAlertPublishFunction(sec, stageSpec));
+    foreachBatch((JavaDStream<Alert>) stream, new StreamingAlertPublishFunction(sec, stageSpec));
+  }
+
+  private <U> void foreachBatch(JavaDStream<U> dstream, VoidFunction2<JavaRDD<U>, Time> function) {
+    // a batch is only checkpointed as completed once all of its output operations are done, so when batches
+    // run concurrently, each output operation has to complete in batch time order
+    int concurrentBatches = BatchCompletionOrder.getConcurrentBatches(sec.getRuntimeArguments());
+    BatchCompletionOrder.foreachBatch(dstream, function, concurrentBatches);
   }
 
   @Override
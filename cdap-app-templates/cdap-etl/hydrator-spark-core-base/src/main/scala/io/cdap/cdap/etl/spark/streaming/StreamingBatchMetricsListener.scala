@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming
+
+import io.cdap.cdap.api.metrics.Metrics
+import io.cdap.cdap.etl.common.Constants
+import org.apache.spark.streaming.scheduler.{StreamingListener, StreamingListenerBatchCompleted,
+  StreamingListenerBatchStarted, StreamingListenerBatchSubmitted}
+
+/**
+ * Emits the scheduling delay, processing time, and number of queued and running micro batches of a streaming
+ * pipeline as metrics. These are the same signals Spark's backpressure rate controller uses to adjust the
+ * ingestion rate, so they show why a pipeline is falling behind.
+ *
+ * Listener events are delivered on a single thread by the Spark listener bus, so the counters are not synchronized.
+ */
+class StreamingBatchMetricsListener(val metrics: Metrics) extends StreamingListener {
+
+  private var queuedBatches = 0
+  private var runningBatches = 0
+
+  override def onBatchSubmitted(batchSubmitted: StreamingListenerBatchSubmitted): Unit = {
+    queuedBatches += 1
+    emitBatchCounts()
+  }
+
+  override def onBatchStarted(batchStarted: StreamingListenerBatchStarted): Unit = {
+    queuedBatches = math.max(0, queuedBatches - 1)
+    runningBatches += 1
+    emitBatchCounts()
+    emitDelay(Constants.Metrics.STREAMING_SCHEDULING_DELAY, batchStarted.batchInfo.schedulingDelay)
+  }
+
+  override def onBatchCompleted(batchCompleted: StreamingListenerBatchCompleted): Unit = {
+    runningBatches = math.max(0, runningBatches - 1)
+    emitBatchCounts()
+    emitDelay(Constants.Metrics.STREAMING_PROCESSING_TIME, batchCompleted.batchInfo.processingDelay)
+    emitDelay(Constants.Metrics.STREAMING_TOTAL_DELAY, batchCompleted.batchInfo.totalDelay)
+  }
+
+  private def emitBatchCounts(): Unit = {
+    metrics.gauge(Constants.Metrics.STREAMING_QUEUED_BATCHES, queuedBatches)
+    metrics.gauge(Constants.Metrics.STREAMING_RUNNING_BATCHES, runningBatches)
+  }
+
+  private def emitDelay(metricName: String, delay: Option[Long]): Unit = {
+    delay.foreach(metrics.gauge(metricName, _))
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.etl.spark.join;
+
+import io.cdap.cdap.api.data.format.StructuredRecord;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.etl.api.join.JoinCondition;
+import io.cdap.cdap.etl.api.join.JoinDefinition;
+import io.cdap.cdap.etl.api.join.JoinField;
+import io.cdap.cdap.etl.api.join.JoinKey;
+import io.cdap.cdap.etl.api.join.JoinStage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link JoinStrategySelector} and {@link JoinKeyStats}.
+ */
+public class JoinStrategySelectorTest {
+
+  private static final Schema PURCHASE_SCHEMA = Schema.recordOf(
+    "purchase",
+    Schema.Field.of("id", Schema.of(Schema.Type.LONG)),
+    Schema.Field.of("userId", Schema.of(Schema.Type.STRING)));
+  private static final Schema USER_SCHEMA = Schema.recordOf(
+    "user",
+    Schema.Field.of("id", Schema.of(Schema.Type.STRING)),
+    Schema.Field.of("name", Schema.of(Schema.Type.STRING)));
+  private static final List<String> PURCHASE_KEY = Collections.singletonList("userId");
+  private static final List<String> USER_KEY = Collections.singletonList("id");
+
+  @Test
+  public void testKeyStats() {
+    JoinKeyStats stats1 = new JoinKeyStats();
+    JoinKeyStats stats2 = new JoinKeyStats();
+    for (int i = 0; i < 1000; i++) {
+      stats1.add(purchase(i, "user" + i), PURCHASE_KEY);
+      // The hot key is spread across both partial stats, but is only hot once they are merged
+      stats1.add(purchase(i, "hot"), PURCHASE_KEY);
+      stats2.add(purchase(i, i % 2 == 0 ? "hot" : "other" + i), PURCHASE_KEY);
+    }
+    Assert.assertEquals(2000L, stats1.getSampleCount());
+
+    JoinKeyStats merged = stats1.merge(stats2);
+    Assert.assertEquals(3000L, merged.getSampleCount());
+    Assert.assertTrue(merged.getHottestKeyCount() >= 1500L);
+    Assert.assertEquals(0.5d, merged.getHottestKeyFraction(), 0.05d);
+  }
+
+  @Test
+  public void testBroadcast() {
+    JoinStrategySelector selector = new JoinStrategySelector(0.1d, 0.05d, 20, 1000L);
+    JoinDefinition joinDefinition = createJoin(true, true);
+    Assert.assertTrue(JoinStrategySelector.isApplicable(joinDefinition));
+
+    Map<String, JoinKeyStats> stats = new HashMap<>();
+    stats.put("purchases", createPurchaseStats(10000, 0));
+    stats.put("users", createUserStats(50));
+
+    JoinStrategySelector.Decision decision = selector.select(joinDefinition, stats, 100);
+    Assert.assertEquals(JoinStrategySelector.Strategy.BROADCAST, decision.getStrategy());
+    Assert.assertEquals("users", decision.getStageName());
+
+    JoinDefinition planned = decision.apply(joinDefinition);
+    for (JoinStage stage : planned.getStages()) {
+      Assert.assertEquals(stage.getStageName().equals("users"), stage.isBroadcast());
+    }
+    Assert.assertFalse(JoinStrategySelector.isApplicable(planned));
+
+    // users can't be broadcast if purchases is optional, as the join would be a right outer join
+    decision = selector.select(createJoin(false, true), stats, 100);
+    Assert.assertEquals(JoinStrategySelector.Strategy.REPARTITION, decision.getStrategy());
+  }
+
+  @Test
+  public void testSalted() {
+    JoinStrategySelector selector = new JoinStrategySelector(0.1d, 0.05d, 20, 1000L);
+    JoinDefinition joinDefinition = createJoin(true, false);
+
+    Map<String, JoinKeyStats> stats = new HashMap<>();
+    // 10% of the purchases are from the same user
+    stats.put("purchases", createPurchaseStats(9000, 1000));
+    stats.put("users", createUserStats(5000));
+
+    JoinStrategySelector.Decision decision = selector.select(joinDefinition, stats, 100);
+    Assert.assertEquals(JoinStrategySelector.Strategy.SALTED, decision.getStrategy());
+    Assert.assertEquals("purchases", decision.getStageName());
+    // the hot key would need 10 partitions to be an even share of the 100 partitions
+    Assert.assertEquals(10, decision.getDistributionFactor());
+
+    JoinDefinition planned = decision.apply(joinDefinition);
+    Assert.assertNotNull(planned.getDistribution());
+    Assert.assertEquals("purchases", planned.getDistribution().getSkewedStageName());
+    Assert.assertEquals(10, planned.getDistribution().getDistributionFactor());
+
+    // the distribution factor is capped
+    decision = new JoinStrategySelector(0.1d, 0.05d, 4, 1000L).select(joinDefinition, stats, 100);
+    Assert.assertEquals(4, decision.getDistributionFactor());
+  }
+
+  @Test
+  public void testRepartition() {
+    JoinStrategySelector selector = new JoinStrategySelector(0.1d, 0.05d, 20, 1000L);
+    JoinDefinition joinDefinition = createJoin(true, true);
+
+    Map<String, JoinKeyStats> stats = new HashMap<>();
+    stats.put("purchases", createPurchaseStats(10000, 0));
+    stats.put("users", createUserStats(5000));
+
+    JoinStrategySelector.Decision decision = selector.select(joinDefinition, stats, 100);
+    Assert.assertEquals(JoinStrategySelector.Strategy.REPARTITION, decision.getStrategy());
+    Assert.assertSame(joinDefinition, decision.apply(joinDefinition));
+  }
+
+  private static JoinKeyStats createPurchaseStats(int uniformCount, int hotCount) {
+    JoinKeyStats stats = new JoinKeyStats();
+    for (int i = 0; i < uniformCount; i++) {
+      stats.add(purchase(i, "user" + i), PURCHASE_KEY);
+    }
+    for (int i = 0; i < hotCount; i++) {
+      stats.add(purchase(uniformCount + i, "hot"), PURCHASE_KEY);
+    }
+    return stats;
+  }
+
+  private static JoinKeyStats createUserStats(int count) {
+    JoinKeyStats stats = new JoinKeyStats();
+    for (int i = 0; i < count; i++) {
+      stats.add(StructuredRecord.builder(USER_SCHEMA).set("id", "user" + i).set("name", "name" + i).build(),
+                USER_KEY);
+    }
+    return stats;
+  }
+
+  private static StructuredRecord purchase(long id, String userId) {
+    return StructuredRecord.builder(PURCHASE_SCHEMA).set("id", id).set("userId", userId).build();
+  }
+
+  private static JoinDefinition createJoin(boolean purchasesRequired, boolean usersRequired) {
+    return JoinDefinition.builder()
+      .select(new JoinField("purchases", "id"), new JoinField("users", "name"))
+      .from(JoinStage.builder("purchases", PURCHASE_SCHEMA).setRequired(purchasesRequired).build(),
+            JoinStage.builder("users", USER_SCHEMA).setRequired(usersRequired).build())
+      .on(JoinCondition.onKeys()
+            .addKey(new JoinKey("purchases", Arrays.asList("userId")))
+            .addKey(new JoinKey("users", Arrays.asList("id")))
+            .build())
+      .build();
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming;
+
+import io.cdap.cdap.etl.common.Constants;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Unit tests for {@link BatchCompletionOrder}
+ */
+public class BatchCompletionOrderTest {
+
+  @Test
+  public void testConcurrentBatches() {
+    Assert.assertEquals(1, BatchCompletionOrder.getConcurrentBatches(Collections.emptyMap()));
+    Assert.assertEquals(1, BatchCompletionOrder.getConcurrentBatches(
+      Collections.singletonMap(Constants.STREAMING_CONCURRENT_BATCHES, "1")));
+    Assert.assertEquals(3, BatchCompletionOrder.getConcurrentBatches(
+      Collections.singletonMap(Constants.STREAMING_CONCURRENT_BATCHES, " 3 ")));
+
+    for (String invalid : new String[] { "0", "-2", "two", "" }) {
+      try {
+        BatchCompletionOrder.getConcurrentBatches(
+          Collections.singletonMap(Constants.STREAMING_CONCURRENT_BATCHES, invalid));
+        Assert.fail("Expected '" + invalid + "' to be rejected");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  public void testCompletionOrder() throws Exception {
+    BatchCompletionOrder order = BatchCompletionOrder.get("testCompletionOrder");
+    order.register(1000L);
+    order.register(2000L);
+
+    // the first batch never waits
+    order.awaitTurn(1000L);
+
+    CompletableFuture<Void> secondBatch = CompletableFuture.runAsync(() -> {
+      try {
+        order.awaitTurn(2000L);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    try {
+      secondBatch.get(200, TimeUnit.MILLISECONDS);
+      Assert.fail("The second batch must wait for the first batch to complete");
+    } catch (TimeoutException e) {
+      // expected
+    }
+
+    order.complete(1000L);
+    secondBatch.get(10, TimeUnit.SECONDS);
+    order.complete(2000L);
+
+    // a batch registered after all earlier batches completed does not wait
+    order.register(3000L);
+    order.awaitTurn(3000L);
+    order.complete(3000L);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.etl.spark.streaming
+
+import io.cdap.cdap.api.metrics.Metrics
+import io.cdap.cdap.etl.common.Constants
+import org.apache.spark.streaming.Time
+import org.apache.spark.streaming.scheduler.{BatchInfo, StreamingListenerBatchCompleted,
+  StreamingListenerBatchStarted, StreamingListenerBatchSubmitted}
+import org.junit.{Assert, Test}
+
+import java.util
+
+import scala.collection.mutable
+
+/**
+  * Unit tests for [[StreamingBatchMetricsListener]].
+  */
+class StreamingBatchMetricsListenerTest {
+
+  @Test
+  def testBatchMetrics(): Unit = {
+    val metrics = new RecordingMetrics
+    val listener = new StreamingBatchMetricsListener(metrics)
+
+    val first = BatchInfo(Time(1000L), Map.empty, 1000L, None, None, Map.empty)
+    val second = BatchInfo(Time(2000L), Map.empty, 2000L, None, None, Map.empty)
+
+    listener.onBatchSubmitted(StreamingListenerBatchSubmitted(first))
+    listener.onBatchSubmitted(StreamingListenerBatchSubmitted(second))
+    Assert.assertEquals(2L, metrics.gauges(Constants.Metrics.STREAMING_QUEUED_BATCHES))
+    Assert.assertEquals(0L, metrics.gauges(Constants.Metrics.STREAMING_RUNNING_BATCHES))
+
+    listener.onBatchStarted(StreamingListenerBatchStarted(first.copy(processingStartTime = Some(1300L))))
+    Assert.assertEquals(1L, metrics.gauges(Constants.Metrics.STREAMING_QUEUED_BATCHES))
+    Assert.assertEquals(1L, metrics.gauges(Constants.Metrics.STREAMING_RUNNING_BATCHES))
+    Assert.assertEquals(300L, metrics.gauges(Constants.Metrics.STREAMING_SCHEDULING_DELAY))
+    Assert.assertFalse(metrics.gauges.contains(Constants.Metrics.STREAMING_PROCESSING_TIME))
+
+    listener.onBatchStarted(StreamingListenerBatchStarted(second.copy(processingStartTime = Some(2100L))))
+    Assert.assertEquals(0L, metrics.gauges(Constants.Metrics.STREAMING_QUEUED_BATCHES))
+    Assert.assertEquals(2L, metrics.gauges(Constants.Metrics.STREAMING_RUNNING_BATCHES))
+    Assert.assertEquals(100L, metrics.gauges(Constants.Metrics.STREAMING_SCHEDULING_DELAY))
+
+    listener.onBatchCompleted(StreamingListenerBatchCompleted(
+      first.copy(processingStartTime = Some(1300L), processingEndTime = Some(1800L))))
+    Assert.assertEquals(0L, metrics.gauges(Constants.Metrics.STREAMING_QUEUED_BATCHES))
+    Assert.assertEquals(1L, metrics.gauges(Constants.Metrics.STREAMING_RUNNING_BATCHES))
+    Assert.assertEquals(500L, metrics.gauges(Constants.Metrics.STREAMING_PROCESSING_TIME))
+    Assert.assertEquals(800L, metrics.gauges(Constants.Metrics.STREAMING_TOTAL_DELAY))
+
+    listener.onBatchCompleted(StreamingListenerBatchCompleted(
+      second.copy(processingStartTime = Some(2100L), processingEndTime = Some(2300L))))
+    Assert.assertEquals(0L, metrics.gauges(Constants.Metrics.STREAMING_RUNNING_BATCHES))
+    Assert.assertEquals(200L, metrics.gauges(Constants.Metrics.STREAMING_PROCESSING_TIME))
+    Assert.assertEquals(300L, metrics.gauges(Constants.Metrics.STREAMING_TOTAL_DELAY))
+  }
+
+  /**
+    * A [[Metrics]] that remembers the last value of each gauge.
+    */
+  private class RecordingMetrics extends Metrics {
+
+    val gauges = mutable.Map[String, Long]()
+
+    override def count(metricName: String, delta: Int): Unit = {
+      // no-op
+    }
+
+    override def gauge(metricName: String, value: Long): Unit = {
+      gauges(metricName) = value
+    }
+
+    override def child(tags: util.Map[String, String]): Metrics = this
+
+    override def getTags: util.Map[String, String] = util.Collections.emptyMap()
+  }
+}
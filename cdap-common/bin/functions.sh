@@ -345,7 +345,7 @@ cdap_set_java () {
       die "JAVA_HOME is not set and 'java' was not found in your PATH. Please set JAVA_HOME to the location of your Java install"
     fi
   fi
-  __java_version=$("${__java}" -version 2>&1 | grep version | awk '{print $3}' | awk -F '.' '{print $2}')
+  __java_version=$(cdap_java_major_version "${__java}")
   if [[ -z ${__java_version} ]]; then
     die "Could not detect Java version. Aborting..."
   elif [[ ${__java_version} -lt 8 ]]; then
@@ -355,6 +355,76 @@ cdap_set_java () {
   return 0
 }
 
+#
+# cdap_java_major_version <java>
+# Echoes the major version of the given java executable, which is 8 for "1.8.0_292" and 11 for "11.0.12"
+#
+cdap_java_major_version() {
+  local readonly __version=$("${1}" -version 2>&1 | grep version | awk '{print $3}' | tr -d '"')
+  if [[ ${__version} == 1.* ]]; then
+    echo ${__version} | awk -F '.' '{print $2}'
+  else
+    echo ${__version} | awk -F '[.+-]' '{print $1}'
+  fi
+}
+
+#
+# cdap_file_stats <file>...
+# Echoes the name, size and modification time in seconds of each of the given files, one file per line. Uses the
+# GNU or the BSD stat, whichever is available, and falls back to the checksum of the file content otherwise.
+#
+cdap_file_stats() {
+  [[ ${#} -eq 0 ]] && return 0
+  if stat -L -c '%n %s %Y' / >/dev/null 2>&1; then
+    stat -L -c '%n %s %Y' "${@}"
+  elif stat -L -f '%N %z %m' / >/dev/null 2>&1; then
+    stat -L -f '%N %z %m' "${@}"
+  else
+    local __file
+    for __file in "${@}"; do
+      if [[ -f ${__file} ]]; then
+        cksum "${__file}"
+      else
+        echo "${__file}"
+      fi
+    done
+  fi
+}
+
+#
+# cdap_set_class_data_sharing
+# Sets CDS_OPTS for using a dynamic class data sharing (AppCDS) archive if CDAP_CDS_DIR is set and the JVM supports
+# it (Java 13+). The archive is named by a checksum of the JVM version and the CLASSPATH entries (name, size and
+# modification time, see cdap_file_stats), hence any change in the classpath uses a new archive. If the archive doesn't exist and the
+# directory is writable, the JVM creates it on exit, so that the next start with the same classpath uses it.
+# Archives can be created at image build time by running a class once with CDAP_CDS_DIR pointing into the image.
+# Must be called after cdap_set_java and after CLASSPATH is final.
+#
+cdap_set_class_data_sharing() {
+  CDS_OPTS=
+  [[ -z ${CDAP_CDS_DIR} ]] && return 0
+  local readonly __java_version=$(cdap_java_major_version "${JAVA}")
+  if [[ -z ${__java_version} ]] || [[ ${__java_version} -lt 13 ]]; then
+    logecho "$(date) [WARN] Class data sharing requires Java 13 or later, ignoring CDAP_CDS_DIR"
+    return 0
+  fi
+  local __entries=() __entry
+  local IFS=':'
+  for __entry in ${CLASSPATH}; do
+    [[ -e ${__entry} ]] && __entries+=("${__entry}")
+  done
+  unset IFS
+  local readonly __checksum=$( ("${JAVA}" -version 2>&1; cdap_file_stats "${__entries[@]}") | cksum | awk '{print $1"-"$2}')
+  local readonly __archive="${CDAP_CDS_DIR}"/cdap-${__checksum}.jsa
+  if [[ -r ${__archive} ]]; then
+    CDS_OPTS="-XX:SharedArchiveFile=${__archive} -Xshare:auto"
+  elif cdap_create_dir "${CDAP_CDS_DIR}" 2>/dev/null && [[ -w ${CDAP_CDS_DIR} ]]; then
+    CDS_OPTS="-XX:ArchiveClassesAtExit=${__archive}"
+  fi
+  export CDS_OPTS
+  return 0
+}
+
 #
 # cdap_set_classpath <home-dir> <conf-dir> [verbose: true/false]
 # Assembles CLASSPATH from home-dir, hbase classpath, and conf-dir and optionally echoes if verbose is set true
@@ -823,7 +893,8 @@ cdap_start_java() {
   fi
   "${JAVA}" -version 2>>${__logfile}
   ulimit -a >>${__logfile}
-  __defines+=" ${JVM_OPTS[@]}"
+  cdap_set_class_data_sharing
+  __defines+=" ${CDS_OPTS} ${JVM_OPTS[@]}"
   echo "$(date) Running: ${JAVA} ${__defines} -cp ${CLASSPATH} ${MAIN_CLASS} ${MAIN_CLASS_ARGS} ${@}" >>${__logfile}
   # Start our JVM
   nohup nice -n ${NICENESS} "${JAVA}" ${__defines} -cp ${CLASSPATH} ${MAIN_CLASS} ${MAIN_CLASS_ARGS} ${@} </dev/null >>${__logfile} 2>&1 &
@@ -860,7 +931,8 @@ cdap_run_class() {
   else
     echo "$(date) Running class ${__class}"
   fi
-  "${JAVA}" ${JAVA_HEAPMAX} -Dhive.classpath=${HIVE_CLASSPATH} -Duser.dir=${LOCAL_DIR} -Djava.io.tmpdir=${TEMP_DIR} ${OPTS} -cp ${CLASSPATH} ${__class} ${__args}
+  cdap_set_class_data_sharing
+  "${JAVA}" ${JAVA_HEAPMAX} ${CDS_OPTS} -Dhive.classpath=${HIVE_CLASSPATH} -Duser.dir=${LOCAL_DIR} -Djava.io.tmpdir=${TEMP_DIR} ${OPTS} -cp ${CLASSPATH} ${__class} ${__args}
   __ret=${?}
   return ${__ret}
 }
@@ -892,7 +964,8 @@ cdap_exec_class() {
   else
     echo "$(date) Running class ${__class}"
   fi
-  exec "${JAVA}" ${JAVA_HEAPMAX} -Dhive.classpath=${HIVE_CLASSPATH} -Duser.dir=${LOCAL_DIR} -Djava.io.tmpdir=${TEMP_DIR} ${OPTS} -cp ${CLASSPATH} ${__class} ${__args}
+  cdap_set_class_data_sharing
+  exec "${JAVA}" ${JAVA_HEAPMAX} ${CDS_OPTS} -Dhive.classpath=${HIVE_CLASSPATH} -Duser.dir=${LOCAL_DIR} -Djava.io.tmpdir=${TEMP_DIR} ${OPTS} -cp ${CLASSPATH} ${__class} ${__args}
 }
 
 #
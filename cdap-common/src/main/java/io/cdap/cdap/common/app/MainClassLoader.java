@@ -25,6 +25,7 @@ import io.cdap.cdap.common.lang.CombineClassLoader;
 import io.cdap.cdap.common.lang.FilterClassLoader;
 import io.cdap.cdap.common.lang.GuavaClassRewriter;
 import io.cdap.cdap.common.lang.InterceptableClassLoader;
+import io.cdap.cdap.common.lang.RewrittenClassCache;
 import io.cdap.cdap.common.security.AuthEnforceRewriter;
 import io.cdap.cdap.common.utils.DirUtils;
 import io.cdap.cdap.internal.asm.Classes;
@@ -136,7 +137,18 @@ public class MainClassLoader extends InterceptableClassLoader {
    * @param parent the parent classloader for delegation
    */
   public MainClassLoader(URL[] urls, ClassLoader parent) {
-    super(urls, parent);
+    this(urls, parent, null);
+  }
+
+  /**
+   * Creates a new instance for the following set of {@link URL}.
+   *
+   * @param urls the URLs from which to load classes and resources
+   * @param parent the parent classloader for delegation
+   * @param rewrittenClassCache an optional {@link RewrittenClassCache} for caching rewritten classes
+   */
+  public MainClassLoader(URL[] urls, ClassLoader parent, @Nullable RewrittenClassCache rewrittenClassCache) {
+    super(urls, parent, rewrittenClassCache);
     this.guavaClassRewriter = new GuavaClassRewriter();
     this.datasetRewriter = new DatasetClassRewriter();
     this.authEnforceRewriter = new AuthEnforceRewriter();
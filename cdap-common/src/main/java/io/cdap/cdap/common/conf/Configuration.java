@@ -54,6 +54,7 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -360,6 +361,10 @@ public class Configuration implements Iterable<Map.Entry<String, String>> {
   private Properties overlay;
   private ClassLoader classLoader;
 
+  // Incremented on every modification, used to tell whether the cached snapshot is still valid
+  private final AtomicInteger modificationCount = new AtomicInteger();
+  private volatile ConfigurationSnapshot snapshot;
+
   {
     classLoader = Thread.currentThread().getContextClassLoader();
     if (classLoader == null) {
@@ -453,6 +458,7 @@ public class Configuration implements Iterable<Map.Entry<String, String>> {
   public synchronized void reloadConfiguration() {
     properties = null;                            // trigger reload
     finalParameters.clear();                      // clear site-limits
+    modificationCount.incrementAndGet();
   }
 
   private synchronized void addResourceObject(Object resource) {
@@ -580,6 +586,7 @@ public class Configuration implements Iterable<Map.Entry<String, String>> {
         getProps().setProperty(altName, value);
       }
     }
+    modificationCount.incrementAndGet();
     warnOnceIfDeprecated(name);
   }
 
@@ -603,6 +610,7 @@ public class Configuration implements Iterable<Map.Entry<String, String>> {
         getProps().remove(altName);
       }
     }
+    modificationCount.incrementAndGet();
   }
 
   /**
@@ -781,7 +789,7 @@ public class Configuration implements Iterable<Map.Entry<String, String>> {
     return StringUtils.TraditionalBinaryPrefix.string2long(valueString);
   }
 
-  private String getHexDigits(String value) {
+  static String getHexDigits(String value) {
     boolean negative = false;
     String str = value;
     String hexString = null;
@@ -1656,6 +1664,36 @@ public class Configuration implements Iterable<Map.Entry<String, String>> {
     return properties;
   }
 
+  /**
+   * Returns an immutable {@link ConfigurationSnapshot} of this configuration, with all values resolved.
+   * The same snapshot instance is returned until this configuration is modified, hence calling this method is
+   * cheap and doesn't acquire any lock in the common case. Callers on frequently executed code paths should
+   * read values from the snapshot instead of from this configuration.
+   *
+   * @return a {@link ConfigurationSnapshot} reflecting the current state of this configuration
+   */
+  public ConfigurationSnapshot getSnapshot() {
+    // Read the count before the values, so that a concurrent modification will trigger a rebuild on next call
+    int count = modificationCount.get();
+    ConfigurationSnapshot current = snapshot;
+    if (current != null && current.getModificationCount() == count) {
+      return current;
+    }
+
+    Map<String, String> values = new HashMap<>();
+    Set<String> names = new HashSet<>(getProps().stringPropertyNames());
+    names.addAll(deprecatedKeyMap.keySet());
+    for (String name : names) {
+      String value = get(name);
+      if (value != null) {
+        values.put(name, value);
+      }
+    }
+    current = new ConfigurationSnapshot(values, count);
+    snapshot = current;
+    return current;
+  }
+
   /**
    * Return the number of keys in the configuration.
    *
@@ -1671,6 +1709,7 @@ public class Configuration implements Iterable<Map.Entry<String, String>> {
   public void clear() {
     getProps().clear();
     getOverlay().clear();
+    modificationCount.incrementAndGet();
   }
 
   private void loadResources(Properties properties, ArrayList resources, boolean quiet) {
@@ -0,0 +1,263 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.common.conf;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * An immutable view of a {@link Configuration} at a point in time. All values are resolved when the snapshot is
+ * created, with deprecated keys mapped and variables expanded, so that lookups don't need to acquire the
+ * {@link Configuration} lock nor run variable substitution. Typed values are parsed on first access and cached.
+ * The getter methods have the same semantics as the corresponding methods in {@link Configuration}.
+ *
+ * A snapshot is obtained through {@link Configuration#getSnapshot()}, which returns a new snapshot after the
+ * configuration is modified.
+ */
+public final class ConfigurationSnapshot {
+
+  private final int modificationCount;
+  private final Map<String, String> values;
+  private final ConcurrentMap<String, Integer> intValues;
+  private final ConcurrentMap<String, Long> longValues;
+  private final ConcurrentMap<String, Boolean> booleanValues;
+  private final ConcurrentMap<String, Double> doubleValues;
+  private final ConcurrentMap<String, String[]> stringsValues;
+
+  ConfigurationSnapshot(Map<String, String> values, int modificationCount) {
+    this.modificationCount = modificationCount;
+    this.values = Collections.unmodifiableMap(values);
+    this.intValues = new ConcurrentHashMap<>();
+    this.longValues = new ConcurrentHashMap<>();
+    this.booleanValues = new ConcurrentHashMap<>();
+    this.doubleValues = new ConcurrentHashMap<>();
+    this.stringsValues = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the set of property names in this snapshot.
+   */
+  public Set<String> getNames() {
+    return values.keySet();
+  }
+
+  /**
+   * Returns an unmodifiable {@link Map} of all properties in this snapshot.
+   */
+  public Map<String, String> asMap() {
+    return values;
+  }
+
+  /**
+   * Returns the value of the given property or {@code null} if the property doesn't exist.
+   */
+  @Nullable
+  public String get(String name) {
+    return values.get(name);
+  }
+
+  /**
+   * Returns the value of the given property or the given default value if the property doesn't exist.
+   */
+  public String get(String name, String defaultValue) {
+    String value = values.get(name);
+    return value == null ? defaultValue : value;
+  }
+
+  /**
+   * Returns the trimmed value of the given property or {@code null} if the property doesn't exist.
+   */
+  @Nullable
+  public String getTrimmed(String name) {
+    String value = values.get(name);
+    return value == null ? null : value.trim();
+  }
+
+  /**
+   * Returns the value of the given property as an {@code int}.
+   *
+   * @throws NumberFormatException if the configured value is not a valid {@code int}
+   * @throws NullPointerException if the property doesn't exist
+   */
+  public int getInt(String name) {
+    Integer value = intValues.get(name);
+    if (value != null) {
+      return value;
+    }
+    String valueString = getTrimmed(name);
+    Preconditions.checkNotNull(valueString);
+    value = parseInt(valueString);
+    intValues.put(name, value);
+    return value;
+  }
+
+  /**
+   * Returns the value of the given property as an {@code int} or the given default value if the property
+   * doesn't exist.
+   *
+   * @throws NumberFormatException if the configured value is not a valid {@code int}
+   */
+  public int getInt(String name, int defaultValue) {
+    return values.containsKey(name) ? getInt(name) : defaultValue;
+  }
+
+  /**
+   * Returns the value of the given property as a {@code long}.
+   *
+   * @throws NumberFormatException if the configured value is not a valid {@code long}
+   * @throws NullPointerException if the property doesn't exist
+   */
+  public long getLong(String name) {
+    Long value = longValues.get(name);
+    if (value != null) {
+      return value;
+    }
+    String valueString = getTrimmed(name);
+    Preconditions.checkNotNull(valueString);
+    value = parseLong(valueString);
+    longValues.put(name, value);
+    return value;
+  }
+
+  /**
+   * Returns the value of the given property as a {@code long} or the given default value if the property
+   * doesn't exist.
+   *
+   * @throws NumberFormatException if the configured value is not a valid {@code long}
+   */
+  public long getLong(String name, long defaultValue) {
+    return values.containsKey(name) ? getLong(name) : defaultValue;
+  }
+
+  /**
+   * Returns the value of the given property as a {@code double}.
+   *
+   * @throws NumberFormatException if the configured value is not a valid {@code double}
+   * @throws NullPointerException if the property doesn't exist
+   */
+  public double getDouble(String name) {
+    Double value = doubleValues.get(name);
+    if (value != null) {
+      return value;
+    }
+    String valueString = getTrimmed(name);
+    Preconditions.checkNotNull(valueString);
+    value = Double.parseDouble(valueString);
+    doubleValues.put(name, value);
+    return value;
+  }
+
+  /**
+   * Returns the value of the given property as a {@code double} or the given default value if the property
+   * doesn't exist.
+   *
+   * @throws NumberFormatException if the configured value is not a valid {@code double}
+   */
+  public double getDouble(String name, double defaultValue) {
+    return values.containsKey(name) ? getDouble(name) : defaultValue;
+  }
+
+  /**
+   * Returns the value of the given property as a {@code boolean}.
+   *
+   * @throws NullPointerException if the property doesn't exist
+   * @throws IllegalArgumentException if the configured value is not a valid {@code boolean}
+   */
+  public boolean getBoolean(String name) {
+    Boolean value = getBooleanOrNull(name);
+    if (value != null) {
+      return value;
+    }
+    String valueString = getTrimmed(name);
+    Preconditions.checkNotNull(valueString);
+    throw new IllegalArgumentException("Configured property is not a valid boolean: name="
+                                         + name + ", value=" + valueString.toLowerCase());
+  }
+
+  /**
+   * Returns the value of the given property as a {@code boolean}. If the property doesn't exist or the value
+   * is not a valid {@code boolean}, the given default value is returned.
+   */
+  public boolean getBoolean(String name, boolean defaultValue) {
+    Boolean value = getBooleanOrNull(name);
+    return value == null ? defaultValue : value;
+  }
+
+  /**
+   * Returns the comma separated values of the given property as an array of trimmed strings. An empty array
+   * is returned if the property doesn't exist.
+   */
+  public String[] getTrimmedStrings(String name) {
+    String[] value = stringsValues.get(name);
+    if (value == null) {
+      value = StringUtils.getTrimmedStrings(values.get(name));
+      stringsValues.put(name, value);
+    }
+    return value.length == 0 ? value : value.clone();
+  }
+
+  /**
+   * Returns the modification count of the {@link Configuration} when this snapshot was created.
+   */
+  int getModificationCount() {
+    return modificationCount;
+  }
+
+  @Nullable
+  private Boolean getBooleanOrNull(String name) {
+    Boolean value = booleanValues.get(name);
+    if (value != null) {
+      return value;
+    }
+    String valueString = getTrimmed(name);
+    if (valueString == null) {
+      return null;
+    }
+    valueString = valueString.toLowerCase();
+    if ("true".equals(valueString)) {
+      value = true;
+    } else if ("false".equals(valueString)) {
+      value = false;
+    } else {
+      return null;
+    }
+    booleanValues.put(name, value);
+    return value;
+  }
+
+  private static int parseInt(String value) {
+    String hexString = Configuration.getHexDigits(value);
+    return hexString == null ? Integer.parseInt(value) : Integer.parseInt(hexString, 16);
+  }
+
+  private static long parseLong(String value) {
+    String hexString = Configuration.getHexDigits(value);
+    return hexString == null ? Long.parseLong(value) : Long.parseLong(hexString, 16);
+  }
+
+  @Override
+  public String toString() {
+    return "ConfigurationSnapshot{size=" + values.size() + "}";
+  }
+}
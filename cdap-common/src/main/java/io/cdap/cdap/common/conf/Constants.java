@@ -286,6 +286,12 @@ public final class Constants {
      */
     public static final String WORKFLOW_TOKEN_MAX_SIZE_MB = "workflow.token.max.size.mb";
 
+    /**
+     * Configuration setting for the maximum number of workflow nodes that can execute concurrently
+     * across all workflows running in the same process. Zero or negative means no limit.
+     */
+    public static final String WORKFLOW_MAX_CONCURRENT_NODES = "workflow.max.concurrent.nodes";
+
     /**
      * Name of the property used to identify whether the dataset is local or not.
      */
@@ -316,6 +322,12 @@ public final class Constants {
      */
     public static final String PROGRAM_STATUS_EVENT_TOPIC = "program.status.event.topic";
 
+    /**
+     * Number of partitions for the program status event topic. Notifications are routed to a partition
+     * based on the hash of the program run id.
+     */
+    public static final String PROGRAM_STATUS_EVENT_NUM_PARTITIONS = "program.status.event.num.partitions";
+
     /**
      * Topic name for publishing program status recording events to the messaging system
      */
@@ -867,6 +879,14 @@ public final class Constants {
       public static final String APPLICATION_PLUGIN_COUNT = "application.plugin.count";
     }
 
+    /**
+     * Workflow metrics
+     */
+    public static final class Workflow {
+      public static final String NODE_QUEUE_MILLIS = "workflow.node.queue.millis";
+      public static final String NODE_RUN_MILLIS = "workflow.node.run.millis";
+    }
+
     /**
      * Preview metrics
      */
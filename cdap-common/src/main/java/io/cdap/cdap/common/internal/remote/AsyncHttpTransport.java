@@ -0,0 +1,388 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.internal.remote;
+
+import com.google.common.collect.Multimap;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.inject.Singleton;
+import io.cdap.common.http.HttpRequest;
+import io.cdap.common.http.HttpRequestConfig;
+import io.cdap.common.http.HttpResponse;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.pool.AbstractChannelPoolHandler;
+import io.netty.channel.pool.AbstractChannelPoolMap;
+import io.netty.channel.pool.ChannelHealthChecker;
+import io.netty.channel.pool.ChannelPool;
+import io.netty.channel.pool.FixedChannelPool;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpClientCodec;
+import io.netty.handler.codec.http.HttpContentDecompressor;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+import org.apache.twill.common.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLException;
+
+/**
+ * A non-blocking HTTP transport based on Netty for making internal calls. Connections are kept alive and pooled
+ * per remote endpoint, so that concurrent calls to the same service share a bounded set of sockets and no
+ * caller thread is held while a call is in flight.
+ *
+ * Completion of the returned {@link CompletableFuture} happens on the Netty event loop threads, hence dependent
+ * actions that can block should use the async variants of the {@link CompletableFuture} methods.
+ *
+ * The transport is a singleton {@link com.google.common.util.concurrent.Service} shared by all the
+ * {@link RemoteClient} created from the same injector. It is started on first use if it was not started explicitly.
+ * The process that owns the injector is responsible for stopping it, which closes all the pooled connections and
+ * releases the event loop threads.
+ */
+@Singleton
+public final class AsyncHttpTransport extends AbstractIdleService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AsyncHttpTransport.class);
+  private static final AttributeKey<CompletableFuture<HttpResponse>> RESPONSE_FUTURE =
+    AttributeKey.valueOf("responseFuture");
+
+  private static final int DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT = 16;
+  private static final int DEFAULT_MAX_PENDING_ACQUIRES = 10000;
+
+  private final int threads;
+  private final int maxConnectionsPerEndpoint;
+  private volatile EventLoopGroup eventLoopGroup;
+  private volatile Bootstrap bootstrap;
+  private volatile AbstractChannelPoolMap<Endpoint, FixedChannelPool> channelPools;
+
+  /**
+   * Creates a new instance with the default number of threads and connections per endpoint.
+   */
+  public AsyncHttpTransport() {
+    this(0, DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT);
+  }
+
+  /**
+   * Creates a new instance.
+   *
+   * @param threads number of event loop threads; {@code 0} to use the Netty default
+   * @param maxConnectionsPerEndpoint maximum number of concurrent connections to each remote endpoint
+   */
+  public AsyncHttpTransport(int threads, int maxConnectionsPerEndpoint) {
+    this.threads = threads;
+    this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
+  }
+
+  @Override
+  protected void startUp() {
+    eventLoopGroup = new NioEventLoopGroup(threads, Threads.createDaemonThreadFactory("async-http-client-%d"));
+    bootstrap = new Bootstrap()
+      .group(eventLoopGroup)
+      .channel(NioSocketChannel.class)
+      .option(ChannelOption.SO_KEEPALIVE, true)
+      .option(ChannelOption.TCP_NODELAY, true);
+    channelPools = new AbstractChannelPoolMap<Endpoint, FixedChannelPool>() {
+      @Override
+      protected FixedChannelPool newPool(Endpoint endpoint) {
+        return createChannelPool(endpoint);
+      }
+    };
+  }
+
+  @Override
+  protected void shutDown() {
+    channelPools.close();
+    eventLoopGroup.shutdownGracefully(0, 5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Returns a {@link ScheduledExecutorService} for scheduling non-blocking tasks, such as retries of calls.
+   *
+   * @throws IllegalStateException if the transport was stopped
+   */
+  public ScheduledExecutorService getScheduler() {
+    ensureRunning();
+    return eventLoopGroup;
+  }
+
+  /**
+   * Executes the given request asynchronously.
+   *
+   * @param request the request to execute
+   * @param config the {@link HttpRequestConfig} for the connect and read timeouts as well as SSL verification
+   * @return a {@link CompletableFuture} that will be completed with the response, or failed with the
+   *         cause of the failure
+   */
+  public CompletableFuture<HttpResponse> execute(HttpRequest request, HttpRequestConfig config) {
+    CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+    FullHttpRequest nettyRequest;
+    try {
+      ensureRunning();
+      nettyRequest = toNettyRequest(request);
+    } catch (Exception e) {
+      result.completeExceptionally(e);
+      return result;
+    }
+
+    ChannelPool pool = channelPools.get(new Endpoint(request.getURL(), config));
+    pool.acquire().addListener((Future<Channel> acquireFuture) -> {
+      if (!acquireFuture.isSuccess()) {
+        ReferenceCountUtil.release(nettyRequest);
+        result.completeExceptionally(acquireFuture.cause());
+        return;
+      }
+
+      Channel channel = acquireFuture.getNow();
+      channel.attr(RESPONSE_FUTURE).set(result);
+
+      ScheduledFuture<?> timeoutFuture = null;
+      if (config.getReadTimeout() > 0) {
+        timeoutFuture = channel.eventLoop().schedule(
+          () -> result.completeExceptionally(new SocketTimeoutException("Read timed out")),
+          config.getReadTimeout(), TimeUnit.MILLISECONDS);
+      }
+      ScheduledFuture<?> finalTimeoutFuture = timeoutFuture;
+
+      // Always release the channel back to the pool once the call completed.
+      // If the call failed, the channel is in unknown state, hence close it so that it won't be reused.
+      result.whenComplete((response, failure) -> {
+        if (finalTimeoutFuture != null) {
+          finalTimeoutFuture.cancel(false);
+        }
+        channel.attr(RESPONSE_FUTURE).compareAndSet(result, null);
+        if (failure != null) {
+          channel.close();
+        }
+        pool.release(channel);
+      });
+
+      channel.writeAndFlush(nettyRequest).addListener((ChannelFuture writeFuture) -> {
+        if (!writeFuture.isSuccess()) {
+          result.completeExceptionally(writeFuture.cause());
+        }
+      });
+    });
+    return result;
+  }
+
+  /**
+   * Starts the transport if it is not yet started.
+   *
+   * @throws IllegalStateException if the transport was stopped or failed to start
+   */
+  private void ensureRunning() {
+    // Starting a service that is already started just returns the same start future, hence it is safe to call
+    // concurrently and it won't restart a stopped service
+    if (state() != State.RUNNING) {
+      startAndWait();
+    }
+    State state = state();
+    if (state != State.RUNNING) {
+      throw new IllegalStateException("The transport is not running. State is " + state);
+    }
+  }
+
+  private FixedChannelPool createChannelPool(Endpoint endpoint) {
+    Bootstrap poolBootstrap = bootstrap.clone()
+      .remoteAddress(endpoint.host, endpoint.port)
+      .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, endpoint.connectTimeout);
+
+    // Bound the time waiting for a connection from the pool if both connect and read timeouts are set
+    long acquireTimeout = endpoint.connectTimeout > 0 && endpoint.readTimeout > 0
+      ? endpoint.connectTimeout + endpoint.readTimeout : -1L;
+    FixedChannelPool.AcquireTimeoutAction acquireTimeoutAction = acquireTimeout < 0
+      ? null : FixedChannelPool.AcquireTimeoutAction.FAIL;
+
+    SslContext sslContext = endpoint.https ? createSslContext(endpoint.verifySSLCert) : null;
+    return new FixedChannelPool(poolBootstrap, new AbstractChannelPoolHandler() {
+      @Override
+      public void channelCreated(Channel channel) {
+        ChannelPipeline pipeline = channel.pipeline();
+        if (sslContext != null) {
+          pipeline.addLast("ssl", sslContext.newHandler(channel.alloc(), endpoint.host, endpoint.port));
+        }
+        pipeline.addLast("codec", new HttpClientCodec());
+        pipeline.addLast("decompressor", new HttpContentDecompressor());
+        pipeline.addLast("aggregator", new HttpObjectAggregator(Integer.MAX_VALUE));
+        pipeline.addLast("handler", new ResponseHandler());
+      }
+    }, ChannelHealthChecker.ACTIVE, acquireTimeoutAction, acquireTimeout,
+                                maxConnectionsPerEndpoint, DEFAULT_MAX_PENDING_ACQUIRES);
+  }
+
+  private SslContext createSslContext(boolean verifySSLCert) {
+    try {
+      SslContextBuilder builder = SslContextBuilder.forClient();
+      if (!verifySSLCert) {
+        builder.trustManager(InsecureTrustManagerFactory.INSTANCE);
+      }
+      return builder.build();
+    } catch (SSLException e) {
+      // This shouldn't happen as we are not using custom key or trust material
+      throw new IllegalStateException("Failed to create SSL context", e);
+    }
+  }
+
+  /**
+   * Converts the given {@link HttpRequest} to a Netty {@link FullHttpRequest}.
+   */
+  private FullHttpRequest toNettyRequest(HttpRequest request) throws IOException {
+    URL url = request.getURL();
+    ByteBuf content = Unpooled.EMPTY_BUFFER;
+    if (request.getBody() != null) {
+      try (InputStream is = request.getBody().getInput()) {
+        content = Unpooled.wrappedBuffer(ByteStreams.toByteArray(is));
+      }
+    }
+
+    String uri = url.getFile().isEmpty() ? "/" : url.getFile();
+    FullHttpRequest nettyRequest = new DefaultFullHttpRequest(
+      HttpVersion.HTTP_1_1, io.netty.handler.codec.http.HttpMethod.valueOf(request.getMethod().name()), uri, content);
+
+    Multimap<String, String> headers = request.getHeaders();
+    if (headers != null) {
+      for (Map.Entry<String, String> header : headers.entries()) {
+        nettyRequest.headers().add(header.getKey(), header.getValue());
+      }
+    }
+    nettyRequest.headers().set(HttpHeaderNames.HOST, url.getPort() < 0 ? url.getHost()
+                                                                       : url.getHost() + ":" + url.getPort());
+    HttpUtil.setContentLength(nettyRequest, content.readableBytes());
+    HttpUtil.setKeepAlive(nettyRequest, true);
+    return nettyRequest;
+  }
+
+  /**
+   * Handler to complete the response future of the channel when a response is received.
+   */
+  private static final class ResponseHandler extends SimpleChannelInboundHandler<FullHttpResponse> {
+
+    @Override
+    protected void channelRead0(ChannelHandlerContext ctx, FullHttpResponse response) {
+      CompletableFuture<HttpResponse> future = ctx.channel().attr(RESPONSE_FUTURE).getAndSet(null);
+      if (future == null) {
+        // This can happen if the call already timed out. The channel will be closed in that case.
+        LOG.trace("Ignore response {} on channel {} without pending call", response.status(), ctx.channel());
+        return;
+      }
+      // Don't reuse the connection if the server is not keeping it alive
+      if (!HttpUtil.isKeepAlive(response)) {
+        ctx.close();
+      }
+
+      Map<String, List<String>> headers = new HashMap<>();
+      for (String name : response.headers().names()) {
+        headers.put(name, response.headers().getAll(name));
+      }
+      future.complete(new HttpResponse(response.status().code(), response.status().reasonPhrase(),
+                                       ByteBufUtil.getBytes(response.content()), headers));
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+      CompletableFuture<HttpResponse> future = ctx.channel().attr(RESPONSE_FUTURE).getAndSet(null);
+      if (future != null) {
+        future.completeExceptionally(new IOException("Connection closed before receiving response"));
+      }
+      super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+      CompletableFuture<HttpResponse> future = ctx.channel().attr(RESPONSE_FUTURE).getAndSet(null);
+      if (future != null) {
+        future.completeExceptionally(cause);
+      } else {
+        LOG.debug("Exception raised on channel {} without pending call", ctx.channel(), cause);
+      }
+      ctx.close();
+    }
+  }
+
+  /**
+   * Key for the connection pool of a remote endpoint.
+   */
+  private static final class Endpoint {
+    private final boolean https;
+    private final String host;
+    private final int port;
+    private final boolean verifySSLCert;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    Endpoint(URL url, HttpRequestConfig config) {
+      this.https = "https".equalsIgnoreCase(url.getProtocol());
+      this.host = url.getHost();
+      this.port = url.getPort() < 0 ? url.getDefaultPort() : url.getPort();
+      this.verifySSLCert = config.isVerifySSLCert();
+      this.connectTimeout = config.getConnectTimeout();
+      this.readTimeout = config.getReadTimeout();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Endpoint that = (Endpoint) o;
+      return https == that.https && port == that.port && verifySSLCert == that.verifySSLCert
+        && connectTimeout == that.connectTimeout && readTimeout == that.readTimeout && host.equals(that.host);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(https, host, port, verifySSLCert, connectTimeout, readTimeout);
+    }
+  }
+}
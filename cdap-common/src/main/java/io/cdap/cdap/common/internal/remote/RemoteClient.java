@@ -17,14 +17,17 @@
 package io.cdap.cdap.common.internal.remote;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.common.ServiceUnavailableException;
 import io.cdap.cdap.common.discovery.EndpointStrategy;
 import io.cdap.cdap.common.discovery.RandomEndpointStrategy;
 import io.cdap.cdap.common.discovery.URIScheme;
 import io.cdap.cdap.common.security.HttpsEnabler;
+import io.cdap.cdap.common.service.RetryStrategy;
 import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import io.cdap.common.http.HttpMethod;
 import io.cdap.common.http.HttpRequest;
@@ -41,6 +44,9 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
 import java.util.EnumSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import javax.annotation.Nullable;
@@ -58,18 +64,23 @@ public class RemoteClient {
   private final HttpRequestConfig httpRequestConfig;
   private final String discoverableServiceName;
   private final String basePath;
+  @Nullable
+  private final AsyncHttpTransport asyncTransport;
   private volatile RemoteAuthenticator authenticator;
 
   RemoteClient(InternalAuthenticator internalAuthenticator, DiscoveryServiceClient discoveryClient,
-               String discoverableServiceName, HttpRequestConfig httpRequestConfig, String basePath) {
+               String discoverableServiceName, HttpRequestConfig httpRequestConfig, String basePath,
+               @Nullable AsyncHttpTransport asyncTransport) {
     this(internalAuthenticator, discoveryClient, discoverableServiceName, httpRequestConfig, basePath,
-         null);
+         asyncTransport, null);
   }
 
   RemoteClient(InternalAuthenticator internalAuthenticator,
                DiscoveryServiceClient discoveryClient, String discoverableServiceName,
-               HttpRequestConfig httpRequestConfig, String basePath, @Nullable RemoteAuthenticator authenticator) {
+               HttpRequestConfig httpRequestConfig, String basePath, @Nullable AsyncHttpTransport asyncTransport,
+               @Nullable RemoteAuthenticator authenticator) {
     this.internalAuthenticator = internalAuthenticator;
+    this.asyncTransport = asyncTransport;
     this.discoverableServiceName = discoverableServiceName;
     this.httpRequestConfig = httpRequestConfig;
     this.endpointStrategy = new RandomEndpointStrategy(() -> discoveryClient.discover(discoverableServiceName));
@@ -106,7 +117,131 @@ public class RemoteClient {
    *                                     was a 503
    */
   public HttpResponse execute(HttpRequest request) throws IOException, UnauthorizedException {
-    HttpRequest httpRequest = request;
+    try {
+      return checkResponse(HttpRequests.execute(prepareRequest(request), httpRequestConfig));
+    } catch (ConnectException e) {
+      throw new ServiceUnavailableException(discoverableServiceName, e);
+    }
+  }
+
+  /**
+   * Performs the request asynchronously without blocking the caller thread. Connections to the remote service
+   * are pooled and reused across calls. If this client was created without an {@link AsyncHttpTransport},
+   * the request is performed on the caller thread and the returned future is already completed.
+   *
+   * @param request the request to perform
+   * @return a {@link CompletableFuture} that will be completed with the response, or failed with
+   *         {@link ServiceUnavailableException} if there was a ConnectException while making the request or if the
+   *         response was a 503, or failed with {@link UnauthorizedException} if the response was a 403.
+   */
+  public CompletableFuture<HttpResponse> executeAsync(HttpRequest request) {
+    CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+    HttpRequest httpRequest;
+    try {
+      httpRequest = prepareRequest(request);
+    } catch (Exception e) {
+      result.completeExceptionally(e);
+      return result;
+    }
+
+    if (asyncTransport == null) {
+      try {
+        result.complete(execute(request));
+      } catch (Exception e) {
+        result.completeExceptionally(e);
+      }
+      return result;
+    }
+
+    asyncTransport.execute(httpRequest, httpRequestConfig).whenComplete((response, failure) -> {
+      try {
+        if (failure != null) {
+          if (failure instanceof ConnectException) {
+            throw new ServiceUnavailableException(discoverableServiceName, failure);
+          }
+          result.completeExceptionally(failure);
+        } else {
+          result.complete(checkResponse(response));
+        }
+      } catch (Exception e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Performs the request through the pooled connections of the {@link AsyncHttpTransport} and waits for the response.
+   * This is for high fan-out callers that make many small calls to the same service, so that the calls don't need to
+   * open a new connection each time.
+   *
+   * @param request the request to perform
+   * @return the response
+   * @throws IOException if there was an IOException while performing the request
+   * @throws ServiceUnavailableException if there was a ConnectException while making the request, or if the response
+   *                                     was a 503
+   * @see #executeAsync(HttpRequest)
+   */
+  public HttpResponse executePooled(HttpRequest request) throws IOException, UnauthorizedException {
+    try {
+      return Uninterruptibles.getUninterruptibly(executeAsync(request));
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfInstanceOf(cause, IOException.class);
+      throw Throwables.propagate(cause);
+    }
+  }
+
+  /**
+   * Performs the request asynchronously, retrying on {@link ServiceUnavailableException} based on the given
+   * {@link RetryStrategy}. Retries are scheduled without blocking any thread while waiting.
+   *
+   * @param request the request to perform
+   * @param retryStrategy the {@link RetryStrategy} to decide on the delay between retries
+   * @return a {@link CompletableFuture} that will be completed with the response, or failed with the last failure
+   * @see #executeAsync(HttpRequest)
+   */
+  public CompletableFuture<HttpResponse> executeAsync(HttpRequest request, RetryStrategy retryStrategy) {
+    CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+    executeAsync(request, retryStrategy, result, 0, System.currentTimeMillis());
+    return result;
+  }
+
+  private void executeAsync(HttpRequest request, RetryStrategy retryStrategy,
+                            CompletableFuture<HttpResponse> result, int failures, long startTime) {
+    executeAsync(request).whenComplete((response, failure) -> {
+      if (failure == null) {
+        result.complete(response);
+        return;
+      }
+      Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+        ? failure.getCause() : failure;
+      long delay = cause instanceof ServiceUnavailableException
+        ? retryStrategy.nextRetry(failures + 1, startTime) : -1L;
+      if (delay < 0 || result.isDone()) {
+        result.completeExceptionally(cause);
+        return;
+      }
+      Runnable retry = () -> executeAsync(request, retryStrategy, result, failures + 1, startTime);
+      if (asyncTransport != null) {
+        asyncTransport.getScheduler().schedule(retry, delay, TimeUnit.MILLISECONDS);
+        return;
+      }
+      // Without the async transport, calls are made on the caller thread, hence it is fine to block it for retry
+      try {
+        TimeUnit.MILLISECONDS.sleep(delay);
+        retry.run();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        result.completeExceptionally(cause);
+      }
+    });
+  }
+
+  /**
+   * Adds the authentication headers and rewrites the URL of the given request if needed.
+   */
+  private HttpRequest prepareRequest(HttpRequest request) throws IOException {
     URL rewrittenURL = rewriteURL(request.getURL());
     Multimap<String, String> headers = request.getHeaders();
     headers = headers == null ? HashMultimap.create() : HashMultimap.create(headers);
@@ -119,23 +254,22 @@ public class RemoteClient {
 
     internalAuthenticator.applyInternalAuthenticationHeaders(headers::put);
 
-    httpRequest = new HttpRequest(request.getMethod(), rewrittenURL, headers,
-                      request.getBody(), request.getBodyLength());
+    return new HttpRequest(request.getMethod(), rewrittenURL, headers, request.getBody(), request.getBodyLength());
+  }
 
-    try {
-      HttpResponse response = HttpRequests.execute(httpRequest, httpRequestConfig);
-      switch (response.getResponseCode()) {
-        case HttpURLConnection.HTTP_BAD_GATEWAY:
-        case HttpURLConnection.HTTP_UNAVAILABLE:
-        case HttpURLConnection.HTTP_GATEWAY_TIMEOUT:
-          throw new ServiceUnavailableException(discoverableServiceName, response.getResponseBodyAsString());
-        case HttpURLConnection.HTTP_FORBIDDEN:
-          throw new UnauthorizedException(response.getResponseBodyAsString());
-        default:
-          return response;
-      }
-    } catch (ConnectException e) {
-      throw new ServiceUnavailableException(discoverableServiceName, e);
+  /**
+   * Checks the response code of the given response for unavailability and authorization failure.
+   */
+  private HttpResponse checkResponse(HttpResponse response) {
+    switch (response.getResponseCode()) {
+      case HttpURLConnection.HTTP_BAD_GATEWAY:
+      case HttpURLConnection.HTTP_UNAVAILABLE:
+      case HttpURLConnection.HTTP_GATEWAY_TIMEOUT:
+        throw new ServiceUnavailableException(discoverableServiceName, response.getResponseBodyAsString());
+      case HttpURLConnection.HTTP_FORBIDDEN:
+        throw new UnauthorizedException(response.getResponseBodyAsString());
+      default:
+        return response;
     }
   }
 
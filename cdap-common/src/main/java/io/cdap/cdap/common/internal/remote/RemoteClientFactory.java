@@ -20,6 +20,7 @@ import com.google.common.annotations.VisibleForTesting;
 import io.cdap.common.http.HttpRequestConfig;
 import org.apache.twill.discovery.DiscoveryServiceClient;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 /**
@@ -29,18 +30,35 @@ public class RemoteClientFactory {
   public static final HttpRequestConfig NO_VERIFY_HTTP_REQUEST_CONFIG = new HttpRequestConfig(15000,
                                                                                               15000,
                                                                                               false);
+
   private final DiscoveryServiceClient discoveryClient;
   private final InternalAuthenticator internalAuthenticator;
+  private final AsyncHttpTransport asyncTransport;
 
-  @Inject @VisibleForTesting
+  /**
+   * Creates a factory without an {@link AsyncHttpTransport}. Asynchronous calls made by the {@link RemoteClient}
+   * created from this factory are performed on the caller thread.
+   */
+  @VisibleForTesting
   public RemoteClientFactory(DiscoveryServiceClient discoveryClient, InternalAuthenticator internalAuthenticator) {
+    this(discoveryClient, internalAuthenticator, null);
+  }
+
+  /**
+   * Creates a factory with the given {@link AsyncHttpTransport} shared by all the {@link RemoteClient} it creates.
+   * The lifecycle of the transport is managed by the caller.
+   */
+  @Inject
+  public RemoteClientFactory(DiscoveryServiceClient discoveryClient, InternalAuthenticator internalAuthenticator,
+                             @Nullable AsyncHttpTransport asyncTransport) {
     this.discoveryClient = discoveryClient;
     this.internalAuthenticator = internalAuthenticator;
+    this.asyncTransport = asyncTransport;
   }
 
   public RemoteClient createRemoteClient(String discoverableServiceName, HttpRequestConfig httpRequestConfig,
                                          String basePath) {
     return new RemoteClient(internalAuthenticator, discoveryClient, discoverableServiceName,
-                            httpRequestConfig, basePath);
+                            httpRequestConfig, basePath, asyncTransport);
   }
 }
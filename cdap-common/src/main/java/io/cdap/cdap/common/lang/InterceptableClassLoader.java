@@ -33,9 +33,18 @@ import javax.annotation.Nullable;
 public abstract class InterceptableClassLoader extends URLClassLoader implements ClassRewriter {
 
   private final Map<String, Manifest> manifests = new HashMap<>();
+  private final RewrittenClassCache rewrittenClassCache;
 
   public InterceptableClassLoader(URL[] urls, ClassLoader parent) {
+    this(urls, parent, null);
+  }
+
+  /**
+   * Creates a new instance that optionally uses a {@link RewrittenClassCache} for caching rewritten classes.
+   */
+  public InterceptableClassLoader(URL[] urls, ClassLoader parent, @Nullable RewrittenClassCache rewrittenClassCache) {
     super(urls, parent);
+    this.rewrittenClassCache = rewrittenClassCache;
   }
 
   @Override
@@ -50,8 +59,9 @@ public abstract class InterceptableClassLoader extends URLClassLoader implements
     if (resource == null) {
       throw new ClassNotFoundException("Failed to find resource for class " + name);
     }
-    try (InputStream is = resource.openStream()) {
-      byte[] bytecode = rewriteClass(name, is);
+    try {
+      byte[] bytecode = rewrittenClassCache == null ? rewriteClass(name, resource)
+                                                    : rewrittenClassCache.rewriteClass(name, resource, this);
 
       // If no rewriting is needed, just load the name normally.
       if (bytecode == null) {
@@ -74,6 +84,16 @@ public abstract class InterceptableClassLoader extends URLClassLoader implements
     }
   }
 
+  /**
+   * Rewrites the class with the original bytecode read from the given resource.
+   */
+  @Nullable
+  private byte[] rewriteClass(String className, URL resource) throws IOException {
+    try (InputStream is = resource.openStream()) {
+      return rewriteClass(className, is);
+    }
+  }
+
   /**
    * Implementation to decide whether a class loading needs to be intercepted by this class.
    *
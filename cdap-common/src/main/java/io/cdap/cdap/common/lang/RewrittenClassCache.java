@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.common.lang;
+
+import com.google.common.io.ByteStreams;
+import io.cdap.cdap.api.common.Bytes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import javax.annotation.Nullable;
+
+/**
+ * A node local, on disk cache of bytecode produced by a {@link ClassRewriter}, so that short lived containers
+ * don't have to rewrite the same classes again on every start up.
+ * <p/>
+ * Entries are stored in a directory named by a digest of the rewriter bytecode and the rewriting options, hence
+ * a new CDAP version or a different option uses a different set of entries. Each entry is keyed by the class name
+ * and records the digest of the original bytecode, which is verified on read. Only classes that were actually
+ * rewritten are cached, so that classes that don't need rewriting don't pay for the digest computation.
+ * <p/>
+ * Failure to read or write the cache is never fatal. The class is just rewritten by the {@link ClassRewriter}.
+ */
+public final class RewrittenClassCache {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RewrittenClassCache.class);
+  private static final int MAGIC = 0x43444352;  // "CDCR"
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private final Path dir;
+
+  /**
+   * Creates a {@link RewrittenClassCache} under the given base directory.
+   *
+   * @param baseDir the base directory for storing cache entries. It must be owned by the current user.
+   * @param options a string representing the options that affect the rewriting result
+   * @param rewriterClasses the set of classes that are involved in the rewriting
+   * @return a {@link RewrittenClassCache} or {@code null} if the cache cannot be used
+   */
+  @Nullable
+  public static RewrittenClassCache create(Path baseDir, String options, Class<?>... rewriterClasses) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+      digest.update(options.getBytes(StandardCharsets.UTF_8));
+      for (Class<?> cls : rewriterClasses) {
+        ClassLoader classLoader = cls.getClassLoader() == null ? ClassLoader.getSystemClassLoader()
+          : cls.getClassLoader();
+        try (InputStream is = classLoader.getResourceAsStream(cls.getName().replace('.', '/') + ".class")) {
+          if (is == null) {
+            LOG.debug("Not using rewritten class cache due to missing bytecode of class {}", cls.getName());
+            return null;
+          }
+          digest.update(ByteStreams.toByteArray(is));
+        }
+      }
+
+      Path dir = createPrivateDirectory(baseDir).resolve(Bytes.toHexString(digest.digest()));
+      createPrivateDirectory(dir);
+      return new RewrittenClassCache(dir);
+    } catch (Exception e) {
+      LOG.debug("Not using rewritten class cache at {}", baseDir, e);
+      return null;
+    }
+  }
+
+  RewrittenClassCache(Path dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Returns the rewritten bytecode of the given class, either from the cache or by calling the given
+   * {@link ClassRewriter}. The result of the {@link ClassRewriter} is stored in the cache if the class was rewritten.
+   *
+   * @param className name of the class
+   * @param resource the {@link URL} for reading the original bytecode
+   * @param rewriter the {@link ClassRewriter} for rewriting the class if it is not in the cache
+   * @return the rewritten bytecode or {@code null} if the class doesn't need rewriting
+   * @throws IOException if failed to read the original bytecode or rewriting failed
+   */
+  @Nullable
+  public byte[] rewriteClass(String className, URL resource, ClassRewriter rewriter) throws IOException {
+    Path entry = dir.resolve(className + ".class");
+    byte[] originalDigest = null;
+    if (Files.isRegularFile(entry)) {
+      originalDigest = digest(resource);
+      byte[] cached = readEntry(entry, originalDigest);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    byte[] rewritten;
+    try (InputStream is = resource.openStream()) {
+      rewritten = rewriter.rewriteClass(className, is);
+    }
+    // The original bytecode is only read again for computing the digest if the class was rewritten
+    if (rewritten != null) {
+      writeEntry(entry, originalDigest == null ? digest(resource) : originalDigest, rewritten);
+    }
+    return rewritten;
+  }
+
+  /**
+   * Reads the rewritten bytecode from the given cache entry if the entry was produced from the original bytecode
+   * of the given digest.
+   */
+  @Nullable
+  private byte[] readEntry(Path entry, byte[] originalDigest) {
+    try (DataInputStream is = new DataInputStream(Files.newInputStream(entry))) {
+      if (is.readInt() != MAGIC) {
+        return null;
+      }
+      byte[] digest = new byte[originalDigest.length];
+      is.readFully(digest);
+      if (!Arrays.equals(digest, originalDigest)) {
+        return null;
+      }
+      byte[] bytecode = new byte[is.readInt()];
+      is.readFully(bytecode);
+      return bytecode;
+    } catch (Exception e) {
+      LOG.debug("Failed to read rewritten class cache entry {}", entry, e);
+      return null;
+    }
+  }
+
+  /**
+   * Writes the rewritten bytecode to the given cache entry. The entry is written to a temporary file first
+   * and then moved atomically, so that concurrent readers never see a partial entry.
+   */
+  private void writeEntry(Path entry, byte[] originalDigest, byte[] bytecode) {
+    Path tmpFile = null;
+    try {
+      tmpFile = Files.createTempFile(dir, entry.getFileName().toString(), ".tmp");
+      try (DataOutputStream os = new DataOutputStream(Files.newOutputStream(tmpFile))) {
+        os.writeInt(MAGIC);
+        os.write(originalDigest);
+        os.writeInt(bytecode.length);
+        os.write(bytecode);
+      }
+      Files.move(tmpFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      tmpFile = null;
+    } catch (Exception e) {
+      LOG.debug("Failed to write rewritten class cache entry {}", entry, e);
+    } finally {
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e) {
+          LOG.trace("Failed to delete temporary file {}", tmpFile, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Creates the given directory that is only accessible by the current user if it doesn't exist. If the directory
+   * already exists, it must be owned by the current user, so that the cache cannot be tampered by other users.
+   */
+  private static Path createPrivateDirectory(Path dir) throws IOException {
+    if (!Files.isDirectory(dir)) {
+      try {
+        Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(
+          PosixFilePermissions.fromString("rwx------")));
+      } catch (UnsupportedOperationException e) {
+        Files.createDirectories(dir);
+      }
+    }
+    String owner = Files.getOwner(dir).getName();
+    String user = System.getProperty("user.name");
+    if (!owner.equals(user)) {
+      throw new IOException("Directory " + dir + " is owned by " + owner + " instead of the current user " + user);
+    }
+    return dir;
+  }
+
+  /**
+   * Computes the digest of the content of the given {@link URL}.
+   */
+  private static byte[] digest(URL resource) throws IOException {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      // This shouldn't happen since every JVM must support SHA-256
+      throw new IllegalStateException(e);
+    }
+    try (InputStream is = resource.openStream()) {
+      byte[] buffer = new byte[8192];
+      int len = is.read(buffer);
+      while (len >= 0) {
+        digest.update(buffer, 0, len);
+        len = is.read(buffer);
+      }
+    }
+    return digest.digest();
+  }
+}
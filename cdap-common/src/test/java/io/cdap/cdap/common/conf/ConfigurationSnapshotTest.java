@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.common.conf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ConfigurationSnapshot}.
+ */
+public class ConfigurationSnapshotTest {
+
+  @Test
+  public void testResolvedValues() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.clear();
+    cConf.set("base.dir", "/tmp/base");
+    cConf.set("data.dir", "${base.dir}/data");
+    cConf.set("int.value", " 10 ");
+    cConf.set("hex.value", "0x1F");
+    cConf.set("long.value", "12345678901");
+    cConf.set("double.value", "1.5");
+    cConf.set("bool.value", "TRUE");
+    cConf.set("invalid.bool", "yes");
+    cConf.set("list.value", " a, b ,c ");
+
+    ConfigurationSnapshot snapshot = cConf.getSnapshot();
+    Assert.assertEquals("/tmp/base/data", snapshot.get("data.dir"));
+    Assert.assertNull(snapshot.get("missing"));
+    Assert.assertEquals("default", snapshot.get("missing", "default"));
+    Assert.assertEquals(10, snapshot.getInt("int.value"));
+    Assert.assertEquals(31, snapshot.getInt("hex.value"));
+    Assert.assertEquals(5, snapshot.getInt("missing", 5));
+    Assert.assertEquals(12345678901L, snapshot.getLong("long.value"));
+    Assert.assertEquals(1.5d, snapshot.getDouble("double.value"), 0.0001d);
+    Assert.assertTrue(snapshot.getBoolean("bool.value"));
+    Assert.assertTrue(snapshot.getBoolean("invalid.bool", true));
+    Assert.assertFalse(snapshot.getBoolean("missing", false));
+    Assert.assertArrayEquals(new String[] { "a", "b", "c" }, snapshot.getTrimmedStrings("list.value"));
+    Assert.assertEquals(0, snapshot.getTrimmedStrings("missing").length);
+
+    // Values should be the same as reading from the configuration
+    for (String name : snapshot.getNames()) {
+      Assert.assertEquals(cConf.get(name), snapshot.get(name));
+    }
+
+    try {
+      snapshot.getBoolean("invalid.bool");
+      Assert.fail("Expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      snapshot.getInt("missing");
+      Assert.fail("Expected NullPointerException");
+    } catch (NullPointerException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testModification() {
+    CConfiguration cConf = CConfiguration.create();
+    cConf.set("test.value", "1");
+
+    ConfigurationSnapshot snapshot = cConf.getSnapshot();
+    Assert.assertSame(snapshot, cConf.getSnapshot());
+    Assert.assertEquals(1, snapshot.getInt("test.value"));
+
+    // Modification should be reflected in a new snapshot, while the old snapshot stays unchanged
+    cConf.setInt("test.value", 2);
+    ConfigurationSnapshot newSnapshot = cConf.getSnapshot();
+    Assert.assertNotSame(snapshot, newSnapshot);
+    Assert.assertEquals(1, snapshot.getInt("test.value"));
+    Assert.assertEquals(2, newSnapshot.getInt("test.value"));
+
+    cConf.unset("test.value");
+    Assert.assertNull(cConf.getSnapshot().get("test.value"));
+
+    cConf.addResource("test-default.xml");
+    Assert.assertEquals("A", cConf.getSnapshot().get("conf.test.A"));
+  }
+}
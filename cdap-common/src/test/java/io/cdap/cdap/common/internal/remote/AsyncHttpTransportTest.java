@@ -0,0 +1,182 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.common.internal.remote;
+
+import io.cdap.common.http.HttpRequest;
+import io.cdap.common.http.HttpRequestConfig;
+import io.cdap.common.http.HttpResponse;
+import io.cdap.http.AbstractHttpHandler;
+import io.cdap.http.HttpResponder;
+import io.cdap.http.NettyHttpService;
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * Unit tests for {@link AsyncHttpTransport}.
+ */
+public class AsyncHttpTransportTest {
+
+  private static final HttpRequestConfig REQUEST_CONFIG = new HttpRequestConfig(5000, 5000);
+
+  private static NettyHttpService httpService;
+  private static AsyncHttpTransport transport;
+
+  @BeforeClass
+  public static void init() throws Exception {
+    httpService = NettyHttpService.builder("test")
+      .setHttpHandlers(new TestHandler())
+      .build();
+    httpService.start();
+    transport = new AsyncHttpTransport(2, 4);
+    transport.startAndWait();
+  }
+
+  @AfterClass
+  public static void finish() throws Exception {
+    transport.stopAndWait();
+    httpService.stop();
+  }
+
+  @Test
+  public void testConcurrentCalls() throws Exception {
+    // Make more concurrent calls than the number of pooled connections
+    List<CompletableFuture<HttpResponse>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      futures.add(transport.execute(HttpRequest.get(createURL("echo/" + i)).build(), REQUEST_CONFIG));
+    }
+    for (int i = 0; i < futures.size(); i++) {
+      HttpResponse response = futures.get(i).get(10, TimeUnit.SECONDS);
+      Assert.assertEquals(200, response.getResponseCode());
+      Assert.assertEquals(Integer.toString(i), response.getResponseBodyAsString());
+    }
+  }
+
+  @Test
+  public void testPost() throws Exception {
+    HttpResponse response = transport.execute(HttpRequest.post(createURL("upload")).withBody("content").build(),
+                                              REQUEST_CONFIG).get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(200, response.getResponseCode());
+    Assert.assertEquals("content", response.getResponseBodyAsString());
+
+    response = transport.execute(HttpRequest.get(createURL("unknown")).build(), REQUEST_CONFIG)
+      .get(10, TimeUnit.SECONDS);
+    Assert.assertEquals(404, response.getResponseCode());
+  }
+
+  @Test
+  public void testReadTimeout() throws Exception {
+    try {
+      transport.execute(HttpRequest.get(createURL("sleep")).build(), new HttpRequestConfig(5000, 100))
+        .get(10, TimeUnit.SECONDS);
+      Assert.fail("Expected read timeout");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof SocketTimeoutException);
+    }
+
+    // The transport should still be usable
+    HttpResponse response = transport.execute(HttpRequest.get(createURL("echo/ok")).build(), REQUEST_CONFIG)
+      .get(10, TimeUnit.SECONDS);
+    Assert.assertEquals("ok", response.getResponseBodyAsString());
+  }
+
+  @Test
+  public void testConnectFailure() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    try {
+      transport.execute(HttpRequest.get(new URL("http://127.0.0.1:" + port + "/echo/x")).build(), REQUEST_CONFIG)
+        .get(10, TimeUnit.SECONDS);
+      Assert.fail("Expected connection failure");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof ConnectException);
+    }
+  }
+
+  @Test
+  public void testLifecycle() throws Exception {
+    AsyncHttpTransport transport = new AsyncHttpTransport(1, 1);
+
+    // The transport is started on first use
+    HttpResponse response = transport.execute(HttpRequest.get(createURL("echo/lazy")).build(), REQUEST_CONFIG)
+      .get(10, TimeUnit.SECONDS);
+    Assert.assertEquals("lazy", response.getResponseBodyAsString());
+    Assert.assertTrue(transport.isRunning());
+
+    // Calls after the transport is stopped fail instead of starting it again
+    transport.stopAndWait();
+    try {
+      transport.execute(HttpRequest.get(createURL("echo/stopped")).build(), REQUEST_CONFIG).get(10, TimeUnit.SECONDS);
+      Assert.fail("Expected failure after the transport is stopped");
+    } catch (ExecutionException e) {
+      Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  private URL createURL(String path) throws Exception {
+    InetSocketAddress addr = httpService.getBindAddress();
+    return new URL(String.format("http://%s:%d/%s", addr.getHostName(), addr.getPort(), path));
+  }
+
+  /**
+   * Handler for testing only.
+   */
+  public static final class TestHandler extends AbstractHttpHandler {
+
+    @GET
+    @Path("/echo/{msg}")
+    public void echo(FullHttpRequest request, HttpResponder responder, @PathParam("msg") String msg) {
+      responder.sendString(HttpResponseStatus.OK, msg);
+    }
+
+    @POST
+    @Path("/upload")
+    public void upload(FullHttpRequest request, HttpResponder responder) {
+      ByteBuf content = request.content();
+      responder.sendString(HttpResponseStatus.OK, content.toString(StandardCharsets.UTF_8));
+    }
+
+    @GET
+    @Path("/sleep")
+    public void sleep(FullHttpRequest request, HttpResponder responder) throws InterruptedException {
+      TimeUnit.SECONDS.sleep(1);
+      responder.sendStatus(HttpResponseStatus.OK);
+    }
+  }
+}
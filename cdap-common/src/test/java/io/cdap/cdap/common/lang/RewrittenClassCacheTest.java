@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.common.lang;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarInputStream;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * Unit tests for {@link RewrittenClassCache}.
+ */
+public class RewrittenClassCacheTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMP_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testCache() throws Exception {
+    Path baseDir = TEMP_FOLDER.newFolder().toPath();
+    CountingRewriter rewriter = new CountingRewriter();
+
+    RewrittenClassCache cache = RewrittenClassCache.create(baseDir, "test", CountingRewriter.class);
+    Assert.assertNotNull(cache);
+    Assert.assertEquals("rewritten-a", rewrite(cache, "test.A", "a", rewriter));
+    Assert.assertEquals(1, rewriter.getCount());
+
+    // A new cache instance with the same options should use the cached result
+    cache = RewrittenClassCache.create(baseDir, "test", CountingRewriter.class);
+    Assert.assertNotNull(cache);
+    Assert.assertEquals("rewritten-a", rewrite(cache, "test.A", "a", rewriter));
+    Assert.assertEquals(1, rewriter.getCount());
+
+    // Changing the original bytecode should have the class rewritten again
+    Assert.assertEquals("rewritten-b", rewrite(cache, "test.A", "b", rewriter));
+    Assert.assertEquals(2, rewriter.getCount());
+    Assert.assertEquals("rewritten-b", rewrite(cache, "test.A", "b", rewriter));
+    Assert.assertEquals(2, rewriter.getCount());
+
+    // Different options shouldn't share cache entries
+    cache = RewrittenClassCache.create(baseDir, "test2", CountingRewriter.class);
+    Assert.assertNotNull(cache);
+    Assert.assertEquals("rewritten-b", rewrite(cache, "test.A", "b", rewriter));
+    Assert.assertEquals(3, rewriter.getCount());
+
+    // Class that doesn't need rewriting shouldn't be cached, and its bytecode should only be read once
+    AtomicInteger opens = new AtomicInteger();
+    Assert.assertNull(rewrite(cache, "test.B", "b", rewriter, opens));
+    Assert.assertNull(rewrite(cache, "test.B", "b", rewriter, opens));
+    Assert.assertEquals(5, rewriter.getCount());
+    Assert.assertEquals(2, opens.get());
+  }
+
+  @Test
+  public void testCorruptedEntry() throws Exception {
+    Path baseDir = TEMP_FOLDER.newFolder().toPath();
+    CountingRewriter rewriter = new CountingRewriter();
+
+    RewrittenClassCache cache = RewrittenClassCache.create(baseDir, "test", CountingRewriter.class);
+    Assert.assertNotNull(cache);
+    Assert.assertEquals("rewritten-a", rewrite(cache, "test.A", "a", rewriter));
+
+    // Truncate all cache entries. It should fallback to rewrite the class.
+    List<Path> entries = new ArrayList<>();
+    try (Stream<Path> stream = Files.walk(baseDir)) {
+      stream.filter(Files::isRegularFile).forEach(entries::add);
+    }
+    Assert.assertEquals(1, entries.size());
+    Files.write(entries.get(0), new byte[] { 1, 2, 3 });
+
+    Assert.assertEquals("rewritten-a", rewrite(cache, "test.A", "a", rewriter));
+    Assert.assertEquals(2, rewriter.getCount());
+    Assert.assertEquals("rewritten-a", rewrite(cache, "test.A", "a", rewriter));
+    Assert.assertEquals(2, rewriter.getCount());
+  }
+
+  @Ignore
+  @Test
+  public void testSpeed() throws Exception {
+    // Rewrites all classes in the Guava library with frames computation, which is similar to what the
+    // Spark and CDAP class rewriters do
+    URL guavaJar = ClassLoaders.getClassPathURL(ByteStreams.class);
+    List<String> classNames = new ArrayList<>();
+    List<byte[]> classes = new ArrayList<>();
+    try (JarInputStream is = new JarInputStream(guavaJar.openStream())) {
+      JarEntry entry = is.getNextJarEntry();
+      while (entry != null) {
+        if (entry.getName().endsWith(".class")) {
+          String name = entry.getName();
+          classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+          classes.add(ByteStreams.toByteArray(is));
+        }
+        entry = is.getNextJarEntry();
+      }
+    }
+
+    ClassRewriter rewriter = (className, input) -> {
+      ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+          // Don't load classes for the benchmark
+          return "java/lang/Object";
+        }
+      };
+      new ClassReader(input).accept(cw, 0);
+      return cw.toByteArray();
+    };
+
+    Path baseDir = TEMP_FOLDER.newFolder().toPath();
+    for (String mode : new String[] { "no cache", "cold cache", "warm cache" }) {
+      RewrittenClassCache cache = "no cache".equals(mode)
+        ? null : RewrittenClassCache.create(baseDir, "speed", getClass());
+      long startTime = System.nanoTime();
+      for (int i = 0; i < classes.size(); i++) {
+        URL resource = createURL(classes.get(i), new AtomicInteger());
+        if (cache == null) {
+          try (InputStream is = resource.openStream()) {
+            rewriter.rewriteClass(classNames.get(i), is);
+          }
+        } else {
+          cache.rewriteClass(classNames.get(i), resource, rewriter);
+        }
+      }
+      long endTime = System.nanoTime();
+      System.out.printf("Mode: %s, classes: %d, time spent: %d ms%n", mode, classes.size(),
+                        TimeUnit.NANOSECONDS.toMillis(endTime - startTime));
+    }
+  }
+
+  @Nullable
+  private String rewrite(RewrittenClassCache cache, String className,
+                         String content, ClassRewriter rewriter) throws IOException {
+    return rewrite(cache, className, content, rewriter, new AtomicInteger());
+  }
+
+  @Nullable
+  private String rewrite(RewrittenClassCache cache, String className, String content,
+                         ClassRewriter rewriter, AtomicInteger opens) throws IOException {
+    URL resource = createURL(content.getBytes(StandardCharsets.UTF_8), opens);
+    byte[] result = cache.rewriteClass(className, resource, rewriter);
+    return result == null ? null : new String(result, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Creates a {@link URL} that serves the given content and counts the number of times it is opened.
+   */
+  private URL createURL(byte[] content, AtomicInteger opens) throws IOException {
+    return new URL(null, "test:class", new URLStreamHandler() {
+      @Override
+      protected URLConnection openConnection(URL url) {
+        return new URLConnection(url) {
+          @Override
+          public void connect() {
+            // no-op
+          }
+
+          @Override
+          public InputStream getInputStream() {
+            opens.incrementAndGet();
+            return new ByteArrayInputStream(content);
+          }
+        };
+      }
+    });
+  }
+
+  /**
+   * A {@link ClassRewriter} that rewrites the class {@code test.A} and counts the number of calls.
+   */
+  private static final class CountingRewriter implements ClassRewriter {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    int getCount() {
+      return count.get();
+    }
+
+    @Nullable
+    @Override
+    public byte[] rewriteClass(String className, InputStream input) throws IOException {
+      count.incrementAndGet();
+      if (!"test.A".equals(className)) {
+        return null;
+      }
+      return ("rewritten-" + new String(ByteStreams.toByteArray(input), StandardCharsets.UTF_8))
+        .getBytes(StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -668,6 +668,17 @@ public class SchemaTest {
     Assert.assertSame(s1, SerializationUtils.clone(s1));
   }
 
+  @Test
+  public void testCachedParseJson() throws UnsupportedTypeException {
+    Schema schema = new ReflectionSchemaGenerator().generate(Node.class);
+    String json = schema.toString();
+
+    Schema parsed = SchemaCache.parseJson(json);
+    Assert.assertEquals(schema, parsed);
+    // parsing the same json again should return the cached instance
+    Assert.assertSame(parsed, SchemaCache.parseJson(new String(json.toCharArray())));
+  }
+
   private void verifyThrowsException(String toParse) {
     try {
       Schema.parseSQL(toParse);
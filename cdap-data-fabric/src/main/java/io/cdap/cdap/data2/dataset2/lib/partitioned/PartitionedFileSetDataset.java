@@ -70,6 +70,7 @@ import io.cdap.cdap.common.logging.Loggers;
 import io.cdap.cdap.data.RuntimeProgramContext;
 import io.cdap.cdap.data.RuntimeProgramContextAware;
 import io.cdap.cdap.data2.dataset2.lib.file.FileSetDataset;
+import io.cdap.cdap.data2.dataset2.lib.table.KeyBuilder;
 import io.cdap.cdap.explore.client.ExploreFacade;
 import io.cdap.cdap.proto.id.DatasetId;
 import org.apache.tephra.Transaction;
@@ -818,7 +819,7 @@ public class PartitionedFileSetDataset extends AbstractDataset
   }
 
   private byte[] columnKeyFromMetadataKey(String metadataKey) {
-    return Bytes.add(METADATA_PREFIX, Bytes.toBytes(metadataKey));
+    return KeyBuilder.local().putBytes(METADATA_PREFIX).putString(metadataKey).toByteArray();
   }
 
 
@@ -18,6 +18,9 @@ package io.cdap.cdap.data2.dataset2.lib.table;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
@@ -53,6 +56,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentSkipListMap;
 import javax.annotation.Nullable;
 
@@ -69,9 +74,10 @@ import javax.annotation.Nullable;
  * <p>
  * This implementation assumes that the table has name and conflicts are resolved on row level.
  * <p>
- * NOTE: this implementation doesn't cache any data in-memory besides changes. I.e. if you do get of same data that is
- *       not in in-memory buffer twice, two times it will try to fetch it from persistent store.
- *       Given the snapshot isolation tx model, this can be improved in future implementations.
+ * NOTE: by default this implementation doesn't cache any data in-memory besides changes. I.e. if you do get of same
+ *       data that is not in in-memory buffer twice, two times it will try to fetch it from persistent store.
+ *       If {@link TableProperties#PROPERTY_ROW_CACHE_SIZE} is set, rows fetched from persistent store are cached and
+ *       reused by the next transaction, as long as no other transaction committed changes visible to it in between.
  * <p>
  * NOTE: current implementation persists changes only at the end of transaction. Beware of OOME. There should be better
  *       implementation for MapReduce case (YMMV though, for counters/aggregations this implementation looks sweet)
@@ -108,6 +114,13 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
   // the current transaction
   protected Transaction tx;
 
+  // Cache of rows fetched from persistent store, null if disabled. See isRowCacheValid for when entries are reused.
+  @Nullable
+  private final Cache<RowKey, CachedRow> rowCache;
+  // The last transaction the row cache was used in, and whether that transaction has committed
+  private Transaction rowCacheTx;
+  private boolean rowCacheTxCommitted;
+
   /**
    * Creates an instance of {@link BufferingTable} with row level conflict detection, without readless increments,
    * and no schema.
@@ -151,6 +164,11 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     // Default uses the above scheme. Subclasses can change it by overriding the #getNameAsTxChangePrefix method
     this.nameAsTxChangePrefix = Bytes.add(new byte[]{(byte) name.length()}, Bytes.toBytes(name));
     this.buff = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+    long rowCacheSize = TableProperties.getRowCacheSize(properties);
+    this.rowCache = rowCacheSize <= 0L ? null : CacheBuilder.newBuilder()
+      .maximumWeight(rowCacheSize)
+      .weigher((Weigher<RowKey, CachedRow>) (key, value) -> key.row.length + value.getWeight())
+      .build();
   }
 
   /**
@@ -262,6 +280,9 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     // releasing resources
     buff = null;
     toUndo = null;
+    if (rowCache != null) {
+      rowCache.invalidateAll();
+    }
   }
 
   @Override
@@ -275,6 +296,30 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     buff.clear();
     toUndo = null;
     this.tx = tx;
+
+    if (rowCache != null) {
+      if (!isRowCacheValid(tx)) {
+        rowCache.invalidateAll();
+      }
+      rowCacheTx = tx;
+      rowCacheTxCommitted = false;
+    }
+  }
+
+  /**
+   * Returns whether the rows cached by the previous transaction can be reused by the given transaction. That is only
+   * the case if both transactions see exactly the same snapshot, meaning nothing was committed in between. Changes
+   * made by the previous transaction are not enough to reason about, since other table instances or the underlying
+   * table can have written in the same transaction.
+   */
+  private boolean isRowCacheValid(Transaction tx) {
+    Transaction previousTx = rowCacheTx;
+    if (previousTx == null || !rowCacheTxCommitted) {
+      return false;
+    }
+    return tx.getReadPointer() == previousTx.getReadPointer()
+      && Arrays.equals(tx.getInProgress(), previousTx.getInProgress())
+      && Arrays.equals(tx.getInvalids(), previousTx.getInvalids());
   }
 
   @Override
@@ -318,6 +363,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
   private Collection<byte[]> getColumnChanges() {
     // we resolve conflicts on row level of individual table
     List<byte[]> changes = new ArrayList<>(buff.size());
+    KeyBuilder keyBuilder = KeyBuilder.local();
     for (Map.Entry<byte[], NavigableMap<byte[], Update>> rowChange : buff.entrySet()) {
       if (rowChange.getValue() == null) {
         // NOTE: as of now we cannot detect conflict between delete whole row and row's column value change.
@@ -327,10 +373,11 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
       }
 
       // using length + value format to prevent conflicts like row="ab", column="cd" vs row="abc", column="d"
-      byte[] rowTxChange = Bytes.add(Bytes.toBytes(rowChange.getKey().length), rowChange.getKey());
+      keyBuilder.reset().putBytes(getNameAsTxChangePrefix()).putLengthPrefixed(rowChange.getKey());
+      int rowTxChangeLength = keyBuilder.length();
 
       for (byte[] column : rowChange.getValue().keySet()) {
-        changes.add(Bytes.add(getNameAsTxChangePrefix(), rowTxChange, column));
+        changes.add(keyBuilder.truncate(rowTxChangeLength).putBytes(column).toByteArray());
       }
     }
     return changes;
@@ -346,6 +393,11 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
       // NOTE: we want to init map here so that if no changes are made we re-use same instance of the map in next tx
       // NOTE: we could cache two maps and swap them to avoid creation of map instances, but code would be ugly
       buff = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+      if (rowCache != null) {
+        for (byte[] row : toUndo.keySet()) {
+          rowCache.invalidate(new RowKey(row));
+        }
+      }
       // TODO: tracking of persisted items can be optimized by returning a pair {succeededOrNot, persisted} which
       //       tells if persisting succeeded and what was persisted (i.e. what we will have to undo in case of rollback)
       persist(toUndo);
@@ -358,12 +410,17 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     // don't need buffer anymore: tx has been committed
     buff.clear();
     toUndo = null;
+    rowCacheTxCommitted = tx != null && tx == rowCacheTx;
     tx = null;
   }
 
   @Override
   public boolean rollbackTx() throws Exception {
     buff.clear();
+    if (rowCache != null) {
+      rowCache.invalidateAll();
+      rowCacheTx = null;
+    }
     if (toUndo != null) {
       undo(toUndo);
       toUndo = null;
@@ -417,10 +474,14 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     // checking if the row was deleted inside this tx
     NavigableMap<byte[], Update> buffCols = buff.get(row);
 
-    // NOTE: since we cannot tell the exact column set, we always have to go to persisted store.
+    // NOTE: since we cannot tell the exact column set, we always have to go to persisted store, unless the full row
+    //       is in the row cache.
     //       potential improvement: do not fetch columns available in in-mem buffer (we know them at this point)
     try {
-      Map<byte[], byte[]> persistedCols = getPersisted(row, startColumn, stopColumn, limit);
+      CachedRow cachedRow = rowCache == null ? null : rowCache.getIfPresent(new RowKey(row));
+      Map<byte[], byte[]> persistedCols = cachedRow != null && cachedRow.complete
+        ? cachedRow.getRange(startColumn, stopColumn, limit)
+        : getPersisted(row, startColumn, stopColumn, limit);
 
       // adding server cols, and then overriding with buffered values
       NavigableMap<byte[], byte[]> result = Maps.newTreeMap(Bytes.BYTES_COMPARATOR);
@@ -752,8 +813,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
       return Collections.emptyMap();
     }
 
-    Map<byte[], byte[]> persisted = getPersisted(row, null);
-
+    Map<byte[], byte[]> persisted = getPersistedCached(row, null);
 
     result.putAll(persisted);
     if (buffCols != null) {
@@ -771,7 +831,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
 
     // if nothing locally, return all from server
     if (buffCols == null) {
-      return getPersisted(row, columns);
+      return getPersistedCached(row, columns);
     }
 
     // otherwise try to fetch data from in-memory buffer. If not all present - fetch leftover from persisted
@@ -793,7 +853,7 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     // fetching from server those that were not found in in-mem buffer
     if (colsToFetchFromPersisted.size() > 0) {
       Map<byte[], byte[]> persistedCols =
-        getPersisted(row, colsToFetchFromPersisted.toArray(new byte[colsToFetchFromPersisted.size()][]));
+        getPersistedCached(row, colsToFetchFromPersisted.toArray(new byte[colsToFetchFromPersisted.size()][]));
       if (persistedCols != null) {
         result.putAll(persistedCols);
       }
@@ -805,6 +865,33 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     return unwrapDeletes(result);
   }
 
+  /**
+   * Fetches column->value pairs from the row cache if all the requested columns are cached, otherwise from
+   * persistent store, and caches the result. The returned map is a copy that can be modified by the caller.
+   */
+  private NavigableMap<byte[], byte[]> getPersistedCached(byte[] row, @Nullable byte[][] columns) throws Exception {
+    if (rowCache == null) {
+      return getPersisted(row, columns);
+    }
+    RowKey key = new RowKey(row);
+    CachedRow cachedRow = rowCache.getIfPresent(key);
+    NavigableMap<byte[], byte[]> result = cachedRow == null ? null : cachedRow.get(columns);
+    if (result != null) {
+      return result;
+    }
+    result = getPersisted(row, columns);
+    rowCache.put(key, cachedRow == null ? new CachedRow(columns, result) : cachedRow.merge(columns, result));
+    return copyOf(result);
+  }
+
+  private static NavigableMap<byte[], byte[]> copyOf(Map<byte[], byte[]> map) {
+    NavigableMap<byte[], byte[]> copy = Maps.newTreeMap(Bytes.BYTES_COMPARATOR);
+    for (Map.Entry<byte[], byte[]> entry : map.entrySet()) {
+      copy.put(copy(entry.getKey()), copy(entry.getValue()));
+    }
+    return copy;
+  }
+
   /**
    * Applies the buffered updates on top of the map of persisted values.  The persisted map is modified in place
    * with the updated values.
@@ -1078,4 +1165,122 @@ public abstract class BufferingTable extends AbstractTable implements MeteredDat
     LOG.warn("Attempt to write an empty value to column '{}' of table '{}'. " +
                "This will result in deleting the column. {}", Bytes.toString(column), name, additionalMessage);
   }
+
+  /**
+   * Key of the row cache.
+   */
+  private static final class RowKey {
+    private final byte[] row;
+    private final int hashCode;
+
+    RowKey(byte[] row) {
+      this.row = row;
+      this.hashCode = Bytes.hashCode(row);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      return Bytes.equals(row, ((RowKey) o).row);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * An immutable entry of the row cache, which has the persisted values of either the full row, or a set of columns.
+   */
+  private static final class CachedRow {
+    // the persisted values
+    private final NavigableMap<byte[], byte[]> values;
+    // the columns fetched from persistent store, including the ones without value. Null if the row is complete.
+    private final NavigableSet<byte[]> fetchedColumns;
+    private final boolean complete;
+
+    CachedRow(@Nullable byte[][] columns, Map<byte[], byte[]> values) {
+      this.values = copyOf(values);
+      this.complete = columns == null;
+      this.fetchedColumns = columns == null ? null : new TreeSet<>(Bytes.BYTES_COMPARATOR);
+      if (columns != null) {
+        for (byte[] column : columns) {
+          fetchedColumns.add(copy(column));
+        }
+      }
+    }
+
+    private CachedRow(NavigableMap<byte[], byte[]> values, @Nullable NavigableSet<byte[]> fetchedColumns) {
+      this.values = values;
+      this.complete = fetchedColumns == null;
+      this.fetchedColumns = fetchedColumns;
+    }
+
+    /**
+     * Returns a copy of the values of the given columns, or {@code null} if some of the columns are not cached.
+     */
+    @Nullable
+    NavigableMap<byte[], byte[]> get(@Nullable byte[][] columns) {
+      if (columns == null) {
+        return complete ? copyOf(values) : null;
+      }
+      NavigableMap<byte[], byte[]> result = Maps.newTreeMap(Bytes.BYTES_COMPARATOR);
+      for (byte[] column : columns) {
+        if (!complete && !fetchedColumns.contains(column)) {
+          return null;
+        }
+        byte[] value = values.get(column);
+        if (value != null) {
+          result.put(copy(column), copy(value));
+        }
+      }
+      return result;
+    }
+
+    /**
+     * Returns a copy of the values within the given column range. Must only be called on a complete row.
+     */
+    NavigableMap<byte[], byte[]> getRange(@Nullable byte[] startColumn, @Nullable byte[] stopColumn, int limit) {
+      return copyOf(getRange(values, startColumn, stopColumn, limit));
+    }
+
+    /**
+     * Returns a new {@link CachedRow} with the given values merged into this one.
+     */
+    CachedRow merge(@Nullable byte[][] columns, Map<byte[], byte[]> newValues) {
+      if (columns == null) {
+        return new CachedRow(null, newValues);
+      }
+      CachedRow other = new CachedRow(columns, newValues);
+      NavigableMap<byte[], byte[]> mergedValues = Maps.newTreeMap(Bytes.BYTES_COMPARATOR);
+      mergedValues.putAll(values);
+      mergedValues.putAll(other.values);
+      NavigableSet<byte[]> mergedColumns = null;
+      if (!complete) {
+        mergedColumns = new TreeSet<>(Bytes.BYTES_COMPARATOR);
+        mergedColumns.addAll(fetchedColumns);
+        mergedColumns.addAll(other.fetchedColumns);
+      }
+      return new CachedRow(mergedValues, mergedColumns);
+    }
+
+    int getWeight() {
+      long weight = 0L;
+      for (Map.Entry<byte[], byte[]> entry : values.entrySet()) {
+        weight += entry.getKey().length + entry.getValue().length;
+      }
+      if (fetchedColumns != null) {
+        for (byte[] column : fetchedColumns) {
+          weight += column.length;
+        }
+      }
+      return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+  }
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.table;
+
+import io.cdap.cdap.api.common.Bytes;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer for composing row keys. Parts are encoded directly into the buffer, so that building a key
+ * of N parts only allocates the final key array, instead of one intermediate array per part.
+ * Instances are not thread safe. A thread local instance can be obtained through {@link #local()} for building keys
+ * within a single method call.
+ */
+public final class KeyBuilder {
+
+  private static final int DEFAULT_CAPACITY = 64;
+  private static final int MAX_LOCAL_CAPACITY = 64 * 1024;
+  private static final ThreadLocal<KeyBuilder> LOCAL = ThreadLocal.withInitial(KeyBuilder::new);
+
+  private byte[] buffer;
+  private int length;
+
+  public KeyBuilder() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public KeyBuilder(int initialCapacity) {
+    this.buffer = new byte[Math.max(initialCapacity, 1)];
+  }
+
+  /**
+   * Returns the {@link KeyBuilder} of the current thread, after resetting it. The returned instance must not be
+   * retained or used beyond the method that obtained it, as the next call to this method on the same thread
+   * returns the same instance.
+   */
+  public static KeyBuilder local() {
+    KeyBuilder builder = LOCAL.get();
+    if (builder.buffer.length > MAX_LOCAL_CAPACITY) {
+      // Don't hold on to an unusually large buffer forever
+      builder = new KeyBuilder();
+      LOCAL.set(builder);
+    }
+    return builder.reset();
+  }
+
+  /**
+   * Clears the content of this builder, keeping the underlying buffer.
+   */
+  public KeyBuilder reset() {
+    length = 0;
+    return this;
+  }
+
+  /**
+   * Returns the number of bytes written to this builder.
+   */
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Sets the number of bytes in this builder to the given length, which must not be larger than the current length.
+   */
+  public KeyBuilder truncate(int newLength) {
+    if (newLength < 0 || newLength > length) {
+      throw new IndexOutOfBoundsException("Invalid length " + newLength + ", current length is " + length);
+    }
+    length = newLength;
+    return this;
+  }
+
+  public KeyBuilder putByte(byte b) {
+    ensureCapacity(1);
+    buffer[length++] = b;
+    return this;
+  }
+
+  public KeyBuilder putBytes(byte[] bytes) {
+    return putBytes(bytes, 0, bytes.length);
+  }
+
+  public KeyBuilder putBytes(byte[] bytes, int offset, int len) {
+    ensureCapacity(len);
+    System.arraycopy(bytes, offset, buffer, length, len);
+    length += len;
+    return this;
+  }
+
+  /**
+   * Writes the given int as four bytes in big endian order, which preserves the sort order of non-negative values.
+   */
+  public KeyBuilder putInt(int value) {
+    ensureCapacity(Bytes.SIZEOF_INT);
+    length = Bytes.putInt(buffer, length, value);
+    return this;
+  }
+
+  /**
+   * Writes the given long as eight bytes in big endian order, which preserves the sort order of non-negative values.
+   */
+  public KeyBuilder putLong(long value) {
+    ensureCapacity(Bytes.SIZEOF_LONG);
+    length = Bytes.putLong(buffer, length, value);
+    return this;
+  }
+
+  /**
+   * Writes the given value as an unsigned variable length int. Note that the encoding doesn't preserve sort order.
+   */
+  public KeyBuilder putVarInt(int value) {
+    ensureCapacity(5);
+    while ((value & ~0x7F) != 0) {
+      buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Writes the given value as an unsigned variable length long. Note that the encoding doesn't preserve sort order.
+   */
+  public KeyBuilder putVarLong(long value) {
+    ensureCapacity(10);
+    while ((value & ~0x7FL) != 0) {
+      buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    buffer[length++] = (byte) value;
+    return this;
+  }
+
+  /**
+   * Writes the UTF-8 encoding of the given string.
+   */
+  public KeyBuilder putString(String value) {
+    int start = length;
+    int len = value.length();
+    ensureCapacity(len);
+    for (int i = 0; i < len; i++) {
+      char c = value.charAt(i);
+      if (c >= 0x80) {
+        // Non ASCII string, fallback to the JDK encoder
+        length = start;
+        return putBytes(value.getBytes(StandardCharsets.UTF_8));
+      }
+      buffer[length++] = (byte) c;
+    }
+    return this;
+  }
+
+  /**
+   * Writes the given bytes prefixed with its length as a four bytes int.
+   */
+  public KeyBuilder putLengthPrefixed(byte[] bytes) {
+    return putInt(bytes.length).putBytes(bytes);
+  }
+
+  /**
+   * Writes the UTF-8 encoding of the given string, prefixed with the encoded length as a four bytes int.
+   */
+  public KeyBuilder putLengthPrefixed(String value) {
+    int lengthOffset = length;
+    putInt(0);
+    putString(value);
+    Bytes.putInt(buffer, lengthOffset, length - lengthOffset - Bytes.SIZEOF_INT);
+    return this;
+  }
+
+  /**
+   * Returns a copy of the content of this builder.
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, length);
+  }
+
+  /**
+   * Returns a read only {@link ByteBuffer} view of the given range of the content, without copying.
+   * The view is only valid until the next modification of this builder.
+   */
+  public ByteBuffer slice(int offset, int len) {
+    if (offset < 0 || len < 0 || offset + len > length) {
+      throw new IndexOutOfBoundsException("Invalid slice [" + offset + ", " + (offset + len)
+                                            + ") of length " + length);
+    }
+    return ByteBuffer.wrap(buffer, offset, len).slice().asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns a read only {@link ByteBuffer} view of the full content, without copying.
+   * The view is only valid until the next modification of this builder.
+   */
+  public ByteBuffer asByteBuffer() {
+    return slice(0, length);
+  }
+
+  private void ensureCapacity(int extra) {
+    int required = length + extra;
+    if (required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return Bytes.toStringBinary(buffer, 0, length);
+  }
+}
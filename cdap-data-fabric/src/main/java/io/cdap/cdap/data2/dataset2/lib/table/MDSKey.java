@@ -94,7 +94,15 @@ public final class MDSKey implements Comparable<MDSKey> {
      * @return the next String part in the splitter
      */
     public String getString() {
-      return Bytes.toString(getBytes());
+      // Decodes directly from the key array to avoid copying the bytes first
+      int len = byteBuffer.getInt();
+      if (byteBuffer.remaining() < len) {
+        throw new BufferUnderflowException();
+      }
+      int position = byteBuffer.position();
+      String result = Bytes.toString(byteBuffer.array(), byteBuffer.arrayOffset() + position, len);
+      byteBuffer.position(position + len);
+      return result;
     }
 
     /**
@@ -170,24 +178,25 @@ public final class MDSKey implements Comparable<MDSKey> {
    * Builds {@link MDSKey}s.
    */
   public static final class Builder {
-    private byte[] key;
+    private final KeyBuilder key;
 
     public Builder() {
-      key = new byte[0];
+      key = new KeyBuilder();
     }
 
     public Builder(MDSKey start) {
-      this.key = start.getKey();
+      byte[] startKey = start.getKey();
+      key = new KeyBuilder(startKey.length * 2).putBytes(startKey);
     }
 
     // Encodes parts of the key with segments of <length> <value>
     public Builder add(byte[] part) {
-      key = Bytes.add(key, Bytes.toBytes(part.length), part);
+      key.putLengthPrefixed(part);
       return this;
     }
 
     public Builder add(String part) {
-      add(Bytes.toBytes(part));
+      key.putLengthPrefixed(part);
       return this;
     }
 
@@ -199,22 +208,22 @@ public final class MDSKey implements Comparable<MDSKey> {
     }
 
     public Builder add(long part) {
-      key = Bytes.add(key, Bytes.toBytes(part));
+      key.putLong(part);
       return this;
     }
 
     public Builder add(int part) {
-      key = Bytes.add(key, Bytes.toBytes(part));
+      key.putInt(part);
       return this;
     }
 
     public Builder append(MDSKey mdsKey) {
-      key = Bytes.add(key, mdsKey.getKey());
+      key.putBytes(mdsKey.getKey());
       return this;
     }
 
     public MDSKey build() {
-      return new MDSKey(key);
+      return new MDSKey(key.toByteArray());
     }
   }
 }
@@ -167,6 +167,10 @@ import javax.annotation.Nullable;
  * i:program:namespace:ns1:application:appX:type:mapreduce:program:mr:tags:bar            i  -> ns1:tags:bar
  *                                                                                        xi -> tags:bar
  *
+ * Every index row also stores the metadata value in the 'iv' column, which is a covered column of the
+ * IndexedTable. Search reads only the index column and the 'iv' column, which are both served from the
+ * index table, so that a search hit does not read the index row or the value row from the data table.
+ *
  * In addition to the entry and it's indexes, there is also history write done per {@link MetadataEntity}.
  * The row key for history is similar to the index row key except it is prefixed by 'h' instead of 'v' and it
  * contains an inverted timestamp at the end instead of the metadata key-value.
@@ -191,6 +195,8 @@ public class MetadataDataset extends AbstractDataset {
   private static final Pattern SPACE_SEPARATOR_PATTERN = Pattern.compile("\\s+");
   private static final String HISTORY_COLUMN = "h"; // column for metadata history
   private static final String VALUE_COLUMN = "v";  // column for metadata value
+  // copy of the metadata value in the index rows, covered by the index so that search reads only the index table
+  static final String INDEXED_VALUE_COLUMN = "iv";
   private static final String TAGS_SEPARATOR = ",";
 
   // Fuzzy key is of form <row key, key mask>. We want to compare row keys.
@@ -701,10 +707,10 @@ public class MetadataDataset extends AbstractDataset {
         byte[] startKey = Bytes.toBytes(searchTerm.getTerm());
         @SuppressWarnings("ConstantConditions")
         byte[] stopKey = Bytes.stopKeyForPrefix(startKey);
-        scanner = indexedTable.scanByIndex(Bytes.toBytes(column), startKey, stopKey);
+        scanner = indexedTable.scanByIndex(Bytes.toBytes(column), startKey, stopKey, getSearchColumns(column));
       } else {
         byte[] value = Bytes.toBytes(searchTerm.getTerm());
-        scanner = indexedTable.readByIndex(Bytes.toBytes(column), value);
+        scanner = indexedTable.readByIndex(Bytes.toBytes(column), value, getSearchColumns(column));
       }
       try {
         Row next;
@@ -761,7 +767,8 @@ public class MetadataDataset extends AbstractDataset {
       // the remainder is 1. However, this is not true, when the chunk size is 1, since in that case, the
       // remainder on division can never be 1, it is always 0.
       int mod = (limit == 1) ? 0 : 1;
-      try (Scanner scanner = indexedTable.scanByIndex(Bytes.toBytes(column), startKey, stopKey)) {
+      try (Scanner scanner = indexedTable.scanByIndex(Bytes.toBytes(column), startKey, stopKey,
+                                                      getSearchColumns(column))) {
         Row next;
         while ((next = scanner.next()) != null && results.size() < fetchSize) {
           Optional<MetadataEntry> metadataEntry =
@@ -815,10 +822,23 @@ public class MetadataDataset extends AbstractDataset {
     }
 
     String key = MetadataKey.extractMetadataKey(rowKey);
+    String value = rowToProcess.getString(INDEXED_VALUE_COLUMN);
+    if (value != null) {
+      return Optional.of(new MetadataEntry(metadataEntity, key, value));
+    }
+    // index rows written before the value was stored with them need to read the value row
     MetadataEntry entry = getMetadata(metadataEntity, key);
     return Optional.ofNullable(entry);
   }
 
+  /**
+   * Returns the columns read by a search on the given index column. They are all stored in the index table,
+   * hence a search does not read the data table.
+   */
+  private static byte[][] getSearchColumns(String indexColumn) {
+    return new byte[][] { Bytes.toBytes(indexColumn), Bytes.toBytes(INDEXED_VALUE_COLUMN) };
+  }
+
   /**
    * Generate the search terms to use for the query.
    * The search query is split on whitespace into one or more raw terms. Each raw term is cleaned and formatted
@@ -910,6 +930,7 @@ public class MetadataDataset extends AbstractDataset {
         Put put = new Put(mdsIndexKey.getKey());
         put.add(Bytes.toBytes(indexColumn.getCrossNamespaceColumn()), Bytes.toBytes(lowercaseIndex));
         put.add(Bytes.toBytes(indexColumn.getColumn()), Bytes.toBytes(namespacePrefix + lowercaseIndex));
+        put.add(Bytes.toBytes(INDEXED_VALUE_COLUMN), Bytes.toBytes(metadataEntry.getValue()));
         indexedTable.put(put);
       }
     }
@@ -37,7 +37,7 @@ public class MetadataDatasetDefinition
   extends AbstractDatasetDefinition<MetadataDataset, DatasetAdmin>
   implements Reconfigurable {
 
-  private static final String METADATA_INDEX_TABLE_NAME = "metadata_index";
+  static final String METADATA_INDEX_TABLE_NAME = "metadata_index";
   public static final String SCOPE_KEY = "scope";
 
   private final DatasetDefinition<? extends IndexedTable, ?> indexedTableDef;
@@ -76,6 +76,7 @@ public class MetadataDatasetDefinition
       .builder()
       .addAll(properties.getProperties())
       .add(IndexedTable.INDEX_COLUMNS_CONF_KEY, Joiner.on(",").join(indexColumns))
+      .add(IndexedTable.INDEX_COVERED_COLUMNS_CONF_KEY, MetadataDataset.INDEXED_VALUE_COLUMN)
       .build();
   }
 
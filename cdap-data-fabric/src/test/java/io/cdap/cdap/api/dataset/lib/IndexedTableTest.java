@@ -828,6 +828,189 @@ public class IndexedTableTest {
       dsFrameworkUtil.deleteInstance(incrTabInstance);
     }
   }
+
+  @Test
+  public void testCoveredColumns() throws Exception {
+    DatasetId coveredTabInstance = DatasetFrameworkTestUtil.NAMESPACE_ID.dataset("coveredtab");
+    dsFrameworkUtil.createInstance("indexedTable", coveredTabInstance, DatasetProperties.builder()
+      .add(IndexedTable.INDEX_COLUMNS_CONF_KEY, idxColString)
+      .add(IndexedTable.INDEX_COVERED_COLUMNS_CONF_KEY, Bytes.toString(valCol))
+      .build());
+    final byte[] otherCol = Bytes.toBytes("other");
+    final byte[][] colIdxValOther = { idxCol, valCol, otherCol };
+    final IndexedTable cTable = dsFrameworkUtil.getInstance(coveredTabInstance);
+
+    try {
+      TransactionExecutor tx = dsFrameworkUtil.newTransactionExecutor(cTable);
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          cTable.put(new Put(keyA).add(idxCol, idx1).add(valCol, valA).add(otherCol, valAA));
+          cTable.put(new Put(keyB).add(idxCol, idx1).add(valCol, valB).add(otherCol, valBB));
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // projection on indexed and covered columns only
+          Scanner scanner = cTable.readByIndex(idxCol, idx1, colIdxVal);
+          try {
+            TableAssert.assertRow(scanner.next(), keyA, colIdxVal, new byte[][] { idx1, valA });
+            TableAssert.assertRow(scanner.next(), keyB, colIdxVal, new byte[][] { idx1, valB });
+            assertEmpty(scanner);
+          } finally {
+            scanner.close();
+          }
+          // projection on a column that is not covered
+          Row row = readFirst(cTable.readByIndex(idxCol, idx1, new byte[][] { otherCol }));
+          TableAssert.assertRow(row, keyA, new byte[][] { otherCol }, new byte[][] { valAA });
+          // no projection returns the full data row
+          row = readFirst(cTable.scanByIndex(idxCol, idx1, idx2));
+          TableAssert.assertRow(row, keyA, colIdxValOther, new byte[][] { idx1, valA, valAA });
+        }
+      });
+
+      // update only the covered value, then move a row to another index value
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          cTable.put(keyA, valCol, valC);
+          cTable.put(keyB, idxCol, idx2);
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          Scanner scanner = cTable.readByIndex(idxCol, idx1, colIdxVal);
+          try {
+            TableAssert.assertRow(scanner.next(), keyA, colIdxVal, new byte[][] { idx1, valC });
+            assertEmpty(scanner);
+          } finally {
+            scanner.close();
+          }
+          Row row = readFirst(cTable.scanByIndex(idxCol, idx2, null, new byte[][] { valCol }));
+          TableAssert.assertRow(row, keyB, new byte[][] { valCol }, new byte[][] { valB });
+        }
+      });
+
+      // deleting the covered column should remove it from the index row
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          cTable.delete(keyA, valCol);
+          cTable.compareAndSwap(keyB, valCol, valB, valD);
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          Row row = readFirst(cTable.readByIndex(idxCol, idx1, colIdxVal));
+          TableAssert.assertRow(row, keyA, new byte[][] { idxCol }, new byte[][] { idx1 });
+          row = readFirst(cTable.readByIndex(idxCol, idx2, colIdxVal));
+          TableAssert.assertRow(row, keyB, colIdxVal, new byte[][] { idx2, valD });
+
+          // read-less increment is not allowed on covered columns
+          try {
+            cTable.increment(keyA, valCol, 1L);
+            fail("Expected IllegalArgumentException performing increment on a covered column");
+          } catch (IllegalArgumentException iae) {
+            // expected
+          }
+        }
+      });
+    } finally {
+      dsFrameworkUtil.deleteInstance(coveredTabInstance);
+    }
+  }
+
+  @Test
+  public void testCompositeIndex() throws Exception {
+    DatasetId compositeTabInstance = DatasetFrameworkTestUtil.NAMESPACE_ID.dataset("compositetab");
+    dsFrameworkUtil.createInstance("indexedTable", compositeTabInstance, DatasetProperties.builder()
+      .add(IndexedTable.INDEX_COMPOSITE_CONF_KEY, "c1+c2")
+      .add(IndexedTable.INDEX_COVERED_COLUMNS_CONF_KEY, Bytes.toString(valCol))
+      .build());
+    final byte[] col1 = Bytes.toBytes("c1");
+    final byte[] col2 = Bytes.toBytes("c2");
+    final byte[][] compositeColumns = { col1, col2 };
+    final byte[][] allColumns = { col1, col2, valCol };
+    final IndexedTable cTable = dsFrameworkUtil.getInstance(compositeTabInstance);
+
+    try {
+      TransactionExecutor tx = dsFrameworkUtil.newTransactionExecutor(cTable);
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // values are chosen such that a plain concatenation of them would be ambiguous
+          cTable.put(new Put(keyA).add(col1, valA).add(col2, valB).add(valCol, valC));
+          cTable.put(new Put(keyB).add(col1, valAB).add(col2, valE).add(valCol, valD));
+          cTable.put(new Put(keyC).add(col1, valA).add(col2, valBB).add(valCol, valE));
+          // row without all composite columns is not indexed
+          cTable.put(new Put(keyD).add(col1, valA).add(valCol, valE));
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          // lookup on all columns
+          Scanner scanner = cTable.readByIndex(compositeColumns, new byte[][] { valA, valB });
+          try {
+            TableAssert.assertRow(scanner.next(), keyA, allColumns, new byte[][] { valA, valB, valC });
+            assertEmpty(scanner);
+          } finally {
+            scanner.close();
+          }
+          // lookup on the leading column, served from the index only
+          scanner = cTable.readByIndex(new byte[][] { col1 }, new byte[][] { valA }, allColumns);
+          try {
+            TableAssert.assertRow(scanner.next(), keyA, allColumns, new byte[][] { valA, valB, valC });
+            TableAssert.assertRow(scanner.next(), keyC, allColumns, new byte[][] { valA, valBB, valE });
+            assertEmpty(scanner);
+          } finally {
+            scanner.close();
+          }
+          // lookup on a non leading column is not supported
+          try {
+            cTable.readByIndex(new byte[][] { col2 }, new byte[][] { valB });
+            fail("Expected IllegalArgumentException reading by a non leading composite index column");
+          } catch (IllegalArgumentException iae) {
+            // expected
+          }
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          cTable.put(keyA, col2, valBB);
+          cTable.put(keyD, col2, valBB);
+          cTable.delete(keyC);
+        }
+      });
+
+      tx.execute(new TransactionExecutor.Subroutine() {
+        @Override
+        public void apply() throws Exception {
+          assertEmpty(cTable.readByIndex(compositeColumns, new byte[][] { valA, valB }));
+          Scanner scanner = cTable.readByIndex(compositeColumns, new byte[][] { valA, valBB }, compositeColumns);
+          try {
+            TableAssert.assertRow(scanner.next(), keyA, compositeColumns, new byte[][] { valA, valBB });
+            TableAssert.assertRow(scanner.next(), keyD, compositeColumns, new byte[][] { valA, valBB });
+            assertEmpty(scanner);
+          } finally {
+            scanner.close();
+          }
+        }
+      });
+    } finally {
+      dsFrameworkUtil.deleteInstance(compositeTabInstance);
+    }
+  }
+
   /**
    * Asserts that the given scanner contains no more rows.
    */
@@ -497,6 +497,114 @@ public abstract class BufferingTableTest<T extends BufferingTable> extends Table
     }
   }
 
+  @Test
+  public void testRowCache() throws Exception {
+    DatasetProperties props = TableProperties.builder().setRowCacheSize(1024 * 1024).build();
+    DatasetAdmin admin = getTableAdmin(CONTEXT1, MY_TABLE, props);
+    admin.create();
+    try (BufferingTable writer = getTable(CONTEXT1, MY_TABLE, props);
+         BufferingTable table = getTable(CONTEXT1, MY_TABLE, props)) {
+      Transaction tx1 = txClient.startShort();
+      writer.startTx(tx1);
+      writer.put(R1, a(C1, C2), a(V1, V2));
+      txClient.canCommitOrThrow(tx1, writer.getTxChanges());
+      Assert.assertTrue(writer.commitTx());
+      txClient.commitOrThrow(tx1);
+      writer.postTxCommit();
+
+      // reads served from the cache should be the same as the ones from persisted store
+      Transaction tx2 = txClient.startShort();
+      table.startTx(tx2);
+      TableAssert.assertRow(a(C1, V1), table.get(R1, a(C1)));
+      TableAssert.assertRow(a(C1, V1, C2, V2), table.get(R1));
+      TableAssert.assertRow(a(C1, V1, C2, V2), table.get(R1, a(C1, C2, C3)));
+      TableAssert.assertRow(a(C2, V2), table.get(R1, C2, null, 10));
+      TableAssert.assertRow(a(C1, V1), table.get(R1, null, null, 1));
+
+      // changing the returned values shouldn't affect the cache
+      table.get(R1, C1)[0]++;
+      table.get(R1).getColumns().clear();
+      TableAssert.assertRow(a(C1, V1, C2, V2), table.get(R1));
+
+      // buffered writes should be visible on top of the cached row, and be gone after rollback
+      table.put(R1, a(C1), a(V3));
+      table.delete(R1, a(C2));
+      TableAssert.assertRow(a(C1, V3), table.get(R1));
+      TableAssert.assertRow(a(C1, V3), table.get(R1, null, null, 10));
+      Assert.assertTrue(table.rollbackTx());
+      txClient.abort(tx2);
+
+      Transaction tx3 = txClient.startShort();
+      table.startTx(tx3);
+      TableAssert.assertRow(a(C1, V1, C2, V2), table.get(R1));
+      txClient.commitOrThrow(tx3);
+      table.postTxCommit();
+
+      // a write committed by another table instance must be visible to the next transaction
+      Transaction tx4 = txClient.startShort();
+      writer.startTx(tx4);
+      writer.put(R1, a(C2), a(V4));
+      txClient.canCommitOrThrow(tx4, writer.getTxChanges());
+      Assert.assertTrue(writer.commitTx());
+      txClient.commitOrThrow(tx4);
+      writer.postTxCommit();
+
+      Transaction tx5 = txClient.startShort();
+      table.startTx(tx5);
+      TableAssert.assertRow(a(C1, V1, C2, V4), table.get(R1));
+      TableAssert.assertRow(a(C2, V4), table.get(R1, a(C2)));
+      txClient.commitOrThrow(tx5);
+      table.postTxCommit();
+
+      // the next transaction reuses the cached rows, since no other transaction committed in between.
+      // truncating bypasses transactions, so the row can only come from the cache
+      Transaction tx6 = txClient.startShort();
+      table.startTx(tx6);
+      admin.truncate();
+      TableAssert.assertRow(a(C1, V1, C2, V4), table.get(R1));
+      TableAssert.assertRow(a(C2, V4), table.get(R1, a(C2)));
+      txClient.commitOrThrow(tx6);
+      table.postTxCommit();
+
+      // once another transaction commits, even to a different row, cached rows are not reused
+      Transaction tx7 = txClient.startShort();
+      writer.startTx(tx7);
+      writer.put(R2, a(C1), a(V1));
+      txClient.canCommitOrThrow(tx7, writer.getTxChanges());
+      Assert.assertTrue(writer.commitTx());
+      txClient.commitOrThrow(tx7);
+      writer.postTxCommit();
+
+      Transaction tx8 = txClient.startShort();
+      table.startTx(tx8);
+      Assert.assertTrue(table.get(R1).isEmpty());
+      TableAssert.assertRow(a(C1, V1), table.get(R2));
+      txClient.commitOrThrow(tx8);
+      table.postTxCommit();
+
+      // a write made by another table instance in the same transaction must be visible to the next transaction
+      Transaction tx9 = txClient.startShort();
+      table.startTx(tx9);
+      writer.startTx(tx9);
+      TableAssert.assertRow(a(C1, V1), table.get(R2));
+      writer.put(R2, a(C1), a(V2));
+      txClient.canCommitOrThrow(tx9, writer.getTxChanges());
+      Assert.assertTrue(table.commitTx());
+      Assert.assertTrue(writer.commitTx());
+      txClient.commitOrThrow(tx9);
+      table.postTxCommit();
+      writer.postTxCommit();
+
+      Transaction tx10 = txClient.startShort();
+      table.startTx(tx10);
+      TableAssert.assertRow(a(C1, V2), table.get(R2));
+      txClient.commitOrThrow(tx10);
+      table.postTxCommit();
+    } finally {
+      admin.drop();
+    }
+  }
+
   private void verify123(BufferingTable table) throws Exception {
     byte[] row = new byte[] {1};
     byte[] col = new byte[] {2};
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.data2.dataset2.lib.table;
+
+import io.cdap.cdap.api.common.Bytes;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unit tests for {@link KeyBuilder}.
+ */
+public class KeyBuilderTest {
+
+  @Test
+  public void testEncoding() {
+    // Start with a small capacity to test buffer growth
+    KeyBuilder builder = new KeyBuilder(1);
+    builder.putByte((byte) 1)
+      .putInt(2)
+      .putLong(3L)
+      .putString("ascii")
+      .putLengthPrefixed("été")
+      .putLengthPrefixed(new byte[] { 4, 5 });
+
+    byte[] expected = Bytes.concat(new byte[] { 1 }, Bytes.toBytes(2), Bytes.toBytes(3L), Bytes.toBytes("ascii"),
+                                   Bytes.toBytes(Bytes.toBytes("été").length),
+                                   Bytes.toBytes("été"), Bytes.toBytes(2), new byte[] { 4, 5 });
+    Assert.assertArrayEquals(expected, builder.toByteArray());
+    Assert.assertEquals(expected.length, builder.length());
+
+    // Truncate back to the first byte
+    builder.truncate(1);
+    Assert.assertArrayEquals(new byte[] { 1 }, builder.toByteArray());
+  }
+
+  @Test
+  public void testVarInt() {
+    KeyBuilder builder = new KeyBuilder();
+    builder.putVarInt(1).putVarInt(300).putVarInt(-1).putVarLong(Long.MAX_VALUE);
+
+    ByteBuffer buffer = builder.asByteBuffer();
+    Assert.assertEquals(1, readVarLong(buffer));
+    Assert.assertEquals(300, readVarLong(buffer));
+    Assert.assertEquals(0xFFFFFFFFL, readVarLong(buffer));
+    Assert.assertEquals(Long.MAX_VALUE, readVarLong(buffer));
+    Assert.assertFalse(buffer.hasRemaining());
+  }
+
+  @Test
+  public void testSlice() {
+    KeyBuilder builder = new KeyBuilder().putString("prefix").putString("suffix");
+    ByteBuffer slice = builder.slice(6, 6);
+    Assert.assertTrue(slice.isReadOnly());
+    Assert.assertEquals("suffix", Bytes.toString(slice));
+
+    try {
+      builder.slice(6, 7);
+      Assert.fail("Expected IndexOutOfBoundsException");
+    } catch (IndexOutOfBoundsException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testLocal() {
+    KeyBuilder builder = KeyBuilder.local().putString("abc");
+    Assert.assertSame(builder, KeyBuilder.local());
+    Assert.assertEquals(0, builder.length());
+  }
+
+  private long readVarLong(ByteBuffer buffer) {
+    long result = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = buffer.get();
+      result |= (long) (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return result;
+  }
+}
@@ -18,10 +18,13 @@
 package io.cdap.cdap.data2.dataset2.lib.table;
 
 import com.google.common.collect.ImmutableList;
+import com.sun.management.ThreadMXBean;
 import io.cdap.cdap.api.common.Bytes;
 import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
 import java.nio.BufferUnderflowException;
 import java.util.List;
 
@@ -175,4 +178,56 @@ public class MDSKeyTest {
     Assert.assertArrayEquals(new byte[]{'z', 'z'}, splitter.getBytes());
     Assert.assertEquals(8L, splitter.getLong());
   }
+
+  @Ignore
+  @Test
+  public void testSpeed() {
+    // Measures the bytes allocated per key, comparing with composing the key with Bytes.add for every part
+    ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    int keys = 1000000;
+    String[] parts = { "namespace", "application", "program", "run-0123456789" };
+
+    for (int round = 0; round < 3; round++) {
+      long startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+      long startTime = System.nanoTime();
+      int total = 0;
+      for (int i = 0; i < keys; i++) {
+        byte[] key = new byte[0];
+        for (String part : parts) {
+          byte[] partBytes = Bytes.toBytes(part);
+          key = Bytes.add(key, Bytes.toBytes(partBytes.length), partBytes);
+        }
+        key = Bytes.add(key, Bytes.toBytes((long) i));
+        total += key.length;
+      }
+      long time = System.nanoTime() - startTime;
+      long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+      System.out.printf("Bytes.add: %d bytes/key, %d ns/key, %d%n", allocated / keys, time / keys, total);
+
+      startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+      startTime = System.nanoTime();
+      total = 0;
+      for (int i = 0; i < keys; i++) {
+        total += new MDSKey.Builder().add(parts).add((long) i).build().getKey().length;
+      }
+      time = System.nanoTime() - startTime;
+      allocated = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+      System.out.printf("MDSKey.Builder: %d bytes/key, %d ns/key, %d%n", allocated / keys, time / keys, total);
+
+      startBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+      startTime = System.nanoTime();
+      total = 0;
+      for (int i = 0; i < keys; i++) {
+        KeyBuilder builder = KeyBuilder.local();
+        for (String part : parts) {
+          builder.putLengthPrefixed(part);
+        }
+        total += builder.putLong(i).toByteArray().length;
+      }
+      time = System.nanoTime() - startTime;
+      allocated = threadMXBean.getThreadAllocatedBytes(threadId) - startBytes;
+      System.out.printf("KeyBuilder.local: %d bytes/key, %d ns/key, %d%n", allocated / keys, time / keys, total);
+    }
+  }
 }
@@ -29,7 +29,9 @@ import io.cdap.cdap.api.dataset.DatasetDefinition;
 import io.cdap.cdap.api.dataset.DatasetProperties;
 import io.cdap.cdap.api.dataset.DatasetSpecification;
 import io.cdap.cdap.api.dataset.lib.IndexedTableDefinition;
+import io.cdap.cdap.api.dataset.table.Row;
 import io.cdap.cdap.api.dataset.table.Scanner;
+import io.cdap.cdap.api.dataset.table.Table;
 import io.cdap.cdap.api.metadata.MetadataEntity;
 import io.cdap.cdap.api.metadata.MetadataScope;
 import io.cdap.cdap.common.BadRequestException;
@@ -1000,6 +1002,46 @@ public class MetadataDatasetTest {
     Assert.assertEquals(expected, new HashSet<>(results.getResults()));
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testSearchReadsIndexTableOnly() throws Exception {
+    MetadataEntity nsApp = new NamespaceId("ns1").app("a").toMetadataEntity();
+    txnl.execute(() -> {
+      dataset.addProperty(nsApp, "owner", "alice");
+      dataset.addTags(nsApp, "tag1");
+    });
+
+    // remove all rows from the data table of the indexed table, leaving only the index table
+    DatasetContext datasetContext = DatasetContext.from(NamespaceId.SYSTEM.getNamespace());
+    DatasetDefinition<Table, ?> tableDefinition = dsFrameworkUtil.getInjector()
+      .getInstance(Key.get(DatasetDefinition.class, Names.named(Constants.Dataset.TABLE_TYPE)));
+    DatasetSpecification dataSpec = spec.getSpecification(MetadataDatasetDefinition.METADATA_INDEX_TABLE_NAME)
+      .getSpecification("d");
+    try (Table dataTable = tableDefinition.getDataset(datasetContext, dataSpec, Collections.emptyMap(), null)) {
+      dsFrameworkUtil.newInMemoryTransactionExecutor((TransactionAware) dataTable).execute(() -> {
+        try (Scanner scanner = dataTable.scan(null, null)) {
+          Row row;
+          while ((row = scanner.next()) != null) {
+            dataTable.delete(row.getRow());
+          }
+        }
+      });
+    }
+    Assert.assertTrue(txnl.execute(() -> dataset.getProperties(nsApp)).isEmpty());
+
+    // search is served by the values stored in the index rows
+    SearchRequest request = new SearchRequest(null, "alice", ALL_TYPES, SortInfo.DEFAULT,
+                                              0, 10, 0, null, false, EnumSet.allOf(EntityScope.class));
+    SearchResults results = txnl.execute(() -> dataset.search(request));
+    Assert.assertEquals(Collections.singletonList(new MetadataEntry(nsApp, "owner", "alice")), results.getResults());
+
+    SearchRequest tagRequest = new SearchRequest(null, "tags:tag*", ALL_TYPES, SortInfo.DEFAULT,
+                                                 0, 10, 0, null, false, EnumSet.allOf(EntityScope.class));
+    results = txnl.execute(() -> dataset.search(tagRequest));
+    Assert.assertEquals(Collections.singletonList(new MetadataEntry(nsApp, MetadataConstants.TAGS_KEY, "tag1")),
+                        results.getResults());
+  }
+
   @Test
   public void testCrossNamespaceSearchPagination() throws Exception {
     ApplicationId ns1app1 = new NamespaceId("ns1").app("a1");
@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.explore.client;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Functions;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -52,6 +53,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -402,9 +404,11 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
   }
 
   /**
-   * Result iterator which polls Explore service using HTTP to get next results.
+   * Result iterator which streams results from Explore service using HTTP. It falls back to polling for the next
+   * results if the Explore service doesn't support streaming results.
    */
-  private static final class ClientExploreExecutionResult extends AbstractIterator<QueryResult>
+  @VisibleForTesting
+  static final class ClientExploreExecutionResult extends AbstractIterator<QueryResult>
     implements ExploreExecutionResult {
     private static final Logger LOG = LoggerFactory.getLogger(ClientExploreExecutionResult.class);
     private static final int DEFAULT_FETCH_SIZE = 100;
@@ -412,6 +416,8 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
     private int fetchSize = DEFAULT_FETCH_SIZE;
     private Iterator<QueryResult> delegate;
     private List<ColumnDesc> resultSchema = null;
+    private QueryResultBatchStream resultStream;
+    private boolean streamUnavailable;
 
     private final ExploreHttpClient exploreClient;
     private final QueryHandle handle;
@@ -438,8 +444,7 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
         return delegate.next();
       }
       try {
-        // call the endpoint 'next' to get more results and set delegate
-        List<QueryResult> nextResults = convertRows(exploreClient.nextResults(handle, fetchSize));
+        List<QueryResult> nextResults = convertRows(fetchNextResults());
         delegate = nextResults.iterator();
 
         // At this point, if delegate has no result, there are no more results at all
@@ -457,6 +462,21 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
       }
     }
 
+    private List<QueryResult> fetchNextResults() throws ExploreException, HandleNotFoundException {
+      if (!streamUnavailable) {
+        if (resultStream == null) {
+          resultStream = exploreClient.streamResults(handle, fetchSize, getResultSchema().size());
+        }
+        if (resultStream != null) {
+          List<QueryResult> batch = resultStream.nextBatch();
+          return batch == null ? Collections.<QueryResult>emptyList() : batch;
+        }
+        streamUnavailable = true;
+      }
+      // call the endpoint 'next' to get more results
+      return exploreClient.nextResults(handle, fetchSize);
+    }
+
     private List<QueryResult> convertRows(List<QueryResult> rows) throws ExploreException {
       List<ColumnDesc> schema = getResultSchema();
       ImmutableList.Builder<QueryResult> builder = ImmutableList.builder();
@@ -480,7 +500,9 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
             } else if (schemaColumn.getType().equals("TINYINT")) {
               columnValue = ((Double) columnValue).byteValue();
             }
-          } else if ("BINARY".equals(columnType)) {
+          } else if (columnValue instanceof byte[]) {
+            // BINARY values read from the binary result stream are already byte arrays
+          } else if ("BINARY".equals(columnType) && columnValue != null) {
             // A BINARY value is a byte array, which is deserialized by GSon into a list of
             // double objects - here we recreate a byte[] object.
             List<Object> binary;
@@ -520,6 +542,9 @@ public abstract class AbstractExploreClient extends ExploreHttpClient implements
 
     @Override
     public void close() throws IOException {
+      if (resultStream != null) {
+        resultStream.close();
+      }
       try {
         exploreClient.close(handle);
       } catch (HandleNotFoundException e) {
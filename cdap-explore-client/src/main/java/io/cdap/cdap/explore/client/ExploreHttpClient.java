@@ -32,6 +32,7 @@ import io.cdap.cdap.api.dataset.lib.PartitionedFileSetArguments;
 import io.cdap.cdap.common.ServiceUnavailableException;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.http.DefaultHttpRequestConfig;
+import io.cdap.cdap.common.security.HttpsEnabler;
 import io.cdap.cdap.explore.service.Explore;
 import io.cdap.cdap.explore.service.ExploreException;
 import io.cdap.cdap.explore.service.HandleNotFoundException;
@@ -39,6 +40,7 @@ import io.cdap.cdap.explore.service.MetaDataInfo;
 import io.cdap.cdap.explore.service.TableNotFoundException;
 import io.cdap.cdap.explore.utils.ColumnsArgs;
 import io.cdap.cdap.explore.utils.FunctionsArgs;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
 import io.cdap.cdap.explore.utils.SchemasArgs;
 import io.cdap.cdap.explore.utils.TablesArgs;
 import io.cdap.cdap.internal.io.SchemaTypeAdapter;
@@ -61,7 +63,10 @@ import io.cdap.common.http.HttpResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
@@ -72,6 +77,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nullable;
+import javax.net.ssl.HttpsURLConnection;
 
 /**
  * The methods of this class call the HTTP APIs exposed by explore and return the raw information
@@ -277,6 +283,60 @@ abstract class ExploreHttpClient implements Explore {
     throw new ExploreException("Cannot get next results. Reason: " + response);
   }
 
+  /**
+   * Opens a stream of the remaining results of the query, in batches of the given size. The Explore service
+   * fetches the next batch while the current one is being consumed.
+   *
+   * @return the stream of results, or {@code null} if the query handle is not found or if the Explore service
+   *         doesn't support streaming results
+   */
+  @Nullable
+  QueryResultBatchStream streamResults(QueryHandle handle, int batchSize,
+                                       int numColumns) throws ExploreException {
+    String resolvedUrl = resolve(String.format("data/explore/queries/%s/%s", handle.getHandle(), "stream"));
+    try {
+      HttpURLConnection urlConn = (HttpURLConnection) new URL(resolvedUrl).openConnection();
+      if (urlConn instanceof HttpsURLConnection && !verifySSLCert()) {
+        new HttpsEnabler().setTrustAll(true).enable((HttpsURLConnection) urlConn);
+      }
+      HttpRequestConfig requestConfig = createRequestConfig();
+      urlConn.setConnectTimeout(requestConfig.getConnectTimeout());
+      urlConn.setReadTimeout(requestConfig.getReadTimeout());
+      urlConn.setRequestMethod("POST");
+      urlConn.setDoOutput(true);
+      Map<String, String> headers = addSecurityHeaders(null);
+      if (headers != null) {
+        headers.forEach(urlConn::setRequestProperty);
+      }
+      try (OutputStream os = urlConn.getOutputStream()) {
+        os.write(GSON.toJson(ImmutableMap.of("size", batchSize)).getBytes(Charsets.UTF_8));
+      }
+
+      int responseCode = urlConn.getResponseCode();
+      if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+        urlConn.disconnect();
+        return null;
+      }
+      if (responseCode != HttpURLConnection.HTTP_OK) {
+        String message = urlConn.getResponseMessage();
+        urlConn.disconnect();
+        throw new ExploreException("Cannot stream results. Reason: " + responseCode + " " + message);
+      }
+
+      DataInputStream input = new DataInputStream(new BufferedInputStream(urlConn.getInputStream()));
+      try {
+        QueryResultBatchCodec.readHeader(input);
+      } catch (IOException e) {
+        input.close();
+        urlConn.disconnect();
+        throw e;
+      }
+      return new QueryResultBatchStream(urlConn, input, numColumns);
+    } catch (IOException e) {
+      throw new ExploreException(String.format("Error connecting to Explore Service at %s", resolvedUrl), e);
+    }
+  }
+
   @Override
   public List<QueryResult> previewResults(QueryHandle handle)
     throws ExploreException, HandleNotFoundException, SQLException {
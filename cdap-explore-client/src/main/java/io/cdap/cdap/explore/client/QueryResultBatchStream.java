@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.client;
+
+import com.google.common.io.Closeables;
+import io.cdap.cdap.explore.service.ExploreException;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
+import io.cdap.cdap.proto.QueryResult;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Reads batches of query results streamed from the Explore service in the format defined by
+ * {@link QueryResultBatchCodec}.
+ */
+final class QueryResultBatchStream implements Closeable {
+
+  private final HttpURLConnection urlConn;
+  private final DataInputStream input;
+  private final int numColumns;
+  private boolean completed;
+
+  QueryResultBatchStream(HttpURLConnection urlConn, DataInputStream input, int numColumns) {
+    this.urlConn = urlConn;
+    this.input = input;
+    this.numColumns = numColumns;
+  }
+
+  /**
+   * Returns the next batch of query results, or {@code null} if there are no more results.
+   */
+  @Nullable
+  List<QueryResult> nextBatch() throws ExploreException {
+    if (completed) {
+      return null;
+    }
+    try {
+      List<QueryResult> batch = QueryResultBatchCodec.readBatch(input, numColumns);
+      if (batch == null) {
+        close();
+      }
+      return batch;
+    } catch (IOException e) {
+      close();
+      throw new ExploreException("Failed to read query results stream", e);
+    }
+  }
+
+  @Override
+  public void close() {
+    completed = true;
+    Closeables.closeQuietly(input);
+    urlConn.disconnect();
+  }
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.utils;
+
+import com.google.gson.Gson;
+import io.cdap.cdap.proto.ColumnDesc;
+import io.cdap.cdap.proto.QueryResult;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.annotation.Nullable;
+
+/**
+ * Codec for the binary columnar format used for streaming query results. The stream starts with a header, followed
+ * by any number of batches and terminated by an end marker or an error marker. Each batch contains the number of
+ * rows, followed by one typed column vector per column. A column vector has an encoding type, a null bitmap and
+ * the non-null values of the column.
+ *
+ * Columns of primitive types are encoded in their native binary form. Other column types, or columns with values
+ * not matching the declared type, are encoded as JSON strings, which decode to the same values as returned by the
+ * JSON based results endpoint.
+ */
+public final class QueryResultBatchCodec {
+
+  public static final String CONTENT_TYPE = "application/x-cdap-query-result-batches";
+
+  private static final Gson GSON = new Gson();
+  private static final int MAGIC = 0x43514252;
+  private static final int VERSION = 1;
+  private static final int END_MARKER = 0;
+  private static final int ERROR_MARKER = -1;
+
+  /**
+   * Encoding type of a column vector.
+   */
+  private enum Encoding {
+    BOOLEAN, BYTE, SHORT, INT, LONG, DOUBLE, STRING, BINARY, JSON;
+
+    private static final Encoding[] VALUES = values();
+  }
+
+  private QueryResultBatchCodec() {
+    // no-op
+  }
+
+  /**
+   * Writes the stream header.
+   */
+  public static void writeHeader(DataOutput output) throws IOException {
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+  }
+
+  /**
+   * Writes one batch of rows. The batch must not be empty.
+   */
+  public static void writeBatch(DataOutput output, List<ColumnDesc> schema, List<QueryResult> rows) throws IOException {
+    if (rows.isEmpty()) {
+      throw new IllegalArgumentException("Cannot write an empty batch of query results");
+    }
+    output.writeInt(rows.size());
+    for (int col = 0; col < schema.size(); col++) {
+      writeColumn(output, schema.get(col), col, rows);
+    }
+  }
+
+  /**
+   * Writes the marker that signals there are no more results.
+   */
+  public static void writeEnd(DataOutput output) throws IOException {
+    output.writeInt(END_MARKER);
+  }
+
+  /**
+   * Writes the marker that signals the results stream failed with the given error message.
+   */
+  public static void writeError(DataOutput output, String message) throws IOException {
+    output.writeInt(ERROR_MARKER);
+    writeString(output, message);
+  }
+
+  /**
+   * Reads and validates the stream header.
+   *
+   * @throws IOException if the header is invalid or failed to read from the input
+   */
+  public static void readHeader(DataInput input) throws IOException {
+    int magic = input.readInt();
+    int version = input.readInt();
+    if (magic != MAGIC) {
+      throw new IOException("Invalid query results stream");
+    }
+    if (version != VERSION) {
+      throw new IOException("Unsupported query results stream version " + version);
+    }
+  }
+
+  /**
+   * Reads the next batch of rows.
+   *
+   * @param input the input to read from
+   * @param numColumns number of columns in the result schema
+   * @return the batch of rows or {@code null} if there are no more results
+   * @throws IOException if failed to read from the input or if the server failed to produce the results
+   */
+  @Nullable
+  public static List<QueryResult> readBatch(DataInput input, int numColumns) throws IOException {
+    int numRows = input.readInt();
+    if (numRows == END_MARKER) {
+      return null;
+    }
+    if (numRows == ERROR_MARKER) {
+      throw new IOException("Failed to stream query results: " + readString(input));
+    }
+    if (numRows < 0) {
+      throw new IOException("Invalid number of rows " + numRows + " in query results stream");
+    }
+
+    Object[][] columns = new Object[numColumns][];
+    for (int col = 0; col < numColumns; col++) {
+      columns[col] = readColumn(input, numRows);
+    }
+
+    List<QueryResult> rows = new ArrayList<>(numRows);
+    for (int row = 0; row < numRows; row++) {
+      List<Object> values = new ArrayList<>(numColumns);
+      for (int col = 0; col < numColumns; col++) {
+        values.add(columns[col][row]);
+      }
+      rows.add(new QueryResult(values));
+    }
+    return rows;
+  }
+
+  private static void writeColumn(DataOutput output, ColumnDesc columnDesc,
+                                  int col, List<QueryResult> rows) throws IOException {
+    Encoding encoding = getEncoding(columnDesc.getType());
+    byte[] nulls = new byte[(rows.size() + 7) / 8];
+    for (int row = 0; row < rows.size(); row++) {
+      Object value = rows.get(row).getColumns().get(col);
+      if (value == null) {
+        nulls[row >> 3] |= 1 << (row & 7);
+      } else if (!isCompatible(encoding, value)) {
+        encoding = Encoding.JSON;
+      }
+    }
+
+    output.writeByte(encoding.ordinal());
+    output.write(nulls);
+    for (QueryResult row : rows) {
+      Object value = row.getColumns().get(col);
+      if (value != null) {
+        writeValue(output, encoding, value);
+      }
+    }
+  }
+
+  private static Object[] readColumn(DataInput input, int numRows) throws IOException {
+    int ordinal = input.readUnsignedByte();
+    if (ordinal >= Encoding.VALUES.length) {
+      throw new IOException("Unsupported column encoding " + ordinal + " in query results stream");
+    }
+    Encoding encoding = Encoding.VALUES[ordinal];
+    byte[] nulls = new byte[(numRows + 7) / 8];
+    input.readFully(nulls);
+
+    Object[] values = new Object[numRows];
+    for (int row = 0; row < numRows; row++) {
+      if ((nulls[row >> 3] & (1 << (row & 7))) == 0) {
+        values[row] = readValue(input, encoding);
+      }
+    }
+    return values;
+  }
+
+  private static Encoding getEncoding(@Nullable String type) {
+    if (type == null) {
+      return Encoding.JSON;
+    }
+    String upperType = type.toUpperCase(Locale.ENGLISH);
+    switch (upperType) {
+      case "BOOLEAN":
+        return Encoding.BOOLEAN;
+      case "TINYINT":
+        return Encoding.BYTE;
+      case "SMALLINT":
+        return Encoding.SHORT;
+      case "INT":
+        return Encoding.INT;
+      case "BIGINT":
+        return Encoding.LONG;
+      case "FLOAT":
+      case "DOUBLE":
+        // Same as the JSON results, which always decodes floating point numbers as double
+        return Encoding.DOUBLE;
+      case "STRING":
+        return Encoding.STRING;
+      case "BINARY":
+        return Encoding.BINARY;
+      default:
+        return upperType.startsWith("VARCHAR") || upperType.startsWith("CHAR") ? Encoding.STRING : Encoding.JSON;
+    }
+  }
+
+  private static boolean isCompatible(Encoding encoding, Object value) {
+    switch (encoding) {
+      case BOOLEAN:
+        return value instanceof Boolean;
+      case BYTE:
+        return value instanceof Byte;
+      case SHORT:
+        return value instanceof Byte || value instanceof Short;
+      case INT:
+        return value instanceof Byte || value instanceof Short || value instanceof Integer;
+      case LONG:
+        return value instanceof Byte || value instanceof Short || value instanceof Integer || value instanceof Long;
+      case DOUBLE:
+        return value instanceof Number;
+      case STRING:
+        return value instanceof String;
+      case BINARY:
+        return value instanceof byte[];
+      default:
+        return true;
+    }
+  }
+
+  private static void writeValue(DataOutput output, Encoding encoding, Object value) throws IOException {
+    switch (encoding) {
+      case BOOLEAN:
+        output.writeBoolean((Boolean) value);
+        break;
+      case BYTE:
+        output.writeByte(((Number) value).byteValue());
+        break;
+      case SHORT:
+        output.writeShort(((Number) value).shortValue());
+        break;
+      case INT:
+        output.writeInt(((Number) value).intValue());
+        break;
+      case LONG:
+        output.writeLong(((Number) value).longValue());
+        break;
+      case DOUBLE:
+        output.writeDouble(((Number) value).doubleValue());
+        break;
+      case STRING:
+        writeString(output, (String) value);
+        break;
+      case BINARY:
+        writeBytes(output, (byte[]) value);
+        break;
+      default:
+        writeString(output, GSON.toJson(value));
+    }
+  }
+
+  private static Object readValue(DataInput input, Encoding encoding) throws IOException {
+    switch (encoding) {
+      case BOOLEAN:
+        return input.readBoolean();
+      case BYTE:
+        return input.readByte();
+      case SHORT:
+        return input.readShort();
+      case INT:
+        return input.readInt();
+      case LONG:
+        return input.readLong();
+      case DOUBLE:
+        return input.readDouble();
+      case STRING:
+        return readString(input);
+      case BINARY:
+        return readBytes(input);
+      default:
+        return GSON.fromJson(readString(input), Object.class);
+    }
+  }
+
+  private static void writeString(DataOutput output, String value) throws IOException {
+    writeBytes(output, value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String readString(DataInput input) throws IOException {
+    return new String(readBytes(input), StandardCharsets.UTF_8);
+  }
+
+  private static void writeBytes(DataOutput output, byte[] value) throws IOException {
+    output.writeInt(value.length);
+    output.write(value);
+  }
+
+  private static byte[] readBytes(DataInput input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      throw new IOException("Invalid value length " + length + " in query results stream");
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return bytes;
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.client;
+
+import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.explore.service.ExploreException;
+import io.cdap.cdap.explore.service.HandleNotFoundException;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
+import io.cdap.cdap.proto.ColumnDesc;
+import io.cdap.cdap.proto.QueryHandle;
+import io.cdap.cdap.proto.QueryResult;
+import io.cdap.cdap.proto.QueryStatus;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for reading streamed results through {@link AbstractExploreClient.ClientExploreExecutionResult}.
+ */
+public class ClientExploreExecutionResultTest {
+
+  private static final List<ColumnDesc> SCHEMA = ImmutableList.of(
+    new ColumnDesc("bin", "BINARY", 1, null),
+    new ColumnDesc("i", "INT", 2, null),
+    new ColumnDesc("str", "STRING", 3, null)
+  );
+
+  @Test
+  public void testStreamedBinaryColumns() throws Exception {
+    List<QueryResult> rows = ImmutableList.of(
+      new QueryResult(Arrays.asList(new byte[] { 1, 2, 3 }, 4, "five")),
+      new QueryResult(Arrays.asList(null, null, null)),
+      new QueryResult(Arrays.asList(new byte[0], -1, "")));
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bos);
+    QueryResultBatchCodec.writeHeader(output);
+    QueryResultBatchCodec.writeBatch(output, SCHEMA, rows);
+    QueryResultBatchCodec.writeEnd(output);
+    output.close();
+
+    QueryHandle handle = QueryHandle.generate();
+    ExploreHttpClient client = new StreamingExploreHttpClient(bos.toByteArray());
+    QueryStatus status = new QueryStatus(QueryStatus.OpStatus.FINISHED, true);
+
+    AbstractExploreClient.ClientExploreExecutionResult result =
+      new AbstractExploreClient.ClientExploreExecutionResult(client, handle, status);
+    try {
+      for (QueryResult expected : rows) {
+        Assert.assertTrue(result.hasNext());
+        List<Object> expectedColumns = expected.getColumns();
+        List<Object> actualColumns = result.next().getColumns();
+        Assert.assertEquals(expectedColumns.size(), actualColumns.size());
+        if (expectedColumns.get(0) == null) {
+          Assert.assertNull(actualColumns.get(0));
+        } else {
+          Assert.assertArrayEquals((byte[]) expectedColumns.get(0), (byte[]) actualColumns.get(0));
+        }
+        Assert.assertEquals(expectedColumns.subList(1, 3), actualColumns.subList(1, 3));
+      }
+      Assert.assertFalse(result.hasNext());
+    } finally {
+      result.close();
+    }
+  }
+
+  /**
+   * An {@link ExploreHttpClient} that serves the result schema and a pre-encoded result stream from memory.
+   */
+  private static final class StreamingExploreHttpClient extends ExploreHttpClient {
+
+    private final byte[] encodedResults;
+
+    StreamingExploreHttpClient(byte[] encodedResults) {
+      this.encodedResults = encodedResults;
+    }
+
+    @Override
+    public List<ColumnDesc> getResultSchema(QueryHandle handle) {
+      return SCHEMA;
+    }
+
+    @Override
+    QueryResultBatchStream streamResults(QueryHandle handle, int batchSize, int numColumns) throws ExploreException {
+      try {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(encodedResults));
+        QueryResultBatchCodec.readHeader(input);
+        return new QueryResultBatchStream(new NoopURLConnection(), input, numColumns);
+      } catch (IOException e) {
+        throw new ExploreException(e);
+      }
+    }
+
+    @Override
+    public List<QueryResult> nextResults(QueryHandle handle, int size) throws ExploreException {
+      throw new ExploreException("Results should be read from the stream");
+    }
+
+    @Override
+    public void close(QueryHandle handle) throws ExploreException, HandleNotFoundException {
+      // no-op
+    }
+
+    @Override
+    protected InetSocketAddress getExploreServiceAddress() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected String getAuthToken() {
+      return null;
+    }
+
+    @Override
+    protected boolean isSSLEnabled() {
+      return false;
+    }
+
+    @Override
+    protected boolean verifySSLCert() {
+      return false;
+    }
+  }
+
+  /**
+   * A {@link HttpURLConnection} that never connects.
+   */
+  private static final class NoopURLConnection extends HttpURLConnection {
+
+    NoopURLConnection() {
+      super(newURL());
+    }
+
+    private static URL newURL() {
+      try {
+        return new URL("http://localhost");
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public void disconnect() {
+      // no-op
+    }
+
+    @Override
+    public boolean usingProxy() {
+      return false;
+    }
+
+    @Override
+    public void connect() {
+      // no-op
+    }
+  }
+}
@@ -25,24 +25,32 @@ import io.cdap.cdap.explore.service.ExploreException;
 import io.cdap.cdap.explore.service.ExploreService;
 import io.cdap.cdap.explore.service.HandleNotFoundException;
 import io.cdap.cdap.explore.service.hive.OperationInfo;
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
 import io.cdap.cdap.proto.ColumnDesc;
 import io.cdap.cdap.proto.QueryHandle;
 import io.cdap.cdap.proto.QueryResult;
 import io.cdap.cdap.proto.QueryStatus;
 import io.cdap.cdap.security.impersonation.ImpersonationUtils;
+import io.cdap.http.HandlerContext;
 import io.cdap.http.HttpResponder;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
@@ -58,12 +66,25 @@ public class ExploreQueryExecutorHttpHandler extends AbstractExploreQueryExecuto
   private static final Gson GSON = new Gson();
 
   private final ExploreService exploreService;
+  private ExecutorService prefetchExecutor;
 
   @Inject
   ExploreQueryExecutorHttpHandler(ExploreService exploreService) {
     this.exploreService = exploreService;
   }
 
+  @Override
+  public void init(HandlerContext context) {
+    super.init(context);
+    prefetchExecutor = Executors.newCachedThreadPool(Threads.createDaemonThreadFactory("explore-results-prefetch-%d"));
+  }
+
+  @Override
+  public void destroy(HandlerContext context) {
+    super.destroy(context);
+    prefetchExecutor.shutdownNow();
+  }
+
   private <T> T doAs(QueryHandle queryHandle,
                      Callable<T> callable) throws HandleNotFoundException, ExploreException, SQLException {
     OperationInfo operationInfo = exploreService.getOperationInfo(queryHandle);
@@ -196,6 +217,40 @@ public class ExploreQueryExecutorHttpHandler extends AbstractExploreQueryExecuto
     }
   }
 
+  @POST
+  @Path("data/explore/queries/{id}/stream")
+  public void streamQueryResults(FullHttpRequest request, HttpResponder responder,
+                                 @PathParam("id") String id) throws IOException, ExploreException {
+    // NOTE: this call is a POST because it is not idempotent: cursor of results is moved
+    try {
+      QueryHandle handle = QueryHandle.fromId(id);
+      List<ColumnDesc> schema;
+      Callable<List<QueryResult>> fetcher;
+      if (handle.equals(QueryHandle.NO_OP)) {
+        schema = Lists.newArrayList();
+        fetcher = Collections::emptyList;
+      } else {
+        Map<String, String> args = decodeArguments(request);
+        int size = args.containsKey("size") ? Integer.valueOf(args.get("size")) : 100;
+        schema = doAs(handle, () -> exploreService.getResultSchema(handle));
+        fetcher = () -> doAs(handle, () -> exploreService.nextResults(handle, size));
+      }
+      responder.sendContent(HttpResponseStatus.OK, new QueryResultBatchesBodyProducer(schema, fetcher,
+                                                                                      prefetchExecutor),
+                            new DefaultHttpHeaders().set(HttpHeaderNames.CONTENT_TYPE,
+                                                         QueryResultBatchCodec.CONTENT_TYPE));
+    } catch (IllegalArgumentException e) {
+      LOG.debug("Got exception:", e);
+      responder.sendString(HttpResponseStatus.BAD_REQUEST, e.getMessage());
+    } catch (SQLException e) {
+      LOG.debug("Got exception:", e);
+      responder.sendString(HttpResponseStatus.BAD_REQUEST,
+                           String.format("[SQLState %s] %s", e.getSQLState(), e.getMessage()));
+    } catch (HandleNotFoundException e) {
+      responder.sendStatus(HttpResponseStatus.NOT_FOUND);
+    }
+  }
+
   @POST
   @Path("data/explore/queries/{id}/preview")
   public void getQueryResultPreview(HttpRequest request, HttpResponder responder,
@@ -0,0 +1,112 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.executor;
+
+import io.cdap.cdap.explore.utils.QueryResultBatchCodec;
+import io.cdap.cdap.proto.ColumnDesc;
+import io.cdap.cdap.proto.QueryResult;
+import io.cdap.http.BodyProducer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataOutputStream;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * BodyProducer used for streaming the results of a Query in the binary columnar format defined by
+ * {@link QueryResultBatchCodec}, one batch per chunk. The next batch is fetched in the background
+ * while the current batch is being sent to the client.
+ */
+final class QueryResultBatchesBodyProducer extends BodyProducer {
+
+  private static final Logger LOG = LoggerFactory.getLogger(QueryResultBatchesBodyProducer.class);
+
+  private final List<ColumnDesc> schema;
+  private final Callable<List<QueryResult>> fetcher;
+  private final ExecutorService executor;
+
+  private Future<List<QueryResult>> nextBatch;
+  private boolean completed;
+
+  QueryResultBatchesBodyProducer(List<ColumnDesc> schema, Callable<List<QueryResult>> fetcher,
+                                 ExecutorService executor) {
+    this.schema = schema;
+    this.fetcher = fetcher;
+    this.executor = executor;
+  }
+
+  @Override
+  public ByteBuf nextChunk() throws Exception {
+    if (completed) {
+      return Unpooled.EMPTY_BUFFER;
+    }
+
+    ByteBuf buffer = Unpooled.buffer();
+    try (DataOutputStream output = new DataOutputStream(new ByteBufOutputStream(buffer))) {
+      if (nextBatch == null) {
+        QueryResultBatchCodec.writeHeader(output);
+        nextBatch = executor.submit(fetcher);
+      }
+
+      List<QueryResult> results;
+      try {
+        results = nextBatch.get();
+      } catch (ExecutionException e) {
+        // The response status has already been sent, hence report the failure in the stream
+        LOG.debug("Failed to fetch query results.", e.getCause());
+        QueryResultBatchCodec.writeError(output, String.valueOf(e.getCause().getMessage()));
+        completed = true;
+        return buffer;
+      }
+
+      if (results.isEmpty()) {
+        QueryResultBatchCodec.writeEnd(output);
+        completed = true;
+        return buffer;
+      }
+
+      // Prefetch the next batch while this one is being sent
+      nextBatch = executor.submit(fetcher);
+      QueryResultBatchCodec.writeBatch(output, schema, results);
+    }
+    return buffer;
+  }
+
+  @Override
+  public void finished() throws Exception {
+    cancelPrefetch();
+  }
+
+  @Override
+  public void handleError(Throwable cause) {
+    LOG.error("Received error while streaming query results.", cause);
+    cancelPrefetch();
+  }
+
+  private void cancelPrefetch() {
+    if (nextBatch != null) {
+      nextBatch.cancel(false);
+    }
+  }
+}
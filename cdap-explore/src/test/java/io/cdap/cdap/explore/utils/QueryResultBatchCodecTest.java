@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.explore.utils;
+
+import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.proto.ColumnDesc;
+import io.cdap.cdap.proto.QueryResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link QueryResultBatchCodec}.
+ */
+public class QueryResultBatchCodecTest {
+
+  private static final List<ColumnDesc> SCHEMA = ImmutableList.of(
+    new ColumnDesc("b", "BOOLEAN", 1, null),
+    new ColumnDesc("t", "TINYINT", 2, null),
+    new ColumnDesc("s", "SMALLINT", 3, null),
+    new ColumnDesc("i", "INT", 4, null),
+    new ColumnDesc("l", "BIGINT", 5, null),
+    new ColumnDesc("d", "DOUBLE", 6, null),
+    new ColumnDesc("str", "STRING", 7, null),
+    new ColumnDesc("bin", "BINARY", 8, null),
+    new ColumnDesc("m", "map<string,int>", 9, null)
+  );
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    List<QueryResult> batch1 = ImmutableList.of(
+      row(true, (byte) 1, (short) 2, 3, Long.MAX_VALUE, 4.5d, "five", new byte[] { 6, 7 }, "{\"a\":1}"),
+      row(null, null, null, null, null, null, null, null, null),
+      row(false, (byte) -1, (short) -2, -3, Long.MIN_VALUE, -4.5d, "", new byte[0], "{}"));
+    List<QueryResult> batch2 = ImmutableList.of(
+      row(true, (byte) 8, (short) 9, 10, 11L, 12.5d, "\u00e9t\u00e9", new byte[] { 13 }, null));
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bos);
+    QueryResultBatchCodec.writeHeader(output);
+    QueryResultBatchCodec.writeBatch(output, SCHEMA, batch1);
+    QueryResultBatchCodec.writeBatch(output, SCHEMA, batch2);
+    QueryResultBatchCodec.writeEnd(output);
+    output.close();
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+    QueryResultBatchCodec.readHeader(input);
+    assertRows(batch1, QueryResultBatchCodec.readBatch(input, SCHEMA.size()));
+    assertRows(batch2, QueryResultBatchCodec.readBatch(input, SCHEMA.size()));
+    Assert.assertNull(QueryResultBatchCodec.readBatch(input, SCHEMA.size()));
+  }
+
+  @Test
+  public void testTypeMismatchFallback() throws IOException {
+    // A value that doesn't match the column type is encoded as JSON, which decodes numbers as double
+    List<ColumnDesc> schema = ImmutableList.of(new ColumnDesc("i", "INT", 1, null));
+    List<QueryResult> rows = ImmutableList.of(row(1), row(Long.MAX_VALUE), row("2"));
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bos);
+    QueryResultBatchCodec.writeHeader(output);
+    QueryResultBatchCodec.writeBatch(output, schema, rows);
+    output.close();
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+    QueryResultBatchCodec.readHeader(input);
+    List<QueryResult> result = QueryResultBatchCodec.readBatch(input, 1);
+    Assert.assertNotNull(result);
+    Assert.assertEquals(1.0d, result.get(0).getColumns().get(0));
+    Assert.assertEquals((double) Long.MAX_VALUE, result.get(1).getColumns().get(0));
+    Assert.assertEquals("2", result.get(2).getColumns().get(0));
+  }
+
+  @Test
+  public void testError() throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream output = new DataOutputStream(bos);
+    QueryResultBatchCodec.writeHeader(output);
+    QueryResultBatchCodec.writeError(output, "Query failed");
+    output.close();
+
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+    QueryResultBatchCodec.readHeader(input);
+    try {
+      QueryResultBatchCodec.readBatch(input, 1);
+      Assert.fail("Expected failure from the error marker");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("Query failed"));
+    }
+  }
+
+  private static QueryResult row(Object... values) {
+    return new QueryResult(Arrays.asList(values));
+  }
+
+  private static void assertRows(List<QueryResult> expected, List<QueryResult> actual) {
+    Assert.assertNotNull(actual);
+    Assert.assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      List<Object> expectedColumns = expected.get(i).getColumns();
+      List<Object> actualColumns = actual.get(i).getColumns();
+      Assert.assertEquals(expectedColumns.size(), actualColumns.size());
+      for (int j = 0; j < expectedColumns.size(); j++) {
+        Object expectedValue = expectedColumns.get(j);
+        Object actualValue = actualColumns.get(j);
+        if (expectedValue instanceof byte[]) {
+          Assert.assertArrayEquals((byte[]) expectedValue, (byte[]) actualValue);
+        } else {
+          Assert.assertEquals(expectedValue, actualValue);
+        }
+      }
+    }
+  }
+}
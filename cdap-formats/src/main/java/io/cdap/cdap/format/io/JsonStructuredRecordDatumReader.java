@@ -52,6 +52,9 @@ public class JsonStructuredRecordDatumReader extends StructuredRecordDatumReader
       .build()
   );
 
+  // created once so that its schema hash is only computed once, instead of for every map being decoded
+  private static final Schema STRING_SCHEMA = Schema.of(Schema.Type.STRING);
+
   private final boolean fieldNameIgnoreCase;
 
   /**
@@ -100,7 +103,7 @@ public class JsonStructuredRecordDatumReader extends StructuredRecordDatumReader
 
   @Override
   protected Map<?, ?> decodeMap(Decoder decoder, Schema keySchema, Schema valueSchema) throws IOException {
-    if (!keySchema.isCompatible(Schema.of(Schema.Type.STRING))) {
+    if (!keySchema.isCompatible(STRING_SCHEMA)) {
       throw new IOException("Complex key type in maps are not supported: " + keySchema);
     }
 
@@ -40,6 +40,9 @@ import java.util.concurrent.TimeUnit;
  * A {@link StructuredRecordDatumWriter} for encoding {@link StructuredRecord} to json.
  */
 public class JsonStructuredRecordDatumWriter extends StructuredRecordDatumWriter {
+  // created once so that its schema hash is only computed once, instead of for every map being encoded
+  private static final Schema STRING_SCHEMA = Schema.of(Schema.Type.STRING);
+
   private final boolean logicalTypeAsString;
 
   public JsonStructuredRecordDatumWriter() {
@@ -76,7 +79,7 @@ public class JsonStructuredRecordDatumWriter extends StructuredRecordDatumWriter
 
   @Override
   protected void encodeMapBegin(Encoder encoder, Schema keySchema, Schema valueSchema, int size) throws IOException {
-    if (!keySchema.isCompatible(Schema.of(Schema.Type.STRING))) {
+    if (!keySchema.isCompatible(STRING_SCHEMA)) {
       throw new IOException("Complex key type not supported: " + keySchema);
     }
     getJsonWriter(encoder).beginObject();
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.format.io;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.cdap.cdap.api.data.schema.Schema;
+import io.cdap.cdap.api.data.schema.SchemaHash;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Information derived from a {@link Schema} that the {@link StructuredRecordDatumWriter} and
+ * {@link StructuredRecordDatumReader} need for every value of that schema. It is computed once per schema and
+ * shared by all the values, and the plans are cached by the schema hash, so that schemas parsed separately for
+ * different records still share the same plan.
+ */
+final class SchemaPlan {
+
+  private static final Cache<SchemaHash, SchemaPlan> PLANS = CacheBuilder.newBuilder().maximumSize(1000).build();
+  private static final Schema.Field[] NO_FIELDS = new Schema.Field[0];
+
+  private final Schema.Field[] fields;
+  private final int[] unionIndices;
+
+  /**
+   * Returns the {@link SchemaPlan} of the given {@link Schema}.
+   */
+  static SchemaPlan of(Schema schema) {
+    try {
+      return PLANS.get(schema.getSchemaHash(), () -> new SchemaPlan(schema));
+    } catch (ExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private SchemaPlan(Schema schema) {
+    List<Schema.Field> fields = schema.getFields();
+    this.fields = fields == null ? NO_FIELDS : fields.toArray(NO_FIELDS);
+
+    // Index of the first schema of each type in the union, by the type ordinal
+    this.unionIndices = new int[Schema.Type.values().length];
+    Arrays.fill(unionIndices, -1);
+    List<Schema> unionSchemas = schema.getUnionSchemas();
+    if (unionSchemas != null) {
+      for (int i = unionSchemas.size() - 1; i >= 0; i--) {
+        unionIndices[unionSchemas.get(i).getType().ordinal()] = i;
+      }
+    }
+  }
+
+  /**
+   * Returns the fields of a record schema in order, or an empty array if the schema is not a record.
+   */
+  Schema.Field[] getFields() {
+    return fields;
+  }
+
+  /**
+   * Returns the index of the first schema of the given type in a union schema, or {@code -1} if there is none.
+   */
+  int getUnionIndex(Schema.Type type) {
+    return unionIndices[type.ordinal()];
+  }
+}
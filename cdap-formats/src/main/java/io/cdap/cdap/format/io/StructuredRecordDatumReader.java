@@ -160,7 +160,7 @@ public class StructuredRecordDatumReader implements DatumReader<StructuredRecord
    */
   protected StructuredRecord decodeRecord(Decoder decoder, Schema schema) throws IOException {
     StructuredRecord.Builder builder = StructuredRecord.builder(schema);
-    for (Schema.Field field : schema.getFields()) {
+    for (Schema.Field field : SchemaPlan.of(schema).getFields()) {
       builder.set(field.getName(), decode(decoder, field.getSchema()));
     }
     return builder.build();
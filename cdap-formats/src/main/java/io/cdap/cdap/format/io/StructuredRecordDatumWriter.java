@@ -309,7 +309,7 @@ public class StructuredRecordDatumWriter implements DatumWriter<StructuredRecord
     }
 
     encodeRecordBegin(encoder, recordSchema);
-    for (Schema.Field field : recordSchema.getFields()) {
+    for (Schema.Field field : SchemaPlan.of(recordSchema).getFields()) {
       encodeRecordField(encoder, field, ((StructuredRecord) record).get(field.getName()));
     }
     encodeRecordEnd(encoder, recordSchema);
@@ -318,13 +318,10 @@ public class StructuredRecordDatumWriter implements DatumWriter<StructuredRecord
   private int findUnionSchema(Schema unionSchema, @Nullable Object value) throws IOException {
     Schema.Type type = getSchemaType(value);
 
-    int idx = 0;
-    for (Schema schema : unionSchema.getUnionSchemas()) {
-      // Just match the type, not matching the detail schema as it'd be too expensive.
-      if (schema.getType() == type) {
-        return idx;
-      }
-      idx++;
+    // Just match the type, not matching the detail schema as it'd be too expensive.
+    int idx = SchemaPlan.of(unionSchema).getUnionIndex(type);
+    if (idx >= 0) {
+      return idx;
     }
     throw new IOException("Value type " + type + " not valid in union: " + unionSchema);
   }
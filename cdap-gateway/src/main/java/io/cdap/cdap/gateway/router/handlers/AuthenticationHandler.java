@@ -21,6 +21,7 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import io.cdap.cdap.common.conf.CConfiguration;
+import io.cdap.cdap.common.conf.ConfigurationSnapshot;
 import io.cdap.cdap.common.conf.Constants;
 import io.cdap.cdap.common.conf.SConfiguration;
 import io.cdap.cdap.common.logging.AuditLogEntry;
@@ -122,7 +123,7 @@ public class AuthenticationHandler extends ChannelInboundHandlerAdapter {
       Credential credential = getUserCredential(userIdentityPair);
 
       // For backwards compatibility, we continue propagating credentials by default. This may change in the future.
-      if (cConf.getBoolean(Constants.Security.Authentication.PROPAGATE_USER_CREDENTIAL, true) &&
+      if (cConf.getSnapshot().getBoolean(Constants.Security.Authentication.PROPAGATE_USER_CREDENTIAL, true) &&
         credential != null) {
         request.headers().set(Constants.Security.Headers.RUNTIME_TOKEN,
                               String.format("%s %s", credential.getType().getQualifiedName(), credential.getValue()));
@@ -195,8 +196,9 @@ public class AuthenticationHandler extends ChannelInboundHandlerAdapter {
     }
 
     // Use service discovery to get URLs of the auth servers
-    final String protocol = getProtocol(cConf);
-    final int port = getPort(cConf);
+    ConfigurationSnapshot snapshot = cConf.getSnapshot();
+    final String protocol = getProtocol(snapshot);
+    final int port = getPort(snapshot);
 
     ServiceDiscovered serviceDiscovered = discoveryServiceClient.discover(Constants.Service.EXTERNAL_AUTHENTICATION);
     addAuthServerUrls(serviceDiscovered, protocol, port, result);
@@ -236,7 +238,7 @@ public class AuthenticationHandler extends ChannelInboundHandlerAdapter {
   private Credential getUserCredential(UserIdentityPair userIdentityPair) throws CipherException {
     String userCredential = userIdentityPair.getUserCredential();
     if (userCredential == null ||
-      !sConf.getBoolean(Constants.Security.Authentication.USER_CREDENTIAL_ENCRYPTION_ENABLED, false)) {
+      !sConf.getSnapshot().getBoolean(Constants.Security.Authentication.USER_CREDENTIAL_ENCRYPTION_ENABLED, false)) {
       return new Credential(userCredential, Credential.CredentialType.EXTERNAL);
     }
     String encryptedCredential = new TinkCipher(sConf).encryptStringToBase64(userCredential, null);
@@ -286,11 +288,11 @@ public class AuthenticationHandler extends ChannelInboundHandlerAdapter {
     return Collections.unmodifiableList(urls);
   }
 
-  private static String getProtocol(CConfiguration cConf) {
+  private static String getProtocol(ConfigurationSnapshot cConf) {
     return cConf.getBoolean(Constants.Security.SSL.EXTERNAL_ENABLED) ? "https" : "http";
   }
 
-  private static int getPort(CConfiguration cConf) {
+  private static int getPort(ConfigurationSnapshot cConf) {
     return cConf.getBoolean(Constants.Security.SSL.EXTERNAL_ENABLED)
       ? cConf.getInt(Constants.Security.AuthenticationServer.SSL_PORT)
       : cConf.getInt(Constants.Security.AUTH_SERVER_BIND_PORT);
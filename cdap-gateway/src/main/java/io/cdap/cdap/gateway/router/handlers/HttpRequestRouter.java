@@ -320,8 +320,8 @@ public class HttpRequestRouter extends ChannelDuplexHandler {
             if (sslHandler != null) {
               pipeline.addLast("ssl", sslHandler);
             }
-            pipeline.addLast("idle-state-handler",
-                             new IdleStateHandler(0, 0, cConf.getInt(Constants.Router.CONNECTION_TIMEOUT_SECS)));
+            int idleTimeout = cConf.getSnapshot().getInt(Constants.Router.CONNECTION_TIMEOUT_SECS);
+            pipeline.addLast("idle-state-handler", new IdleStateHandler(0, 0, idleTimeout));
             pipeline.addLast("codec", new HttpClientCodec());
             pipeline.addLast("forwarder", new OutboundHandler(inboundChannel));
           }
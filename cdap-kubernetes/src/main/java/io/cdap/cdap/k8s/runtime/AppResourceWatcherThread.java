@@ -21,7 +21,9 @@ import io.cdap.cdap.k8s.common.ResourceChangeListener;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.ApiException;
 import io.kubernetes.client.openapi.apis.AppsV1Api;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1Deployment;
+import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1StatefulSet;
 import io.kubernetes.client.util.Config;
 import okhttp3.Call;
@@ -66,6 +68,19 @@ abstract class AppResourceWatcherThread<T> extends AbstractWatcherThread<T> {
     };
   }
 
+  /**
+   * Creates a {@link AppResourceWatcherThread} for watching {@link V1Pod} events.
+   */
+  static AppResourceWatcherThread<V1Pod> createPodWatcher(String namespace, String selector) {
+    return new AppResourceWatcherThread<V1Pod>("kube-pod-watch", namespace, selector) {
+      @Override
+      protected Call createCall(String namespace, @Nullable String labelSelector) throws IOException, ApiException {
+        return new CoreV1Api(getApiClient()).listNamespacedPodCall(namespace, null, null, null, null, labelSelector,
+                                                                   null, null, null, null, true, null);
+      }
+    };
+  }
+
   private final String selector;
   private final Queue<ResourceChangeListener<T>> listeners;
   private volatile AppsV1Api appsApi;
@@ -217,12 +217,6 @@ public class KubeTwillContext implements ExtendedTwillContext, Closeable {
                                                   CompletableFuture<AtomicInteger> replicasFuture) throws IOException {
     List<V1OwnerReference> ownerReferences = podInfo.getOwnerReferences();
 
-    // This shouldn't happen, but just return to protect against failure
-    if (ownerReferences.isEmpty()) {
-      replicasFuture.complete(new AtomicInteger());
-      return () -> { };
-    }
-
     // Find the ReplicaSet, Deployment, or StatefulSet owner
     Set<String> supportedKind = ImmutableSet.of("ReplicaSet", "Deployment", "StatefulSet");
     V1OwnerReference ownerRef = ownerReferences.stream()
@@ -230,9 +224,9 @@ public class KubeTwillContext implements ExtendedTwillContext, Closeable {
       .findFirst()
       .orElse(null);
 
-    // If can't find any, which shouldn't happen, just return
+    // If can't find any, the pod is a standalone pod claimed from the warm pod pool, which is the only instance
     if (ownerRef == null) {
-      replicasFuture.complete(new AtomicInteger());
+      replicasFuture.complete(new AtomicInteger(1));
       return () -> { };
     }
 
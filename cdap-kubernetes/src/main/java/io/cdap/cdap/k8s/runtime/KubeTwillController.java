@@ -25,6 +25,7 @@ import io.kubernetes.client.openapi.apis.CoreV1Api;
 import io.kubernetes.client.openapi.models.V1DeleteOptions;
 import io.kubernetes.client.openapi.models.V1Deployment;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1Preconditions;
 import io.kubernetes.client.openapi.models.V1StatefulSet;
 import io.kubernetes.client.openapi.models.V1Status;
@@ -82,6 +83,13 @@ class KubeTwillController implements ExtendedTwillController {
     this.meta = meta;
   }
 
+  /**
+   * Returns the type of the Kubernetes resource controlled by this controller.
+   */
+  Type getResourceType() {
+    return resourceType;
+  }
+
   @Override
   public void addLogHandler(LogHandler handler) {
     // no-op
@@ -391,6 +399,9 @@ class KubeTwillController implements ExtendedTwillController {
     if (V1StatefulSet.class.equals(resourceType)) {
       return deleteStatefulSet();
     }
+    if (V1Pod.class.equals(resourceType)) {
+      return deletePod();
+    }
     // This shouldn't happen
     throw new UnsupportedOperationException("Cannot delete resource of type " + resourceType);
   }
@@ -432,6 +443,43 @@ class KubeTwillController implements ExtendedTwillController {
     return resultFuture;
   }
 
+  /**
+   * Deletes the pod controlled by this controller asynchronously.
+   *
+   * @return a {@link CompletionStage} that will complete when the delete operation completed
+   */
+  private CompletionStage<String> deletePod() {
+    LOG.debug("Deleting Pod {}", meta.getName());
+
+    CoreV1Api coreApi = new CoreV1Api(apiClient);
+
+    // callback for the delete pod call
+    CompletableFuture<String> resultFuture = new CompletableFuture<>();
+    try {
+      String name = meta.getName();
+      coreApi.deleteNamespacedPodAsync(name, kubeNamespace, null, null, null, null, null,
+                                       new V1DeleteOptions(), new ApiCallbackAdapter<V1Pod>() {
+          @Override
+          public void onFailure(ApiException e, int statusCode, Map<String, List<String>> responseHeaders) {
+            // Ignore the failure if the pod is already deleted
+            if (statusCode == 404) {
+              resultFuture.complete(name);
+            } else {
+              completeExceptionally(resultFuture, e);
+            }
+          }
+
+          @Override
+          public void onSuccess(V1Pod pod, int statusCode, Map<String, List<String>> responseHeaders) {
+            resultFuture.complete(name);
+          }
+        });
+    } catch (ApiException e) {
+      completeExceptionally(resultFuture, e);
+    }
+    return resultFuture;
+  }
+
   /**
    * Deletes the stateful set controlled by this controller asynchronously.
 
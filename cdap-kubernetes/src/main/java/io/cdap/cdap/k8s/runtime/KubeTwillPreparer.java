@@ -42,12 +42,14 @@ import io.kubernetes.client.openapi.models.V1DownwardAPIVolumeFile;
 import io.kubernetes.client.openapi.models.V1DownwardAPIVolumeSource;
 import io.kubernetes.client.openapi.models.V1EmptyDirVolumeSource;
 import io.kubernetes.client.openapi.models.V1EnvVar;
+import io.kubernetes.client.openapi.models.V1HostPathVolumeSource;
 import io.kubernetes.client.openapi.models.V1LabelSelector;
 import io.kubernetes.client.openapi.models.V1ObjectFieldSelector;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
 import io.kubernetes.client.openapi.models.V1ObjectMetaBuilder;
 import io.kubernetes.client.openapi.models.V1PersistentVolumeClaim;
 import io.kubernetes.client.openapi.models.V1PersistentVolumeClaimBuilder;
+import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1PodSpec;
 import io.kubernetes.client.openapi.models.V1PodSpecBuilder;
 import io.kubernetes.client.openapi.models.V1ResourceRequirements;
@@ -111,6 +113,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.jar.JarEntry;
 import java.util.jar.JarOutputStream;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * Kubernetes version of a TwillRunner.
@@ -122,6 +125,9 @@ import java.util.stream.Collectors;
  * Most of these operations are no-ops as many of these methods and pretty closely coupled to the Hadoop implementation
  * and have no analogy in Kubernetes.
  * <p>
+ * If a {@link WarmPodPool} is provided, a single runnable application is started in a pre-started pod claimed
+ * from the pool if possible, instead of creating a new deployment.
+ * <p>
  * If {@link TwillSpecification} contains multiple {@link TwillRunnable}, the first runnable will be treated as the
  * main container, and the rest will be treated as sidecar containers.
  * TODO (CDAP-18058): This assumption needs to be changed by using {@link TwillSpecification.PlacementPolicy}.
@@ -131,6 +137,10 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
 
   private static final String CPU_MULTIPLIER = "master.environment.k8s.container.cpu.multiplier";
   private static final String MEMORY_MULTIPLIER = "master.environment.k8s.container.memory.multiplier";
+  private static final String CLASS_DATA_SHARING_DIR = "master.environment.k8s.container.class.data.sharing.dir";
+  private static final String CLASS_DATA_SHARING_HOST_PATH =
+    "master.environment.k8s.container.class.data.sharing.host.path";
+  private static final String CLASS_DATA_SHARING_VOLUME = "cds";
   private static final String DEFAULT_MULTIPLIER = "1.0";
 
   private final MasterEnvironmentContext masterEnvContext;
@@ -152,6 +162,7 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
   private final Map<String, SecretDiskRunnable> secretDiskRunnables;
   private final Map<String, V1SecurityContext> containerSecurityContexts;
   private final Map<String, Set<String>> readonlyDisks;
+  private final WarmPodPool warmPodPool;
 
   private String schedulerQueue;
   private String mainRunnableName;
@@ -161,7 +172,7 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
   KubeTwillPreparer(MasterEnvironmentContext masterEnvContext, ApiClient apiClient, String kubeNamespace,
                     PodInfo podInfo, TwillSpecification spec, RunId twillRunId, Location appLocation,
                     String resourcePrefix, Map<String, String> extraLabels,
-                    KubeTwillControllerFactory controllerFactory) {
+                    KubeTwillControllerFactory controllerFactory, @Nullable WarmPodPool warmPodPool) {
     this.masterEnvContext = masterEnvContext;
     this.apiClient = apiClient;
     this.kubeNamespace = kubeNamespace;
@@ -183,6 +194,7 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
     this.secretDiskRunnables = new HashMap<>();
     this.containerSecurityContexts = new HashMap<>();
     this.readonlyDisks = new HashMap<>();
+    this.warmPodPool = warmPodPool;
   }
 
   @Override
@@ -510,6 +522,14 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
 
       V1ObjectMeta metadata = createResourceMetadata(resourceType, mainRuntimeSpec.getName(),
                                                      timeoutUnit.toMillis(timeout));
+
+      // Run in a pre-started pod from the warm pod pool if possible
+      V1ObjectMeta podMetadata = claimWarmPod(metadata, twillSpec.getRunnables(), runtimeConfigLocation,
+                                              statefulRunnable);
+      if (podMetadata != null) {
+        return controllerFactory.create(V1Pod.class, podMetadata, timeout, timeoutUnit);
+      }
+
       if (V1Deployment.class.equals(resourceType)) {
         metadata = createDeployment(metadata, twillSpec.getRunnables(),
                                     runtimeConfigLocation);
@@ -529,6 +549,34 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
     }
   }
 
+  /**
+   * Claims a pod from the {@link WarmPodPool} for running the given runnables. Only a single runnable with one
+   * instance, without any pod or container customization, can run in a pod from the pool.
+   *
+   * @return the metadata of the claimed pod or {@code null} if no pod was claimed
+   */
+  @Nullable
+  private V1ObjectMeta claimWarmPod(V1ObjectMeta metadata, Map<String, RuntimeSpecification> runtimeSpecs,
+                                    Location runtimeConfigLocation, @Nullable StatefulRunnable statefulRunnable) {
+    if (warmPodPool == null || statefulRunnable != null || runtimeSpecs.size() > 1
+      || schedulerQueue != null || serviceAccountName != null) {
+      return null;
+    }
+
+    RuntimeSpecification runtimeSpec = getMainRuntimeSpecification(runtimeSpecs);
+    String runnableName = runtimeSpec.getName();
+    if (runtimeSpec.getResourceSpecification().getInstances() != 1
+      || secretDiskRunnables.containsKey(runnableName)
+      || containerSecurityContexts.containsKey(runnableName)
+      || readonlyDisks.containsKey(runnableName)) {
+      return null;
+    }
+
+    return warmPodPool.claim(createResourceRequirements(runtimeSpec.getResourceSpecification()),
+                             environments.get(runnableName), metadata,
+                             runtimeConfigLocation.toURI().toString(), runnableName);
+  }
+
   /**
    * Creates a {@link V1ObjectMeta} for the given resource type.
    */
@@ -665,7 +713,7 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
   /**
    * Calculates the max heap size for a given total RAM size based on configurations
    */
-  private int computeMaxHeapSize(V1ResourceRequirements resourceRequirements) {
+  private static int computeMaxHeapSize(Map<String, String> cConf, V1ResourceRequirements resourceRequirements) {
     // Gets the memory from either the requests or the limits
     Quantity memory = Optional.ofNullable(resourceRequirements.getRequests())
       .map(m -> m.get("memory"))
@@ -676,7 +724,6 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
     }
     int memoryMB = (int) (memory.getNumber().longValue() >> 20);
 
-    Map<String, String> cConf = masterEnvContext.getConfigurations();
     int reservedMemoryMB = Integer.parseInt(cConf.get(Configs.Keys.JAVA_RESERVED_MEMORY_MB));
     double minHeapRatio = Double.parseDouble(cConf.get(Configs.Keys.HEAP_RESERVED_MIN_RATIO));
     return org.apache.twill.internal.utils.Resources.computeMaxHeapSize(memoryMB, reservedMemoryMB, minHeapRatio);
@@ -824,6 +871,12 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
     volumeMounts.add(new V1VolumeMount().name("workdir").mountPath(workDir));
     volumeMounts.addAll(Arrays.asList(extraMounts));
 
+    // Add the class data sharing archive directory if it is on the node
+    List<V1Volume> cdsVolumes = createClassDataSharingVolumes(masterEnvContext.getConfigurations());
+    if (!cdsVolumes.isEmpty()) {
+      volumeMounts.add(createClassDataSharingVolumeMount(masterEnvContext.getConfigurations()));
+    }
+
     // Add secret disks as secret volume mounts
     List<V1Volume> secretVolumes = new ArrayList<>();
     if (secretDiskRunnables.containsKey(runnableName)) {
@@ -855,6 +908,7 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
       .withRuntimeClassName(podInfo.getRuntimeClassName())
       .addAllToVolumes(podInfo.getVolumes())
       .addAllToVolumes(secretVolumes)
+      .addAllToVolumes(cdsVolumes)
       .addToVolumes(podInfoVolume,
                     new V1Volume().name("workdir").emptyDir(new V1EmptyDirVolumeSource()))
       .withInitContainers(createContainer("file-localizer", podInfo.getContainerImage(),
@@ -910,14 +964,8 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
                                       List<V1VolumeMount> volumeMounts,
                                       Map<String, String> environments,
                                       Class<? extends MasterEnvironmentRunnable> runnableClass, String... args) {
-    Map<String, String> environs = new HashMap<>(environments);
-
-    // Set the environments for controlling the working directory
-    environs.put("CDAP_LOCAL_DIR", workDir);
-    environs.put("CDAP_TEMP_DIR", "tmp");
-
-    // Set the process memory is through the JAVA_HEAPMAX variable.
-    environs.put("JAVA_HEAPMAX", String.format("-Xmx%dm", computeMaxHeapSize(resourceRequirements)));
+    Map<String, String> environs = createContainerEnvironments(masterEnvContext.getConfigurations(), environments,
+                                                               workDir, resourceRequirements);
     List<V1EnvVar> containerEnvironments = environs.entrySet().stream()
       .map(e -> new V1EnvVar().name(e.getKey()).value(e.getValue()))
       .collect(Collectors.toList());
@@ -955,11 +1003,42 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
       .build();
   }
 
+  /**
+   * Creates the environments of a container that runs in the given working directory with the given resources.
+   */
+  static Map<String, String> createContainerEnvironments(Map<String, String> cConf, Map<String, String> environments,
+                                                         String workDir, V1ResourceRequirements resourceRequirements) {
+    Map<String, String> environs = new HashMap<>(environments);
+
+    // Set the environments for controlling the working directory
+    environs.put("CDAP_LOCAL_DIR", workDir);
+    environs.put("CDAP_TEMP_DIR", "tmp");
+
+    // Set the process memory is through the JAVA_HEAPMAX variable.
+    environs.put("JAVA_HEAPMAX", String.format("-Xmx%dm", computeMaxHeapSize(cConf, resourceRequirements)));
+
+    // Use class data sharing archives under the given directory if configured. The archive is selected or
+    // created by the container launch script based on the container classpath.
+    String cdsDir = cConf.get(CLASS_DATA_SHARING_DIR);
+    if (cdsDir != null && !cdsDir.trim().isEmpty()) {
+      environs.put("CDAP_CDS_DIR", cdsDir.trim());
+    }
+    return environs;
+  }
+
   /**
    * Creates a {@link V1ResourceRequirements} based on the given {@link ResourceSpecification}.
    */
   private V1ResourceRequirements createResourceRequirements(ResourceSpecification resourceSpec) {
-    Map<String, String> cConf = masterEnvContext.getConfigurations();
+    return createResourceRequirements(masterEnvContext.getConfigurations(), resourceSpec);
+  }
+
+  /**
+   * Creates a {@link V1ResourceRequirements} based on the given {@link ResourceSpecification} and the container
+   * resource multipliers in the given configurations.
+   */
+  static V1ResourceRequirements createResourceRequirements(Map<String, String> cConf,
+                                                           ResourceSpecification resourceSpec) {
     float cpuMultiplier = Float.parseFloat(cConf.getOrDefault(CPU_MULTIPLIER, DEFAULT_MULTIPLIER));
     float memoryMultiplier = Float.parseFloat(cConf.getOrDefault(MEMORY_MULTIPLIER, DEFAULT_MULTIPLIER));
     int cpuToRequest = (int) (resourceSpec.getVirtualCores() * 1000 * cpuMultiplier);
@@ -971,10 +1050,37 @@ class KubeTwillPreparer implements DependentTwillPreparer, StatefulTwillPreparer
       .build();
   }
 
+  /**
+   * Creates the {@link V1Volume} for the class data sharing archive directory. If a host path is configured, the
+   * directory is a host path volume, so that an archive created by a container on exit is used by later containers
+   * on the same node. Otherwise, no volume is needed, and archives can only be used if they are already in the
+   * image, for example created at image build time.
+   *
+   * @return a list with the volume, or an empty list if no volume is needed
+   */
+  static List<V1Volume> createClassDataSharingVolumes(Map<String, String> cConf) {
+    String cdsDir = cConf.get(CLASS_DATA_SHARING_DIR);
+    String hostPath = cConf.get(CLASS_DATA_SHARING_HOST_PATH);
+    if (cdsDir == null || cdsDir.trim().isEmpty() || hostPath == null || hostPath.trim().isEmpty()) {
+      return Collections.emptyList();
+    }
+    return Collections.singletonList(
+      new V1Volume()
+        .name(CLASS_DATA_SHARING_VOLUME)
+        .hostPath(new V1HostPathVolumeSource().path(hostPath.trim()).type("DirectoryOrCreate")));
+  }
+
+  /**
+   * Creates the {@link V1VolumeMount} for the volume returned by {@link #createClassDataSharingVolumes(Map)}.
+   */
+  static V1VolumeMount createClassDataSharingVolumeMount(Map<String, String> cConf) {
+    return new V1VolumeMount().name(CLASS_DATA_SHARING_VOLUME).mountPath(cConf.get(CLASS_DATA_SHARING_DIR).trim());
+  }
+
   /**
    * Creates a {@link V1Volume} for localizing pod information via downward API.
    */
-  private V1Volume createPodInfoVolume(PodInfo podInfo) {
+  static V1Volume createPodInfoVolume(PodInfo podInfo) {
     return new V1Volume()
       .name("pod-info")
       .downwardAPI(
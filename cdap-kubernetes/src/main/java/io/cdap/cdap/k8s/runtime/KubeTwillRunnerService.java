@@ -26,6 +26,8 @@ import io.kubernetes.client.common.KubernetesObject;
 import io.kubernetes.client.openapi.ApiClient;
 import io.kubernetes.client.openapi.models.V1Deployment;
 import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodStatus;
 import io.kubernetes.client.openapi.models.V1StatefulSet;
 import io.kubernetes.client.util.Config;
 import org.apache.twill.api.ResourceSpecification;
@@ -91,7 +93,7 @@ public class KubeTwillRunnerService implements TwillRunnerService {
   private static final Logger LOG = LoggerFactory.getLogger(KubeTwillRunnerService.class);
 
   static final String APP_LABEL = "cdap.twill.app";
-  private static final String RUN_ID_LABEL = "cdap.twill.run.id";
+  static final String RUN_ID_LABEL = "cdap.twill.run.id";
   private static final String RUNNER_LABEL = "cdap.twill.runner";
   private static final String RUNNER_LABEL_VAL = "k8s";
 
@@ -104,24 +106,29 @@ public class KubeTwillRunnerService implements TwillRunnerService {
   private final Map<Type, AppResourceWatcherThread<?>> resourceWatchers;
   private final Map<String, KubeLiveInfo> liveInfos;
   private final Lock liveInfoLock;
+  private final WarmPodPool warmPodPool;
   private ScheduledExecutorService monitorScheduler;
   private ApiClient apiClient;
 
   public KubeTwillRunnerService(MasterEnvironmentContext masterEnvContext,
                                 String kubeNamespace, DiscoveryServiceClient discoveryServiceClient,
-                                PodInfo podInfo, String resourcePrefix, Map<String, String> extraLabels) {
+                                PodInfo podInfo, String resourcePrefix, Map<String, String> extraLabels,
+                                @Nullable WarmPodPool warmPodPool) {
     this.masterEnvContext = masterEnvContext;
     this.kubeNamespace = kubeNamespace;
     this.podInfo = podInfo;
     this.resourcePrefix = resourcePrefix;
     this.discoveryServiceClient = discoveryServiceClient;
     this.extraLabels = Collections.unmodifiableMap(new HashMap<>(extraLabels));
+    this.warmPodPool = warmPodPool;
 
     // Selects all runs start by the k8s twill runner that has the run id label
     String selector = String.format("%s=%s,%s", RUNNER_LABEL, RUNNER_LABEL_VAL, RUN_ID_LABEL);
     this.resourceWatchers = ImmutableMap.of(
       V1Deployment.class, AppResourceWatcherThread.createDeploymentWatcher(kubeNamespace, selector),
-      V1StatefulSet.class, AppResourceWatcherThread.createStatefulSetWatcher(kubeNamespace, selector)
+      V1StatefulSet.class, AppResourceWatcherThread.createStatefulSetWatcher(kubeNamespace, selector),
+      // Only watch for pods claimed from the warm pod pool. Other pods are managed by deployments or stateful sets.
+      V1Pod.class, AppResourceWatcherThread.createPodWatcher(kubeNamespace, selector + "," + WarmPodPool.POOL_LABEL)
     );
     this.liveInfos = new ConcurrentSkipListMap<>();
     this.liveInfoLock = new ReentrantLock();
@@ -160,7 +167,7 @@ public class KubeTwillRunnerService implements TwillRunnerService {
       } finally {
         liveInfoLock.unlock();
       }
-    });
+    }, warmPodPool);
   }
 
   @Nullable
@@ -204,6 +211,9 @@ public class KubeTwillRunnerService implements TwillRunnerService {
         watcher.addListener(new AppResourceChangeListener<>());
         watcher.start();
       });
+      if (warmPodPool != null) {
+        warmPodPool.start(apiClient);
+      }
     } catch (IOException e) {
       throw new IllegalStateException("Unable to get Kubernetes API Client", e);
     }
@@ -211,6 +221,9 @@ public class KubeTwillRunnerService implements TwillRunnerService {
 
   @Override
   public void stop() {
+    if (warmPodPool != null) {
+      warmPodPool.stop();
+    }
     resourceWatchers.values().forEach(AbstractWatcherThread::close);
     monitorScheduler.shutdownNow();
   }
@@ -353,6 +366,12 @@ public class KubeTwillRunnerService implements TwillRunnerService {
    * Checks if number of requested replicas is the same as the number of ready replicas in the given resource.
    */
   private boolean isAllReplicasReady(Object resource) {
+    if (resource instanceof V1Pod) {
+      // A pod claimed from the warm pod pool is ready when all of its containers are ready
+      V1PodStatus status = ((V1Pod) resource).getStatus();
+      return status != null && "Running".equals(status.getPhase()) && status.getContainerStatuses() != null
+        && status.getContainerStatuses().stream().allMatch(s -> Boolean.TRUE.equals(s.getReady()));
+    }
     try {
       Method getStatus = resource.getClass().getDeclaredMethod("getStatus");
       Object statusObj = getStatus.invoke(resource);
@@ -502,8 +521,10 @@ public class KubeTwillRunnerService implements TwillRunnerService {
       if (existing != null) {
         return existing;
       }
-      // If it is newly added controller, monitor it.
-      return monitorController(this, timeout, timeoutUnit, controller, resourceWatchers.get(resourceType));
+      // If it is newly added controller, monitor it. Runs of the same application can be of different resource
+      // types, e.g. some of them run in pods from the warm pod pool, hence use the resource type of the controller.
+      return monitorController(this, timeout, timeoutUnit, controller,
+                               resourceWatchers.get(controller.getResourceType()));
     }
 
     /**
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.k8s.runtime;
+
+import io.cdap.cdap.k8s.common.AbstractWatcherThread;
+import io.cdap.cdap.master.environment.k8s.KubeMasterEnvironment;
+import io.cdap.cdap.master.environment.k8s.PodInfo;
+import io.cdap.cdap.master.spi.environment.MasterEnvironment;
+import io.cdap.cdap.master.spi.environment.MasterEnvironmentRunnable;
+import io.cdap.cdap.master.spi.environment.MasterEnvironmentRunnableContext;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.util.Config;
+import okhttp3.Call;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link MasterEnvironmentRunnable} that runs in a pod of the {@link WarmPodPool}. It waits for the pod to be
+ * claimed by a program run, then localizes the files with the {@link FileLocalizer} and runs the program with the
+ * {@link KubeTwillLauncher} in the current process.
+ */
+public class WarmPodLauncher implements MasterEnvironmentRunnable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmPodLauncher.class);
+
+  private final MasterEnvironmentRunnableContext context;
+  private final KubeMasterEnvironment masterEnv;
+  private final CompletableFuture<Map<String, String>> claimed;
+
+  private volatile boolean stopped;
+  private volatile MasterEnvironmentRunnable runnable;
+
+  public WarmPodLauncher(MasterEnvironmentRunnableContext context, MasterEnvironment masterEnv) {
+    this.context = context;
+    if (!(masterEnv instanceof KubeMasterEnvironment)) {
+      // This shouldn't happen
+      throw new IllegalArgumentException("Expected a KubeMasterEnvironment");
+    }
+    this.masterEnv = (KubeMasterEnvironment) masterEnv;
+    this.claimed = new CompletableFuture<>();
+  }
+
+  @Override
+  public void run(String[] args) throws Exception {
+    PodInfo podInfo = masterEnv.getPodInfo();
+    Map<String, String> annotations = waitForClaim(podInfo);
+    if (annotations == null) {
+      LOG.info("Pod {} stopped before being claimed", podInfo.getName());
+      return;
+    }
+
+    String runtimeConfigURI = annotations.get(WarmPodPool.RUNTIME_CONFIG_ANNOTATION);
+    String runnableName = annotations.get(WarmPodPool.RUNNABLE_ANNOTATION);
+    LOG.info("Pod {} claimed for running {}", podInfo.getName(), runnableName);
+
+    // The claim changed the labels of the pod, which the program runtime relies on
+    masterEnv.reloadPodInfo();
+
+    run(new FileLocalizer(context, masterEnv), runtimeConfigURI, runnableName);
+    if (!stopped) {
+      run(new KubeTwillLauncher(context, masterEnv), runnableName);
+    }
+  }
+
+  @Override
+  public void stop() {
+    stopped = true;
+    // Unblock the wait for claim
+    claimed.complete(null);
+    MasterEnvironmentRunnable runnable = this.runnable;
+    if (runnable != null) {
+      runnable.stop();
+    }
+  }
+
+  private void run(MasterEnvironmentRunnable runnable, String... args) throws Exception {
+    this.runnable = runnable;
+    // Check again to make sure the stop call before setting the runnable field is not missed
+    if (stopped) {
+      runnable.stop();
+    }
+    runnable.run(args);
+  }
+
+  /**
+   * Watches the pod until the pod is claimed.
+   *
+   * @return the annotations of the claimed pod or {@code null} if this launcher was stopped
+   */
+  @Nullable
+  private Map<String, String> waitForClaim(PodInfo podInfo) throws Exception {
+    ApiClient client = Config.defaultClient();
+    // Set a reasonable timeout for the watch.
+    client.setReadTimeout((int) TimeUnit.MINUTES.toMillis(5));
+
+    CoreV1Api api = new CoreV1Api(client);
+    String fieldSelector = "metadata.name=" + podInfo.getName();
+
+    // Watch for the runtime config annotation being added to the pod
+    AbstractWatcherThread<V1Pod> watcherThread = new AbstractWatcherThread<V1Pod>("warm-pod-claim-watch",
+                                                                                   podInfo.getNamespace()) {
+      @Override
+      protected Call createCall(String namespace, @Nullable String labelSelector) throws ApiException {
+        return api.listNamespacedPodCall(namespace, null, null, null, fieldSelector, labelSelector,
+                                         null, null, null, null, true, null);
+      }
+
+      @Override
+      protected ApiClient getApiClient() {
+        return client;
+      }
+
+      @Override
+      public void resourceAdded(V1Pod pod) {
+        resourceModified(pod);
+      }
+
+      @Override
+      public void resourceModified(V1Pod pod) {
+        Map<String, String> annotations = pod.getMetadata().getAnnotations();
+        if (annotations != null && annotations.containsKey(WarmPodPool.RUNTIME_CONFIG_ANNOTATION)) {
+          claimed.complete(annotations);
+        }
+      }
+    };
+
+    watcherThread.setDaemon(true);
+    watcherThread.start();
+    try {
+      return claimed.get();
+    } finally {
+      watcherThread.close();
+    }
+  }
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.k8s.runtime;
+
+import io.cdap.cdap.master.environment.k8s.PodInfo;
+import io.cdap.cdap.master.spi.environment.MasterEnvironmentContext;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1Container;
+import io.kubernetes.client.openapi.models.V1ContainerBuilder;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1EmptyDirVolumeSource;
+import io.kubernetes.client.openapi.models.V1EnvVar;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodBuilder;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+import io.kubernetes.client.openapi.models.V1ResourceRequirements;
+import io.kubernetes.client.openapi.models.V1Volume;
+import io.kubernetes.client.openapi.models.V1VolumeMount;
+import org.apache.twill.api.ResourceSpecification;
+import org.apache.twill.common.Threads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+
+/**
+ * A pool of pre-started generic pods for running {@link org.apache.twill.api.TwillRunnable} without paying for the pod
+ * scheduling and the JVM startup on every program run. Each pod in the pool runs the {@link WarmPodLauncher}, which
+ * waits for the pod to be claimed. A pod is claimed by adding the run labels and the runtime config annotations to it,
+ * after which the {@link WarmPodLauncher} localizes the files and starts the runnable in place.
+ *
+ * The pool is refilled in the background to the configured size. Pods that are not claimed within the TTL are deleted.
+ *
+ * Pods in the pool are owned by a ConfigMap of the same name as the pool through a non-controller owner reference,
+ * so that they are garbage collected together with the CDAP instance, without being mistaken for replicas of the
+ * controller of the current pod.
+ */
+public final class WarmPodPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WarmPodPool.class);
+
+  static final String POOL_LABEL = "cdap.twill.warm.pool";
+  static final String RUNTIME_CONFIG_ANNOTATION = "cdap.twill.warm.pod.runtime.config";
+  static final String RUNNABLE_ANNOTATION = "cdap.twill.warm.pod.runnable";
+  private static final String CREATION_TIME_ANNOTATION = "cdap.twill.warm.pod.creation.time.millis";
+
+  private static final String WORK_DIR = "/workDir-warm";
+  private static final long REFILL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+
+  // Environments that only affect how the container process is launched, hence doesn't need to match for a
+  // program run to use a pod from the pool.
+  private static final Set<String> LAUNCH_ENVIRONMENTS = Collections.singleton("CDAP_LOG_DIR");
+
+  private final MasterEnvironmentContext masterEnvContext;
+  private final String kubeNamespace;
+  private final PodInfo podInfo;
+  private final String poolName;
+  private final Map<String, String> extraLabels;
+  private final int size;
+  private final long ttlMillis;
+  private final V1ResourceRequirements resourceRequirements;
+  private final Map<String, String> environments;
+  private final Queue<String> availablePods;
+  private final Object refillLock;
+  private volatile CoreV1Api coreApi;
+  private volatile V1OwnerReference poolOwner;
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * Creates a new instance.
+   *
+   * @param masterEnvContext the {@link MasterEnvironmentContext} of the current process
+   * @param kubeNamespace the Kubernetes namespace for the pods in the pool
+   * @param podInfo the {@link PodInfo} of the current pod, which the pods in the pool inherit from
+   * @param resourcePrefix the prefix for the names of the pods in the pool
+   * @param extraLabels extra labels to add to the pods in the pool
+   * @param size the number of pods to keep in the pool
+   * @param ttlMillis the time in milliseconds that an unclaimed pod stays in the pool
+   * @param resourceSpec the resources of each pod in the pool
+   */
+  public WarmPodPool(MasterEnvironmentContext masterEnvContext, String kubeNamespace, PodInfo podInfo,
+                     String resourcePrefix, Map<String, String> extraLabels, int size, long ttlMillis,
+                     ResourceSpecification resourceSpec) {
+    this.masterEnvContext = masterEnvContext;
+    this.kubeNamespace = kubeNamespace;
+    this.podInfo = podInfo;
+    this.poolName = resourcePrefix + "warm";
+    this.extraLabels = Collections.unmodifiableMap(new HashMap<>(extraLabels));
+    this.size = size;
+    this.ttlMillis = ttlMillis;
+    this.resourceRequirements = KubeTwillPreparer.createResourceRequirements(masterEnvContext.getConfigurations(),
+                                                                            resourceSpec);
+    this.environments = KubeTwillPreparer.createContainerEnvironments(
+      masterEnvContext.getConfigurations(),
+      podInfo.getContainerEnvironments().stream().collect(Collectors.toMap(V1EnvVar::getName, V1EnvVar::getValue)),
+      WORK_DIR, resourceRequirements);
+    this.availablePods = new ConcurrentLinkedQueue<>();
+    this.refillLock = new Object();
+  }
+
+  /**
+   * Starts refilling the pool in the background.
+   */
+  void start(ApiClient apiClient) {
+    start(new CoreV1Api(apiClient));
+  }
+
+  /**
+   * Starts refilling the pool in the background using the given {@link CoreV1Api}.
+   */
+  synchronized void start(CoreV1Api coreApi) {
+    this.coreApi = coreApi;
+    scheduler = Executors.newSingleThreadScheduledExecutor(Threads.createDaemonThreadFactory("kube-warm-pod-pool"));
+    scheduler.scheduleWithFixedDelay(this::refill, 0L, REFILL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    LOG.info("Started warm pod pool {} with size {} and TTL {} ms", poolName, size, ttlMillis);
+  }
+
+  /**
+   * Stops refilling the pool. Pods in the pool are left running so that they can be used after restart.
+   * Pods that are not used will be deleted after the TTL expired.
+   */
+  synchronized void stop() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Claims a pod from the pool for running the given runnable.
+   *
+   * @param resourceRequirements the resource requirements of the runnable
+   * @param runnableEnvironments the extra environments of the runnable
+   * @param metadata the metadata for the program run, which contains the labels and annotations to add to the pod
+   * @param runtimeConfigURI the URI of the runtime config jar for the program run
+   * @param runnableName the name of the runnable to run
+   * @return the metadata of the claimed pod or {@code null} if no pod from the pool can be used
+   */
+  @Nullable
+  V1ObjectMeta claim(V1ResourceRequirements resourceRequirements, Map<String, String> runnableEnvironments,
+                     V1ObjectMeta metadata, String runtimeConfigURI, String runnableName) {
+    CoreV1Api api = coreApi;
+    if (api == null || !isCompatible(resourceRequirements, runnableEnvironments)) {
+      return null;
+    }
+
+    try {
+      String podName = availablePods.poll();
+      while (podName != null) {
+        try {
+          V1Pod pod = api.readNamespacedPod(podName, kubeNamespace, null, null, null);
+          if (isAvailable(pod)) {
+            V1ObjectMeta podMeta = pod.getMetadata();
+            Map<String, String> labels = metadata.getLabels();
+            Map<String, String> annotations = metadata.getAnnotations();
+            if (labels != null) {
+              labels.forEach(podMeta::putLabelsItem);
+            }
+            if (annotations != null) {
+              annotations.forEach(podMeta::putAnnotationsItem);
+            }
+            podMeta.putAnnotationsItem(RUNTIME_CONFIG_ANNOTATION, runtimeConfigURI);
+            podMeta.putAnnotationsItem(RUNNABLE_ANNOTATION, runnableName);
+
+            // The replace call carries the resource version of the pod read above,
+            // hence it fails if the pod was modified, e.g. claimed, in between.
+            pod = api.replaceNamespacedPod(podName, kubeNamespace, pod, null, null, null);
+            LOG.info("Claimed pod {} from warm pod pool {} for running {}", podName, poolName, metadata.getName());
+            return pod.getMetadata();
+          }
+        } catch (ApiException e) {
+          LOG.debug("Failed to claim pod {} from warm pod pool {}, code={}, body={}",
+                    podName, poolName, e.getCode(), e.getResponseBody(), e);
+        }
+        podName = availablePods.poll();
+      }
+      LOG.debug("No pod available in warm pod pool {}", poolName);
+      return null;
+    } finally {
+      // Refill the pool right away instead of waiting for the next scheduled refill
+      triggerRefill();
+    }
+  }
+
+  /**
+   * Returns {@code true} if a program run with the given resource requirements and environments can run in a pod
+   * from this pool.
+   */
+  private boolean isCompatible(V1ResourceRequirements resourceRequirements, Map<String, String> runnableEnvironments) {
+    if (!this.resourceRequirements.equals(resourceRequirements)) {
+      return false;
+    }
+    return runnableEnvironments.entrySet().stream()
+      .filter(e -> !LAUNCH_ENVIRONMENTS.contains(e.getKey()))
+      .allMatch(e -> Objects.equals(e.getValue(), environments.get(e.getKey())));
+  }
+
+  private synchronized void triggerRefill() {
+    if (scheduler != null && !scheduler.isShutdown()) {
+      scheduler.execute(this::refill);
+    }
+  }
+
+  /**
+   * Deletes expired or terminated pods from the pool and creates new pods to fill the pool to its size.
+   */
+  void refill() {
+    synchronized (refillLock) {
+      doRefill();
+    }
+  }
+
+  private void doRefill() {
+    CoreV1Api api = coreApi;
+    try {
+      // Selects all unclaimed pods in the pool
+      String selector = String.format("%s=%s,!%s", POOL_LABEL, poolName, KubeTwillRunnerService.RUN_ID_LABEL);
+      List<V1Pod> pods = api.listNamespacedPod(kubeNamespace, null, null, null, null, selector,
+                                               null, null, null, null, null).getItems();
+      long now = System.currentTimeMillis();
+      Set<String> readyPods = new HashSet<>();
+      int count = 0;
+
+      for (V1Pod pod : pods) {
+        V1ObjectMeta meta = pod.getMetadata();
+        if (meta == null || meta.getDeletionTimestamp() != null) {
+          continue;
+        }
+        if (isExpired(pod, now) || isTerminated(pod)) {
+          deletePod(api, meta.getName());
+          continue;
+        }
+        count++;
+        if (isAvailable(pod)) {
+          readyPods.add(meta.getName());
+        }
+      }
+
+      availablePods.retainAll(readyPods);
+      readyPods.removeAll(new HashSet<>(availablePods));
+      availablePods.addAll(readyPods);
+
+      V1OwnerReference owner = count < size ? getPoolOwner(api) : null;
+      for (int i = count; i < size; i++) {
+        V1Pod pod = api.createNamespacedPod(kubeNamespace, createPod(now, owner), null, null, null);
+        LOG.debug("Created pod {} for warm pod pool {}", pod.getMetadata().getName(), poolName);
+      }
+    } catch (ApiException e) {
+      LOG.warn("Failed to refill warm pod pool {}, code={}, body={}", poolName, e.getCode(), e.getResponseBody(), e);
+    } catch (Exception e) {
+      LOG.warn("Failed to refill warm pod pool {}", poolName, e);
+    }
+  }
+
+  /**
+   * Returns the {@link V1OwnerReference} for the pods in the pool. The owner is a ConfigMap named after the pool,
+   * which is created if it doesn't exist. The ConfigMap inherits the owner references of the current pod, so that it
+   * is deleted, together with the pods in the pool, when the CDAP instance is deleted.
+   */
+  private V1OwnerReference getPoolOwner(CoreV1Api api) throws ApiException {
+    V1OwnerReference owner = poolOwner;
+    if (owner != null) {
+      return owner;
+    }
+
+    V1ConfigMap configMap;
+    try {
+      configMap = api.readNamespacedConfigMap(poolName, kubeNamespace, null, null, null);
+    } catch (ApiException e) {
+      if (e.getCode() != 404) {
+        throw e;
+      }
+      V1ConfigMap newConfigMap = new V1ConfigMap()
+        .metadata(new V1ObjectMeta()
+                    .name(poolName)
+                    .ownerReferences(podInfo.getOwnerReferences())
+                    .labels(new HashMap<>(extraLabels))
+                    .putLabelsItem(POOL_LABEL, poolName));
+      try {
+        configMap = api.createNamespacedConfigMap(kubeNamespace, newConfigMap, null, null, null);
+      } catch (ApiException ce) {
+        // Another process created the ConfigMap in between
+        if (ce.getCode() != 409) {
+          throw ce;
+        }
+        configMap = api.readNamespacedConfigMap(poolName, kubeNamespace, null, null, null);
+      }
+    }
+
+    // Not a controller, so that a claimed pod is not treated as part of any replicated resource
+    owner = new V1OwnerReference()
+      .apiVersion("v1")
+      .kind("ConfigMap")
+      .name(poolName)
+      .uid(configMap.getMetadata().getUid())
+      .controller(false)
+      .blockOwnerDeletion(false);
+    poolOwner = owner;
+    return owner;
+  }
+
+  private void deletePod(CoreV1Api api, String podName) {
+    try {
+      api.deleteNamespacedPod(podName, kubeNamespace, null, null, null, null, null, null);
+      LOG.debug("Deleted pod {} from warm pod pool {}", podName, poolName);
+    } catch (ApiException e) {
+      // Ignore the failure if the pod is already deleted
+      if (e.getCode() != 404) {
+        LOG.warn("Failed to delete pod {} from warm pod pool {}, code={}, body={}",
+                 podName, poolName, e.getCode(), e.getResponseBody(), e);
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if the given pod is unclaimed, running and ready.
+   */
+  private boolean isAvailable(V1Pod pod) {
+    V1ObjectMeta meta = pod.getMetadata();
+    if (meta == null || meta.getDeletionTimestamp() != null
+      || (meta.getLabels() != null && meta.getLabels().containsKey(KubeTwillRunnerService.RUN_ID_LABEL))) {
+      return false;
+    }
+    V1PodStatus status = pod.getStatus();
+    if (status == null || !"Running".equals(status.getPhase())) {
+      return false;
+    }
+    List<V1ContainerStatus> containerStatuses = status.getContainerStatuses();
+    return containerStatuses != null && containerStatuses.stream().allMatch(s -> Boolean.TRUE.equals(s.getReady()));
+  }
+
+  private boolean isExpired(V1Pod pod, long now) {
+    Map<String, String> annotations = pod.getMetadata().getAnnotations();
+    String creationTime = annotations == null ? null : annotations.get(CREATION_TIME_ANNOTATION);
+    try {
+      return creationTime == null || now - Long.parseLong(creationTime) >= ttlMillis;
+    } catch (NumberFormatException e) {
+      return true;
+    }
+  }
+
+  private boolean isTerminated(V1Pod pod) {
+    V1PodStatus status = pod.getStatus();
+    return status != null && ("Succeeded".equals(status.getPhase()) || "Failed".equals(status.getPhase()));
+  }
+
+  /**
+   * Creates a {@link V1Pod} for the pool.
+   */
+  private V1Pod createPod(long creationTime, V1OwnerReference owner) {
+    V1Volume podInfoVolume = KubeTwillPreparer.createPodInfoVolume(podInfo);
+
+    List<V1VolumeMount> volumeMounts = new ArrayList<>(podInfo.getContainerVolumeMounts());
+    volumeMounts.add(new V1VolumeMount().name(podInfoVolume.getName())
+                       .mountPath(podInfo.getPodInfoDir()).readOnly(true));
+    volumeMounts.add(new V1VolumeMount().name("workdir").mountPath(WORK_DIR));
+    Map<String, String> cConf = masterEnvContext.getConfigurations();
+    List<V1Volume> cdsVolumes = KubeTwillPreparer.createClassDataSharingVolumes(cConf);
+    if (!cdsVolumes.isEmpty()) {
+      volumeMounts.add(KubeTwillPreparer.createClassDataSharingVolumeMount(cConf));
+    }
+
+    V1Container container = new V1ContainerBuilder()
+      .withName("warm-pod")
+      .withImage(podInfo.getContainerImage())
+      .withWorkingDir(WORK_DIR)
+      .withResources(resourceRequirements)
+      .withImagePullPolicy(podInfo.getImagePullPolicy())
+      .addAllToVolumeMounts(volumeMounts)
+      .addAllToEnv(environments.entrySet().stream()
+                     .map(e -> new V1EnvVar().name(e.getKey()).value(e.getValue()))
+                     .collect(Collectors.toList()))
+      .addToArgs(masterEnvContext.getRunnableArguments(WarmPodLauncher.class))
+      .build();
+
+    return new V1PodBuilder()
+      .withNewMetadata()
+        .withGenerateName(poolName + "-")
+        .withOwnerReferences(owner)
+        .addToLabels(extraLabels)
+        .addToLabels(POOL_LABEL, poolName)
+        .addToAnnotations(CREATION_TIME_ANNOTATION, Long.toString(creationTime))
+      .endMetadata()
+      .withNewSpec()
+        .withServiceAccountName(podInfo.getServiceAccountName())
+        .withRuntimeClassName(podInfo.getRuntimeClassName())
+        .addAllToVolumes(podInfo.getVolumes())
+        .addAllToVolumes(cdsVolumes)
+        .addToVolumes(podInfoVolume, new V1Volume().name("workdir").emptyDir(new V1EmptyDirVolumeSource()))
+        .addToContainers(container)
+        .withSecurityContext(podInfo.getSecurityContext())
+        // The pod is deleted by the KubeTwillController after the program completed, hence never restart it
+        .withRestartPolicy("Never")
+      .endSpec()
+      .build();
+  }
+}
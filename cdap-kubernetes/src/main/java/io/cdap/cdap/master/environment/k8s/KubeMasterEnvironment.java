@@ -20,6 +20,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableSet;
 import io.cdap.cdap.k8s.discovery.KubeDiscoveryService;
 import io.cdap.cdap.k8s.runtime.KubeTwillRunnerService;
+import io.cdap.cdap.k8s.runtime.WarmPodPool;
 import io.cdap.cdap.master.spi.environment.MasterEnvironment;
 import io.cdap.cdap.master.spi.environment.MasterEnvironmentContext;
 import io.cdap.cdap.master.spi.environment.MasterEnvironmentRunnable;
@@ -34,6 +35,7 @@ import io.kubernetes.client.openapi.models.V1Pod;
 import io.kubernetes.client.openapi.models.V1Volume;
 import io.kubernetes.client.openapi.models.V1VolumeMount;
 import io.kubernetes.client.util.Config;
+import org.apache.twill.api.ResourceSpecification;
 import org.apache.twill.api.TwillRunnerService;
 import org.apache.twill.discovery.DiscoveryService;
 import org.apache.twill.discovery.DiscoveryServiceClient;
@@ -83,6 +85,10 @@ public class KubeMasterEnvironment implements MasterEnvironment {
   private static final String POD_LABELS_FILE = "master.environment.k8s.pod.labels.file";
   private static final String POD_KILLER_SELECTOR = "master.environment.k8s.pod.killer.selector";
   private static final String POD_KILLER_DELAY_MILLIS = "master.environment.k8s.pod.killer.delay.millis";
+  private static final String WARM_POOL_SIZE = "master.environment.k8s.warm.pool.size";
+  private static final String WARM_POOL_TTL_MILLIS = "master.environment.k8s.warm.pool.ttl.millis";
+  private static final String WARM_POOL_CPUS = "master.environment.k8s.warm.pool.cpus";
+  private static final String WARM_POOL_MEMORY_MB = "master.environment.k8s.warm.pool.memory.mb";
 
   private static final String DEFAULT_NAMESPACE = "default";
   private static final String DEFAULT_INSTANCE_LABEL = "cdap.instance";
@@ -92,19 +98,24 @@ public class KubeMasterEnvironment implements MasterEnvironment {
   private static final String DEFAULT_POD_UID_FILE = "pod.uid";
   private static final String DEFAULT_POD_LABELS_FILE = "pod.labels.properties";
   private static final long DEFAULT_POD_KILLER_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1L);
+  private static final long DEFAULT_WARM_POOL_TTL_MILLIS = TimeUnit.MINUTES.toMillis(30L);
+  private static final long DEFAULT_WARM_POOL_CPUS = 1L;
+  private static final long DEFAULT_WARM_POOL_MEMORY_MB = 512L;
 
   private static final Pattern LABEL_PATTERN = Pattern.compile("(cdap\\..+?)=\"(.*)\"");
 
   private KubeDiscoveryService discoveryService;
   private PodKillerTask podKillerTask;
   private KubeTwillRunnerService twillRunner;
-  private PodInfo podInfo;
+  private Map<String, String> conf;
+  private volatile PodInfo podInfo;
 
   @Override
   public void initialize(MasterEnvironmentContext context) throws IOException, ApiException {
     LOG.info("Initializing Kubernetes environment");
 
     Map<String, String> conf = context.getConfigurations();
+    this.conf = conf;
     // We don't support scaling from inside pod. Scaling should be done via CDAP operator.
     // Currently we don't support more than one instance per system service, hence set it to "1".
     conf.put(MASTER_MAX_INSTANCES, "1");
@@ -153,9 +164,25 @@ public class KubeMasterEnvironment implements MasterEnvironment {
                namespace, podKillerSelector, delayMillis);
     }
 
+    // Optionally creates the pool of pre-started pods for running programs
+    WarmPodPool warmPodPool = null;
+    int warmPoolSize = (int) getPositiveLong(conf, WARM_POOL_SIZE, 0L);
+    if (warmPoolSize > 0) {
+      ResourceSpecification resourceSpec = ResourceSpecification.Builder.with()
+        .setVirtualCores((int) getPositiveLong(conf, WARM_POOL_CPUS, DEFAULT_WARM_POOL_CPUS))
+        .setMemory((int) getPositiveLong(conf, WARM_POOL_MEMORY_MB, DEFAULT_WARM_POOL_MEMORY_MB),
+                   ResourceSpecification.SizeUnit.MEGA)
+        .setInstances(1)
+        .build();
+      warmPodPool = new WarmPodPool(context, namespace, podInfo, resourcePrefix,
+                                    Collections.singletonMap(instanceLabel, instanceName), warmPoolSize,
+                                    getPositiveLong(conf, WARM_POOL_TTL_MILLIS, DEFAULT_WARM_POOL_TTL_MILLIS),
+                                    resourceSpec);
+    }
+
     twillRunner = new KubeTwillRunnerService(context, namespace, discoveryService,
                                              podInfo, resourcePrefix,
-                                             Collections.singletonMap(instanceLabel, instanceName));
+                                             Collections.singletonMap(instanceLabel, instanceName), warmPodPool);
     LOG.info("Kubernetes environment initialized with pod labels {}", podLabels);
   }
 
@@ -207,6 +234,17 @@ public class KubeMasterEnvironment implements MasterEnvironment {
     return podInfo;
   }
 
+  /**
+   * Reloads the {@link PodInfo} of the current pod from the Kubernetes API server. This is needed when the pod
+   * metadata changed after the environment was initialized, e.g. when a pod from the warm pod pool is claimed.
+   */
+  public void reloadPodInfo() throws IOException, ApiException {
+    if (conf == null) {
+      throw new IllegalStateException("This environment is not yet initialized");
+    }
+    podInfo = createPodInfo(conf);
+  }
+
   private PodInfo createPodInfo(Map<String, String> conf) throws IOException, ApiException {
     String namespace = conf.getOrDefault(NAMESPACE_KEY, DEFAULT_NAMESPACE);
 
@@ -245,6 +283,17 @@ public class KubeMasterEnvironment implements MasterEnvironment {
     CoreV1Api api = new CoreV1Api(Config.defaultClient());
     V1Pod pod = api.readNamespacedPod(podName, namespace, null, null, null);
     List<V1OwnerReference> ownerReferences = pod.getMetadata().getOwnerReferences();
+    if (ownerReferences == null) {
+      ownerReferences = Collections.emptyList();
+    }
+
+    // The labels file is updated asynchronously after the pod labels changed, hence take the labels from the pod
+    Map<String, String> labels = pod.getMetadata().getLabels();
+    if (labels != null) {
+      labels.entrySet().stream()
+        .filter(e -> e.getKey().startsWith("cdap."))
+        .forEach(e -> podLabels.put(e.getKey(), e.getValue()));
+    }
 
     // Find the container that is having this CDAP process running inside (because a pod can have multiple containers).
     // If there is no such label, default to the first container.
@@ -281,6 +330,27 @@ public class KubeMasterEnvironment implements MasterEnvironment {
                        container.getImagePullPolicy());
   }
 
+  /**
+   * Returns the positive long value of the given configuration or the default value if it is not set or invalid.
+   */
+  private static long getPositiveLong(Map<String, String> conf, String key, long defaultValue) {
+    String value = conf.get(key);
+    if (Strings.isNullOrEmpty(value)) {
+      return defaultValue;
+    }
+    try {
+      long result = Long.parseLong(value);
+      if (result > 0) {
+        return result;
+      }
+    } catch (NumberFormatException e) {
+      // Fall through to log and return the default
+    }
+    LOG.warn("Invalid value for configuration {}. Expected a positive integer, but get {}. Defaulting to {}",
+             key, value, defaultValue);
+    return defaultValue;
+  }
+
   /**
    * Returns {@code true} if the given volume name is prefixed with the custom volume mapping from the CRD.
    */
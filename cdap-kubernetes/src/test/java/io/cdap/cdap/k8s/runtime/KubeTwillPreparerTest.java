@@ -59,7 +59,7 @@ public class KubeTwillPreparerTest {
 
     KubeTwillPreparer preparer = new KubeTwillPreparer(null, null, "default",
                                                        null, twillSpecification, null, null,
-                                                       null, null, null);
+                                                       null, null, null, null);
 
     // test catching main runnable depends on itself
     try {
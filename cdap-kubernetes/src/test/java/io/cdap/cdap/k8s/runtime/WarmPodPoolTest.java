@@ -0,0 +1,305 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.k8s.runtime;
+
+import io.cdap.cdap.master.environment.k8s.PodInfo;
+import io.cdap.cdap.master.spi.environment.MasterEnvironmentContext;
+import io.cdap.cdap.master.spi.environment.MasterEnvironmentRunnable;
+import io.kubernetes.client.openapi.ApiException;
+import io.kubernetes.client.openapi.apis.CoreV1Api;
+import io.kubernetes.client.openapi.models.V1ConfigMap;
+import io.kubernetes.client.openapi.models.V1ContainerStatus;
+import io.kubernetes.client.openapi.models.V1DeleteOptions;
+import io.kubernetes.client.openapi.models.V1ObjectMeta;
+import io.kubernetes.client.openapi.models.V1OwnerReference;
+import io.kubernetes.client.openapi.models.V1Pod;
+import io.kubernetes.client.openapi.models.V1PodList;
+import io.kubernetes.client.openapi.models.V1PodStatus;
+import io.kubernetes.client.openapi.models.V1ResourceRequirements;
+import org.apache.twill.api.Configs;
+import org.apache.twill.api.ResourceSpecification;
+import org.apache.twill.filesystem.LocationFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link WarmPodPool} using an in-memory {@link CoreV1Api}.
+ */
+public class WarmPodPoolTest {
+
+  private static final Map<String, String> CONFIGS = createConfigs();
+  private static final ResourceSpecification RESOURCE_SPEC = ResourceSpecification.Builder.with()
+    .setVirtualCores(1)
+    .setMemory(512, ResourceSpecification.SizeUnit.MEGA)
+    .setInstances(1)
+    .build();
+  private static final V1OwnerReference MASTER_OWNER = new V1OwnerReference()
+    .apiVersion("apps/v1").kind("StatefulSet").name("cdap-test-master").uid("master-uid").controller(true);
+
+  @Test
+  public void testClaim() throws Exception {
+    InMemoryCoreV1Api api = new InMemoryCoreV1Api();
+    WarmPodPool pool = createPool(2, TimeUnit.HOURS.toMillis(1));
+    pool.start(api);
+    try {
+      pool.refill();
+      Assert.assertEquals(2, api.getPods(false).size());
+
+      // Pods should be owned by the pool ConfigMap through a non-controller reference, instead of the master owner
+      V1ConfigMap configMap = api.readNamespacedConfigMap("cdap-test-warm", "default", null, null, null);
+      Assert.assertEquals(MASTER_OWNER, configMap.getMetadata().getOwnerReferences().get(0));
+      for (String podName : api.getPods(false)) {
+        List<V1OwnerReference> owners = api.readNamespacedPod(podName, "default", null, null, null)
+          .getMetadata().getOwnerReferences();
+        Assert.assertEquals(1, owners.size());
+        Assert.assertEquals("ConfigMap", owners.get(0).getKind());
+        Assert.assertEquals(configMap.getMetadata().getUid(), owners.get(0).getUid());
+        Assert.assertFalse(owners.get(0).getController());
+      }
+
+      V1ResourceRequirements resources = KubeTwillPreparer.createResourceRequirements(CONFIGS, RESOURCE_SPEC);
+      Map<String, String> env = Collections.singletonMap("CDAP_LOG_DIR", "<LOG_DIR>");
+
+      // Pods are not running yet, hence cannot be claimed
+      Assert.assertNull(pool.claim(resources, env, createRunMetadata("run1"), "file:/config.jar", "runnable"));
+
+      api.setAllRunning();
+      pool.refill();
+
+      // Program runs with different resources or environments cannot use the pool
+      V1ResourceRequirements otherResources = KubeTwillPreparer.createResourceRequirements(
+        CONFIGS, ResourceSpecification.Builder.with()
+          .setVirtualCores(2)
+          .setMemory(512, ResourceSpecification.SizeUnit.MEGA)
+          .setInstances(1)
+          .build());
+      Assert.assertNull(pool.claim(otherResources, env, createRunMetadata("run1"), "file:/config.jar", "runnable"));
+      Assert.assertNull(pool.claim(resources, Collections.singletonMap("SPARK_HOME", "/spark"),
+                                   createRunMetadata("run1"), "file:/config.jar", "runnable"));
+
+      V1ObjectMeta meta = pool.claim(resources, env, createRunMetadata("run1"), "file:/config.jar", "runnable");
+      Assert.assertNotNull(meta);
+      Assert.assertEquals("run1", meta.getLabels().get(KubeTwillRunnerService.RUN_ID_LABEL));
+      Assert.assertEquals("file:/config.jar", meta.getAnnotations().get(WarmPodPool.RUNTIME_CONFIG_ANNOTATION));
+      Assert.assertEquals("runnable", meta.getAnnotations().get(WarmPodPool.RUNNABLE_ANNOTATION));
+
+      // The claimed pod shouldn't be claimed again
+      api.setAllRunning();
+      V1ObjectMeta meta2 = pool.claim(resources, env, createRunMetadata("run2"), "file:/config2.jar", "runnable");
+      Assert.assertNotNull(meta2);
+      Assert.assertNotEquals(meta.getName(), meta2.getName());
+
+      // Refill should create new pods for the claimed one
+      pool.refill();
+      Assert.assertEquals(2, api.getPods(false).size());
+      Assert.assertEquals(2, api.getPods(true).size());
+    } finally {
+      pool.stop();
+    }
+  }
+
+  @Test
+  public void testExpire() throws Exception {
+    InMemoryCoreV1Api api = new InMemoryCoreV1Api();
+    WarmPodPool pool = createPool(1, 1L);
+    pool.start(api);
+    try {
+      pool.refill();
+      List<String> pods = api.getPods(false);
+      Assert.assertEquals(1, pods.size());
+
+      // The pod should get replaced after the TTL expired
+      TimeUnit.MILLISECONDS.sleep(10);
+      pool.refill();
+      List<String> newPods = api.getPods(false);
+      Assert.assertEquals(1, newPods.size());
+      Assert.assertNotEquals(pods, newPods);
+    } finally {
+      pool.stop();
+    }
+  }
+
+  private WarmPodPool createPool(int size, long ttlMillis) {
+    PodInfo podInfo = new PodInfo("master", "/etc/podinfo", "pod.labels.properties", "pod.name", "uid", "pod.uid",
+                                  "default", Collections.singletonMap("cdap.instance", "test"),
+                                  Collections.singletonList(MASTER_OWNER), "default", null, Collections.emptyList(),
+                                  "cdap.container", "cdap:latest", Collections.emptyList(),
+                                  Collections.emptyList(), null, "IfNotPresent");
+    MasterEnvironmentContext context = new MasterEnvironmentContext() {
+      @Override
+      public LocationFactory getLocationFactory() {
+        throw new UnsupportedOperationException("LocationFactory is not supported");
+      }
+
+      @Override
+      public Map<String, String> getConfigurations() {
+        return CONFIGS;
+      }
+
+      @Override
+      public String[] getRunnableArguments(Class<? extends MasterEnvironmentRunnable> runnableClass,
+                                           String... runnableArgs) {
+        return new String[] { runnableClass.getName() };
+      }
+    };
+    return new WarmPodPool(context, "default", podInfo, "cdap-test-",
+                           Collections.singletonMap("cdap.instance", "test"), size, ttlMillis, RESOURCE_SPEC);
+  }
+
+  private V1ObjectMeta createRunMetadata(String runId) {
+    return new V1ObjectMeta()
+      .name("program-" + runId)
+      .putLabelsItem(KubeTwillRunnerService.RUN_ID_LABEL, runId)
+      .putAnnotationsItem(KubeTwillRunnerService.APP_LABEL, "program");
+  }
+
+  private static Map<String, String> createConfigs() {
+    Map<String, String> configs = new HashMap<>();
+    configs.put(Configs.Keys.JAVA_RESERVED_MEMORY_MB, "200");
+    configs.put(Configs.Keys.HEAP_RESERVED_MIN_RATIO, "0.3");
+    return configs;
+  }
+
+  /**
+   * A {@link CoreV1Api} that keeps pods in memory.
+   */
+  private static final class InMemoryCoreV1Api extends CoreV1Api {
+
+    private final Map<String, V1Pod> pods = new ConcurrentHashMap<>();
+    private final Map<String, V1ConfigMap> configMaps = new ConcurrentHashMap<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Returns the names of the pods that are either claimed or not claimed.
+     */
+    List<String> getPods(boolean claimed) {
+      return pods.values().stream()
+        .filter(p -> claimed == p.getMetadata().getLabels().containsKey(KubeTwillRunnerService.RUN_ID_LABEL))
+        .map(p -> p.getMetadata().getName())
+        .sorted()
+        .collect(Collectors.toList());
+    }
+
+    void setAllRunning() {
+      pods.values().forEach(p -> p.status(new V1PodStatus()
+                                            .phase("Running")
+                                            .addContainerStatusesItem(new V1ContainerStatus().ready(true))));
+    }
+
+    @Override
+    public V1PodList listNamespacedPod(String namespace, String pretty, Boolean allowWatchBookmarks, String cont,
+                                      String fieldSelector, String labelSelector, Integer limit,
+                                      String resourceVersion, String resourceVersionMatch, Integer timeoutSeconds,
+                                      Boolean watch) {
+      return new V1PodList().items(pods.values().stream()
+                                     .filter(p -> matches(p.getMetadata().getLabels(), labelSelector))
+                                     .collect(Collectors.toList()));
+    }
+
+    @Override
+    public V1Pod createNamespacedPod(String namespace, V1Pod body, String pretty, String dryRun,
+                                     String fieldManager) {
+      V1ObjectMeta meta = body.getMetadata();
+      meta.name(meta.getGenerateName() + counter.incrementAndGet()).resourceVersion("0");
+      pods.put(meta.getName(), body);
+      return body;
+    }
+
+    @Override
+    public V1Pod readNamespacedPod(String name, String namespace, String pretty,
+                                   Boolean exact, Boolean export) throws ApiException {
+      V1Pod pod = pods.get(name);
+      if (pod == null) {
+        throw new ApiException(404, "Pod not found");
+      }
+      return pod;
+    }
+
+    @Override
+    public synchronized V1Pod replaceNamespacedPod(String name, String namespace, V1Pod body, String pretty,
+                                                   String dryRun, String fieldManager) throws ApiException {
+      V1Pod pod = readNamespacedPod(name, namespace, null, null, null);
+      if (!pod.getMetadata().getResourceVersion().equals(body.getMetadata().getResourceVersion())) {
+        throw new ApiException(409, "Conflict");
+      }
+      int version = Integer.parseInt(body.getMetadata().getResourceVersion());
+      body.getMetadata().resourceVersion(Integer.toString(version + 1));
+      pods.put(name, body);
+      return body;
+    }
+
+    @Override
+    public V1Pod deleteNamespacedPod(String name, String namespace, String pretty, String dryRun,
+                                     Integer gracePeriodSeconds, Boolean orphanDependents, String propagationPolicy,
+                                     V1DeleteOptions body) throws ApiException {
+      V1Pod pod = pods.remove(name);
+      if (pod == null) {
+        throw new ApiException(404, "Pod not found");
+      }
+      return pod;
+    }
+
+    @Override
+    public V1ConfigMap readNamespacedConfigMap(String name, String namespace, String pretty,
+                                               Boolean exact, Boolean export) throws ApiException {
+      V1ConfigMap configMap = configMaps.get(name);
+      if (configMap == null) {
+        throw new ApiException(404, "ConfigMap not found");
+      }
+      return configMap;
+    }
+
+    @Override
+    public V1ConfigMap createNamespacedConfigMap(String namespace, V1ConfigMap body, String pretty, String dryRun,
+                                                 String fieldManager) throws ApiException {
+      body.getMetadata().uid("uid-" + body.getMetadata().getName());
+      if (configMaps.putIfAbsent(body.getMetadata().getName(), body) != null) {
+        throw new ApiException(409, "Conflict");
+      }
+      return body;
+    }
+
+    /**
+     * Matches the given labels with a label selector that contains equality and non-existence requirements only.
+     */
+    private boolean matches(Map<String, String> labels, String labelSelector) {
+      for (String requirement : labelSelector.split(",")) {
+        if (requirement.startsWith("!")) {
+          if (labels.containsKey(requirement.substring(1))) {
+            return false;
+          }
+        } else {
+          String[] parts = requirement.split("=", 2);
+          if (!parts[1].equals(labels.get(parts[0]))) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+  }
+}
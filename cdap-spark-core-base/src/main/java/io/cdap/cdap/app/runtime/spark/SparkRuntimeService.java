@@ -34,6 +34,7 @@ import io.cdap.cdap.api.ProgramLifecycle;
 import io.cdap.cdap.api.ProgramState;
 import io.cdap.cdap.api.ProgramStatus;
 import io.cdap.cdap.api.annotation.TransactionControl;
+import io.cdap.cdap.api.artifact.ArtifactId;
 import io.cdap.cdap.api.spark.AbstractSpark;
 import io.cdap.cdap.api.spark.Spark;
 import io.cdap.cdap.api.spark.SparkClientContext;
@@ -535,6 +536,22 @@ final class SparkRuntimeService extends AbstractExecutionThreadService {
     prependConfig(configs, "spark.driver.extraJavaOptions", sparkCheckpointTempRewrite, " ");
     prependConfig(configs, "spark.executor.extraJavaOptions", sparkCheckpointTempRewrite, " ");
 
+    String classRewriteCacheDir = cConf.get(SparkRuntimeUtils.SPARK_CLASS_REWRITE_CACHE_DIR, "").trim();
+    if (!classRewriteCacheDir.isEmpty()) {
+      // Cached bytecode is only shared by runs of the same application and artifact, so that classes cached
+      // by the containers of one application are never loaded by the containers of another one.
+      ProgramRunId programRunId = runtimeContext.getProgramRunId();
+      ArtifactId artifactId = context.getApplicationSpecification().getArtifactId();
+      String scopedCacheDir = Paths.get(classRewriteCacheDir, programRunId.getNamespace(),
+                                        programRunId.getApplication(),
+                                        artifactId.getScope().name().toLowerCase() + "-" + artifactId.getName()
+                                          + "-" + artifactId.getVersion()).toString();
+      String classRewriteCache = String.format("-D%s=%s", SparkRuntimeUtils.CLASS_REWRITE_CACHE_DIR,
+                                               scopedCacheDir);
+      prependConfig(configs, "spark.driver.extraJavaOptions", classRewriteCache, " ");
+      prependConfig(configs, "spark.executor.extraJavaOptions", classRewriteCache, " ");
+    }
+
     // CDAP-5854: On Windows * is a reserved character which cannot be used in paths. So adding the below to
     // classpaths will fail. Please see CDAP-5854.
     // In local mode spark program runs under the same jvm as cdap master and these jars will already be in the
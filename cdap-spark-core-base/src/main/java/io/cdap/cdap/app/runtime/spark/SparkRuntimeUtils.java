@@ -85,6 +85,10 @@ public final class SparkRuntimeUtils {
   // Configuration option used to control rewriting behavior in the cdap-site.xml file.
   public static final String SPARK_STREAMING_CHECKPOINT_REWRITE_ENABLED =
     "spark." + STREAMING_CHECKPOINT_REWRITE_ENABLED;
+  // Configuration option used to supply the rewritten class cache directory in Drivers and Executors.
+  public static final String CLASS_REWRITE_CACHE_DIR = "class.rewrite.cache.dir";
+  // Configuration option used to control the rewritten class cache directory in the cdap-site.xml file.
+  public static final String SPARK_CLASS_REWRITE_CACHE_DIR = "spark." + CLASS_REWRITE_CACHE_DIR;
 
   private static final String LOCALIZED_RESOURCES = "spark.cdap.localized.resources";
   private static final int CHUNK_SIZE = 1 << 15;  // 32K
@@ -18,6 +18,7 @@ package io.cdap.cdap.app.runtime.spark.classloader;
 
 import io.cdap.cdap.common.app.MainClassLoader;
 import io.cdap.cdap.common.lang.ClassLoaders;
+import io.cdap.cdap.common.lang.RewrittenClassCache;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -39,7 +40,19 @@ public class SparkContainerClassLoader extends MainClassLoader {
    * @param parent the parent classloader for delegation
    */
   public SparkContainerClassLoader(URL[] urls, ClassLoader parent, boolean rewriteCheckpointTempFileName) {
-    super(urls, parent);
+    this(urls, parent, rewriteCheckpointTempFileName, null);
+  }
+
+  /**
+   * Creates a new instance for the following set of {@link URL}.
+   *
+   * @param urls the URLs from which to load classes and resources
+   * @param parent the parent classloader for delegation
+   * @param rewrittenClassCache an optional {@link RewrittenClassCache} for caching rewritten classes
+   */
+  public SparkContainerClassLoader(URL[] urls, ClassLoader parent, boolean rewriteCheckpointTempFileName,
+                                   @Nullable RewrittenClassCache rewrittenClassCache) {
+    super(urls, parent, rewrittenClassCache);
     this.sparkClassRewriter = new SparkClassRewriter(name -> ClassLoaders.openResource(this, name), false,
                                                      rewriteCheckpointTempFileName);
   }
@@ -19,12 +19,19 @@ package io.cdap.cdap.app.runtime.spark.distributed;
 import com.google.common.io.Closeables;
 import io.cdap.cdap.app.runtime.spark.SparkRuntimeContextProvider;
 import io.cdap.cdap.app.runtime.spark.SparkRuntimeUtils;
+import io.cdap.cdap.app.runtime.spark.classloader.SparkClassRewriter;
 import io.cdap.cdap.app.runtime.spark.classloader.SparkContainerClassLoader;
 import io.cdap.cdap.app.runtime.spark.python.SparkPythonUtil;
+import io.cdap.cdap.common.app.MainClassLoader;
+import io.cdap.cdap.common.dataset.DatasetClassRewriter;
 import io.cdap.cdap.common.lang.ClassLoaders;
 import io.cdap.cdap.common.lang.FilterClassLoader;
+import io.cdap.cdap.common.lang.GuavaClassRewriter;
+import io.cdap.cdap.common.lang.RewrittenClassCache;
 import io.cdap.cdap.common.logging.StandardOutErrorRedirector;
 import io.cdap.cdap.common.logging.common.UncaughtExceptionHandler;
+import io.cdap.cdap.common.security.AuthEnforceRewriter;
+import io.cdap.cdap.common.utils.ProjectInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.bridge.SLF4JBridgeHandler;
@@ -42,6 +49,7 @@ import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import javax.annotation.Nullable;
 
 /**
  * This class launches Spark YARN containers with classes loaded through the {@link SparkContainerClassLoader}.
@@ -97,7 +105,9 @@ public final class SparkContainerLauncher {
     // Use the extension classloader as the parent instead of the system classloader because
     // Spark classes are in the system classloader which we want to rewrite.
     ClassLoader classLoader = new SparkContainerClassLoader(urls.toArray(new URL[0]), parentClassLoader,
-                                                            rewriteCheckpointTempFileName);
+                                                            rewriteCheckpointTempFileName,
+                                                            createRewrittenClassCache(urls,
+                                                                                      rewriteCheckpointTempFileName));
 
     // Sets the context classloader and launch the actual Spark main class.
     Thread.currentThread().setContextClassLoader(classLoader);
@@ -164,6 +174,38 @@ public final class SparkContainerLauncher {
     }
   }
 
+  /**
+   * Creates a {@link RewrittenClassCache} if the cache directory is configured through system property.
+   *
+   * @param urls the classpath of the {@link SparkContainerClassLoader}
+   * @param rewriteCheckpointTempFileName the checkpoint rewrite option of the {@link SparkContainerClassLoader}
+   * @return a {@link RewrittenClassCache} or {@code null} if cache is not enabled or cannot be used
+   */
+  @Nullable
+  private static RewrittenClassCache createRewrittenClassCache(Set<URL> urls, boolean rewriteCheckpointTempFileName) {
+    String cacheDir = System.getProperty(SparkRuntimeUtils.CLASS_REWRITE_CACHE_DIR, "").trim();
+    if (cacheDir.isEmpty()) {
+      return null;
+    }
+
+    // The rewriting result depends on the rewrite options and the classes available for computing stack frames.
+    // Container directories are different for each run, hence only the jar file names are used.
+    StringBuilder options = new StringBuilder()
+      .append("version=").append(ProjectInfo.getVersion())
+      .append(";yarnMode=").append(Boolean.parseBoolean(System.getenv("SPARK_YARN_MODE")))
+      .append(";rewriteCheckpointTempFileName=").append(rewriteCheckpointTempFileName)
+      .append(";classpath=");
+    for (URL url : urls) {
+      String path = url.getPath();
+      options.append(path.substring(path.lastIndexOf('/', path.length() - 2) + 1)).append(',');
+    }
+
+    return RewrittenClassCache.create(Paths.get(cacheDir), options.toString(),
+                                      SparkContainerClassLoader.class, SparkClassRewriter.class,
+                                      MainClassLoader.class, GuavaClassRewriter.class, DatasetClassRewriter.class,
+                                      AuthEnforceRewriter.class);
+  }
+
   /**
    * Gets the URL that has the given class loaded from the given ClassLoader.
    */
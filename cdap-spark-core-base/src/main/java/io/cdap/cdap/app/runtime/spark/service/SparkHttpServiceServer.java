@@ -105,7 +105,7 @@ public class SparkHttpServiceServer extends AbstractServiceHttpServer<SparkHttpS
                                            SparkHttpServiceHandlerSpecification spec,
                                            MetricsContext programMetricsContext,
                                            MetricsContext handlerMetricsContext) {
-      super(handlerType, instantiatorFactory, programMetricsContext, handlerMetricsContext);
+      super(handlerType, instantiatorFactory, programMetricsContext, handlerMetricsContext, getHandlerPoolSize());
       this.spec = spec;
     }
 
@@ -247,4 +247,33 @@ public class DataFramesTest {
     Assert.assertEquals(Arrays.asList("a", "b", "c", null),
                         record.<StructuredRecord>get("recordField").<Collection<String>>get("array"));
   }
+
+  @Test
+  public void testCachedConversion() {
+    // Schemas with the same hash share the same data type and record conversion plan
+    Schema schema1 = Schema.recordOf("Record0",
+                                     Schema.Field.of("intField", Schema.of(Schema.Type.INT)),
+                                     Schema.Field.of("stringField", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    Schema schema2 = Schema.recordOf("Record0",
+                                     Schema.Field.of("intField", Schema.of(Schema.Type.INT)),
+                                     Schema.Field.of("stringField", Schema.nullableOf(Schema.of(Schema.Type.STRING))));
+    Assert.assertNotSame(schema1, schema2);
+    Assert.assertSame(DataFrames.<StructType>toDataType(schema1), DataFrames.<StructType>toDataType(schema2));
+
+    StructuredRecord record1 = DataFrames.fromRow(RowFactory.create(1, "a"), schema1);
+    StructuredRecord record2 = DataFrames.fromRow(RowFactory.create(2, null), schema2);
+    Assert.assertSame(schema1, record1.getSchema());
+    Assert.assertSame(schema2, record2.getSchema());
+    Assert.assertEquals(1, record1.<Integer>get("intField").intValue());
+    Assert.assertEquals("a", record1.get("stringField"));
+    Assert.assertEquals(2, record2.<Integer>get("intField").intValue());
+    Assert.assertNull(record2.get("stringField"));
+
+    try {
+      DataFrames.fromRow(RowFactory.create(null, "b"), schema2);
+      Assert.fail("Expected failure for null value in non-nullable field");
+    } catch (NullPointerException e) {
+      // expected
+    }
+  }
 }
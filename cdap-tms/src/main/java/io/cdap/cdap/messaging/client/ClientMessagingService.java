@@ -164,7 +164,7 @@ public final class ClientMessagingService implements MessagingService {
   public TopicMetadata getTopic(TopicId topicId)
     throws TopicNotFoundException, IOException, UnauthorizedException {
     HttpRequest request = remoteClient.requestBuilder(HttpMethod.GET, createTopicPath(topicId)).build();
-    HttpResponse response = remoteClient.execute(request);
+    HttpResponse response = remoteClient.executePooled(request);
 
     if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
       throw new TopicNotFoundException(topicId.getNamespace(), topicId.getTopic());
@@ -230,7 +230,7 @@ public final class ClientMessagingService implements MessagingService {
       .withBody(requestBody)
       .build();
 
-    HttpResponse response = remoteClient.execute(httpRequest);
+    HttpResponse response = remoteClient.executePooled(httpRequest);
 
     if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
       throw new TopicNotFoundException(topicId.getNamespace(), topicId.getTopic());
@@ -281,7 +281,8 @@ public final class ClientMessagingService implements MessagingService {
       .withBody(os.toByteBuffer())
       .build();
 
-    HttpResponse response = remoteClient.execute(httpRequest);
+    // Publish calls are made frequently by many threads, hence use the pooled connections to the messaging service
+    HttpResponse response = remoteClient.executePooled(httpRequest);
 
     if (response.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
       throw new TopicNotFoundException(topicId.getNamespace(), topicId.getTopic());
@@ -394,7 +394,7 @@ public class CoreMessagingService extends AbstractIdleService implements Messagi
     Map<String, String> properties = new HashMap<>();
 
     // Default properties
-    properties.put(TopicMetadata.TTL_KEY, cConf.get(Constants.MessagingSystem.TOPIC_DEFAULT_TTL_SECONDS));
+    properties.put(TopicMetadata.TTL_KEY, cConf.getSnapshot().get(Constants.MessagingSystem.TOPIC_DEFAULT_TTL_SECONDS));
     properties.put(TopicMetadata.GENERATION_KEY, MessagingUtils.Constants.DEFAULT_GENERATION);
     return properties;
   }
@@ -31,6 +31,8 @@ import io.cdap.cdap.logging.clean.FileMetadataCleaner;
 import io.cdap.cdap.logging.clean.LogCleaner;
 import io.cdap.cdap.logging.meta.FileMetaDataWriter;
 import io.cdap.cdap.proto.id.NamespaceId;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.file.CodecFactory;
 import org.apache.twill.common.Threads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,6 +44,7 @@ import java.util.Set;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 
 /**
  * Log Appender implementation for CDAP Log framework
@@ -59,6 +62,7 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
   private String dirPermissions;
   private String filePermissions;
   private int syncIntervalBytes;
+  private String fileCodec;
   private long maxFileLifetimeMs;
   private long maxFileSizeInBytes;
   private ScheduledExecutorService scheduledExecutorService;
@@ -91,6 +95,14 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
     this.syncIntervalBytes = syncIntervalBytes;
   }
 
+  /**
+   * Sets the avro codec for compressing the log files, e.g. {@code deflate} or {@code snappy}.
+   * This is called by the logback framework.
+   */
+  public void setFileCodec(String fileCodec) {
+    this.fileCodec = fileCodec;
+  }
+
   /**
    * Sets the maximum lifetime of a file. This is called by the logback framework.
    */
@@ -135,6 +147,7 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
     Preconditions.checkState(filePermissions != null, "Property filePermissions cannot be null");
     Preconditions.checkState(syncIntervalBytes > 0, "Property syncIntervalBytes must be > 0.");
     Preconditions.checkState(maxFileLifetimeMs > 0, "Property maxFileLifetimeMs must be > 0");
+    CodecFactory codecFactory = getCodecFactory(fileCodec);
     Preconditions.checkState(maxFileSizeInBytes > 0, "Property maxFileSizeInBytes must be > 0");
     Preconditions.checkState(fileRetentionDurationDays > 0, "Property fileRetentionDurationDays must be > 0");
     Preconditions.checkState(logCleanupIntervalMins > 0, "Property logCleanupIntervalMins must be > 0");
@@ -143,7 +156,7 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
     if (context instanceof AppenderContext) {
       AppenderContext context = (AppenderContext) this.context;
       logFileManager = new LogFileManager(dirPermissions, filePermissions, maxFileLifetimeMs, maxFileSizeInBytes,
-                                          syncIntervalBytes,
+                                          syncIntervalBytes, codecFactory,
                                           new FileMetaDataWriter(context.getTransactionRunner()),
                                           context.getLocationFactory());
       if (context.getInstanceId() == 0) {
@@ -225,6 +238,20 @@ public class CDAPLogAppender extends AppenderBase<ILoggingEvent> implements Flus
     }
   }
 
+  /**
+   * Returns the {@link CodecFactory} for the given codec name. No compression is used if the codec is not set.
+   */
+  private static CodecFactory getCodecFactory(@Nullable String codec) {
+    if (codec == null || codec.trim().isEmpty()) {
+      return CodecFactory.nullCodec();
+    }
+    try {
+      return CodecFactory.fromString(codec.trim());
+    } catch (AvroRuntimeException e) {
+      throw new IllegalStateException("Unsupported value for property fileCodec: " + codec, e);
+    }
+  }
+
   @VisibleForTesting
   LogPathIdentifier getLoggingPath(Map<String, String> propertyMap) throws IllegalArgumentException {
     // from the property map, get namespace values
@@ -22,6 +22,8 @@ import com.google.common.util.concurrent.Uninterruptibles;
 import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.io.Syncable;
 import io.cdap.cdap.logging.meta.FileMetaDataWriter;
+import io.cdap.cdap.logging.serialize.LogFileIndex;
+import org.apache.avro.file.CodecFactory;
 import org.apache.twill.filesystem.Location;
 import org.apache.twill.filesystem.LocationFactory;
 import org.slf4j.Logger;
@@ -49,6 +51,7 @@ final class LogFileManager implements Flushable, Syncable {
   private final String dirPermissions;
   private final String filePermissions;
   private final int syncIntervalBytes;
+  private final CodecFactory codecFactory;
   private final long maxLifetimeMillis;
   private final long maxFileSizeInBytes;
   private final Map<LogPathIdentifier, LogFileOutputStream> outputStreamMap;
@@ -56,13 +59,14 @@ final class LogFileManager implements Flushable, Syncable {
   private final FileMetaDataWriter fileMetaDataWriter;
 
   LogFileManager(String dirPermissions, String filePermissions,
-                 long maxFileLifetimeMs, long maxFileSizeInBytes, int syncIntervalBytes,
+                 long maxFileLifetimeMs, long maxFileSizeInBytes, int syncIntervalBytes, CodecFactory codecFactory,
                  FileMetaDataWriter fileMetaDataWriter, LocationFactory locationFactory) {
     this.dirPermissions = dirPermissions;
     this.filePermissions = filePermissions;
     this.maxLifetimeMillis = maxFileLifetimeMs;
     this.maxFileSizeInBytes = maxFileSizeInBytes;
     this.syncIntervalBytes = syncIntervalBytes;
+    this.codecFactory = codecFactory;
     this.fileMetaDataWriter = fileMetaDataWriter;
     this.logsDirectoryLocation = locationFactory.create("logs");
     this.outputStreamMap = new HashMap<>();
@@ -92,12 +96,13 @@ final class LogFileManager implements Flushable, Syncable {
                                                  long timestamp) throws IOException {
     TimeStampLocation location = createLocation(identifier);
     LogFileOutputStream logFileOutputStream = new LogFileOutputStream(
-      location.getLocation(), filePermissions, syncIntervalBytes, location.getTimeStamp(), new Closeable() {
-      @Override
-      public void close() throws IOException {
-        outputStreamMap.remove(identifier);
-      }
-    });
+      location.getLocation(), filePermissions, syncIntervalBytes, codecFactory, location.getTimeStamp(),
+      new Closeable() {
+        @Override
+        public void close() throws IOException {
+          outputStreamMap.remove(identifier);
+        }
+      });
     logFileOutputStream.flush();
     LOG.info("Created Avro file at {}", location);
 
@@ -110,6 +115,12 @@ final class LogFileManager implements Flushable, Syncable {
       // delete created file as there was exception while writing meta data
       Closeables.closeQuietly(logFileOutputStream);
       Locations.deleteQuietly(location.getLocation());
+      try {
+        // Closing the stream writes the index
+        Locations.deleteQuietly(LogFileIndex.getIndexLocation(location.getLocation()));
+      } catch (IOException ex) {
+        e.addSuppressed(ex);
+      }
       throw new IOException(e);
     }
 
@@ -19,10 +19,13 @@ package io.cdap.cdap.logging.appender.system;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import com.google.common.io.Closeables;
 import io.cdap.cdap.common.io.ByteBuffers;
+import io.cdap.cdap.common.io.Locations;
 import io.cdap.cdap.common.io.Syncable;
+import io.cdap.cdap.logging.serialize.LogFileIndex;
 import io.cdap.cdap.logging.serialize.LoggingEvent;
 import io.cdap.cdap.logging.serialize.LoggingEventSerializer;
 import org.apache.avro.Schema;
+import org.apache.avro.file.CodecFactory;
 import org.apache.avro.file.DataFileWriter;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
@@ -41,35 +44,49 @@ import java.nio.ByteBuffer;
  *
  * Since there is no way to check the state of the underlying file on an exception,
  * all methods of this class assume that the file state is bad on any exception and close the file.
+ *
+ * Events are summarized into a {@link LogFileIndex} while they are written, which is written next to the log file
+ * when the file is closed.
  */
 
 class LogFileOutputStream implements Closeable, Flushable, Syncable {
   private static final Logger LOG = LoggerFactory.getLogger(LogFileOutputStream.class);
+  // Minimum number of file bytes covered by an index block. Flushes in between won't start a new index block.
+  private static final long INDEX_BLOCK_MIN_BYTES = 64 * 1024;
+  // Maximum number of events in an index block. Reaching it forces a sync to start a new index block.
+  private static final int INDEX_BLOCK_MAX_EVENTS = 4096;
 
   private final Location location;
   private final long createTime;
   private final Closeable closeable;
   private final LoggingEventSerializer serializer;
+  private final String filePermissions;
+  private final LogFileIndex.Builder indexBuilder;
 
   private OutputStream outputStream;
   private DataFileWriter<GenericRecord> dataFileWriter;
   private long fileSize;
 
-  LogFileOutputStream(Location location, String filePermissions,
-                      int syncIntervalBytes, long createTime, Closeable closeable) throws IOException {
+  LogFileOutputStream(Location location, String filePermissions, int syncIntervalBytes,
+                      CodecFactory codecFactory, long createTime, Closeable closeable) throws IOException {
     this.location = location;
     this.closeable = closeable;
     this.serializer = new LoggingEventSerializer();
+    this.filePermissions = filePermissions;
+    this.indexBuilder = new LogFileIndex.Builder();
 
     Schema schema = serializer.getAvroSchema();
     try {
       this.outputStream =
         filePermissions.isEmpty() ? location.getOutputStream() : location.getOutputStream(filePermissions);
       this.dataFileWriter = new DataFileWriter<>(new GenericDatumWriter<GenericRecord>(schema));
+      this.dataFileWriter.setCodec(codecFactory);
       this.dataFileWriter.create(schema, outputStream);
       this.dataFileWriter.setSyncInterval(syncIntervalBytes);
       this.createTime = createTime;
-      this.fileSize = 0;
+      // Sync without any event appended returns the position right after the header
+      this.fileSize = dataFileWriter.sync();
+      this.indexBuilder.startBlock(fileSize);
     } catch (IOException e) {
       Closeables.closeQuietly(outputStream);
       Closeables.closeQuietly(dataFileWriter);
@@ -82,6 +99,15 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
   }
 
   void append(ILoggingEvent event) throws IOException {
+    appendEvent(event);
+    indexBuilder.add(event);
+    if (indexBuilder.getEventCount() >= INDEX_BLOCK_MAX_EVENTS) {
+      fileSize = dataFileWriter.sync();
+      nextIndexBlock(true);
+    }
+  }
+
+  private void appendEvent(ILoggingEvent event) throws IOException {
     // If the event is already a LoggingEvent, we don't need to re-encode.
     if (event instanceof LoggingEvent) {
       ByteBuffer encoded = ((LoggingEvent) event).getEncoded();
@@ -96,6 +122,17 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
     dataFileWriter.append(serializer.toGenericRecord(event));
   }
 
+  /**
+   * Ends the current index block at the current file size, which must be a sync position, and starts a new one,
+   * unless the current block is too small and not forced to end.
+   */
+  private void nextIndexBlock(boolean force) {
+    if (!force && fileSize - indexBuilder.getBlockPosition() < INDEX_BLOCK_MIN_BYTES) {
+      return;
+    }
+    indexBuilder.endBlock(fileSize).startBlock(fileSize);
+  }
+
   /**
    * get create time of the file
    * @return create time
@@ -115,6 +152,7 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
   @Override
   public void flush() throws IOException {
     fileSize = dataFileWriter.sync();
+    nextIndexBlock(false);
   }
 
   @Override
@@ -131,9 +169,30 @@ class LogFileOutputStream implements Closeable, Flushable, Syncable {
   public void close() throws IOException {
     LOG.trace("Closing file {}", location);
     try {
+      fileSize = dataFileWriter.sync();
       dataFileWriter.close();
+      indexBuilder.endBlock(fileSize);
+      writeIndex(indexBuilder.build(fileSize));
     } finally {
       closeable.close();
     }
   }
+
+  /**
+   * Writes the index of the log file. Failure is only logged, since readers fall back to scan the log file when
+   * the index is missing.
+   */
+  private void writeIndex(LogFileIndex index) {
+    Location indexLocation = null;
+    try {
+      indexLocation = LogFileIndex.getIndexLocation(location);
+      index.write(filePermissions.isEmpty() ? indexLocation.getOutputStream()
+                    : indexLocation.getOutputStream(filePermissions));
+    } catch (Exception e) {
+      LOG.warn("Failed to write index for log file {}", location, e);
+      if (indexLocation != null) {
+        Locations.deleteQuietly(indexLocation);
+      }
+    }
+  }
 }
@@ -24,6 +24,14 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 public interface Filter {
   boolean match(ILoggingEvent event);
 
+  /**
+   * Returns {@code false} if no event summarized by the given {@link LogEventSummary} can match this filter,
+   * which allows skipping those events without decoding them. By default it always returns {@code true}.
+   */
+  default boolean mayMatch(LogEventSummary summary) {
+    return true;
+  }
+
   Filter EMPTY_FILTER = new EmptyFilter();
 
   /**
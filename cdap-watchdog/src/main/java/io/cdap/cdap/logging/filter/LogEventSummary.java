@@ -0,0 +1,37 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.logging.filter;
+
+import ch.qos.logback.classic.Level;
+
+/**
+ * Summary of a group of log events, used to decide whether a {@link Filter} can match any event in the group
+ * without decoding the events. Answers may have false positives, but never false negatives.
+ */
+public interface LogEventSummary {
+
+  /**
+   * Returns {@code true} if the group may contain an event with level greater than or equal to the given level.
+   */
+  boolean mayContainLevel(Level level);
+
+  /**
+   * Returns {@code true} if the group may contain an event with the given MDC key and value.
+   */
+  boolean mayContainMdc(String key, String value);
+}
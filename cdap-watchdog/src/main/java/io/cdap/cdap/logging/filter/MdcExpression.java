@@ -37,6 +37,11 @@ public class MdcExpression implements Filter {
     return value != null && value.equals(getValue());
   }
 
+  @Override
+  public boolean mayMatch(LogEventSummary summary) {
+    return summary.mayContainMdc(getKey(), getValue());
+  }
+
   public String getKey() {
     return key;
   }
@@ -19,73 +19,137 @@ package io.cdap.cdap.logging.pipeline.queue;
 import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.NoSuchElementException;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
  * A queue for storing time based events with offsets association.
  *
+ * Events are stored in slots of parallel arrays instead of one object per event. The time ordering is maintained by
+ * a binary heap of slot indices, since events within a partition are not necessarily in time order. The offset
+ * ordering of each partition is maintained by a ring of slot indices, which normally only appends at the end, as
+ * events of a partition are added in offset order.
+ *
+ * The iterator takes events out of the heap as it goes. Events that are returned by the iterator but not removed
+ * are put back to the queue when the queue is modified or a new iterator is created.
+ *
  * @param <EVENT> Type of event stored in the queue.
  * @param <OFFSET> Type of event offset associated with the event.
  */
 @NotThreadSafe
 public final class TimeEventQueue<EVENT, OFFSET extends Comparable<OFFSET>> implements Iterable<EVENT> {
 
-  private final SortedSet<TimeEvent<EVENT, OFFSET>> events;
-  private final Int2ObjectMap<SortedSet<OFFSET>> partitionOffsets;
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final Int2ObjectMap<PartitionOffsets> partitionOffsets;
+
+  // Slot storage
+  private Object[] events;
+  private Object[] offsets;
+  private long[] timestamps;
+  private int[] eventSizes;
+  private int[] partitions;
+  private boolean[] live;
+  private int[] freeSlots;
+  private int freeCount;
+  private int slotCount;
+
+  // Min heap of slots ordered by timestamp, partition and offset
+  private int[] heap;
+  private int heapSize;
+
+  // Slots taken out of the heap by the iterator but not removed
+  private int[] detached;
+  private int detachedCount;
+
+  private int size;
   private long totalSize;
+  private int modCount;
 
   public TimeEventQueue(Iterable<Integer> partitions) {
-    this.events = new TreeSet<>();
     this.partitionOffsets = new Int2ObjectArrayMap<>();
-
     for (int partition : partitions) {
-      partitionOffsets.put(partition, new TreeSet<>());
+      partitionOffsets.put(partition, new PartitionOffsets());
     }
+
+    this.events = new Object[INITIAL_CAPACITY];
+    this.offsets = new Object[INITIAL_CAPACITY];
+    this.timestamps = new long[INITIAL_CAPACITY];
+    this.eventSizes = new int[INITIAL_CAPACITY];
+    this.partitions = new int[INITIAL_CAPACITY];
+    this.live = new boolean[INITIAL_CAPACITY];
+    this.freeSlots = new int[INITIAL_CAPACITY];
+    this.heap = new int[INITIAL_CAPACITY];
+    this.detached = new int[INITIAL_CAPACITY];
   }
 
   public void add(EVENT event, long eventTimestamp, int eventSize, int partition, OFFSET offset) {
-    SortedSet<OFFSET> offsets = getOffsets(partition);
-    TimeEvent<EVENT, OFFSET> timeEvent = new TimeEvent<>(eventTimestamp, partition, offset, event, eventSize);
-    if (events.add(timeEvent)) {
-      if (!offsets.add(offset)) {
-        events.remove(timeEvent);
-        throw new IllegalArgumentException("Adding different event with the same offset "
-                                             + offset + ", " + event);
+    PartitionOffsets partitionSlots = getOffsets(partition);
+    restoreDetached();
+    modCount++;
+
+    int pos = partitionSlots.length;
+    if (pos > 0 && offset.compareTo(getOffset(partitionSlots.get(pos - 1))) <= 0) {
+      // Not the common case of adding in offset order, find the position in the partition
+      pos = partitionSlots.search(offset);
+      if (pos >= 0) {
+        int slot = partitionSlots.get(pos);
+        if (live[slot]) {
+          if (timestamps[slot] == eventTimestamp) {
+            // Same event added again
+            return;
+          }
+          throw new IllegalArgumentException("Adding different event with the same offset " + offset + ", " + event);
+        }
+        // The event was removed but the slot is still in the partition, reuse it.
+        setSlot(slot, event, eventTimestamp, eventSize, partition, offset);
+        partitionSlots.live++;
+        heapPush(slot);
+        return;
       }
-
-      totalSize += eventSize;
+      pos = -(pos + 1);
     }
+
+    int slot = allocateSlot();
+    setSlot(slot, event, eventTimestamp, eventSize, partition, offset);
+    partitionSlots.insert(pos, slot);
+    partitionSlots.live++;
+    heapPush(slot);
   }
 
   /**
    * Returns the event in the queue with the smallest timestamp.
    */
   public EVENT first() {
-    return events.first().getEvent();
+    restoreDetached();
+    if (heapSize == 0) {
+      throw new NoSuchElementException();
+    }
+    return getEvent(heap[0]);
   }
 
   /**
    * Returns {@code true} if there is no event in the queue.
    */
   public boolean isEmpty() {
-    return events.isEmpty();
+    return size == 0;
   }
 
   /**
    * Returns {@code true} if there is no event for the given partition in the queue.
    */
   public boolean isEmpty(int partition) {
-    return getOffsets(partition).isEmpty();
+    return getOffsets(partition).live == 0;
   }
 
   /**
    * Returns the number of events in the queue.
    */
   public int size() {
-    return events.size();
+    return size;
   }
 
   /**
@@ -99,62 +163,80 @@ public final class TimeEventQueue<EVENT, OFFSET extends Comparable<OFFSET>> impl
    * Returns the smallest offset stored for the given partition.
    */
   public OFFSET getSmallestOffset(int partition) {
-    SortedSet<OFFSET> offsets = getOffsets(partition);
-    if (offsets.isEmpty()) {
+    PartitionOffsets offsets = getOffsets(partition);
+    if (offsets.live == 0) {
       throw new IllegalStateException("Queue is empty");
     }
-    return offsets.first();
+    // Removed events at the head are always dropped, hence the first one is the smallest live offset
+    return getOffset(offsets.get(0));
   }
 
   @Override
   public EventIterator<EVENT, OFFSET> iterator() {
-    final Iterator<TimeEvent<EVENT, OFFSET>> iterator = events.iterator();
+    restoreDetached();
     return new EventIterator<EVENT, OFFSET>() {
 
-      private TimeEvent<EVENT, OFFSET> currentEvent;
+      private int expectedModCount = modCount;
+      private int currentSlot = -1;
 
       @Override
       public boolean hasNext() {
-        return iterator.hasNext();
+        checkModification();
+        return heapSize > 0;
       }
 
       @Override
       public EVENT next() {
-        currentEvent = iterator.next();
-        return currentEvent.getEvent();
+        checkModification();
+        if (heapSize == 0) {
+          throw new NoSuchElementException();
+        }
+        currentSlot = heapPop();
+        if (detachedCount == detached.length) {
+          detached = Arrays.copyOf(detached, detachedCount << 1);
+        }
+        detached[detachedCount++] = currentSlot;
+        return getEvent(currentSlot);
       }
 
       @Override
       public void remove() {
-        if (currentEvent == null) {
-          throw new IllegalStateException("The next() method must be called first.");
-        }
-        iterator.remove();
-        partitionOffsets.get(currentEvent.getPartition()).remove(currentEvent.getOffset());
-        totalSize -= currentEvent.getEventSize();
-        currentEvent = null;
+        checkCurrent();
+        // The current slot is always the last one detached
+        detachedCount--;
+        removeSlot(currentSlot);
+        currentSlot = -1;
       }
 
       @Override
       public OFFSET getOffset() {
-        if (currentEvent == null) {
-          throw new IllegalStateException("The next() method must be called first.");
-        }
-        return currentEvent.getOffset();
+        checkCurrent();
+        return TimeEventQueue.this.getOffset(currentSlot);
       }
 
       @Override
       public int getPartition() {
-        if (currentEvent == null) {
+        checkCurrent();
+        return partitions[currentSlot];
+      }
+
+      private void checkCurrent() {
+        checkModification();
+        if (currentSlot < 0) {
           throw new IllegalStateException("The next() method must be called first.");
         }
-        return currentEvent.getPartition();
+      }
+
+      private void checkModification() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
       }
     };
   }
 
-  private SortedSet<OFFSET> getOffsets(int partition) {
-    SortedSet<OFFSET> offsets = partitionOffsets.get(partition);
+  private PartitionOffsets getOffsets(int partition) {
+    PartitionOffsets offsets = partitionOffsets.get(partition);
     if (offsets == null) {
       throw new IllegalArgumentException("Partition " + partition +
                                            " is not in allowed partitions " + partitionOffsets.keySet());
@@ -162,6 +244,133 @@ public final class TimeEventQueue<EVENT, OFFSET extends Comparable<OFFSET>> impl
     return offsets;
   }
 
+  @SuppressWarnings("unchecked")
+  private EVENT getEvent(int slot) {
+    return (EVENT) events[slot];
+  }
+
+  @SuppressWarnings("unchecked")
+  private OFFSET getOffset(int slot) {
+    return (OFFSET) offsets[slot];
+  }
+
+  private void setSlot(int slot, EVENT event, long eventTimestamp, int eventSize, int partition, OFFSET offset) {
+    events[slot] = event;
+    offsets[slot] = offset;
+    timestamps[slot] = eventTimestamp;
+    eventSizes[slot] = eventSize;
+    partitions[slot] = partition;
+    live[slot] = true;
+    size++;
+    totalSize += eventSize;
+  }
+
+  /**
+   * Removes the event in the given slot. The slot is only released after it is dropped from the partition offsets.
+   */
+  private void removeSlot(int slot) {
+    events[slot] = null;
+    live[slot] = false;
+    size--;
+    totalSize -= eventSizes[slot];
+
+    PartitionOffsets offsets = partitionOffsets.get(partitions[slot]);
+    offsets.live--;
+    while (offsets.length > 0 && !live[offsets.get(0)]) {
+      releaseSlot(offsets.removeFirst());
+    }
+  }
+
+  private int allocateSlot() {
+    if (freeCount > 0) {
+      return freeSlots[--freeCount];
+    }
+    if (slotCount == events.length) {
+      int capacity = slotCount << 1;
+      events = Arrays.copyOf(events, capacity);
+      offsets = Arrays.copyOf(offsets, capacity);
+      timestamps = Arrays.copyOf(timestamps, capacity);
+      eventSizes = Arrays.copyOf(eventSizes, capacity);
+      partitions = Arrays.copyOf(partitions, capacity);
+      live = Arrays.copyOf(live, capacity);
+    }
+    return slotCount++;
+  }
+
+  private void releaseSlot(int slot) {
+    offsets[slot] = null;
+    if (freeCount == freeSlots.length) {
+      freeSlots = Arrays.copyOf(freeSlots, freeCount << 1);
+    }
+    freeSlots[freeCount++] = slot;
+  }
+
+  /**
+   * Puts the events returned by an iterator but not removed back to the heap.
+   */
+  private void restoreDetached() {
+    if (detachedCount == 0) {
+      return;
+    }
+    for (int i = 0; i < detachedCount; i++) {
+      heapPush(detached[i]);
+    }
+    detachedCount = 0;
+    // Invalidates the iterator that detached the events
+    modCount++;
+  }
+
+  private void heapPush(int slot) {
+    if (heapSize == heap.length) {
+      heap = Arrays.copyOf(heap, heapSize << 1);
+    }
+    int pos = heapSize++;
+    while (pos > 0) {
+      int parent = (pos - 1) >>> 1;
+      if (compare(heap[parent], slot) <= 0) {
+        break;
+      }
+      heap[pos] = heap[parent];
+      pos = parent;
+    }
+    heap[pos] = slot;
+  }
+
+  private int heapPop() {
+    int result = heap[0];
+    int slot = heap[--heapSize];
+    int pos = 0;
+    int half = heapSize >>> 1;
+    while (pos < half) {
+      int child = (pos << 1) + 1;
+      int right = child + 1;
+      if (right < heapSize && compare(heap[right], heap[child]) < 0) {
+        child = right;
+      }
+      if (compare(slot, heap[child]) <= 0) {
+        break;
+      }
+      heap[pos] = heap[child];
+      pos = child;
+    }
+    heap[pos] = slot;
+    return result;
+  }
+
+  private int compare(int slot1, int slot2) {
+    // Compare by event time, then by partition, then by offset
+    // Combination of them are guaranteed to be unique.
+    int cmp = Long.compare(timestamps[slot1], timestamps[slot2]);
+    if (cmp != 0) {
+      return cmp;
+    }
+    cmp = Integer.compare(partitions[slot1], partitions[slot2]);
+    if (cmp != 0) {
+      return cmp;
+    }
+    return getOffset(slot1).compareTo(getOffset(slot2));
+  }
+
   /**
    * An {@link Iterator} for iterating over events inserted to the {@link TimeEventQueue}.
    *
@@ -182,58 +391,65 @@ public final class TimeEventQueue<EVENT, OFFSET extends Comparable<OFFSET>> impl
   }
 
   /**
-   * This class represent an event stored in the event set.
+   * A ring of slots of a partition in offset order. It also contains slots of removed events that are not yet
+   * at the head of the ring.
    */
-  private static final class TimeEvent<EVENT, OFFSET extends Comparable<OFFSET>>
-                        implements Comparable<TimeEvent<EVENT, OFFSET>> {
-    private final long eventTime;
-    private final int partition;
-    private final OFFSET offset;
-    private final EVENT event;
-    private final int eventSize;
-
-    TimeEvent(long eventTime, int partition, OFFSET offset, EVENT event, int eventSize) {
-      this.eventTime = eventTime;
-      this.partition = partition;
-      this.offset = offset;
-      this.event = event;
-      this.eventSize = eventSize;
-    }
+  private final class PartitionOffsets {
 
-    long getEventTime() {
-      return eventTime;
-    }
+    private int[] ring = new int[16];
+    private int head;
+    private int length;
+    private int live;
 
-    int getPartition() {
-      return partition;
+    int get(int index) {
+      return ring[(head + index) & (ring.length - 1)];
     }
 
-    OFFSET getOffset() {
-      return offset;
+    int removeFirst() {
+      int slot = ring[head];
+      head = (head + 1) & (ring.length - 1);
+      length--;
+      return slot;
     }
 
-    EVENT getEvent() {
-      return event;
-    }
-
-    int getEventSize() {
-      return eventSize;
+    /**
+     * Inserts a slot at the given index.
+     */
+    void insert(int index, int slot) {
+      if (length == ring.length) {
+        int[] newRing = new int[ring.length << 1];
+        for (int i = 0; i < length; i++) {
+          newRing[i] = get(i);
+        }
+        ring = newRing;
+        head = 0;
+      }
+      int mask = ring.length - 1;
+      for (int i = length; i > index; i--) {
+        ring[(head + i) & mask] = ring[(head + i - 1) & mask];
+      }
+      ring[(head + index) & mask] = slot;
+      length++;
     }
 
-    @Override
-    public int compareTo(TimeEvent<EVENT, OFFSET> other) {
-      // Compare by event time, then by partition, then by offset
-      // Combination of them are guaranteed to be unique.
-
-      int cmp = Long.compare(eventTime, other.getEventTime());
-      if (cmp != 0) {
-        return cmp;
-      }
-      cmp = Integer.compare(partition, other.getPartition());
-      if (cmp != 0) {
-        return cmp;
+    /**
+     * Binary searches for the given offset. Returns the index if found, otherwise {@code -(insertion point) - 1}.
+     */
+    int search(OFFSET offset) {
+      int low = 0;
+      int high = length - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int cmp = getOffset(get(mid)).compareTo(offset);
+        if (cmp < 0) {
+          low = mid + 1;
+        } else if (cmp > 0) {
+          high = mid - 1;
+        } else {
+          return mid;
+        }
       }
-      return offset.compareTo(other.getOffset());
+      return -(low + 1);
     }
   }
 }
@@ -0,0 +1,341 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.logging.serialize;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.cdap.cdap.common.io.Locations;
+import io.cdap.cdap.logging.filter.LogEventSummary;
+import org.apache.twill.filesystem.Location;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Index of a log file, stored in a separate file next to the log file. The log file is divided into blocks that
+ * start at Avro sync positions. For each block, the index records the time range and the highest log level of the
+ * events, as well as a bloom filter of the MDC key and value pairs. Readers use it to seek directly to the blocks
+ * that can contain events of interest, and to skip the ones that can't.
+ */
+public final class LogFileIndex {
+
+  private static final String SUFFIX = ".idx";
+  private static final int MAGIC = 0x4c494458;
+  private static final int VERSION = 1;
+  private static final int BLOOM_WORDS = 16;
+  private static final int BLOOM_BITS = BLOOM_WORDS * Long.SIZE;
+  private static final int BLOOM_HASHES = 3;
+
+  private final long fileLength;
+  private final List<Block> blocks;
+
+  private LogFileIndex(long fileLength, List<Block> blocks) {
+    this.fileLength = fileLength;
+    this.blocks = Collections.unmodifiableList(blocks);
+  }
+
+  /**
+   * Returns the length of the log file that this index was created for.
+   */
+  public long getFileLength() {
+    return fileLength;
+  }
+
+  /**
+   * Returns the list of blocks in file order.
+   */
+  public List<Block> getBlocks() {
+    return blocks;
+  }
+
+  /**
+   * Returns the {@link Location} of the index for the given log file.
+   */
+  public static Location getIndexLocation(Location logLocation) throws IOException {
+    Location parent = Locations.getParent(logLocation);
+    if (parent == null) {
+      throw new IllegalArgumentException("Log file location has no parent: " + logLocation);
+    }
+    return parent.append(logLocation.getName() + SUFFIX);
+  }
+
+  /**
+   * Reads the index of the given log file.
+   *
+   * @return the {@link LogFileIndex} or {@code null} if there is no index for the log file
+   * @throws IOException if failed to read the index
+   */
+  @Nullable
+  public static LogFileIndex read(Location logLocation) throws IOException {
+    InputStream is;
+    try {
+      is = getIndexLocation(logLocation).getInputStream();
+    } catch (FileNotFoundException e) {
+      return null;
+    }
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(is))) {
+      if (input.readInt() != MAGIC) {
+        throw new IOException("Invalid log file index for " + logLocation);
+      }
+      int version = input.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported log file index version " + version + " for " + logLocation);
+      }
+      long fileLength = input.readLong();
+      int size = input.readInt();
+      List<Block> blocks = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        long position = input.readLong();
+        long endPosition = input.readLong();
+        long minTimestamp = input.readLong();
+        long maxTimestamp = input.readLong();
+        int maxLevel = input.readInt();
+        long[] bloom = new long[BLOOM_WORDS];
+        for (int j = 0; j < BLOOM_WORDS; j++) {
+          bloom[j] = input.readLong();
+        }
+        blocks.add(new Block(position, endPosition, minTimestamp, maxTimestamp, maxLevel, bloom));
+      }
+      return new LogFileIndex(fileLength, blocks);
+    }
+  }
+
+  /**
+   * Writes this index to the given {@link OutputStream}. The stream will be closed when this method returns.
+   */
+  public void write(OutputStream os) throws IOException {
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(os))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeLong(fileLength);
+      output.writeInt(blocks.size());
+      for (Block block : blocks) {
+        output.writeLong(block.position);
+        output.writeLong(block.endPosition);
+        output.writeLong(block.minTimestamp);
+        output.writeLong(block.maxTimestamp);
+        output.writeInt(block.maxLevel);
+        for (long word : block.bloom) {
+          output.writeLong(word);
+        }
+      }
+    }
+  }
+
+  /**
+   * Hashes a MDC key and value pair. The hash is persisted through the bloom filters, hence it must not be changed
+   * without changing the index version.
+   */
+  private static long hash(String key, String value) {
+    // 64 bits FNV-1a, followed by the murmur3 finalizer to spread the bits
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+    }
+    hash *= 0x100000001b3L;
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  /**
+   * Summary of a block of log events in the log file.
+   */
+  public static final class Block implements LogEventSummary {
+
+    private final long position;
+    private final long endPosition;
+    private final long minTimestamp;
+    private final long maxTimestamp;
+    private final int maxLevel;
+    private final long[] bloom;
+
+    private Block(long position, long endPosition, long minTimestamp, long maxTimestamp, int maxLevel, long[] bloom) {
+      this.position = position;
+      this.endPosition = endPosition;
+      this.minTimestamp = minTimestamp;
+      this.maxTimestamp = maxTimestamp;
+      this.maxLevel = maxLevel;
+      this.bloom = bloom;
+    }
+
+    /**
+     * Returns the sync position in the log file where this block starts.
+     */
+    public long getPosition() {
+      return position;
+    }
+
+    /**
+     * Returns the sync position in the log file where this block ends, which is the start of the next block.
+     */
+    public long getEndPosition() {
+      return endPosition;
+    }
+
+    public long getMinTimestamp() {
+      return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+      return maxTimestamp;
+    }
+
+    @Override
+    public boolean mayContainLevel(Level level) {
+      return maxLevel >= level.toInt();
+    }
+
+    @Override
+    public boolean mayContainMdc(String key, String value) {
+      long hash = hash(key, value);
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 0; i < BLOOM_HASHES; i++) {
+        int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % BLOOM_BITS;
+        if ((bloom[bit >>> 6] & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return "Block{" +
+        "position=" + position +
+        ", endPosition=" + endPosition +
+        ", minTimestamp=" + minTimestamp +
+        ", maxTimestamp=" + maxTimestamp +
+        ", maxLevel=" + maxLevel +
+        '}';
+    }
+  }
+
+  /**
+   * Builder for {@link LogFileIndex}, which summarizes events as they are written to the log file.
+   */
+  public static final class Builder {
+
+    private final List<Block> blocks = new ArrayList<>();
+
+    private long position = -1L;
+    private int eventCount;
+    private long minTimestamp;
+    private long maxTimestamp;
+    private int maxLevel;
+    private long[] bloom;
+
+    /**
+     * Starts a new block at the given sync position of the log file.
+     */
+    public Builder startBlock(long position) {
+      this.position = position;
+      this.eventCount = 0;
+      this.minTimestamp = Long.MAX_VALUE;
+      this.maxTimestamp = Long.MIN_VALUE;
+      this.maxLevel = Level.ALL.toInt();
+      this.bloom = new long[BLOOM_WORDS];
+      return this;
+    }
+
+    /**
+     * Returns the sync position that the current block starts at.
+     */
+    public long getBlockPosition() {
+      return position;
+    }
+
+    /**
+     * Returns the number of events added to the current block.
+     */
+    public int getEventCount() {
+      return eventCount;
+    }
+
+    /**
+     * Adds an event to the current block.
+     */
+    public Builder add(ILoggingEvent event) {
+      if (position < 0) {
+        throw new IllegalStateException("No block was started");
+      }
+      eventCount++;
+      long timestamp = event.getTimeStamp();
+      minTimestamp = Math.min(minTimestamp, timestamp);
+      maxTimestamp = Math.max(maxTimestamp, timestamp);
+      Level level = event.getLevel();
+      if (level != null) {
+        maxLevel = Math.max(maxLevel, level.toInt());
+      }
+      Map<String, String> mdc = event.getMDCPropertyMap();
+      if (mdc != null) {
+        for (Map.Entry<String, String> entry : mdc.entrySet()) {
+          if (entry.getKey() != null && entry.getValue() != null) {
+            addToBloom(hash(entry.getKey(), entry.getValue()));
+          }
+        }
+      }
+      return this;
+    }
+
+    /**
+     * Ends the current block at the given sync position of the log file. Blocks without events are not recorded.
+     */
+    public Builder endBlock(long endPosition) {
+      if (position >= 0 && eventCount > 0) {
+        blocks.add(new Block(position, endPosition, minTimestamp, maxTimestamp, maxLevel, bloom));
+      }
+      position = -1L;
+      return this;
+    }
+
+    /**
+     * Builds the {@link LogFileIndex} for a log file of the given length. Any block that is not yet ended is ignored.
+     */
+    public LogFileIndex build(long fileLength) {
+      return new LogFileIndex(fileLength, new ArrayList<>(blocks));
+    }
+
+    private void addToBloom(long hash) {
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 0; i < BLOOM_HASHES; i++) {
+        int bit = ((h1 + i * h2) & Integer.MAX_VALUE) % BLOOM_BITS;
+        bloom[bit >>> 6] |= 1L << bit;
+      }
+    }
+  }
+}
@@ -18,35 +18,81 @@ package io.cdap.cdap.logging.serialize;
 
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggerContextVO;
 import com.google.common.base.Throwables;
 import io.cdap.cdap.api.common.Bytes;
 import io.cdap.cdap.logging.LoggingUtil;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericArray;
 import org.apache.avro.generic.GenericData;
-import org.apache.avro.generic.GenericDatumReader;
 import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.generic.GenericRecord;
 import org.apache.avro.io.BinaryDecoder;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.Decoder;
 import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
 import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.util.Utf8;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 /**
  * Avro serializer for ILoggingEvent.
  * Method of this class is not thread safe, hence cannot be called from multiple threads concurrently.
+ *
+ * Events are encoded field by field into a reused buffer without going through a {@link GenericRecord}.
+ * Decoding only materializes the timestamp, level and MDC, which are used for routing and filtering of most events.
+ * The remaining fields are decoded by the {@link LoggingEvent} on first access.
  */
 @NotThreadSafe
 public final class LoggingEventSerializer {
 
-  private final GenericDatumReader<GenericRecord> datumReader = new GenericDatumReader<>(getAvroSchema());
+  private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+  private static final int MAX_STRING_CACHE_SIZE = 1024;
+
+  private final Map<String, byte[]> encodedStrings = new HashMap<>();
+  private final Map<Utf8, String> decodedStrings = new HashMap<>();
+  private final Utf8 utf8 = new Utf8();
+  private final Schema loggerContextSchema;
+  private final Schema throwableProxySchema;
+  private final Schema callerDataSchema;
+  private final GenericDatumWriter<GenericRecord> loggerContextWriter;
+  private final GenericDatumWriter<GenericRecord> throwableProxyWriter;
+  private final GenericDatumWriter<GenericArray<GenericRecord>> callerDataWriter;
+  private final List<Schema.Field> lazyFields;
+
+  private ByteArrayOutputStream output;
+  private BinaryEncoder encoder;
   private BinaryDecoder decoder;
+  private LoggerContextVO lastLoggerContext;
+  private byte[] lastLoggerContextEncoded;
+
+  public LoggingEventSerializer() {
+    Schema schema = getAvroSchema();
+    List<Schema.Field> fields = schema.getFields();
+    // Both encode and decode rely on the field order of the schema
+    if (fields.size() != 13 || !"timestamp".equals(fields.get(0).name()) || !"level".equals(fields.get(1).name())
+      || !"mdc".equals(fields.get(2).name())) {
+      throw new IllegalStateException("Unexpected LoggingEvent schema " + schema);
+    }
+    this.lazyFields = fields.subList(3, fields.size());
+    this.loggerContextSchema = schema.getField("loggerContextVO").schema();
+    this.throwableProxySchema = schema.getField("throwableProxy").schema();
+    this.callerDataSchema = schema.getField("callerData").schema();
+    this.loggerContextWriter = new GenericDatumWriter<>(loggerContextSchema);
+    this.throwableProxyWriter = new GenericDatumWriter<>(throwableProxySchema);
+    this.callerDataWriter = new GenericDatumWriter<>(callerDataSchema);
+    this.output = new ByteArrayOutputStream();
+  }
 
   /**
    * Returns the {@link Schema} for logging event, which is the same as {@link LogSchema.LoggingEvent#SCHEMA}.
@@ -59,28 +105,43 @@ public final class LoggingEventSerializer {
    * Encodes a {@link ILoggingEvent} to byte array.
    */
   public byte[] toBytes(ILoggingEvent event) {
-    ByteArrayOutputStream out = new ByteArrayOutputStream();
-    BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
-    GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(getAvroSchema());
+    output.reset();
+    encoder = EncoderFactory.get().binaryEncoder(output, encoder);
     try {
-      writer.write(toGenericRecord(event), encoder);
+      encode(event, encoder);
+      encoder.flush();
     } catch (IOException e) {
       // This shouldn't happen since we are writing to byte array output stream.
       throw Throwables.propagate(e);
     }
-    return out.toByteArray();
+    byte[] bytes = output.toByteArray();
+    if (bytes.length > MAX_RETAINED_BUFFER_SIZE) {
+      // Don't hold on to the buffer grown by an unusually large event
+      output = new ByteArrayOutputStream();
+    }
+    return bytes;
   }
 
   /**
    * Decodes the content of the given {@link ByteBuffer} into {@link ILoggingEvent}, based on the
-   * schema returned by the {@link #getAvroSchema()} method.
+   * schema returned by the {@link #getAvroSchema()} method. The content of the buffer shouldn't be modified
+   * afterwards, since the returned event decodes fields from it lazily.
    *
    * @param buffer the buffer to decode
    * @return a new instance of {@link ILoggingEvent} decoded from the buffer
    * @throws IOException if fail to decode
    */
   public ILoggingEvent fromBytes(ByteBuffer buffer) throws IOException {
-    return new LoggingEvent(toGenericRecord(buffer), buffer);
+    BinaryDecoder decoder = getDecoder(buffer);
+    long timestamp = decoder.readLong();
+    Level level = Level.toLevel(decoder.readInt());
+    Map<String, String> mdc = decodeMDC(decoder);
+
+    // Validates the remaining fields without materializing them
+    for (Schema.Field field : lazyFields) {
+      skip(field.schema(), decoder);
+    }
+    return new LoggingEvent(buffer, timestamp, level, mdc);
   }
 
   /**
@@ -119,15 +180,135 @@ public final class LoggingEventSerializer {
   }
 
   /**
-   * Decodes the content of the given {@link ByteBuffer} into {@link GenericRecord}, based on the schema
-   * returned by the {@link #getAvroSchema()} method.
+   * Writes the given event with the given {@link Encoder} in the field order of the schema.
+   * The result is the same as writing the record returned by {@link #toGenericRecord(ILoggingEvent)}.
+   */
+  private void encode(ILoggingEvent event, Encoder encoder) throws IOException {
+    encoder.writeLong(event.getTimeStamp());
+    encoder.writeInt(event.getLevel() == null ? Level.ERROR_INT : event.getLevel().toInt());
+
+    // mdc
+    Map<String, String> mdc = event.getMDCPropertyMap();
+    encoder.writeIndex(1);
+    encoder.writeMapStart();
+    encoder.setItemCount(mdc.size());
+    for (Map.Entry<String, String> entry : mdc.entrySet()) {
+      encoder.startItem();
+      // AVRO does not allow null map keys.
+      writeCachedString(entry.getKey() == null ? LoggingUtil.MDC_NULL_KEY : entry.getKey(), encoder);
+      writeNullableString(entry.getValue(), true, encoder);
+    }
+    encoder.writeMapEnd();
+
+    // marker is not supported in serialization
+    encoder.writeIndex(0);
+
+    writeNullableString(event.getThreadName(), true, encoder);
+    writeNullableString(event.getMessage(), false, encoder);
+
+    // argumentArray
+    Object[] arguments = event.getArgumentArray();
+    if (arguments == null) {
+      encoder.writeIndex(0);
+    } else {
+      encoder.writeIndex(1);
+      encoder.writeArrayStart();
+      encoder.setItemCount(arguments.length);
+      for (Object argument : arguments) {
+        encoder.startItem();
+        writeNullableString(argument == null ? null : argument.toString(), false, encoder);
+      }
+      encoder.writeArrayEnd();
+    }
+
+    writeNullableString(event.getFormattedMessage(), false, encoder);
+    writeNullableString(event.getLoggerName(), true, encoder);
+
+    // All events from the same logger context share the same instance, hence only encode it when it changes
+    LoggerContextVO loggerContext = event.getLoggerContextVO();
+    if (lastLoggerContextEncoded == null || loggerContext != lastLoggerContext) {
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      BinaryEncoder contextEncoder = EncoderFactory.get().directBinaryEncoder(os, null);
+      loggerContextWriter.write(LoggerContextSerializer.encode(loggerContextSchema, loggerContext), contextEncoder);
+      lastLoggerContextEncoded = os.toByteArray();
+      lastLoggerContext = loggerContext;
+    }
+    encoder.writeFixed(lastLoggerContextEncoded);
+
+    throwableProxyWriter.write(ThrowableProxySerializer.encode(throwableProxySchema, event.getThrowableProxy()),
+                               encoder);
+
+    boolean hasCallerData = event.hasCallerData();
+    encoder.writeBoolean(hasCallerData);
+    callerDataWriter.write(hasCallerData ? CallerDataSerializer.encode(callerDataSchema, event.getCallerData()) : null,
+                           encoder);
+  }
+
+  /**
+   * Writes a string of the {@code ["null", "string"]} union type.
    *
-   * @param buffer the buffer to decode
-   * @return a {@link GenericRecord} representing the decoded content.
-   * @throws IOException if fail to decode
+   * @param cache {@code true} to cache the UTF-8 bytes of the string; only for strings that repeat across events
+   */
+  private void writeNullableString(@Nullable String value, boolean cache, Encoder encoder) throws IOException {
+    if (value == null) {
+      encoder.writeIndex(0);
+      return;
+    }
+    encoder.writeIndex(1);
+    if (cache) {
+      writeCachedString(value, encoder);
+    } else {
+      encoder.writeString(value);
+    }
+  }
+
+  /**
+   * Writes a string with the cached UTF-8 bytes. The result is the same as {@link Encoder#writeString(String)}.
    */
-  private GenericRecord toGenericRecord(ByteBuffer buffer) throws IOException {
-    return datumReader.read(null, getDecoder(buffer));
+  private void writeCachedString(String value, Encoder encoder) throws IOException {
+    byte[] bytes = encodedStrings.get(value);
+    if (bytes == null) {
+      if (encodedStrings.size() >= MAX_STRING_CACHE_SIZE) {
+        encodedStrings.clear();
+      }
+      bytes = value.getBytes(StandardCharsets.UTF_8);
+      encodedStrings.put(value, bytes);
+    }
+    encoder.writeInt(bytes.length);
+    encoder.writeFixed(bytes);
+  }
+
+  /**
+   * Decodes the MDC map. Repeated keys and values share the same {@link String} instance.
+   */
+  private Map<String, String> decodeMDC(Decoder decoder) throws IOException {
+    // Returns an empty map as ILoggingEvent guarantees MDC never null.
+    Map<String, String> mdc = new HashMap<>();
+    if (decoder.readIndex() == 0) {
+      return mdc;
+    }
+    for (long i = decoder.readMapStart(); i != 0; i = decoder.mapNext()) {
+      for (long j = 0; j < i; j++) {
+        String key = readCachedString(decoder);
+        String value = decoder.readIndex() == 0 ? null : readCachedString(decoder);
+        mdc.put(LoggingUtil.MDC_NULL_KEY.equals(key) ? null : key, value);
+      }
+    }
+    return mdc;
+  }
+
+  private String readCachedString(Decoder decoder) throws IOException {
+    decoder.readString(utf8);
+    String value = decodedStrings.get(utf8);
+    if (value == null) {
+      if (decodedStrings.size() >= MAX_STRING_CACHE_SIZE) {
+        decodedStrings.clear();
+      }
+      value = utf8.toString();
+      // The scratch Utf8 is reused, hence needs a copy for the key
+      decodedStrings.put(new Utf8(value), value);
+    }
+    return value;
   }
 
   /**
@@ -197,7 +378,7 @@ public final class LoggingEventSerializer {
         }
         break;
       case UNION:
-        decoder.readIndex();
+        skip(schema.getTypes().get(decoder.readIndex()), decoder);
         break;
       case FIXED:
         decoder.skipFixed(schema.getFixedSize());
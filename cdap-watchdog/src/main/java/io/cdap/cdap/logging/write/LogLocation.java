@@ -30,6 +30,7 @@ import io.cdap.cdap.logging.filter.Filter;
 import io.cdap.cdap.logging.read.Callback;
 import io.cdap.cdap.logging.read.LogEvent;
 import io.cdap.cdap.logging.read.LogOffset;
+import io.cdap.cdap.logging.serialize.LogFileIndex;
 import io.cdap.cdap.logging.serialize.LogSchema;
 import io.cdap.cdap.logging.serialize.LoggingEvent;
 import io.cdap.cdap.proto.id.NamespaceId;
@@ -46,10 +47,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 
 /**
  * LogLocation representing a log file and methods to read the file's contents.
@@ -150,6 +154,11 @@ public class LogLocation {
    */
   @SuppressWarnings("WeakerAccess")
   public Collection<LogEvent> readLogPrev(Filter logFilter, long fromTimeMs, final int maxEvents) throws IOException {
+    LogFileIndex index = readIndex();
+    if (index != null) {
+      return readLogPrev(index, logFilter, fromTimeMs, maxEvents);
+    }
+
     Deque<Collection<LogEvent>> logSegments = new LinkedList<>();
     int count = 0;
     try {
@@ -206,6 +215,37 @@ public class LogLocation {
     return Lists.newArrayList(Iterables.skip(Iterables.concat(logSegments), skip));
   }
 
+  /**
+   * Reads the log events before the given time by going through the index blocks backward, skipping blocks that
+   * cannot contain matching events.
+   */
+  private Collection<LogEvent> readLogPrev(LogFileIndex index, Filter logFilter, long fromTimeMs, int maxEvents) {
+    Deque<Collection<LogEvent>> logSegments = new LinkedList<>();
+    int count = 0;
+    List<LogFileIndex.Block> blocks = index.getBlocks();
+    try (DataFileReader<GenericRecord> dataFileReader = createReader()) {
+      for (int i = blocks.size() - 1; i >= 0 && count < maxEvents; i--) {
+        LogFileIndex.Block block = blocks.get(i);
+        if (block.getMinTimestamp() > fromTimeMs || !logFilter.mayMatch(block)) {
+          continue;
+        }
+        dataFileReader.seek(block.getPosition());
+        List<LogEvent> logSegment = readToEndSyncPosition(dataFileReader, logFilter, fromTimeMs,
+                                                          block.getEndPosition());
+        if (!logSegment.isEmpty()) {
+          logSegments.addFirst(logSegment);
+          count = count + logSegment.size();
+        }
+        LOG.trace("Read log events {} from index block {}", count, block);
+      }
+    } catch (IOException e) {
+      READ_FAILURE_LOG.warn("Got exception while reading log file {}", location, e);
+    }
+
+    int skip = count >= maxEvents ? count - maxEvents : 0;
+    return Lists.newArrayList(Iterables.skip(Iterables.concat(logSegments), skip));
+  }
+
   /**
    *  Read current block in Avro file from current block sync marker to next block sync marker
    */
@@ -259,6 +299,9 @@ public class LogLocation {
     private final long maxEvents;
 
     private DataFileReader<GenericRecord> dataFileReader;
+    // Index blocks to read from, or null if the file has no index
+    private Iterator<LogFileIndex.Block> blocks;
+    private long blockEndPosition = -1L;
 
     private ILoggingEvent loggingEvent;
     private GenericRecord datum;
@@ -276,7 +319,15 @@ public class LogLocation {
 
       try {
         dataFileReader = createReader();
-        if (dataFileReader.hasNext()) {
+        LogFileIndex index = readIndex();
+        if (index != null) {
+          // Only read the blocks that may contain events in the time range that match the filter
+          blocks = index.getBlocks().stream()
+            .filter(block -> block.getMaxTimestamp() >= fromTimeMs && block.getMinTimestamp() <= toTimeMs)
+            .filter(logFilter::mayMatch)
+            .collect(Collectors.toList())
+            .iterator();
+        } else if (dataFileReader.hasNext()) {
           datum = dataFileReader.next();
           loggingEvent = new LoggingEvent(datum);
           loggingEvent.prepareForDeferredProcessing();
@@ -315,7 +366,7 @@ public class LogLocation {
     private void computeNext() {
       try {
         // read events from file
-        while (next == null && dataFileReader.hasNext()) {
+        while (next == null && nextBlock() && dataFileReader.hasNext()) {
           loggingEvent = new LoggingEvent(dataFileReader.next(datum));
           loggingEvent.prepareForDeferredProcessing();
 
@@ -338,6 +389,25 @@ public class LogLocation {
       }
     }
 
+    /**
+     * Moves to the next index block if the current one is fully read.
+     *
+     * @return {@code false} if there are no more blocks to read
+     */
+    private boolean nextBlock() throws IOException {
+      if (blocks == null || dataFileReader.previousSync() < blockEndPosition) {
+        return true;
+      }
+      if (!blocks.hasNext()) {
+        return false;
+      }
+      LogFileIndex.Block block = blocks.next();
+      LOG.trace("Seeking to index block {}", block);
+      dataFileReader.seek(block.getPosition());
+      blockEndPosition = block.getEndPosition();
+      return true;
+    }
+
     @Override
     public void close() {
       try {
@@ -371,6 +441,30 @@ public class LogLocation {
     }
   }
 
+  /**
+   * Reads the index of the log file.
+   *
+   * @return the {@link LogFileIndex} or {@code null} if the file has no valid index
+   */
+  @Nullable
+  private LogFileIndex readIndex() {
+    // Index is only written for files created with the V1 version
+    if (!VERSION_1.equals(frameworkVersion)) {
+      return null;
+    }
+    try {
+      LogFileIndex index = LogFileIndex.read(location);
+      if (index != null && index.getFileLength() != location.length()) {
+        LOG.debug("Ignoring index of log file {} since the file length doesn't match", location);
+        return null;
+      }
+      return index;
+    } catch (Exception e) {
+      LOG.debug("Failed to read index of log file {}. Reading the file without the index.", location, e);
+      return null;
+    }
+  }
+
   private DataFileReader<GenericRecord> createReader() throws IOException {
     boolean shouldImpersonate = this.getFrameworkVersion().equals(VERSION_0);
     return new DataFileReader<>(new LocationSeekableInput(location, namespaceId, impersonator, shouldImpersonate),
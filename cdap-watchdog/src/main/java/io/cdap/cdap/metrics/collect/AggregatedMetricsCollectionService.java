@@ -24,6 +24,8 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.AbstractExecutionThreadService;
 import com.google.common.util.concurrent.Uninterruptibles;
+import io.cdap.cdap.api.metrics.Counter;
+import io.cdap.cdap.api.metrics.Gauge;
 import io.cdap.cdap.api.metrics.MetricType;
 import io.cdap.cdap.api.metrics.MetricValue;
 import io.cdap.cdap.api.metrics.MetricValues;
@@ -49,6 +51,8 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
 
   private static final Logger LOG = LoggerFactory.getLogger(AggregatedMetricsCollectionService.class);
   private static final long CACHE_EXPIRE_MINUTES = 1;
+  // interval for bound metric handles to access the emitter cache, which must be well below the cache expiry
+  private static final long HANDLE_TOUCH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
 
   private final LoadingCache<Map<String, String>, MetricsContext> collectors;
   private final LoadingCache<Map<String, String>, LoadingCache<String, AggregatedMetricsEmitter>> emitters;
@@ -236,6 +240,16 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
       emitters.getUnchecked(tags).getUnchecked(metricName).gauge(value);
     }
 
+    @Override
+    public Counter counter(String metricName) {
+      return new BoundEmitter(tags, metricName);
+    }
+
+    @Override
+    public Gauge gauge(String metricName) {
+      return new BoundEmitter(tags, metricName);
+    }
+
     @Override
     public MetricsContext childContext(String tagName, String tagValue) {
       ImmutableMap<String, String> allTags = ImmutableMap.<String, String>builder()
@@ -260,4 +274,47 @@ public abstract class AggregatedMetricsCollectionService extends AbstractExecuti
       return collectors.getUnchecked(allTags);
     }
   }
+
+  /**
+   * A {@link Counter} and {@link Gauge} that holds on to the {@link AggregatedMetricsEmitter} of a metric, so that
+   * updates don't need to look up the emitter caches. Since updates through the handle don't reset the access time
+   * of the cache entries, the caches are accessed periodically while the handle is in use. If the handle was idle
+   * long enough for the emitter to expire, it will pick up the new emitter through the same access.
+   */
+  private final class BoundEmitter implements Counter, Gauge {
+
+    private final Map<String, String> tags;
+    private final String metricName;
+    private volatile AggregatedMetricsEmitter emitter;
+    private volatile long nextTouchNanos;
+
+    private BoundEmitter(Map<String, String> tags, String metricName) {
+      this.tags = tags;
+      this.metricName = metricName;
+      this.emitter = emitters.getUnchecked(tags).getUnchecked(metricName);
+      this.nextTouchNanos = System.nanoTime() + HANDLE_TOUCH_INTERVAL_NANOS;
+    }
+
+    @Override
+    public void increment(long delta) {
+      getEmitter().increment(delta);
+    }
+
+    @Override
+    public void set(long value) {
+      getEmitter().gauge(value);
+    }
+
+    private AggregatedMetricsEmitter getEmitter() {
+      long now = System.nanoTime();
+      if (now - nextTouchNanos < 0) {
+        return emitter;
+      }
+      // It is ok to have multiple threads doing the lookup concurrently, as they all get the same emitter
+      AggregatedMetricsEmitter emitter = emitters.getUnchecked(tags).getUnchecked(metricName);
+      this.emitter = emitter;
+      nextTouchNanos = now + HANDLE_TOUCH_INTERVAL_NANOS;
+      return emitter;
+    }
+  }
 }
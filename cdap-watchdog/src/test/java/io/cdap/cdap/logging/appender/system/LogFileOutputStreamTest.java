@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2021 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+
+package io.cdap.cdap.logging.appender.system;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import com.google.common.collect.ImmutableList;
+import io.cdap.cdap.api.dataset.lib.CloseableIterator;
+import io.cdap.cdap.logging.filter.AndFilter;
+import io.cdap.cdap.logging.filter.Filter;
+import io.cdap.cdap.logging.filter.LogLevelExpression;
+import io.cdap.cdap.logging.filter.MdcExpression;
+import io.cdap.cdap.logging.read.LogEvent;
+import io.cdap.cdap.logging.serialize.LogFileIndex;
+import io.cdap.cdap.logging.write.LogLocation;
+import org.apache.avro.file.CodecFactory;
+import org.apache.twill.filesystem.LocalLocationFactory;
+import org.apache.twill.filesystem.Location;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit tests for {@link LogFileOutputStream} and reading the files it writes through {@link LogLocation}.
+ */
+public class LogFileOutputStreamTest {
+
+  @ClassRule
+  public static final TemporaryFolder TMP_FOLDER = new TemporaryFolder();
+
+  private static final String RUN_ID_KEY = ".runId";
+  private static final long BASE_TIME = 1000000L;
+  private static final int EVENT_COUNT = 10000;
+
+  @Test
+  public void testIndexedRead() throws Exception {
+    LocalLocationFactory locationFactory = new LocalLocationFactory(TMP_FOLDER.newFolder());
+    Location location = locationFactory.create("logs.avro");
+    writeEvents(location);
+
+    LogFileIndex index = LogFileIndex.read(location);
+    Assert.assertNotNull(index);
+    Assert.assertEquals(location.length(), index.getFileLength());
+    Assert.assertTrue(index.getBlocks().size() > 1);
+
+    // The blocks should cover disjoint ranges of the file
+    long position = 0L;
+    for (LogFileIndex.Block block : index.getBlocks()) {
+      Assert.assertTrue(block.getPosition() >= position);
+      Assert.assertTrue(block.getEndPosition() > block.getPosition());
+      position = block.getEndPosition();
+    }
+
+    // Blocks written only by the first run shouldn't match a filter on the second run
+    Filter run2 = new MdcExpression(RUN_ID_KEY, "run2");
+    Assert.assertFalse(run2.mayMatch(index.getBlocks().get(0)));
+
+    LogLocation logLocation = new LogLocation(LogLocation.VERSION_1, BASE_TIME, BASE_TIME, location,
+                                              "default", null);
+    List<Long> indexedRun2 = readTimestamps(logLocation, run2, 0L, Long.MAX_VALUE, EVENT_COUNT);
+    List<Long> indexedRange = readTimestamps(logLocation, Filter.EMPTY_FILTER,
+                                             BASE_TIME + 7000, BASE_TIME + 7100, EVENT_COUNT);
+    Filter errors = new AndFilter(ImmutableList.of(new LogLevelExpression("ERROR"),
+                                                   new MdcExpression(RUN_ID_KEY, "run1")));
+    List<Long> indexedPrev = toTimestamps(logLocation.readLogPrev(errors, BASE_TIME + 8000, 3));
+
+    Assert.assertEquals(EVENT_COUNT / 2, indexedRun2.size());
+    Assert.assertEquals(BASE_TIME + EVENT_COUNT / 2, (long) indexedRun2.get(0));
+    Assert.assertEquals(100, indexedRange.size());
+    Assert.assertEquals(BASE_TIME + 7000, (long) indexedRange.get(0));
+    Assert.assertEquals(ImmutableList.of(BASE_TIME + 2000, BASE_TIME + 3000, BASE_TIME + 4000), indexedPrev);
+
+    // Reading without the index should give the same result
+    Assert.assertTrue(LogFileIndex.getIndexLocation(location).delete());
+    Assert.assertNull(LogFileIndex.read(location));
+    Assert.assertEquals(indexedRun2, readTimestamps(logLocation, run2, 0L, Long.MAX_VALUE, EVENT_COUNT));
+    Assert.assertEquals(indexedRange, readTimestamps(logLocation, Filter.EMPTY_FILTER,
+                                                     BASE_TIME + 7000, BASE_TIME + 7100, EVENT_COUNT));
+    Assert.assertEquals(indexedPrev, toTimestamps(logLocation.readLogPrev(errors, BASE_TIME + 8000, 3)));
+  }
+
+  private void writeEvents(Location location) throws Exception {
+    Logger logger = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+    try (LogFileOutputStream output = new LogFileOutputStream(location, "", 1024 * 1024, CodecFactory.deflateCodec(6),
+                                                              BASE_TIME, () -> { })) {
+      for (int i = 0; i < EVENT_COUNT; i++) {
+        // Every 1000th event is an error. The first half is from run1 and the second half is from run2.
+        Level level = i % 1000 == 0 ? Level.ERROR : Level.INFO;
+        LoggingEvent event = new LoggingEvent(getClass().getName(), logger, level, "Message " + i, null, null);
+        event.setTimeStamp(BASE_TIME + i);
+        Map<String, String> mdc = new HashMap<>();
+        mdc.put(RUN_ID_KEY, i < EVENT_COUNT / 2 ? "run1" : "run2");
+        event.setMDCPropertyMap(mdc);
+        output.append(event);
+        if (i % 500 == 499) {
+          output.flush();
+        }
+      }
+    }
+  }
+
+  private List<Long> readTimestamps(LogLocation logLocation, Filter filter, long from, long to, int maxEvents) {
+    List<Long> timestamps = new ArrayList<>();
+    try (CloseableIterator<LogEvent> iterator = logLocation.readLog(filter, from, to, maxEvents)) {
+      while (iterator.hasNext()) {
+        timestamps.add(iterator.next().getLoggingEvent().getTimeStamp());
+      }
+    }
+    return timestamps;
+  }
+
+  private List<Long> toTimestamps(Collection<LogEvent> events) {
+    List<Long> timestamps = new ArrayList<>();
+    for (LogEvent event : events) {
+      timestamps.add(event.getLoggingEvent().getTimeStamp());
+    }
+    return timestamps;
+  }
+}
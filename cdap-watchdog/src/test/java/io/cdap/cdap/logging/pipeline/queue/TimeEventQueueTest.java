@@ -21,11 +21,14 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Random;
 
 /**
  * Unit-test for {@link TimeEventQueue}.
@@ -143,6 +146,109 @@ public class TimeEventQueueTest {
     Assert.assertTrue(eventQueue.isEmpty());
   }
 
+  @Test
+  public void testOutOfOrderOffset() {
+    TimeEventQueue<String, Integer> eventQueue = new TimeEventQueue<>(ImmutableSet.of(1));
+
+    eventQueue.add("m3", 3L, 10, 1, 3);
+    eventQueue.add("m5", 5L, 10, 1, 5);
+    eventQueue.add("m1", 1L, 10, 1, 1);
+    eventQueue.add("m4", 4L, 10, 1, 4);
+
+    // Adding the same event again should be ignored
+    eventQueue.add("m4", 4L, 10, 1, 4);
+    Assert.assertEquals(4, eventQueue.size());
+    Assert.assertEquals(40, eventQueue.getEventSize());
+    Assert.assertEquals(1, eventQueue.getSmallestOffset(1).intValue());
+
+    // Adding a different event with the same offset is not allowed
+    try {
+      eventQueue.add("m4", 6L, 10, 1, 4);
+      Assert.fail("Expected failure when adding different event with the same offset");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+
+    // Remove the event with offset 4, which is in the middle of the partition, then add it back
+    TimeEventQueue.EventIterator<String, Integer> iterator = eventQueue.iterator();
+    Assert.assertEquals("m1", iterator.next());
+    Assert.assertEquals("m3", iterator.next());
+    Assert.assertEquals("m4", iterator.next());
+    iterator.remove();
+    Assert.assertEquals(3, eventQueue.size());
+    Assert.assertEquals(1, eventQueue.getSmallestOffset(1).intValue());
+
+    eventQueue.add("m4", 4L, 10, 1, 4);
+    Assert.assertEquals(4, eventQueue.size());
+    Assert.assertEquals(40, eventQueue.getEventSize());
+
+    // Events iterated but not removed should still be in the queue
+    List<String> events = new ArrayList<>();
+    eventQueue.forEach(events::add);
+    Assert.assertEquals(Arrays.asList("m1", "m3", "m4", "m5"), events);
+    Assert.assertEquals("m1", eventQueue.first());
+
+    // Drain the queue
+    iterator = eventQueue.iterator();
+    while (iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+    Assert.assertTrue(eventQueue.isEmpty());
+    Assert.assertTrue(eventQueue.isEmpty(1));
+    Assert.assertEquals(0, eventQueue.getEventSize());
+  }
+
+  @Test
+  public void testManyEvents() {
+    int partitions = 4;
+    int eventsPerPartition = 1000;
+    TimeEventQueue<Long, Integer> eventQueue = new TimeEventQueue<>(ImmutableSet.of(0, 1, 2, 3));
+    Random random = new Random();
+    List<Long> expected = new ArrayList<>();
+
+    for (int i = 0; i < eventsPerPartition; i++) {
+      for (int p = 0; p < partitions; p++) {
+        long timestamp = random.nextInt(10000);
+        eventQueue.add(timestamp, timestamp, 1, p, i);
+        expected.add(timestamp);
+      }
+    }
+    Collections.sort(expected);
+    Assert.assertEquals(partitions * eventsPerPartition, eventQueue.size());
+
+    // Remove half of the events in time order, then add a new event to each partition
+    TimeEventQueue.EventIterator<Long, Integer> iterator = eventQueue.iterator();
+    for (int i = 0; i < expected.size() / 2; i++) {
+      Assert.assertEquals(expected.get(i), iterator.next());
+      iterator.remove();
+    }
+    expected = new ArrayList<>(expected.subList(expected.size() / 2, expected.size()));
+    for (int p = 0; p < partitions; p++) {
+      eventQueue.add(10000L, 10000L, 1, p, eventsPerPartition);
+      expected.add(10000L);
+    }
+
+    List<Long> actual = new ArrayList<>();
+    iterator = eventQueue.iterator();
+    while (iterator.hasNext()) {
+      actual.add(iterator.next());
+      iterator.remove();
+    }
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(0, eventQueue.getEventSize());
+  }
+
+  @Test (expected = ConcurrentModificationException.class)
+  public void testConcurrentModification() {
+    TimeEventQueue<String, Integer> eventQueue = new TimeEventQueue<>(Collections.singleton(1));
+    eventQueue.add("test", 1L, 10, 1, 0);
+    Iterator<String> iterator = eventQueue.iterator();
+    iterator.next();
+    eventQueue.add("test2", 2L, 10, 1, 1);
+    iterator.remove();
+  }
+
   @Test (expected = IllegalArgumentException.class)
   public void testInvalidPartition() {
     TimeEventQueue<String, Integer> eventQueue = new TimeEventQueue<>(Collections.singleton(1));
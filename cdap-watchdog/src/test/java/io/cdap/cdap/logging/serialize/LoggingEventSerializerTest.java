@@ -29,12 +29,19 @@ import io.cdap.cdap.common.logging.ServiceLoggingContext;
 import io.cdap.cdap.common.logging.logback.TestLoggingContext;
 import io.cdap.cdap.logging.appender.LogMessage;
 import io.cdap.cdap.logging.context.LoggingContextHelper;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
@@ -182,6 +189,69 @@ public class LoggingEventSerializerTest {
     Assert.assertEquals(timestamp, serializer.decodeEventTimestamp(ByteBuffer.wrap(bytes)));
   }
 
+  @Test
+  public void testEncodingCompatibility() throws IOException {
+    LoggingEventSerializer serializer = new LoggingEventSerializer();
+    GenericDatumWriter<GenericRecord> writer = new GenericDatumWriter<>(serializer.getAvroSchema());
+    GenericDatumReader<GenericRecord> reader = new GenericDatumReader<>(serializer.getAvroSchema());
+
+    Map<String, String> contextMap = new HashMap<>();
+    contextMap.put("p1", "ctx-val1");
+    contextMap.put(null, null);
+
+    // Reuse the same serializer for multiple events to make sure no state leaks between events
+    for (int i = 0; i < 10; i++) {
+      ch.qos.logback.classic.spi.LoggingEvent iLoggingEvent = new ch.qos.logback.classic.spi.LoggingEvent();
+      iLoggingEvent.setThreadName("thread-" + (i % 2));
+      iLoggingEvent.setLevel(i % 3 == 0 ? Level.WARN : Level.INFO);
+      iLoggingEvent.setMessage("Log message {}");
+      iLoggingEvent.setArgumentArray(i % 2 == 0 ? null : new Object[] { i, null });
+      iLoggingEvent.setLoggerName("logger" + (i % 3));
+      iLoggingEvent.setLoggerContextRemoteView(new LoggerContextVO("context" + (i / 5), contextMap, 1234L));
+      if (i % 4 == 0) {
+        iLoggingEvent.setThrowableProxy(new ThrowableProxy(new Exception("Exception " + i)));
+        iLoggingEvent.setCallerData(new StackTraceElement[] {
+          new StackTraceElement("com.Class1", "methodName1", "fileName1", i)
+        });
+      }
+      iLoggingEvent.getMDCPropertyMap().put("mdc", "value" + (i % 2));
+      iLoggingEvent.getMDCPropertyMap().put(null, "null-key");
+      iLoggingEvent.setTimeStamp(1000L + i);
+      iLoggingEvent.prepareForDeferredProcessing();
+
+      ByteArrayOutputStream os = new ByteArrayOutputStream();
+      BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(os, null);
+      writer.write(serializer.toGenericRecord(iLoggingEvent), encoder);
+
+      // The bytes should be decoded to the same record as the one written through the generic record
+      byte[] bytes = serializer.toBytes(iLoggingEvent);
+      GenericRecord expected = reader.read(null, DecoderFactory.get().binaryDecoder(os.toByteArray(), null));
+      Assert.assertEquals(expected, reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null)));
+
+      LoggingEvent actualEvent = (LoggingEvent) serializer.fromBytes(ByteBuffer.wrap(bytes));
+      Assert.assertEquals(expected, actualEvent.getRecord());
+      Assert.assertEquals(iLoggingEvent.getTimeStamp(), actualEvent.getTimeStamp());
+      Assert.assertEquals(iLoggingEvent.getLevel(), actualEvent.getLevel());
+      Assert.assertEquals(iLoggingEvent.getMDCPropertyMap(), actualEvent.getMDCPropertyMap());
+      Assert.assertEquals(iLoggingEvent.getLoggerContextVO(), actualEvent.getLoggerContextVO());
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncated() throws IOException {
+    ch.qos.logback.classic.spi.LoggingEvent iLoggingEvent = new ch.qos.logback.classic.spi.LoggingEvent();
+    iLoggingEvent.setLevel(Level.INFO);
+    iLoggingEvent.setLoggerName("test.logger");
+    iLoggingEvent.setMessage("Some test");
+    iLoggingEvent.setThrowableProxy(new ThrowableProxy(new Exception("Test")));
+
+    LoggingEventSerializer serializer = new LoggingEventSerializer();
+    byte[] bytes = serializer.toBytes(iLoggingEvent);
+
+    // Even the fields are lazily decoded, a truncated event should fail when decoding
+    serializer.fromBytes(ByteBuffer.wrap(bytes, 0, bytes.length - 10));
+  }
+
   static void assertLoggingEventEquals(ILoggingEvent expected, ILoggingEvent actual) {
     expected.getMDCPropertyMap().putAll(
       ImmutableMap.of(".namespaceId", "TEST_ACCT_ID1", ".applicationId", "TEST_APP_ID1", ".runId", "RUN1",
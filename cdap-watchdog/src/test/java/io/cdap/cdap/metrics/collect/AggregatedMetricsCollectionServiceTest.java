@@ -17,6 +17,8 @@ package io.cdap.cdap.metrics.collect;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterators;
+import io.cdap.cdap.api.metrics.Counter;
+import io.cdap.cdap.api.metrics.Gauge;
 import io.cdap.cdap.api.metrics.MetricValue;
 import io.cdap.cdap.api.metrics.MetricValues;
 import io.cdap.cdap.api.metrics.MetricsContext;
@@ -139,6 +141,44 @@ public class AggregatedMetricsCollectionServiceTest {
     }
   }
 
+  @Category(SlowTests.class)
+  @Test
+  public void testBoundHandles() throws InterruptedException {
+    final BlockingQueue<MetricValues> published = new LinkedBlockingQueue<>();
+
+    AggregatedMetricsCollectionService service = new AggregatedMetricsCollectionService(1000L) {
+      @Override
+      protected void publish(Iterator<MetricValues> metrics) {
+        Iterators.addAll(published, metrics);
+      }
+    };
+
+    service.startAndWait();
+    try {
+      MetricsContext context = service.getContext(EMPTY_TAGS);
+      Counter counter = context.counter(METRIC);
+      Gauge gauge = context.gauge(GAUGE_METRIC);
+
+      // Updates through the handle and through the context should be aggregated into the same metric
+      counter.increment(Integer.MAX_VALUE);
+      counter.increment();
+      context.increment(METRIC, 2);
+      service.getContext(EMPTY_TAGS).counter(METRIC).increment(3);
+
+      verifyCounterMetricsValue(published, ImmutableMap.of(0, ImmutableMap.of(METRIC, 6L + Integer.MAX_VALUE)));
+
+      // The handle should stay usable after publishing
+      counter.increment(4);
+      verifyCounterMetricsValue(published, ImmutableMap.of(0, ImmutableMap.of(METRIC, 4L)));
+
+      gauge.set(1);
+      gauge.set(5);
+      verifyGaugeMetricsValue(published, ImmutableMap.of(0, 5L));
+    } finally {
+      service.stopAndWait();
+    }
+  }
+
   private void verifyCounterMetricsValue(BlockingQueue<MetricValues> published,
                                          Map<Integer, Map<String, Long>> expected) throws InterruptedException {
     Map<Integer, Map<String, Long>> received = new HashMap<>();